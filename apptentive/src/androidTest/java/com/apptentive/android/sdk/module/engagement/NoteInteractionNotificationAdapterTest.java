@@ -22,6 +22,7 @@ import org.junit.runner.RunWith;
 import static com.apptentive.android.sdk.util.Constants.NOTIFICATION_CHANNEL_DEFAULT;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 
 @RunWith(AndroidJUnit4.class)
 public class NoteInteractionNotificationAdapterTest extends InstrumentationTestCaseBase {
@@ -29,17 +30,17 @@ public class NoteInteractionNotificationAdapterTest extends InstrumentationTestC
 	@Test
 	public void testNoteNotificationDisplay() throws Exception {
 		final String interactionDefinition = "{\"type\":\"TextModal\",\"name\":\"TextModal Interaction displayed as Notification\",\"id\":\"textmodal_interaction_notification\",\"display_type\":\"notification\",\"priority\":1,\"configuration\":{\"title\":\"Note Title\",\"body\":\"Note body\",\"actions\":[{\"id\":\"action_id_1\",\"label\":\"Dismiss\",\"action\":\"dismiss\"},{\"id\":\"action_id_2\",\"label\":\"Dismiss\",\"action\":\"dismiss\"}]}}";
-		Interaction interaction = new TextModalInteraction(interactionDefinition);
+		final Interaction interaction = new TextModalInteraction(interactionDefinition);
 
 		RuntimeUtils.overrideStaticFinalField(DefaultInteractionNotificationBroadcastReceiverHandler.class, "DEFAULT_ADAPTER_NOTE", new NoteInteractionNotificationAdapter() {
 			@Override
-			protected void actionDisplayNotification(Context context, String channelId, TextModalInteraction interaction) {
+			protected void actionDisplayNotification(Context context, String channelId, TextModalInteraction notificationInteraction) {
 				assertNotNull(context);
 				assertEquals(NOTIFICATION_CHANNEL_DEFAULT, channelId);
-				assertNotNull(interaction);
-				assertEquals(Interaction.Type.TextModal, interaction.getType());
-				assertEquals("Note Title", interaction.getTitle());
-				assertEquals("Note body", interaction.getBody());
+				assertSame(interaction, notificationInteraction); // prepared interaction is reused
+				assertEquals(Interaction.Type.TextModal, notificationInteraction.getType());
+				assertEquals("Note Title", notificationInteraction.getTitle());
+				assertEquals("Note body", notificationInteraction.getBody());
 			}
 		});
 		EngagementModule.launchInteraction(getContext(), interaction);
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.module.engagement.interaction.model;
+
+import com.apptentive.android.sdk.TestCaseBase;
+import com.apptentive.android.sdk.comm.ApptentiveHttpClient;
+import com.apptentive.android.sdk.module.engagement.interaction.model.InteractionManifestResponseHandler.Manifest;
+import com.apptentive.android.sdk.network.HttpRequest;
+import com.apptentive.android.sdk.network.HttpRequestManager;
+import com.apptentive.android.sdk.network.HttpStreamingRequest;
+import com.apptentive.android.sdk.network.MockApptentiveServer;
+import com.apptentive.android.sdk.util.Util;
+import com.apptentive.android.sdk.util.threading.MockDispatchQueue;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class InteractionManifestResponseHandlerTest extends TestCaseBase {
+	private static final String MANIFEST = "{" +
+		                                       "\"interactions\":[" +
+		                                       "{\"id\":\"1\",\"type\":\"TextModal\",\"configuration\":{\"title\":\"Title 1\"}}," +
+		                                       "{\"id\":\"2\",\"type\":\"FutureInteraction\",\"configuration\":{}}," +
+		                                       "{\"id\":\"3\",\"type\":\"TextModal\",\"configuration\":{\"title\":\"Title 3\"}}" +
+		                                       "]," +
+		                                       "\"targets\":{\"local#app#event\":[{\"interaction_id\":\"1\",\"criteria\":{\"interactions/1/invokes/total\":{\"$lt\":1}}}]}," +
+		                                       "\"unknown\":[1,2,3]" +
+		                                       "}";
+
+	@Test
+	public void testParseManifest() throws Exception {
+		File rawManifestFile = File.createTempFile("manifest", ".txt");
+		rawManifestFile.deleteOnExit();
+
+		InteractionManifestResponseHandler handler = new InteractionManifestResponseHandler(rawManifestFile);
+		Manifest manifest = handler.handleResponse(new ByteArrayInputStream(MANIFEST.getBytes("UTF-8")));
+
+		Interactions interactions = manifest.getInteractions();
+		assertNotNull(interactions);
+		assertEquals(2, interactions.length()); // unknown interaction type is skipped
+		assertEquals("Title 1", interactions.getInteraction("1").getConfiguration().optString("title"));
+		assertEquals("Title 3", interactions.getInteraction("3").getConfiguration().optString("title"));
+		assertNull(interactions.getInteraction("2"));
+
+		// stored string is assembled from the raw interactions (parsed objects are not serialized back)
+		assertEquals("{" +
+			             "\"1\":{\"id\":\"1\",\"type\":\"TextModal\",\"configuration\":{\"title\":\"Title 1\"}}," +
+			             "\"3\":{\"id\":\"3\",\"type\":\"TextModal\",\"configuration\":{\"title\":\"Title 3\"}}" +
+			             "}", manifest.getInteractionsJson());
+		Interactions storedInteractions = new Interactions(manifest.getInteractionsJson());
+		assertEquals("Title 3", storedInteractions.getInteraction("3").getConfiguration().optString("title"));
+
+		assertEquals("{\"local#app#event\":[{\"interaction_id\":\"1\",\"criteria\":{\"interactions/1/invokes/total\":{\"$lt\":1}}}]}", manifest.getTargets());
+
+		// raw response is kept for troubleshooting
+		assertEquals(MANIFEST, new String(Util.readBytes(rawManifestFile), "UTF-8"));
+	}
+
+	@Test
+	public void testStreamManifestFromServer() throws Exception {
+		File rawManifestFile = File.createTempFile("manifest", ".txt");
+		rawManifestFile.deleteOnExit();
+
+		MockApptentiveServer server = new MockApptentiveServer();
+		server.setManifest(MANIFEST);
+
+		MockDispatchQueue networkQueue = new MockDispatchQueue(false);
+		HttpRequestManager requestManager = new HttpRequestManager(networkQueue);
+		requestManager.setTransport(server);
+
+		ApptentiveHttpClient client = new ApptentiveHttpClient("key", "signature", MockApptentiveServer.SERVER_URL, requestManager);
+		HttpStreamingRequest<Manifest> request = client.createFetchInteractionsRequest("token", "conversation-1", new InteractionManifestResponseHandler(rawManifestFile), new HttpRequest.Listener<HttpStreamingRequest<Manifest>>() {
+			@Override
+			public void onFinish(HttpStreamingRequest<Manifest> request) {
+				Interactions interactions = request.getResponseResult().getInteractions();
+				addResult("finished: " + interactions.getInteraction("1").getId() + "," + interactions.getInteraction("3").getId());
+			}
+
+			@Override
+			public void onCancel(HttpStreamingRequest<Manifest> request) {
+				addResult("cancelled");
+			}
+
+			@Override
+			public void onFail(HttpStreamingRequest<Manifest> request, String reason) {
+				addResult("failed: " + reason);
+			}
+		});
+		request.start();
+		networkQueue.dispatchTasks();
+
+		// the response stream is drained and closed after the handler is done with it
+		assertResult("finished: 1,3");
+		assertEquals(MANIFEST, new String(Util.readBytes(rawManifestFile), "UTF-8"));
+	}
+
+	@Test
+	public void testMissingTargets() throws Exception {
+		InteractionManifestResponseHandler handler = new InteractionManifestResponseHandler(null);
+		Manifest manifest = handler.handleResponse(new ByteArrayInputStream("{\"interactions\":[]}".getBytes("UTF-8")));
+		assertNotNull(manifest.getInteractions());
+		assertEquals("{}", manifest.getInteractionsJson());
+		assertNull(manifest.getTargets());
+	}
+}
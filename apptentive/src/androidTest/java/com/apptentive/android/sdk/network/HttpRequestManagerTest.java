@@ -1,6 +1,7 @@
 package com.apptentive.android.sdk.network;
 
 import com.apptentive.android.sdk.TestCaseBase;
+import com.apptentive.android.sdk.debug.Metrics;
 import com.apptentive.android.sdk.network.MockHttpURLConnection.DefaultResponseHandler;
 import com.apptentive.android.sdk.util.threading.MockDispatchQueue;
 
@@ -40,6 +41,7 @@ public class HttpRequestManagerTest extends TestCaseBase {
 		startRequest(new MockHttpRequest("3").setMockResponseCode(500));
 		startRequest(new MockHttpRequest("4").setThrowsExceptionOnConnect(true));
 		startRequest(new MockHttpRequest("5").setThrowsExceptionOnDisconnect(true));
+		startRequest(new MockHttpRequest("6").setThrowsExceptionOnConnect(true).setThrowsExceptionOnDisconnect(true));
 		dispatchRequests();
 
 		assertResult(
@@ -47,10 +49,30 @@ public class HttpRequestManagerTest extends TestCaseBase {
 			"finished: 2",
 			"failed: 3 Unexpected response code: 500 (Internal Server Error)",
 			"failed: 4 Connection error",
-			"failed: 5 Disconnection error"
+			"finished: 5", // response was consumed: the connection is kept alive (not disconnected)
+			"failed: 6 Disconnection error" // response was not consumed: the connection is disconnected
 		);
 	}
 
+	@Test
+	public void testDisconnectCancelledRequest() {
+		final MockHttpRequest request = new MockHttpRequest("1");
+		request.setMockResponseHandler(new DefaultResponseHandler() {
+			@Override
+			public int getResponseCode() {
+				request.cancel(); // cancelled while waiting for the response
+				return super.getResponseCode();
+			}
+		}).setThrowsExceptionOnDisconnect(true);
+		long disconnectCount = Metrics.counter(Metrics.HTTP_CONNECTIONS_DISCONNECTED).get();
+		startRequest(request);
+		dispatchRequests();
+
+		// the response was not consumed: the connection is disconnected (the failure does not replace the cancellation)
+		assertResult("cancelled: 1");
+		Assert.assertEquals(disconnectCount + 1, Metrics.counter(Metrics.HTTP_CONNECTIONS_DISCONNECTED).get());
+	}
+
 	@Test
 	public void testRequestData() {
 		final String expected = "Some test data with Unicode chars 文字";
@@ -229,7 +251,7 @@ public class HttpRequestManagerTest extends TestCaseBase {
 			"failed: 2 Unexpected response code: 400 (Bad Request)",
 			"finished: 3",
 			"failed: 4 Connection error",
-			"failed: 5 Disconnection error",
+			"finished: 5", // response was consumed: the connection is kept alive (not disconnected)
 			"retried: 1",
 			"retried: 1",
 			"failed: 1 Unexpected response code: 500 (Internal Server Error)"
@@ -267,7 +289,7 @@ public class HttpRequestManagerTest extends TestCaseBase {
 			"failed: 2 Unexpected response code: 400 (Bad Request)",
 			"finished: 3",
 			"failed: 4 Connection error",
-			"failed: 5 Disconnection error",
+			"finished: 5", // response was consumed: the connection is kept alive (not disconnected)
 			"retried: 1",
 			"retried: 1",
 			"finished: 1"
@@ -308,6 +330,11 @@ public class HttpRequestManagerTest extends TestCaseBase {
 	private class MockHttpRequestManager extends HttpRequestManager {
 		MockHttpRequestManager(MockDispatchQueue networkQueue) {
 			super(networkQueue);
+
+			// retry order expectations rely on all the requests being dispatched at once
+			for (HttpRequestPriority priority : HttpRequestPriority.values()) {
+				setConcurrencyLimit(priority, Integer.MAX_VALUE);
+			}
 		}
 
 		@Override
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.network;
+
+import android.util.JsonReader;
+
+import com.apptentive.android.sdk.TestCaseBase;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class JsonResponseHandlerTest extends TestCaseBase {
+
+	@Test
+	public void testReadJsonString() throws Exception {
+		String json = "{\"items\":[" +
+			              "{\"id\":1,\"name\":\"Name \\\"1\\\" \\u00e9\",\"values\":[1.5,-2,1e3],\"flag\":true,\"nested\":{\"empty\":{},\"list\":[]}}," +
+			              "{\"id\":2,\"name\":null,\"values\":[],\"flag\":false}" +
+			              "],\"skipped\":{\"a\":[1,2,3]}}";
+
+		List<String> items = parse(json);
+		assertEquals(2, items.size());
+		assertEquals("{\"id\":1,\"name\":\"Name \\\"1\\\" é\",\"values\":[1.5,-2,1000.0],\"flag\":true,\"nested\":{\"empty\":{},\"list\":[]}}", items.get(0));
+		assertEquals("{\"id\":2,\"name\":null,\"values\":[],\"flag\":false}", items.get(1));
+	}
+
+	@Test
+	public void testUnexpectedJson() throws Exception {
+		try {
+			parse("[]");
+			fail("Exception expected");
+		} catch (IOException e) {
+			// expected
+		}
+
+		try {
+			parse("{\"items\":[{\"id\":1}");
+			fail("Exception expected");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	private static List<String> parse(String json) throws IOException {
+		JsonResponseHandler<List<String>> handler = new JsonResponseHandler<List<String>>() {
+			@Override
+			protected List<String> parseResponse(JsonReader reader) throws IOException {
+				List<String> items = new ArrayList<>();
+				reader.beginObject();
+				while (reader.hasNext()) {
+					if ("items".equals(reader.nextName())) {
+						reader.beginArray();
+						while (reader.hasNext()) {
+							items.add(readJsonString(reader));
+						}
+						reader.endArray();
+					} else {
+						reader.skipValue();
+					}
+				}
+				reader.endObject();
+				return items;
+			}
+		};
+		return handler.handleResponse(new ByteArrayInputStream(json.getBytes("UTF-8")));
+	}
+}
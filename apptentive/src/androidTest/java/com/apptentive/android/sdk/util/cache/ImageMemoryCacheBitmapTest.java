@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.util.cache;
+
+import android.graphics.Bitmap;
+
+import com.apptentive.android.sdk.TestCaseBase;
+
+import org.junit.Test;
+
+import static com.apptentive.android.sdk.util.cache.ImageMemoryCache.generateMemoryCacheEntryKey;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ImageMemoryCacheBitmapTest extends TestCaseBase {
+
+	@Test
+	public void testBitmapLargerThanCache() {
+		ImageMemoryCache cache = new ImageMemoryCache(1);
+		cache.setEvictionListener(new ImageMemoryCache.EvictionListener() {
+			@Override
+			public void onEntryRemoved(String key, Object value) {
+				addResult("removed: " + key);
+			}
+		});
+
+		Bitmap small = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+		cache.addObjectToCache(generateMemoryCacheEntryKey("file:///small", 10, 10), small);
+
+		// larger than the whole cache: not cached (and never handed to the eviction listener)
+		Bitmap large = Bitmap.createBitmap(600, 600, Bitmap.Config.ARGB_8888);
+		cache.addObjectToCache(generateMemoryCacheEntryKey("file:///large", 600, 600), large);
+		assertNull(cache.getObjectFromCache(generateMemoryCacheEntryKey("file:///large", 600, 600)));
+		assertEquals(0, cache.getKeysForImageUri("file:///large").size());
+
+		// smaller entries are kept
+		assertSame(small, cache.getObjectFromCache(generateMemoryCacheEntryKey("file:///small", 10, 10)));
+		assertResult();
+	}
+}
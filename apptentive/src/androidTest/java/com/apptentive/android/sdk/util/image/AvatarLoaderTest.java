@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.util.image;
+
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.view.ViewGroup;
+
+import com.apptentive.android.sdk.InstrumentationTestCaseBase;
+import com.apptentive.android.sdk.R;
+import com.apptentive.android.sdk.module.messagecenter.view.ApptentiveAvatarView;
+import com.apptentive.android.sdk.util.threading.MockDispatchQueue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class AvatarLoaderTest extends InstrumentationTestCaseBase {
+	private static final String AVATAR_URL = "https://example.com/avatar.png";
+	private static final String OTHER_AVATAR_URL = "https://example.com/other.png";
+
+	private MockDispatchQueue decodeQueue;
+	private MockDispatchQueue callbackQueue;
+	private ImageDecodeQueue imageDecodeQueue;
+	private ApptentiveAttachmentLoader loader;
+
+	@Before
+	public void setUp() throws Exception {
+		super.setUp();
+		decodeQueue = new MockDispatchQueue(false);
+		callbackQueue = new MockDispatchQueue(false);
+		imageDecodeQueue = new ImageDecodeQueue(decodeQueue, callbackQueue, new ImageDecodeQueue.Decoder() {
+			@Override
+			public Bitmap decode(String uri, String cachedFilePath, int width, int height) throws Exception {
+				addResult("decode: " + uri + " " + width + "x" + height);
+				return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+			}
+		}, null);
+		loader = new ApptentiveAttachmentLoader(1, imageDecodeQueue);
+	}
+
+	@Test
+	public void testRequestKeyedByUrlAndViewSize() {
+		ApptentiveAvatarView view = createAvatarView(40, 50);
+		ImageUtil.startDownloadAvatarTask(loader, view, AVATAR_URL);
+		dispatchDecodes();
+		assertResult("decode: " + AVATAR_URL + " 40x50");
+		assertBitmapSize(view, 40, 50);
+
+		// same url and size: served from the memory cache
+		ApptentiveAvatarView sameSizeView = createAvatarView(40, 50);
+		ImageUtil.startDownloadAvatarTask(loader, sameSizeView, AVATAR_URL);
+		dispatchDecodes();
+		assertResult();
+		assertBitmapSize(sameSizeView, 40, 50);
+
+		// same url and a different size: decoded again
+		ApptentiveAvatarView otherSizeView = createAvatarView(20, 20);
+		ImageUtil.startDownloadAvatarTask(loader, otherSizeView, AVATAR_URL);
+		dispatchDecodes();
+		assertResult("decode: " + AVATAR_URL + " 20x20");
+		assertBitmapSize(otherSizeView, 20, 20);
+
+		// no fixed size: the default avatar diameter is used
+		int diameter = getContext().getResources().getDimensionPixelSize(R.dimen.apptentive_message_center_avatar_image_diameter);
+		ApptentiveAvatarView defaultSizeView = new ApptentiveAvatarView(getContext());
+		ImageUtil.startDownloadAvatarTask(loader, defaultSizeView, AVATAR_URL);
+		dispatchDecodes();
+		assertResult("decode: " + AVATAR_URL + " " + diameter + "x" + diameter);
+		assertBitmapSize(defaultSizeView, diameter, diameter);
+	}
+
+	@Test
+	public void testConcurrentRequestsShareDecode() {
+		ApptentiveAvatarView view1 = createAvatarView(40, 40);
+		ApptentiveAvatarView view2 = createAvatarView(40, 40);
+		ImageUtil.startDownloadAvatarTask(loader, view1, AVATAR_URL);
+		ImageUtil.startDownloadAvatarTask(loader, view2, AVATAR_URL);
+		assertEquals(1, imageDecodeQueue.getPendingDecodeCount());
+
+		dispatchDecodes();
+		assertResult("decode: " + AVATAR_URL + " 40x40");
+		assertBitmapSize(view1, 40, 40);
+		assertBitmapSize(view2, 40, 40);
+		assertEquals(0, imageDecodeQueue.getPendingDecodeCount());
+	}
+
+	@Test
+	public void testRebindCancelsPreviousRequest() {
+		ApptentiveAvatarView view = createAvatarView(40, 40);
+		ImageUtil.startDownloadAvatarTask(loader, view, AVATAR_URL);
+		ImageUtil.startDownloadAvatarTask(loader, view, AVATAR_URL); // same url: the pending request is kept
+		assertEquals(1, imageDecodeQueue.getPendingDecodeCount());
+
+		// the view is recycled for another avatar before the first one is decoded
+		ImageUtil.startDownloadAvatarTask(loader, view, OTHER_AVATAR_URL);
+		assertEquals(1, imageDecodeQueue.getPendingDecodeCount());
+
+		dispatchDecodes();
+		assertResult("decode: " + OTHER_AVATAR_URL + " 40x40");
+		assertBitmapSize(view, 40, 40);
+		assertNull(view.getTag(ApptentiveAttachmentLoader.DRAWABLE_DOWNLOAD_TAG));
+	}
+
+	private ApptentiveAvatarView createAvatarView(int width, int height) {
+		ApptentiveAvatarView view = new ApptentiveAvatarView(getContext());
+		view.setLayoutParams(new ViewGroup.LayoutParams(width, height));
+		return view;
+	}
+
+	private void assertBitmapSize(ApptentiveAvatarView view, int width, int height) {
+		Bitmap bitmap = ((BitmapDrawable) view.getDrawable()).getBitmap();
+		assertEquals(width, bitmap.getWidth());
+		assertEquals(height, bitmap.getHeight());
+	}
+
+	private void dispatchDecodes() {
+		decodeQueue.dispatchTasks();
+		callbackQueue.dispatchTasks();
+	}
+}
@@ -22,6 +22,7 @@ import com.apptentive.android.sdk.conversation.Conversation;
 import com.apptentive.android.sdk.conversation.ConversationDispatchTask;
 import com.apptentive.android.sdk.conversation.ConversationProxy;
 import com.apptentive.android.sdk.debug.ErrorMetrics;
+import com.apptentive.android.sdk.debug.StartupTrace;
 import com.apptentive.android.sdk.lifecycle.ApptentiveActivityLifecycleCallbacks;
 import com.apptentive.android.sdk.model.CommerceExtendedData;
 import com.apptentive.android.sdk.model.CompoundMessage;
@@ -47,6 +48,7 @@ import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Map;
 
 import static com.apptentive.android.sdk.ApptentiveHelper.checkConversationQueue;
@@ -316,6 +318,30 @@ public class Apptentive {
 		}, "remove custom device data");
 	}
 
+	/**
+	 * Add, replace or remove multiple pieces of custom data on the Device at once. All the changes
+	 * are applied with a single update which is cheaper than calling
+	 * {@link #addCustomDeviceData(String, String)} for every key. String, Number, Boolean,
+	 * {@link Version} and {@link DateTime} values are added, <code>null</code> values remove the
+	 * corresponding keys. Values of other types are ignored.
+	 *
+	 * @param customData The custom data changes.
+	 */
+	public static void updateCustomDeviceData(final Map<String, ?> customData) {
+		final Map<String, Serializable> changes = toCustomDataChanges(customData);
+		if (changes == null) {
+			return;
+		}
+
+		dispatchConversationTask(new ConversationDispatchTask() {
+			@Override
+			protected boolean execute(Conversation conversation) {
+				conversation.getDevice().getCustomData().update(changes);
+				return true;
+			}
+		}, "update custom device data");
+	}
+
 	/**
 	 * Add a custom data String to the Person. Custom data will be sent to the server, is displayed
 	 * in the Conversation view, and can be used in Interaction targeting.  Calls to this method are
@@ -405,6 +431,57 @@ public class Apptentive {
 		}, "remove custom person data");
 	}
 
+	/**
+	 * Add, replace or remove multiple pieces of custom data on the Person at once. All the changes
+	 * are applied with a single update which is cheaper than calling
+	 * {@link #addCustomPersonData(String, String)} for every key. String, Number, Boolean,
+	 * {@link Version} and {@link DateTime} values are added, <code>null</code> values remove the
+	 * corresponding keys. Values of other types are ignored.
+	 *
+	 * @param customData The custom data changes.
+	 */
+	public static void updateCustomPersonData(final Map<String, ?> customData) {
+		final Map<String, Serializable> changes = toCustomDataChanges(customData);
+		if (changes == null) {
+			return;
+		}
+
+		dispatchConversationTask(new ConversationDispatchTask() {
+			@Override
+			protected boolean execute(Conversation conversation) {
+				conversation.getPerson().getCustomData().update(changes);
+				return true;
+			}
+		}, "update custom person data");
+	}
+
+	/**
+	 * Creates a copy of custom data changes with unsupported values filtered out
+	 */
+	private static @Nullable Map<String, Serializable> toCustomDataChanges(Map<String, ?> customData) {
+		if (customData == null || customData.isEmpty()) {
+			return null;
+		}
+
+		Map<String, Serializable> changes = new HashMap<>();
+		for (Map.Entry<String, ?> entry : customData.entrySet()) {
+			String key = entry.getKey();
+			Object value = entry.getValue();
+			if (key == null) {
+				ApptentiveLog.w(CONVERSATION, "Ignoring custom data with null key");
+			} else if (value == null) {
+				changes.put(key, null);
+			} else if (value instanceof String) {
+				changes.put(key, trim((String) value));
+			} else if (value instanceof Number || value instanceof Boolean || value instanceof Version || value instanceof DateTime) {
+				changes.put(key, (Serializable) value);
+			} else {
+				ApptentiveLog.w(CONVERSATION, "Ignoring custom data '%s' of unsupported type: %s", key, value.getClass().getSimpleName());
+			}
+		}
+		return changes;
+	}
+
 	//endregion
 
 	//region Third Party Integrations
@@ -1684,6 +1761,21 @@ public class Apptentive {
 
 	//endregion
 
+	//region Diagnostics
+
+	/**
+	 * Returns timings of the SDK initialization phases. Some of the phases are executed on
+	 * background threads and might still be running when this method is called.
+	 *
+	 * @return the startup trace or <code>null</code> if the SDK is not registered
+	 */
+	public static @Nullable StartupTrace getStartupTrace() {
+		ApptentiveInternal instance = ObjectUtils.as(ApptentiveInternal.getInstance(), ApptentiveInternal.class);
+		return instance != null ? instance.getStartupTrace() : null;
+	}
+
+	//endregion
+
 	//region Error Reporting
 
 	private static void logException(Exception e) {
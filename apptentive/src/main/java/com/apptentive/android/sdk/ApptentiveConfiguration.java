@@ -12,6 +12,11 @@ import androidx.annotation.Nullable;
 import com.apptentive.android.sdk.module.engagement.interaction.model.TermsAndConditions;
 import com.apptentive.android.sdk.util.StringUtils;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
 public class ApptentiveConfiguration {
 	private final String apptentiveKey;
 	private final String apptentiveSignature;
@@ -23,6 +28,10 @@ public class ApptentiveConfiguration {
 	private Encryption encryption;
 	private boolean shouldCollectAndroidIdOnPreOreoTargets;
 	private TermsAndConditions surveyTermsAndConditions;
+	private Set<String> aggregatedEvents;
+	private long eventAggregationWindowMillis;
+
+	private static final long DEFAULT_EVENT_AGGREGATION_WINDOW_MILLIS = 60000;
 
 	public ApptentiveConfiguration(@NonNull String apptentiveKey, @NonNull String apptentiveSignature) {
 		if (StringUtils.isNullOrEmpty(apptentiveKey)) {
@@ -41,6 +50,8 @@ public class ApptentiveConfiguration {
 		this.troubleshootingModeEnabled = true;
 		this.shouldCollectAndroidIdOnPreOreoTargets = true;
 		this.surveyTermsAndConditions = null;
+		this.aggregatedEvents = Collections.emptySet();
+		this.eventAggregationWindowMillis = DEFAULT_EVENT_AGGREGATION_WINDOW_MILLIS;
 	}
 
 	public String getApptentiveKey() {
@@ -150,4 +161,34 @@ public class ApptentiveConfiguration {
 	public void setSurveyTermsAndConditions(TermsAndConditions surveyTermsAndConditions) {
 		this.surveyTermsAndConditions = surveyTermsAndConditions;
 	}
+
+	/**
+	 * Enables client-side aggregation for high-frequency events (names as passed to
+	 * <code>Apptentive.engage()</code>). Instead of sending a separate payload for every engagement
+	 * the events are counted and sent as a single payload per aggregation window. Interaction
+	 * targeting is not affected. Only events without custom or extended data are aggregated.
+	 */
+	public ApptentiveConfiguration setAggregatedEvents(String... eventNames) {
+		this.aggregatedEvents = eventNames != null ? new HashSet<>(Arrays.asList(eventNames)) : Collections.<String>emptySet();
+		return this;
+	}
+
+	public Set<String> getAggregatedEvents() {
+		return Collections.unmodifiableSet(aggregatedEvents);
+	}
+
+	/**
+	 * Overrides the time window for aggregated events (60 seconds by default).
+	 */
+	public ApptentiveConfiguration setEventAggregationWindowMillis(long eventAggregationWindowMillis) {
+		if (eventAggregationWindowMillis <= 0) {
+			throw new IllegalArgumentException("Invalid event aggregation window: " + eventAggregationWindowMillis);
+		}
+		this.eventAggregationWindowMillis = eventAggregationWindowMillis;
+		return this;
+	}
+
+	public long getEventAggregationWindowMillis() {
+		return eventAggregationWindowMillis;
+	}
 }
@@ -18,6 +18,7 @@ import com.apptentive.android.sdk.Apptentive.LoginCallback;
 import com.apptentive.android.sdk.comm.ApptentiveHttpClient;
 import com.apptentive.android.sdk.conversation.Conversation;
 import com.apptentive.android.sdk.conversation.ConversationProxy;
+import com.apptentive.android.sdk.module.engagement.EventAggregator;
 import com.apptentive.android.sdk.module.engagement.interaction.InteractionManager;
 import com.apptentive.android.sdk.module.engagement.interaction.model.TermsAndConditions;
 import com.apptentive.android.sdk.module.rating.IRatingProvider;
@@ -55,6 +56,7 @@ public interface ApptentiveInstance extends Nullsafe {
 	@Nullable AppRelease getAppRelease();
 	@Nullable ApptentiveTaskManager getApptentiveTaskManager();
 	@Nullable ApptentiveHttpClient getApptentiveHttpClient();
+	@Nullable EventAggregator getEventAggregator();
 	@Nullable SharedPreferences getGlobalSharedPrefs();
 
 	@Nullable Map<String, Object> getAndClearCustomData();
@@ -33,12 +33,16 @@ import com.apptentive.android.sdk.conversation.ConversationManager;
 import com.apptentive.android.sdk.conversation.ConversationProxy;
 import com.apptentive.android.sdk.debug.ErrorMetrics;
 import com.apptentive.android.sdk.debug.LogMonitor;
+import com.apptentive.android.sdk.debug.StartupTrace;
+import com.apptentive.android.sdk.encryption.DeferredEncryption;
 import com.apptentive.android.sdk.encryption.SecurityManager;
 import com.apptentive.android.sdk.lifecycle.ApptentiveActivityLifecycleCallbacks;
 import com.apptentive.android.sdk.model.Configuration;
 import com.apptentive.android.sdk.model.EventPayload;
 import com.apptentive.android.sdk.model.LogoutPayload;
 import com.apptentive.android.sdk.module.engagement.EngagementModule;
+import com.apptentive.android.sdk.module.engagement.EventAggregator;
+import com.apptentive.android.sdk.module.engagement.InteractionPrewarmer;
 import com.apptentive.android.sdk.module.engagement.interaction.InteractionManager;
 import com.apptentive.android.sdk.module.engagement.interaction.model.MessageCenterInteraction;
 import com.apptentive.android.sdk.module.engagement.interaction.model.TermsAndConditions;
@@ -46,6 +50,8 @@ import com.apptentive.android.sdk.module.messagecenter.MessageManager;
 import com.apptentive.android.sdk.module.rating.IRatingProvider;
 import com.apptentive.android.sdk.module.rating.impl.GooglePlayRatingProvider;
 import com.apptentive.android.sdk.module.survey.OnSurveyFinishedListener;
+import com.apptentive.android.sdk.network.ConnectivityReceiver;
+import com.apptentive.android.sdk.network.HttpRequestManager;
 import com.apptentive.android.sdk.notifications.ApptentiveNotification;
 import com.apptentive.android.sdk.notifications.ApptentiveNotificationCenter;
 import com.apptentive.android.sdk.notifications.ApptentiveNotificationObserver;
@@ -60,7 +66,6 @@ import com.apptentive.android.sdk.util.threading.DispatchTask;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.io.File;
 import java.lang.ref.WeakReference;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -84,6 +89,12 @@ public class ApptentiveInternal implements ApptentiveInstance, ApptentiveNotific
 	private final ApptentiveHttpClient apptentiveHttpClient;
 	private final ConversationManager conversationManager;
 
+	// Timings of the SDK initialization phases
+	private final StartupTrace startupTrace;
+
+	// Counts high-frequency events instead of sending a payload for each engagement
+	private final EventAggregator eventAggregator;
+
 	// These variables are initialized in Apptentive.register(), and so they are freely thereafter. If they are unexpectedly null, then if means the host app did not register Apptentive.
 	private final Context appContext;
 
@@ -94,18 +105,21 @@ public class ApptentiveInternal implements ApptentiveInstance, ApptentiveNotific
 	private final String apptentiveKey;
 	private final String apptentiveSignature;
 	private String serverUrl;
-	private String appPackageName;
+	private volatile String appPackageName;
 
 	private TermsAndConditions surveyTermsAndConditions;
 
 	// toolbar theme specified in R.attr.apptentiveToolbarTheme
-	private Resources.Theme apptentiveToolbarTheme;
+	private final Resources.Theme apptentiveToolbarTheme;
+
+	// app default appcompat theme res id, if specified in app AndroidManifest (-1 if not resolved yet)
+	private volatile int appDefaultAppCompatThemeId = -1;
 
-	// app default appcompat theme res id, if specified in app AndroidManifest
-	private int appDefaultAppCompatThemeId;
+	// optional 'ApptentiveThemeOverride' style res id from the host app (-1 if not resolved yet)
+	private volatile int themeOverrideResId = -1;
 
 	private int statusBarColorDefault;
-	private String defaultAppDisplayName = "this app";
+	private volatile String defaultAppDisplayName = "this app";
 	// booleans to prevent starting multiple fetching asyncTasks simultaneously
 
 	private IRatingProvider ratingProvider;
@@ -151,11 +165,14 @@ public class ApptentiveInternal implements ApptentiveInstance, ApptentiveNotific
 		apptentiveSignature = null;
 		apptentiveHttpClient = null;
 		conversationManager = null;
+		startupTrace = null;
+		eventAggregator = null;
+		apptentiveToolbarTheme = null;
 		this.appContext = appContext;
 		appRelease = null;
 	}
 
-	private ApptentiveInternal(Application application, ApptentiveConfiguration configuration, @NonNull String androidID) {
+	private ApptentiveInternal(Application application, ApptentiveConfiguration configuration, @NonNull String androidID, @NonNull final StartupTrace startupTrace) {
 		if (configuration == null) {
 			throw new IllegalArgumentException("Configuration is null");
 		}
@@ -168,11 +185,27 @@ public class ApptentiveInternal implements ApptentiveInstance, ApptentiveNotific
 		this.apptentiveSignature = apptentiveSignature;
 		this.serverUrl = serverUrl;
 		this.surveyTermsAndConditions = configuration.getSurveyTermsAndConditions();
-
-		boolean shouldEncryptStorage = configuration.shouldEncryptStorage();
-		Encryption encryption = SecurityManager.getEncryption(application.getApplicationContext(), configuration.getEncryption(), shouldEncryptStorage);
+		this.startupTrace = startupTrace;
+		this.eventAggregator = new EventAggregator(conversationQueue(), configuration.getAggregatedEvents(), configuration.getEventAggregationWindowMillis());
 
 		appContext = application.getApplicationContext();
+		apptentiveToolbarTheme = appContext.getResources().newTheme();
+
+		// resolving the master key might take a while (KeyStore operations): do it in parallel with
+		// the rest of the initialization. Storage would wait for the key on its first use.
+		final Encryption customEncryption = configuration.getEncryption();
+		final boolean shouldEncryptStorage = configuration.shouldEncryptStorage();
+		Encryption encryption = DeferredEncryption.resolveAsync(DispatchQueue.backgroundQueue(), new DeferredEncryption.Resolver() {
+			@Override
+			public @NonNull Encryption resolve() {
+				StartupTrace.Phase phase = startupTrace.beginPhase(StartupTrace.PHASE_RESOLVE_ENCRYPTION);
+				try {
+					return SecurityManager.getEncryption(appContext, customEncryption, shouldEncryptStorage);
+				} finally {
+					phase.end();
+				}
+			}
+		});
 
 		globalSharedPrefs = application.getSharedPreferences(Constants.PREF_NAME, Context.MODE_PRIVATE);
 		apptentiveHttpClient = new ApptentiveHttpClient(apptentiveKey, apptentiveSignature, getEndpointBase(globalSharedPrefs));
@@ -180,14 +213,16 @@ public class ApptentiveInternal implements ApptentiveInstance, ApptentiveNotific
 		DeviceManager deviceManager = new DeviceManager(androidID);
 		conversationManager = new ConversationManager(appContext, Util.getInternalDir(appContext, CONVERSATIONS_DIR, true), encryption, deviceManager);
 
+		StartupTrace.Phase appReleasePhase = startupTrace.beginPhase(StartupTrace.PHASE_APP_RELEASE);
 		appRelease = AppReleaseManager.generateCurrentAppRelease(application, this);
+		appReleasePhase.end();
+
 		taskManager = new ApptentiveTaskManager(appContext, apptentiveHttpClient, encryption);
 
 		ApptentiveNotificationCenter.defaultCenter()
 			.addObserver(NOTIFICATION_CONVERSATION_STATE_DID_CHANGE, this)
 			.addObserver(NOTIFICATION_CONVERSATION_WILL_LOGOUT, this)
 			.addObserver(NOTIFICATION_AUTHENTICATION_FAILED, this)
-			.addObserver(NOTIFICATION_INTERACTION_MANIFEST_FETCHED, this)
 			.addObserver(NOTIFICATION_APP_ENTERED_FOREGROUND, this)
 			.addObserver(NOTIFICATION_APP_ENTERED_BACKGROUND, this)
 			.addObserver(NOTIFICATION_CONFIGURATION_FETCH_DID_FINISH, this);
@@ -217,6 +252,9 @@ public class ApptentiveInternal implements ApptentiveInstance, ApptentiveNotific
 		final String apptentiveKey = configuration.getApptentiveKey();
 		final String apptentiveSignature = configuration.getApptentiveSignature();
 
+		final StartupTrace startupTrace = new StartupTrace();
+		StartupTrace.Phase loggingPhase = startupTrace.beginPhase(StartupTrace.PHASE_CONFIGURE_LOGGING);
+
 		// set log message sanitizing
 		ApptentiveLog.setShouldSanitizeLogMessages(configuration.shouldSanitizeLogMessages());
 
@@ -233,15 +271,22 @@ public class ApptentiveInternal implements ApptentiveInstance, ApptentiveNotific
 		} else {
 			ApptentiveLog.i(TROUBLESHOOT, "Troubleshooting is disabled in the app configuration");
 		}
+		loggingPhase.end();
 
 		synchronized (ApptentiveInternal.class) {
 			if (sApptentiveInternal == null) {
 				ApptentiveLog.i("Registering Apptentive Android SDK %s", Constants.getApptentiveSdkVersion());
 				ApptentiveLog.v("ApptentiveKey=%s ApptentiveSignature=%s", apptentiveKey, apptentiveSignature);
 				// resolve Android ID
+				StartupTrace.Phase androidIdPhase = startupTrace.beginPhase(StartupTrace.PHASE_RESOLVE_ANDROID_ID);
 				boolean shouldGenerateRandomAndroidID = Build.VERSION.SDK_INT < Build.VERSION_CODES.O && !configuration.shouldCollectAndroidIdOnPreOreoTargets();
 				String androidID = resolveAndroidID(application.getApplicationContext(), shouldGenerateRandomAndroidID);
-				sApptentiveInternal = new ApptentiveInternal(application, configuration, androidID);
+				androidIdPhase.end();
+
+				StartupTrace.Phase createPhase = startupTrace.beginPhase(StartupTrace.PHASE_CREATE_INSTANCE);
+				sApptentiveInternal = new ApptentiveInternal(application, configuration, androidID, startupTrace);
+				createPhase.end();
+
 				dispatchOnConversationQueue(new DispatchTask() {
 					@Override
 					protected void execute() {
@@ -283,6 +328,18 @@ public class ApptentiveInternal implements ApptentiveInstance, ApptentiveNotific
 		sApptentiveInternal = instance;
 	}
 
+	/**
+	 * Returns timings of the SDK initialization phases (some phases might still be running)
+	 */
+	public @Nullable StartupTrace getStartupTrace() {
+		return startupTrace;
+	}
+
+	@Override
+	public @Nullable EventAggregator getEventAggregator() {
+		return eventAggregator;
+	}
+
 	/*
 	 * Set default theme whom Apptentive UI will inherit theme attributes from. Apptentive will only
 	 * inherit from an AppCompat theme
@@ -318,12 +375,28 @@ public class ApptentiveInternal implements ApptentiveInstance, ApptentiveNotific
 	}
 
 	/**
-	 * Must be called after {@link ApptentiveInternal#setApplicationDefaultTheme(int)}
+	 * Resolves the app default theme on the first call (if the background queue has not done it yet)
 	 *
 	 * @return true it the app is using an AppCompat theme
 	 */
 	public boolean isAppUsingAppCompatTheme() {
-		return appDefaultAppCompatThemeId != 0;
+		return resolveAppDefaultAppCompatThemeId() != 0;
+	}
+
+	/**
+	 * Returns the app default theme res id if it's an AppCompat theme or 0 otherwise. The result is
+	 * cached: only the first call reads the theme from the application info.
+	 */
+	private int resolveAppDefaultAppCompatThemeId() {
+		int themeId = appDefaultAppCompatThemeId;
+		if (themeId == -1) {
+			ApplicationInfo applicationInfo = appContext != null ? appContext.getApplicationInfo() : null;
+			if (applicationInfo == null || !setApplicationDefaultTheme(applicationInfo.theme)) {
+				appDefaultAppCompatThemeId = 0;
+			}
+			themeId = appDefaultAppCompatThemeId;
+		}
+		return themeId;
 	}
 
 	// Object getter methods reqiure an instance. Get an instance with ApptentiveInternal.getInstance()
@@ -453,6 +526,13 @@ public class ApptentiveInternal implements ApptentiveInstance, ApptentiveNotific
 		onAppExit(getApplicationContext());
 	}
 
+	private void flushAggregatedEvents() {
+		checkConversationQueue();
+		if (eventAggregator != null) {
+			eventAggregator.flush();
+		}
+	}
+
 	/* Apply Apptentive styling layers to the theme to be used by interaction. The layers include
 	 * Apptentive defaults, and app/activity theme inheritance and app specific overrides.
 	 *
@@ -475,6 +555,7 @@ public class ApptentiveInternal implements ApptentiveInstance, ApptentiveNotific
 		}
 
 		// Step 2: Inherit app default appcompat theme if there is one specified in app's AndroidManifest
+		int appDefaultAppCompatThemeId = resolveAppDefaultAppCompatThemeId();
 		if (appDefaultAppCompatThemeId != 0) {
 			interactionTheme.applyStyle(appDefaultAppCompatThemeId, true);
 		}
@@ -484,8 +565,7 @@ public class ApptentiveInternal implements ApptentiveInstance, ApptentiveNotific
 		interactionTheme.applyStyle(R.style.ApptentiveBaseFrameTheme, true);
 
 		// Step 4: Apply optional theme override specified in host app's style
-		int themeOverrideResId = context.getResources().getIdentifier("ApptentiveThemeOverride",
-			"style", getApplicationContext().getPackageName());
+		int themeOverrideResId = resolveThemeOverrideResId();
 		if (themeOverrideResId != 0) {
 			interactionTheme.applyStyle(themeOverrideResId, true);
 		}
@@ -510,33 +590,69 @@ public class ApptentiveInternal implements ApptentiveInstance, ApptentiveNotific
 		apptentiveToolbarTheme.applyStyle(toolbarThemeId, true);
 	}
 
-	private boolean start() {
+	private int resolveThemeOverrideResId() {
+		int resId = themeOverrideResId;
+		if (resId == -1) {
+			resId = appContext.getResources().getIdentifier("ApptentiveThemeOverride", "style", appContext.getPackageName());
+			themeOverrideResId = resId;
+		}
+		return resId;
+	}
+
+	private void start() {
 		checkConversationQueue();
 
-		boolean bRet = true;
-		/* If Message Center feature has never been used before, don't initialize message polling thread.
-		 * Message Center feature will be seen as used, if one of the following conditions has been met:
-		 * 1. Message Center has been opened for the first time
-		 * 2. The first Push is received which would open Message Center
-		 * 3. An unreadMessageCountListener() is set up
-		 */
+		// hold network requests while offline instead of letting them fail
+		ConnectivityReceiver.register(appContext, HttpRequestManager.sharedManager());
+
+		// package info is not needed for loading the conversation: read it in parallel
+		DispatchQueue.backgroundQueue().dispatchAsync(new DispatchTask() {
+			@Override
+			protected void execute() {
+				StartupTrace.Phase phase = startupTrace.beginPhase(StartupTrace.PHASE_PACKAGE_INFO);
+				try {
+					readPackageInfo();
+					// theme lookups are slow: resolve them here so the interaction launch finds them cached
+					resolveAppDefaultAppCompatThemeId();
+					resolveThemeOverrideResId();
+				} finally {
+					phase.end();
+				}
+			}
+		});
 
+		StartupTrace.Phase conversationPhase = startupTrace.beginPhase(StartupTrace.PHASE_LOAD_CONVERSATION);
 		boolean conversationLoaded = conversationManager.loadActiveConversation(getApplicationContext());
+		conversationPhase.end();
 		if (!conversationLoaded) {
 			ApptentiveLog.w(CONVERSATION, "There is no active conversation. The SDK will be disabled until a conversation becomes active.");
 		}
 
-		apptentiveToolbarTheme = appContext.getResources().newTheme();
+		// Apptimize support is not required for the SDK to become operational: initialize it with a separate task
+		dispatchOnConversationQueue(new DispatchTask() {
+			@Override
+			protected void execute() {
+				StartupTrace.Phase phase = startupTrace.beginPhase(StartupTrace.PHASE_APPTIMIZE);
+				try {
+					tryInitializeApptimizeSDK();
+				} catch (Exception e) {
+					ApptentiveLog.e(PARTNERS, e, "Unable to initialize Apptimize SDK support");
+					logException(e);
+				} finally {
+					phase.end();
+				}
+				ApptentiveLog.v("%s", startupTrace);
+			}
+		});
+
+		ApptentiveLog.v("Application Info:\n\tApptentive Key: %s\n\tApptentive Key: %s\n\tDebuggable APK: %b\n\tDefault locale: %s", apptentiveKey, apptentiveSignature, appRelease.isDebug(), Locale.getDefault());
+	}
 
+	private void readPackageInfo() {
 		try {
 			appPackageName = appContext.getPackageName();
 			PackageManager packageManager = appContext.getPackageManager();
 			PackageInfo packageInfo = packageManager.getPackageInfo(appPackageName, PackageManager.GET_META_DATA | PackageManager.GET_RECEIVERS);
-			ApplicationInfo ai = packageInfo.applicationInfo;
-
-			// Used for application theme inheritance if the theme is an AppCompat theme.
-			setApplicationDefaultTheme(ai.theme);
-
 			defaultAppDisplayName = packageManager.getApplicationLabel(packageManager.getApplicationInfo(packageInfo.packageName, 0)).toString();
 
 			// Prevent delayed run-time exception if the app upgrades from pre-2.0 and doesn't remove NetworkStateReceiver from manifest
@@ -549,18 +665,10 @@ public class ApptentiveInternal implements ApptentiveInstance, ApptentiveNotific
 					}
 				}
 			}
-
-			// Try initialize Apptimize SDK support
-			tryInitializeApptimizeSDK();
-
 		} catch (Exception e) {
 			ApptentiveLog.e(e, "Unexpected error while reading application or package info.");
 			logException(e);
-			bRet = false;
 		}
-
-		ApptentiveLog.v("Application Info:\n\tApptentive Key: %s\n\tApptentive Key: %s\n\tDebuggable APK: %b\n\tDefault locale: %s", apptentiveKey, apptentiveSignature, appRelease.isDebug(), Locale.getDefault());
-		return bRet;
 	}
 
 	private void checkSendVersionChanges(Conversation conversation) {
@@ -1102,19 +1210,21 @@ public class ApptentiveInternal implements ApptentiveInstance, ApptentiveNotific
 
 				checkSendVersionChanges(conversation);
 				updateConversationAdvertiserIdentifier(conversation);
+				InteractionPrewarmer.schedulePrewarm();
+			} else {
+				InteractionPrewarmer.clear();
 			}
 		} else if (notification.hasName(NOTIFICATION_CONVERSATION_WILL_LOGOUT)) {
 			Conversation conversation = notification.getRequiredUserInfo(NOTIFICATION_KEY_CONVERSATION, Conversation.class);
+			flushAggregatedEvents(); // aggregated events should be sent before the logout payload
 			conversation.addPayload(new LogoutPayload());
 		} else if (notification.hasName(NOTIFICATION_AUTHENTICATION_FAILED)) {
 			String conversationIdOfFailedRequest = notification.getUserInfo(NOTIFICATION_KEY_CONVERSATION_ID, String.class);
 			Apptentive.AuthenticationFailedReason authenticationFailedReason = notification.getUserInfo(NOTIFICATION_KEY_AUTHENTICATION_FAILED_REASON, Apptentive.AuthenticationFailedReason.class);
 			notifyAuthenticationFailedListener(authenticationFailedReason, conversationIdOfFailedRequest);
-		} else if (notification.hasName(NOTIFICATION_INTERACTION_MANIFEST_FETCHED)) {
-			String manifest = notification.getRequiredUserInfo(NOTIFICATION_KEY_MANIFEST, String.class);
-			storeManifestResponse(appContext, manifest);
 		} else if (notification.hasName(NOTIFICATION_APP_ENTERED_FOREGROUND)) {
 			onAppEnterForeground();
+			InteractionPrewarmer.schedulePrewarm(); // eligibility might have changed while in background
 
 			if (Configuration.load().isCollectingAdID()) {
 				// update advertiser id every time we come back from the background
@@ -1127,6 +1237,7 @@ public class ApptentiveInternal implements ApptentiveInstance, ApptentiveNotific
 				}
 			}
 		} else if (notification.hasName(NOTIFICATION_APP_ENTERED_BACKGROUND)) {
+			flushAggregatedEvents();
 			onAppEnterBackground();
 		} else if (notification.hasName(NOTIFICATION_CONFIGURATION_FETCH_DID_FINISH)) {
 			Configuration configuration = notification.getUserInfo(NOTIFICATION_KEY_CONFIGURATION, Configuration.class);
@@ -1161,20 +1272,6 @@ public class ApptentiveInternal implements ApptentiveInstance, ApptentiveNotific
 
 	//endregion
 
-	//region Engagement Manifest Data
-
-	private void storeManifestResponse(Context context, String manifest) {
-		try {
-			File file = new File(ApptentiveLog.getLogsDirectory(context), Constants.FILE_APPTENTIVE_ENGAGEMENT_MANIFEST);
-			Util.writeText(file, manifest);
-		} catch (Exception e) {
-			ApptentiveLog.e(CONVERSATION, e, "Exception while trying to save engagement manifest data");
-			logException(e);
-		}
-	}
-
-	//endregion
-
 	//region Advertiser Identifier
 
 	private void updateConversationAdvertiserIdentifier(Conversation conversation) {
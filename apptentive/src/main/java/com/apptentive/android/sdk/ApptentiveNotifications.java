@@ -103,11 +103,6 @@ public class ApptentiveNotifications {
 	 */
 	public static final String NOTIFICATION_INTERACTIONS_DID_FETCH = "INTERACTIONS_DID_FETCH"; // { successful: Boolean }
 
-	/**
-	 * Sent when interaction manifest data is fetched for any conversation. Used by the log monitor.
-	 */
-	public static final String NOTIFICATION_INTERACTION_MANIFEST_FETCHED = "INTERACTION_MANIFEST_FETCHED"; // { manifest: String }
-
 	/**
 	 * Sent when message store changes.
 	 */
@@ -144,7 +139,6 @@ public class ApptentiveNotifications {
 	public static final String NOTIFICATION_KEY_CONFIGURATION = "configuration";
 	public static final String NOTIFICATION_KEY_RESPONSE_CODE = "responseCode";
 	public static final String NOTIFICATION_KEY_RESPONSE_DATA = "responseData";
-	public static final String NOTIFICATION_KEY_MANIFEST = "manifest";
 	public static final String NOTIFICATION_KEY_MESSAGE_STORE = "messageStore";
 	public static final String NOTIFICATION_KEY_INTERVAL = "interval";
 	public static final String NOTIFICATION_KEY_ADVERTISER_CLIENT_INFO = "clientInfo";
@@ -17,6 +17,7 @@ import com.apptentive.android.sdk.comm.ApptentiveHttpClient;
 import com.apptentive.android.sdk.conversation.Conversation;
 import com.apptentive.android.sdk.conversation.ConversationProxy;
 import com.apptentive.android.sdk.debug.Assert;
+import com.apptentive.android.sdk.module.engagement.EventAggregator;
 import com.apptentive.android.sdk.module.engagement.interaction.InteractionManager;
 import com.apptentive.android.sdk.module.engagement.interaction.model.TermsAndConditions;
 import com.apptentive.android.sdk.module.rating.IRatingProvider;
@@ -134,6 +135,13 @@ class ApptentiveNullInstance implements ApptentiveInstance {
 		return null;
 	}
 
+	@Nullable
+	@Override
+	public EventAggregator getEventAggregator() {
+		failMethodCall("getEventAggregator");
+		return null;
+	}
+
 	@Nullable
 	@Override
 	public ApptentiveHttpClient getApptentiveHttpClient() {
@@ -12,7 +12,10 @@ import com.apptentive.android.sdk.network.HttpJsonRequest;
 import com.apptentive.android.sdk.network.HttpRequest;
 import com.apptentive.android.sdk.network.HttpRequestManager;
 import com.apptentive.android.sdk.network.HttpRequestMethod;
+import com.apptentive.android.sdk.network.HttpRequestPriority;
+import com.apptentive.android.sdk.network.HttpStreamingRequest;
 import com.apptentive.android.sdk.network.RawHttpRequest;
+import com.apptentive.android.sdk.network.StreamingResponseHandler;
 import com.apptentive.android.sdk.storage.AppRelease;
 import com.apptentive.android.sdk.storage.AppReleaseManager;
 import com.apptentive.android.sdk.storage.Device;
@@ -38,6 +41,11 @@ public class ApptentiveHttpClient implements PayloadRequestSender {
 	private static final int DEFAULT_HTTP_CONNECT_TIMEOUT = 45000;
 	private static final int DEFAULT_HTTP_SOCKET_TIMEOUT = 45000;
 
+	/**
+	 * Message payloads larger than this (attachments) are sent as bulk requests
+	 */
+	private static final int BULK_PAYLOAD_SIZE = 128 * 1024;
+
 	// Active API
 	private static final String ENDPOINT_CONVERSATION = "/conversation";
 	private static final String ENDPOINT_CONFIGURATION = "/conversations/%s/configuration";
@@ -51,8 +59,13 @@ public class ApptentiveHttpClient implements PayloadRequestSender {
 	private final String apptentiveSignature;
 	private final String serverURL;
 	private final String userAgentString;
+	private final HttpRequestManager requestManager;
 
 	public ApptentiveHttpClient(String apptentiveKey, String apptentiveSignature, String serverURL) {
+		this(apptentiveKey, apptentiveSignature, serverURL, HttpRequestManager.sharedManager());
+	}
+
+	public ApptentiveHttpClient(String apptentiveKey, String apptentiveSignature, String serverURL, HttpRequestManager requestManager) {
 		if (StringUtils.isNullOrEmpty(apptentiveKey)) {
 			throw new IllegalArgumentException("Illegal Apptentive Key: '" + apptentiveKey + "'");
 		}
@@ -65,9 +78,14 @@ public class ApptentiveHttpClient implements PayloadRequestSender {
 			throw new IllegalArgumentException("Illegal server URL: '" + serverURL + "'");
 		}
 
+		if (requestManager == null) {
+			throw new IllegalArgumentException("Request manager is null");
+		}
+
 		this.apptentiveKey = apptentiveKey;
 		this.apptentiveSignature = apptentiveSignature;
 		this.serverURL = serverURL;
+		this.requestManager = requestManager;
 		this.userAgentString = String.format(USER_AGENT_STRING, Constants.getApptentiveSdkVersion());
 	}
 
@@ -75,6 +93,7 @@ public class ApptentiveHttpClient implements PayloadRequestSender {
 
 	public HttpJsonRequest createConversationTokenRequest(ConversationTokenRequest conversationTokenRequest, HttpRequest.Listener<HttpJsonRequest> listener) {
 		HttpJsonRequest request = createJsonRequest(ENDPOINT_CONVERSATION, conversationTokenRequest, HttpRequestMethod.POST);
+		request.setPriority(HttpRequestPriority.INTERACTIVE);
 		request.addListener(listener);
 		return request;
 	}
@@ -86,11 +105,12 @@ public class ApptentiveHttpClient implements PayloadRequestSender {
 
 		HttpJsonRequest request = createJsonRequest(ENDPOINT_LEGACY_CONVERSATION, new JSONObject(), HttpRequestMethod.GET);
 		request.setRequestProperty("Authorization", "OAuth " + conversationToken);
+		request.setPriority(HttpRequestPriority.INTERACTIVE);
 		request.addListener(listener);
 		return request;
 	}
 
-	public HttpJsonRequest createFetchInteractionsRequest(String conversationToken, String conversationId, HttpRequest.Listener<HttpJsonRequest> listener) {
+	public <T> HttpStreamingRequest<T> createFetchInteractionsRequest(String conversationToken, String conversationId, StreamingResponseHandler<T> responseHandler, HttpRequest.Listener<HttpStreamingRequest<T>> listener) {
 		if (StringUtils.isNullOrEmpty(conversationToken)) {
 			throw new IllegalArgumentException("Conversation token is null or empty");
 		}
@@ -100,13 +120,14 @@ public class ApptentiveHttpClient implements PayloadRequestSender {
 		}
 
 		final String endPoint = StringUtils.format(ENDPOINT_INTERACTIONS, conversationId);
-		HttpJsonRequest request = createJsonRequest(endPoint, new JSONObject(), HttpRequestMethod.GET);
+		HttpStreamingRequest<T> request = createStreamingRequest(endPoint, responseHandler);
 		request.setRequestProperty("Authorization", "Bearer " + conversationToken);
+		request.setCoalescable(true);
 		request.addListener(listener);
 		return request;
 	}
 
-	public HttpJsonRequest createFetchMessagesRequest(String conversationToken, String conversationId, String afterId, String beforeId, Integer count, HttpRequest.Listener<HttpJsonRequest> listener) {
+	public <T> HttpStreamingRequest<T> createFetchMessagesRequest(String conversationToken, String conversationId, String afterId, String beforeId, Integer count, StreamingResponseHandler<T> responseHandler, HttpRequest.Listener<HttpStreamingRequest<T>> listener) {
 		if (StringUtils.isNullOrEmpty(conversationToken)) {
 			throw new IllegalArgumentException("Conversation token is null or empty");
 		}
@@ -116,8 +137,10 @@ public class ApptentiveHttpClient implements PayloadRequestSender {
 		}
 
 		final String endPoint = String.format(ENDPOINT_MESSAGES, conversationId, count == null ? "" : count.toString(), afterId == null ? "" : afterId, beforeId == null ? "" : beforeId);
-		HttpJsonRequest request = createJsonRequest(endPoint, new JSONObject(), HttpRequestMethod.GET);
+		HttpStreamingRequest<T> request = createStreamingRequest(endPoint, responseHandler);
 		request.setRequestProperty("Authorization", "Bearer " + conversationToken);
+		request.setCoalescable(true);
+		request.setPriority(HttpRequestPriority.MESSAGING);
 		request.addListener(listener);
 		return request;
 	}
@@ -141,6 +164,7 @@ public class ApptentiveHttpClient implements PayloadRequestSender {
 			endPoint = StringUtils.format(ENDPOINT_LOG_IN_TO_EXISTING_CONVERSATION, conversationId);
 		}
 		HttpJsonRequest request = createJsonRequest(endPoint, json, HttpRequestMethod.POST);
+		request.setPriority(HttpRequestPriority.INTERACTIVE);
 		request.addListener(listener);
 		return request;
 	}
@@ -157,6 +181,7 @@ public class ApptentiveHttpClient implements PayloadRequestSender {
 		String endPoint = StringUtils.format(ENDPOINT_CONFIGURATION, conversationId);
 		HttpJsonRequest request = createJsonRequest(endPoint, new JSONObject(), HttpRequestMethod.GET);
 		request.setRequestProperty("Authorization", "Bearer " + token);
+		request.setCoalescable(true);
 		request.addListener(listener);
 		return request;
 	}
@@ -177,6 +202,7 @@ public class ApptentiveHttpClient implements PayloadRequestSender {
 		}
 
 		HttpJsonRequest request = createJsonRequest(ENDPOINT_LOG_IN_TO_NEW_CONVERSATION, conversationTokenRequest, HttpRequestMethod.POST);
+		request.setPriority(HttpRequestPriority.INTERACTIVE);
 		request.addListener(listener);
 		return request;
 	}
@@ -185,7 +211,7 @@ public class ApptentiveHttpClient implements PayloadRequestSender {
 	 * Returns the first request with a given tag or <code>null</code> is not found
 	 */
 	public HttpRequest findRequest(String tag) {
-		return HttpRequestManager.sharedManager().findRequest(tag);
+		return requestManager.findRequest(tag);
 	}
 
 	//endregion
@@ -220,9 +246,23 @@ public class ApptentiveHttpClient implements PayloadRequestSender {
 			request.setRequestProperty("APPTENTIVE-ENCRYPTED", Boolean.TRUE);
 		}
 
+		request.setPriority(getPayloadPriority(payload));
+
 		return request;
 	}
 
+	private static HttpRequestPriority getPayloadPriority(PayloadData payload) {
+		switch (payload.getType()) {
+			case message:
+				// large attachments should not delay text messages
+				return payload.getData().length > BULK_PAYLOAD_SIZE ? HttpRequestPriority.BULK : HttpRequestPriority.MESSAGING;
+			case logout:
+				return HttpRequestPriority.INTERACTIVE;
+			default:
+				return HttpRequestPriority.TELEMETRY;
+		}
+	}
+
 	//endregion
 
 	//region Helpers
@@ -246,6 +286,25 @@ public class ApptentiveHttpClient implements PayloadRequestSender {
 		return request;
 	}
 
+	/**
+	 * Creates a GET request which response is parsed directly from the network stream
+	 */
+	private <T> HttpStreamingRequest<T> createStreamingRequest(String endpoint, StreamingResponseHandler<T> responseHandler) {
+		if (endpoint == null) {
+			throw new IllegalArgumentException("Endpoint is null");
+		}
+		if (responseHandler == null) {
+			throw new IllegalArgumentException("Response handler is null");
+		}
+
+		String url = createEndpointURL(endpoint);
+		HttpStreamingRequest<T> request = new HttpStreamingRequest<>(url, new JSONObject(), responseHandler);
+		setupRequestDefaults(request);
+		request.setMethod(HttpRequestMethod.GET);
+		request.setRequestProperty("Content-Type", "application/json");
+		return request;
+	}
+
 	private RawHttpRequest createRawRequest(String endpoint, byte[] data, HttpRequestMethod method, String contentType) {
 		if (endpoint == null) {
 			throw new IllegalArgumentException("Endpoint is null");
@@ -269,7 +328,7 @@ public class ApptentiveHttpClient implements PayloadRequestSender {
 	}
 
 	private void setupRequestDefaults(HttpRequest request) {
-		request.setRequestManager(HttpRequestManager.sharedManager());
+		request.setRequestManager(requestManager);
 		request.setRequestProperty("User-Agent", userAgentString);
 		request.setRequestProperty("Connection", "Keep-Alive");
 		request.setRequestProperty("Accept-Encoding", "gzip");
@@ -17,17 +17,21 @@ import com.apptentive.android.sdk.ApptentiveLog;
 import com.apptentive.android.sdk.Encryption;
 import com.apptentive.android.sdk.comm.ApptentiveHttpClient;
 import com.apptentive.android.sdk.debug.ErrorMetrics;
+import com.apptentive.android.sdk.debug.Metrics;
 import com.apptentive.android.sdk.model.DevicePayload;
 import com.apptentive.android.sdk.model.EventPayload;
 import com.apptentive.android.sdk.model.Payload;
 import com.apptentive.android.sdk.model.PersonPayload;
+import com.apptentive.android.sdk.module.engagement.InteractionPrewarmer;
 import com.apptentive.android.sdk.module.engagement.interaction.model.Interaction;
 import com.apptentive.android.sdk.module.engagement.interaction.model.InteractionManifest;
+import com.apptentive.android.sdk.module.engagement.interaction.model.InteractionManifestResponseHandler;
+import com.apptentive.android.sdk.module.engagement.interaction.model.InteractionManifestResponseHandler.Manifest;
 import com.apptentive.android.sdk.module.engagement.interaction.model.Interactions;
 import com.apptentive.android.sdk.module.engagement.interaction.model.Targets;
 import com.apptentive.android.sdk.module.messagecenter.MessageManager;
-import com.apptentive.android.sdk.network.HttpJsonRequest;
 import com.apptentive.android.sdk.network.HttpRequest;
+import com.apptentive.android.sdk.network.HttpStreamingRequest;
 import com.apptentive.android.sdk.notifications.ApptentiveNotificationCenter;
 import com.apptentive.android.sdk.storage.AppRelease;
 import com.apptentive.android.sdk.storage.DataChangedListener;
@@ -55,6 +59,9 @@ import com.apptentive.android.sdk.util.threading.DispatchTask;
 import org.json.JSONException;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.UUID;
 
 import static com.apptentive.android.sdk.ApptentiveHelper.checkConversationQueue;
@@ -72,6 +79,12 @@ public class Conversation implements DataChangedListener, Destroyable, DeviceDat
 
 	private static final String TAG_FETCH_INTERACTIONS_REQUEST = "fetch_interactions";
 
+	/**
+	 * Person and device updates are delayed so that bursts of changes (e.g. setting custom data keys
+	 * one by one) result in a single diff payload.
+	 */
+	private static final long DATA_UPDATE_COALESCING_WINDOW_MILLIS = 300;
+
 	/**
 	 * Conversation data for this class to manage
 	 */
@@ -129,6 +142,17 @@ public class Conversation implements DataChangedListener, Destroyable, DeviceDat
 	// we keep a reference to the message store in order to update encryption key (not the best solution but works for now)
 	private final FileMessageStore messageStore;
 
+	/**
+	 * Interaction manifest is stored separately from the conversation data (only written when a new
+	 * manifest is received)
+	 */
+	private final FileManifestStore manifestStore;
+
+	/**
+	 * Parsed targets and interactions for the current manifest
+	 */
+	private final InteractionManifestCache interactionCache;
+
 	// we keep references to the tasks in order to dispatch them only once
 	private final DispatchTask saveConversationTask = new DispatchTask() {
 		@Override
@@ -142,6 +166,13 @@ public class Conversation implements DataChangedListener, Destroyable, DeviceDat
 		}
 	};
 
+	private final DispatchTask saveManifestTask = new DispatchTask() {
+		@Override
+		protected void execute() {
+			manifestStore.save();
+		}
+	};
+
 	/**
 	 * @param conversationDataFile     - file for storing serialized conversation data
 	 * @param conversationMessagesFile - file for storing serialized conversation messages
@@ -169,6 +200,13 @@ public class Conversation implements DataChangedListener, Destroyable, DeviceDat
 		messageStore = new FileMessageStore(conversationMessagesFile, encryption);
 		messageStore.migrateLegacyStorage();
 		messageManager = new MessageManager(this, messageStore); // it's important to initialize message manager in a constructor since other SDK parts depend on it via Apptentive singleton
+
+		manifestStore = new FileManifestStore(getManifestFile(conversationDataFile), encryption);
+		interactionCache = new InteractionManifestCache(manifestStore);
+	}
+
+	private static File getManifestFile(File conversationDataFile) {
+		return new File(conversationDataFile.getParentFile(), "manifest-" + conversationDataFile.getName());
 	}
 
 	public void startListeningForChanges() {
@@ -209,24 +247,50 @@ public class Conversation implements DataChangedListener, Destroyable, DeviceDat
 	 * Returns an Interaction for <code>eventLabel</code> if there is one that can be displayed.
 	 */
 	public Interaction getApplicableInteraction(String eventLabel, boolean verbose) {
-		String targetsString = getTargets();
-		if (targetsString != null) {
-			try {
-				Targets targets = new Targets(getTargets());
-				String interactionId = targets.getApplicableInteraction(eventLabel, verbose);
+		Targets targets = interactionCache.getTargets();
+		if (targets != null) {
+			String interactionId = targets.getApplicableInteraction(eventLabel, verbose);
+			if (interactionId != null) {
+				return getInteraction(interactionId);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns interactions which are currently eligible for the targeted events. Used for
+	 * pre-warming interactions ahead of launch: the criteria evaluation time is not recorded.
+	 *
+	 * @param maxEvents       - max number of the targeted events to evaluate
+	 * @param maxInteractions - max number of the interactions to return
+	 */
+	public List<Interaction> getApplicableInteractions(int maxEvents, int maxInteractions) {
+		List<Interaction> result = new ArrayList<>();
+		Targets targets = interactionCache.getTargets();
+		if (targets != null) {
+			Iterator<String> eventLabels = targets.keys();
+			int evaluatedEvents = 0;
+			while (eventLabels.hasNext() && evaluatedEvents < maxEvents && result.size() < maxInteractions) {
+				++evaluatedEvents;
+				String interactionId = targets.getApplicableInteraction(eventLabels.next(), false, false);
 				if (interactionId != null) {
-					String interactionsString = getInteractions();
-					if (interactionsString != null) {
-						Interactions interactions = new Interactions(interactionsString);
-						return interactions.getInteraction(interactionId);
+					Interaction interaction = getInteraction(interactionId);
+					if (interaction != null && !result.contains(interaction)) {
+						result.add(interaction);
 					}
 				}
-			} catch (JSONException e) {
-				ApptentiveLog.e(INTERACTIONS, e, "Exception while getting applicable interaction: %s", eventLabel);
-				logException(e);
 			}
 		}
-		return null;
+		return result;
+	}
+
+	/**
+	 * Returns a parsed interaction from the current manifest or <code>null</code> if not found.
+	 * The instance is shared: do not modify it.
+	 */
+	public @Nullable Interaction getInteraction(String interactionId) {
+		Interactions interactions = interactionCache.getInteractions();
+		return interactions != null ? interactions.getInteraction(interactionId) : null;
 	}
 
 	public void fetchInteractions(Context context) {
@@ -239,13 +303,11 @@ public class Conversation implements DataChangedListener, Destroyable, DeviceDat
 			ApptentiveHttpClient httpClient = ApptentiveInternal.getInstance().getApptentiveHttpClient();
 			HttpRequest existing = httpClient.findRequest(TAG_FETCH_INTERACTIONS_REQUEST);
 			if (existing == null) {
-				HttpJsonRequest request = httpClient.createFetchInteractionsRequest(getConversationToken(), getConversationId(), new HttpRequest.Listener<HttpJsonRequest>() {
+				File rawManifestFile = new File(ApptentiveLog.getLogsDirectory(context), Constants.FILE_APPTENTIVE_ENGAGEMENT_MANIFEST); // for troubleshooting
+				InteractionManifestResponseHandler responseHandler = new InteractionManifestResponseHandler(rawManifestFile);
+				HttpStreamingRequest<Manifest> request = httpClient.createFetchInteractionsRequest(getConversationToken(), getConversationId(), responseHandler, new HttpRequest.Listener<HttpStreamingRequest<Manifest>>() {
 					@Override
-					public void onFinish(HttpJsonRequest request) {
-						// Send a notification so other parts of the SDK can use this data for troubleshooting
-						ApptentiveNotificationCenter.defaultCenter()
-							.postNotification(NOTIFICATION_INTERACTION_MANIFEST_FETCHED, NOTIFICATION_KEY_MANIFEST, request.getResponseData());
-
+					public void onFinish(HttpStreamingRequest<Manifest> request) {
 						// Store new integration cache expiration.
 						String cacheControl = request.getResponseHeader("Cache-Control");
 						Integer cacheSeconds = Util.parseCacheControlHeader(cacheControl);
@@ -253,19 +315,14 @@ public class Conversation implements DataChangedListener, Destroyable, DeviceDat
 							cacheSeconds = Constants.CONFIG_DEFAULT_INTERACTION_CACHE_EXPIRATION_DURATION_SECONDS;
 						}
 						setInteractionExpiration(Util.currentTimeSeconds() + cacheSeconds);
-						try {
-							InteractionManifest payload = new InteractionManifest(request.getResponseData());
-							Interactions interactions = payload.getInteractions();
-							Targets targets = payload.getTargets();
-							if (interactions != null && targets != null) {
-								setTargets(targets.toString());
-								setInteractions(interactions.toString());
-							} else {
-								ApptentiveLog.e(CONVERSATION, "Unable to save interactionManifest.");
-							}
-						} catch (JSONException e) {
-							ApptentiveLog.e(CONVERSATION, e, "Invalid InteractionManifest received.");
-							logException(e);
+
+						Manifest manifest = request.getResponseResult();
+						Interactions interactions = manifest != null ? manifest.getInteractions() : null;
+						String targets = manifest != null ? manifest.getTargets() : null;
+						if (interactions != null && targets != null) {
+							setInteractionManifest(targets, manifest.getInteractionsJson(), interactions);
+						} else {
+							ApptentiveLog.e(CONVERSATION, "Unable to save interactionManifest.");
 						}
 						ApptentiveLog.v(CONVERSATION, "Fetching new Interactions task finished");
 
@@ -274,11 +331,11 @@ public class Conversation implements DataChangedListener, Destroyable, DeviceDat
 					}
 
 					@Override
-					public void onCancel(HttpJsonRequest request) {
+					public void onCancel(HttpStreamingRequest<Manifest> request) {
 					}
 
 					@Override
-					public void onFail(HttpJsonRequest request, String reason) {
+					public void onFail(HttpStreamingRequest<Manifest> request, String reason) {
 						SharedPreferences prefs = ApptentiveInternal.getInstance().getGlobalSharedPrefs();
 
 						// We weren't able to connect to the internet.
@@ -335,8 +392,7 @@ public class Conversation implements DataChangedListener, Destroyable, DeviceDat
 			Interactions interactions = payload.getInteractions();
 			Targets targets = payload.getTargets();
 			if (interactions != null && targets != null) {
-				setTargets(targets.toString());
-				setInteractions(interactions.toString());
+				setInteractionManifest(targets.toString(), interactions.toString());
 			} else {
 				ApptentiveLog.e(CONVERSATION, "Unable to save InteractionManifest.");
 			}
@@ -398,11 +454,13 @@ public class Conversation implements DataChangedListener, Destroyable, DeviceDat
 			ApptentiveLog.v(CONVERSATION, "EventData: %s", getEventData().toString());
 			ApptentiveLog.v(CONVERSATION, "Messages: %s", messageManager.getMessageStore().toString());
 		}
-		long start = System.currentTimeMillis();
+		long startNanos = System.nanoTime();
 
 		FileSerializer serializer = new EncryptedFileSerializer(conversationDataFile, encryption);
 		serializer.serialize(conversationData);
-		ApptentiveLog.v(CONVERSATION, "Conversation data saved (took %d ms)", System.currentTimeMillis() - start);
+
+		Metrics.histogram(Metrics.CONVERSATION_SAVE_DURATION).recordSince(startNanos);
+		ApptentiveLog.v(CONVERSATION, "Conversation data saved (took %d ms)", (System.nanoTime() - startNanos) / 1000000L);
 	}
 
 	/**
@@ -419,6 +477,7 @@ public class Conversation implements DataChangedListener, Destroyable, DeviceDat
 				FileSerializer serializer = isAuthenticated() ? new EncryptedFileSerializer(legacyConversationDataFile, getEncryption()) :
 					                            new FileSerializer(legacyConversationDataFile);
 				conversationData = (ConversationData) serializer.deserialize();
+				migrateLegacyInteractionManifest();
 				ApptentiveLog.d(CONVERSATION, "Conversation data migrated (took %d ms)", System.currentTimeMillis() - start);
 				return true;
 			} finally {
@@ -436,9 +495,29 @@ public class Conversation implements DataChangedListener, Destroyable, DeviceDat
 		FileSerializer serializer = new EncryptedFileSerializer(conversationDataFile, encryption);
 		ApptentiveLog.d(CONVERSATION, "Loading conversation data...");
 		conversationData = (ConversationData) serializer.deserialize();
+		migrateLegacyInteractionManifest();
 		ApptentiveLog.d(CONVERSATION, "Conversation data loaded (took %d ms)", System.currentTimeMillis() - start);
 	}
 
+	/**
+	 * Older versions of the SDK stored the interaction manifest inside the conversation data: move
+	 * it to the manifest store (unless the store already has a newer one).
+	 */
+	private void migrateLegacyInteractionManifest() {
+		String targets = conversationData.getTargets();
+		String interactions = conversationData.getInteractions();
+		if (targets != null || interactions != null) {
+			ApptentiveLog.d(CONVERSATION, "Moving interaction manifest out of conversation data...");
+			if (!manifestStore.hasManifest()) {
+				manifestStore.setManifest(targets, interactions);
+				manifestStore.save();
+			}
+			// conversation data would be saved without the manifest next time it changes
+			conversationData.setTargets(null);
+			conversationData.setInteractions(null);
+		}
+	}
+
 	//endregion
 
 	//region Listeners
@@ -494,8 +573,13 @@ public class Conversation implements DataChangedListener, Destroyable, DeviceDat
 			PersonPayload personPayload = PersonManager.getDiffPayload(lastSentPerson, currentPerson);
 			if (personPayload != null) {
 				addPayload(personPayload);
-				setLastSentPerson(currentPerson != null ? currentPerson.clone() : null);
+				if (lastSentPerson != null) {
+					lastSentPerson.updateFrom(currentPerson);
+				} else {
+					setLastSentPerson(currentPerson.clone());
+				}
 			}
+			currentPerson.getCustomData().clearChangedKeys();
 		}
 	};
 
@@ -510,17 +594,22 @@ public class Conversation implements DataChangedListener, Destroyable, DeviceDat
 			DevicePayload devicePayload = DevicePayloadDiff.getDiffPayload(lastSentDevice, currentDevice);
 			if (devicePayload != null) {
 				addPayload(devicePayload);
-				setLastSentDevice(currentDevice != null ? currentDevice.clone() : null);
+				if (lastSentDevice != null) {
+					lastSentDevice.updateFrom(currentDevice);
+				} else {
+					setLastSentDevice(currentDevice.clone());
+				}
 			}
+			currentDevice.getCustomData().clearChangedKeys();
 		}
 	};
 
 	private void schedulePersonUpdate() {
-		conversationQueue().dispatchAsyncOnce(personUpdateTask);
+		conversationQueue().dispatchAsyncOnce(personUpdateTask, DATA_UPDATE_COALESCING_WINDOW_MILLIS);
 	}
 
 	private void scheduleDeviceUpdate() {
-		conversationQueue().dispatchAsyncOnce(deviceUpdateTask);
+		conversationQueue().dispatchAsyncOnce(deviceUpdateTask, DATA_UPDATE_COALESCING_WINDOW_MILLIS);
 	}
 
 	//endregion
@@ -707,19 +796,38 @@ public class Conversation implements DataChangedListener, Destroyable, DeviceDat
 	}
 
 	public String getTargets() {
-		return getConversationData().getTargets();
+		return manifestStore.getTargets();
 	}
 
-	public void setTargets(String targets) {
-		getConversationData().setTargets(targets);
+	public String getInteractions() {
+		return manifestStore.getInteractions();
 	}
 
-	public String getInteractions() {
-		return getConversationData().getInteractions();
+	/**
+	 * Returns a number which changes every time a new interaction manifest is stored
+	 */
+	public long getInteractionManifestRevision() {
+		return manifestStore.getRevision();
 	}
 
-	public void setInteractions(String interactions) {
-		getConversationData().setInteractions(interactions);
+	/**
+	 * Stores a new interaction manifest. The manifest is written to its own file on the conversation
+	 * data queue and does not cause conversation data to be saved.
+	 */
+	public void setInteractionManifest(String targets, String interactions) {
+		setInteractionManifest(targets, interactions, null);
+	}
+
+	/**
+	 * Stores a new interaction manifest along with its already parsed interactions (if any)
+	 */
+	private void setInteractionManifest(String targets, String interactions, @Nullable Interactions parsedInteractions) {
+		manifestStore.setManifest(targets, interactions);
+		if (parsedInteractions != null) {
+			interactionCache.setInteractions(parsedInteractions);
+		}
+		conversationDataQueue().dispatchAsyncOnce(saveManifestTask);
+		InteractionPrewarmer.schedulePrewarm();
 	}
 
 	public double getInteractionExpiration() {
@@ -764,6 +872,7 @@ public class Conversation implements DataChangedListener, Destroyable, DeviceDat
 
 		// we need to update the old message store encryption key and overwrite current data file
 		messageStore.updateEncryption(encryption);
+		manifestStore.updateEncryption(encryption);
 	}
 
 	public void setPayloadEncryptionKey(@Nullable String payloadEncryptionKey) {
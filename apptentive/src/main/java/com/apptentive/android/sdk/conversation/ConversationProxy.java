@@ -8,6 +8,7 @@ package com.apptentive.android.sdk.conversation;
 
 import com.apptentive.android.sdk.ApptentiveNotifications;
 import com.apptentive.android.sdk.model.SurveyResponsePayload;
+import com.apptentive.android.sdk.module.engagement.interaction.model.Interaction;
 import com.apptentive.android.sdk.notifications.ApptentiveNotification;
 import com.apptentive.android.sdk.notifications.ApptentiveNotificationCenter;
 import com.apptentive.android.sdk.notifications.ApptentiveNotificationObserver;
@@ -194,6 +195,10 @@ public class ConversationProxy implements ApptentiveNotificationObserver {
 		return conversation.getInteractions(); // TODO: make conversation immutable
 	}
 
+	public synchronized Interaction getInteraction(String interactionId) {
+		return conversation.getInteraction(interactionId);
+	}
+
 	public synchronized VersionHistory getVersionHistory() {
 		return conversation.getVersionHistory();
 	}
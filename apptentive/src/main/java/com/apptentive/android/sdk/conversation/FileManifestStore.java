@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.conversation;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.apptentive.android.sdk.ApptentiveLog;
+import com.apptentive.android.sdk.Encryption;
+import com.apptentive.android.sdk.encryption.EncryptionException;
+import com.apptentive.android.sdk.encryption.EncryptionHelper;
+import com.apptentive.android.sdk.debug.ErrorMetrics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import static com.apptentive.android.sdk.ApptentiveLogTag.CONVERSATION;
+
+/**
+ * Stores the interaction manifest (targets and interactions) in a separate file. The manifest is
+ * usually the largest part of the conversation state but it only changes when a new manifest is
+ * fetched: keeping it out of the conversation data avoids re-serializing and re-encrypting it on
+ * every conversation save. The file is read lazily on the first access.
+ */
+class FileManifestStore {
+	/**
+	 * Binary format version
+	 */
+	private static final byte VERSION = 1;
+
+	private final File file;
+	private Encryption encryption;
+	private String targets;
+	private String interactions;
+	private long revision;
+	private boolean shouldFetchFromFile;
+
+	FileManifestStore(File file, Encryption encryption) {
+		if (file == null) {
+			throw new IllegalArgumentException("File is null");
+		}
+
+		if (encryption == null) {
+			throw new IllegalArgumentException("Encryption is null");
+		}
+
+		this.file = file;
+		this.encryption = encryption;
+		this.shouldFetchFromFile = true; // we would lazily read it from a file later
+	}
+
+	//region Manifest
+
+	synchronized @Nullable String getTargets() {
+		fetchManifest();
+		return targets;
+	}
+
+	synchronized @Nullable String getInteractions() {
+		fetchManifest();
+		return interactions;
+	}
+
+	/**
+	 * Returns a number which changes every time a new manifest is stored (<code>0</code> if the
+	 * manifest was never stored)
+	 */
+	synchronized long getRevision() {
+		fetchManifest();
+		return revision;
+	}
+
+	/**
+	 * Returns <code>true</code> if the manifest was stored (either in memory or on the disk)
+	 */
+	synchronized boolean hasManifest() {
+		return !shouldFetchFromFile ? revision > 0 : file.exists();
+	}
+
+	/**
+	 * Updates the manifest in memory. Call {@link #save()} to write it to the disk.
+	 */
+	synchronized void setManifest(@Nullable String targets, @Nullable String interactions) {
+		fetchManifest();
+		this.targets = targets;
+		this.interactions = interactions;
+		this.revision++;
+	}
+
+	synchronized void save() {
+		try {
+			writeToFileGuarded();
+		} catch (Exception e) {
+			ApptentiveLog.e(CONVERSATION, e, "Exception while saving interaction manifest");
+			logException(e);
+		}
+	}
+
+	//endregion
+
+	//region File save/load
+
+	private synchronized void fetchManifest() {
+		if (shouldFetchFromFile) {
+			readFromFile();
+			shouldFetchFromFile = false;
+		}
+	}
+
+	private synchronized void readFromFile() {
+		try {
+			if (file.exists()) {
+				readFromFileGuarded();
+			}
+		} catch (Exception e) {
+			ApptentiveLog.e(CONVERSATION, e, "Exception while reading interaction manifest");
+			logException(e);
+		}
+	}
+
+	private void readFromFileGuarded() throws IOException, EncryptionException {
+		long start = System.currentTimeMillis();
+		byte[] bytes = EncryptionHelper.readFromEncryptedFile(encryption, file);
+		DataInputStream dis = new DataInputStream(new ByteArrayInputStream(bytes));
+		byte version = dis.readByte();
+		if (version != VERSION) {
+			throw new IOException("Unsupported binary version: " + version);
+		}
+		revision = dis.readLong();
+		targets = readLongString(dis);
+		interactions = readLongString(dis);
+		ApptentiveLog.v(CONVERSATION, "Interaction manifest loaded (%d bytes). Took %d ms", bytes.length, System.currentTimeMillis() - start);
+	}
+
+	private void writeToFileGuarded() throws IOException, EncryptionException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		DataOutputStream dos = new DataOutputStream(bos);
+		dos.writeByte(VERSION);
+		dos.writeLong(revision);
+		writeLongString(dos, targets);
+		writeLongString(dos, interactions);
+		long start = System.currentTimeMillis();
+		EncryptionHelper.writeToEncryptedFile(encryption, file, bos.toByteArray());
+		ApptentiveLog.v(CONVERSATION, "Interaction manifest saved. Took %d ms", System.currentTimeMillis() - start);
+	}
+
+	/**
+	 * Manifests might exceed the 64K limit of {@link DataOutput#writeUTF(String)}
+	 */
+	private static void writeLongString(DataOutput out, @Nullable String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+		} else {
+			byte[] bytes = value.getBytes("UTF-8");
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	private static @Nullable String readLongString(DataInput in) throws IOException {
+		int length = in.readInt();
+		if (length == -1) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, "UTF-8");
+	}
+
+	//endregion
+
+	//region Encryption
+
+	synchronized void updateEncryption(@NonNull Encryption encryption) {
+		if (encryption == null) {
+			throw new IllegalArgumentException("Encryption is null");
+		}
+
+		fetchManifest(); // make sure the manifest is read with the old encryption
+		this.encryption = encryption;
+
+		// update storage
+		if (revision > 0) {
+			save();
+		}
+	}
+
+	//endregion
+
+	private static void logException(Exception e) {
+		ErrorMetrics.logException(e);
+	}
+
+	@Override
+	public String toString() {
+		return "FileManifestStore{" +
+			       "file=" + file +
+			       ", revision=" + revision +
+			       ", shouldFetchFromFile=" + shouldFetchFromFile +
+			       '}';
+	}
+}
@@ -6,8 +6,11 @@
 
 package com.apptentive.android.sdk.conversation;
 
+import android.content.Context;
+
 import androidx.annotation.NonNull;
 
+import com.apptentive.android.sdk.ApptentiveInternal;
 import com.apptentive.android.sdk.ApptentiveLog;
 import com.apptentive.android.sdk.Encryption;
 import com.apptentive.android.sdk.debug.Assert;
@@ -16,11 +19,14 @@ import com.apptentive.android.sdk.debug.ErrorMetrics;
 
 import com.apptentive.android.sdk.encryption.EncryptionHelper;
 import com.apptentive.android.sdk.model.ApptentiveMessage;
+import com.apptentive.android.sdk.model.CompoundMessage;
+import com.apptentive.android.sdk.model.StoredFile;
 import com.apptentive.android.sdk.module.messagecenter.model.MessageFactory;
 import com.apptentive.android.sdk.serialization.SerializableObject;
 import com.apptentive.android.sdk.storage.MessageStore;
 import com.apptentive.android.sdk.util.StringUtils;
 import com.apptentive.android.sdk.util.Util;
+import com.apptentive.android.sdk.util.cache.AttachmentDiskCache;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -173,6 +179,11 @@ class FileMessageStore implements MessageStore {
 
 	@Override
 	public synchronized void deleteAllMessages() {
+		fetchEntries();
+
+		for (MessageEntry entry : messageEntries) {
+			removeCachedAttachments(entry);
+		}
 		messageEntries.clear();
 		writeToFile();
 	}
@@ -183,7 +194,7 @@ class FileMessageStore implements MessageStore {
 
 		for (int i = 0; i < messageEntries.size(); ++i) {
 			if (StringUtils.equal(nonce, messageEntries.get(i).nonce)) {
-				messageEntries.remove(i);
+				removeCachedAttachments(messageEntries.remove(i));
 				writeToFile();
 				break;
 			}
@@ -221,6 +232,7 @@ class FileMessageStore implements MessageStore {
 			if (file.exists()) {
 				List<MessageEntry> entries = readFromFileGuarded();
 				messageEntries.addAll(entries);
+				adoptLegacyAttachments();
 			}
 		} catch (Exception e) {
 			ApptentiveLog.e(MESSAGES, e, "Exception while reading entries");
@@ -298,6 +310,85 @@ class FileMessageStore implements MessageStore {
 
 	//endregion
 
+	//region Attachments
+
+	/**
+	 * Deletes the downloaded copies of the message attachments from the disk cache
+	 */
+	private void removeCachedAttachments(MessageEntry entry) {
+		try {
+			AttachmentDiskCache attachmentCache = getAttachmentCache();
+			if (attachmentCache == null) {
+				return;
+			}
+
+			ApptentiveMessage message = MessageFactory.fromJson(entry.json);
+			if (message instanceof CompoundMessage) {
+				List<StoredFile> files = ((CompoundMessage) message).getRemoteAttachments();
+				if (files != null) {
+					for (StoredFile file : files) {
+						removeCachedFile(attachmentCache, file.getApptentiveUri());
+						removeCachedFile(attachmentCache, file.getSourceUriOrPath()); // thumbnail
+					}
+				}
+			}
+		} catch (Exception e) {
+			ApptentiveLog.e(MESSAGES, e, "Exception while removing cached message attachments");
+			logException(e);
+		}
+	}
+
+	/**
+	 * Lets the disk cache track the incoming attachments downloaded before it was introduced (only
+	 * happens once)
+	 */
+	private void adoptLegacyAttachments() {
+		try {
+			AttachmentDiskCache attachmentCache = getAttachmentCache();
+			if (attachmentCache == null || attachmentCache.isLegacyFilesAdopted()) {
+				return;
+			}
+
+			List<String> paths = new ArrayList<>();
+			for (MessageEntry entry : messageEntries) {
+				ApptentiveMessage message = MessageFactory.fromJson(entry.json);
+				if (message instanceof CompoundMessage && !message.isOutgoingMessage()) {
+					List<StoredFile> files = ((CompoundMessage) message).getRemoteAttachments();
+					if (files != null) {
+						for (StoredFile file : files) {
+							addCachedFilePath(paths, attachmentCache, file.getApptentiveUri());
+							addCachedFilePath(paths, attachmentCache, file.getSourceUriOrPath()); // thumbnail
+						}
+					}
+				}
+			}
+			attachmentCache.adoptLegacyFiles(paths);
+		} catch (Exception e) {
+			ApptentiveLog.e(MESSAGES, e, "Exception while adopting cached message attachments");
+			logException(e);
+		}
+	}
+
+	private static void addCachedFilePath(List<String> paths, AttachmentDiskCache attachmentCache, String url) {
+		if (!StringUtils.isNullOrEmpty(url)) {
+			paths.add(Util.generateCacheFileFullPath(url, attachmentCache.getDirectory()));
+		}
+	}
+
+	private static void removeCachedFile(AttachmentDiskCache attachmentCache, String url) {
+		if (!StringUtils.isNullOrEmpty(url)) {
+			attachmentCache.remove(Util.generateCacheFileFullPath(url, attachmentCache.getDirectory()));
+		}
+	}
+
+	/* This method can be overridden in a subclass for testing */
+	AttachmentDiskCache getAttachmentCache() {
+		Context context = ApptentiveInternal.getInstance().getApplicationContext();
+		return context != null ? AttachmentDiskCache.getInstance(context) : null;
+	}
+
+	//endregion
+
 	//region Message Entry
 
 	private static class MessageEntry implements SerializableObject {
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.conversation;
+
+import androidx.annotation.Nullable;
+
+import com.apptentive.android.sdk.ApptentiveLog;
+import com.apptentive.android.sdk.module.engagement.interaction.model.Interactions;
+import com.apptentive.android.sdk.module.engagement.interaction.model.Targets;
+
+import org.json.JSONException;
+
+import static com.apptentive.android.sdk.ApptentiveLogTag.INTERACTIONS;
+import static com.apptentive.android.sdk.debug.ErrorMetrics.logException;
+
+/**
+ * Keeps parsed targets and interactions for the current manifest revision. Parsed objects (and the
+ * interactions/invocations parsed from them) are shared between lookups and rebuilt only when a
+ * new manifest is stored.
+ */
+class InteractionManifestCache {
+	private final FileManifestStore manifestStore;
+	private long revision = -1;
+	private Targets targets;
+	private Interactions interactions;
+
+	InteractionManifestCache(FileManifestStore manifestStore) {
+		if (manifestStore == null) {
+			throw new IllegalArgumentException("Manifest store is null");
+		}
+		this.manifestStore = manifestStore;
+	}
+
+	synchronized @Nullable Targets getTargets() {
+		invalidateIfNeeded();
+		if (targets == null) {
+			String json = manifestStore.getTargets();
+			if (json != null) {
+				try {
+					targets = new Targets(json);
+				} catch (JSONException e) {
+					ApptentiveLog.e(INTERACTIONS, e, "Exception while parsing targets");
+					logException(e);
+				}
+			}
+		}
+		return targets;
+	}
+
+	synchronized @Nullable Interactions getInteractions() {
+		invalidateIfNeeded();
+		if (interactions == null) {
+			String json = manifestStore.getInteractions();
+			if (json != null) {
+				try {
+					interactions = new Interactions(json);
+				} catch (JSONException e) {
+					ApptentiveLog.e(INTERACTIONS, e, "Exception while parsing interactions");
+					logException(e);
+				}
+			}
+		}
+		return interactions;
+	}
+
+	/**
+	 * Uses interactions parsed along with the manifest which was just stored (instead of parsing the
+	 * stored string again)
+	 */
+	synchronized void setInteractions(Interactions interactions) {
+		invalidateIfNeeded();
+		this.interactions = interactions;
+	}
+
+	private void invalidateIfNeeded() {
+		long currentRevision = manifestStore.getRevision();
+		if (revision != currentRevision) {
+			revision = currentRevision;
+			targets = null;
+			interactions = null;
+		}
+	}
+}
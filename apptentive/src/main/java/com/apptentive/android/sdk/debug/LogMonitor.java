@@ -15,6 +15,7 @@ import com.apptentive.android.sdk.network.HttpJsonRequest;
 import com.apptentive.android.sdk.network.HttpRequest;
 import com.apptentive.android.sdk.network.HttpRequestManager;
 import com.apptentive.android.sdk.network.HttpRequestMethod;
+import com.apptentive.android.sdk.network.HttpRequestPriority;
 import com.apptentive.android.sdk.network.HttpRequestRetryPolicy;
 import com.apptentive.android.sdk.network.HttpRequestRetryPolicyDefault;
 import com.apptentive.android.sdk.util.Constants;
@@ -198,6 +199,7 @@ public final class LogMonitor {
 		HttpRequest request = new HttpJsonRequest(URL, createVerityRequestObject(token));
 		request.setTag(TAG_VERIFICATION_REQUEST);
 		request.setMethod(HttpRequestMethod.POST);
+		request.setPriority(HttpRequestPriority.INTERACTIVE);
 		request.setRequestManager(HttpRequestManager.sharedManager());
 		request.setRequestProperty("X-API-Version", Constants.API_VERSION);
 		request.setRequestProperty("APPTENTIVE-KEY", apptentiveAppKey);
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.debug;
+
+/**
+ * Base class for metrics registered in {@link Metrics}
+ */
+public abstract class Metric {
+	public enum Type {
+		COUNTER,
+		GAUGE,
+		HISTOGRAM
+	}
+
+	private final String name;
+
+	Metric(String name) {
+		if (name == null) {
+			throw new IllegalArgumentException("Name is null");
+		}
+		this.name = name;
+	}
+
+	void notifyListeners(Type type, long value) {
+		Metrics.notifyListeners(name, type, value);
+	}
+
+	abstract void reset();
+
+	public String getName() {
+		return name;
+	}
+}
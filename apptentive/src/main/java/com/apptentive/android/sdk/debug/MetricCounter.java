@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.debug;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Monotonic counter optimized for concurrent updates: the value is striped across several cells
+ * (selected by the updating thread) which are summed on read. Cells are spaced apart to avoid
+ * sharing a cache line.
+ */
+public class MetricCounter extends Metric {
+	/** Distance between cells (in longs) to keep them on separate cache lines */
+	private static final int CELL_PADDING = 8;
+
+	private final AtomicLongArray cells;
+	private final int cellMask;
+
+	MetricCounter(String name) {
+		super(name);
+		int cellCount = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1) << 1;
+		cellMask = cellCount - 1;
+		cells = new AtomicLongArray(cellCount * CELL_PADDING);
+	}
+
+	public void increment() {
+		add(1);
+	}
+
+	public void add(long delta) {
+		cells.addAndGet(cellIndex(), delta);
+		notifyListeners(Type.COUNTER, delta);
+	}
+
+	public long get() {
+		long sum = 0;
+		for (int i = 0; i < cells.length(); i += CELL_PADDING) {
+			sum += cells.get(i);
+		}
+		return sum;
+	}
+
+	@Override
+	void reset() {
+		for (int i = 0; i < cells.length(); i += CELL_PADDING) {
+			cells.set(i, 0);
+		}
+	}
+
+	private int cellIndex() {
+		long id = Thread.currentThread().getId();
+		int hash = (int) (id ^ (id >>> 32));
+		hash ^= (hash >>> 16);
+		return (hash & cellMask) * CELL_PADDING;
+	}
+
+	@Override
+	public String toString() {
+		return getName() + "=" + get();
+	}
+}
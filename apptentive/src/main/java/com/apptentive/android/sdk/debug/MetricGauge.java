@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.debug;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metric representing the last observed value of some quantity (queue depth, cache size, etc)
+ */
+public class MetricGauge extends Metric {
+	private final AtomicLong value = new AtomicLong();
+
+	MetricGauge(String name) {
+		super(name);
+	}
+
+	public void set(long newValue) {
+		value.set(newValue);
+		notifyListeners(Type.GAUGE, newValue);
+	}
+
+	public void add(long delta) {
+		long newValue = value.addAndGet(delta);
+		notifyListeners(Type.GAUGE, newValue);
+	}
+
+	public long get() {
+		return value.get();
+	}
+
+	@Override
+	void reset() {
+		value.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return getName() + "=" + get();
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.debug;
+
+import com.apptentive.android.sdk.util.StringUtils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histogram with fixed bucket boundaries (in microseconds). Recording a value is a
+ * constant-time, lock-free operation; percentiles are approximated by bucket upper bounds.
+ */
+public class MetricHistogram extends Metric {
+	/**
+	 * Upper bounds (inclusive) of the buckets in microseconds. Values above the last bound go to
+	 * the overflow bucket.
+	 */
+	private static final long[] BUCKET_BOUNDS_MICROS = {
+		100, 250, 500,
+		1000, 2500, 5000,
+		10000, 25000, 50000,
+		100000, 250000, 500000,
+		1000000, 2500000, 5000000,
+		10000000, 30000000
+	};
+
+	private final AtomicLongArray bucketCounts;
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong sum = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+	MetricHistogram(String name) {
+		super(name);
+		bucketCounts = new AtomicLongArray(BUCKET_BOUNDS_MICROS.length + 1);
+	}
+
+	/**
+	 * Records the time elapsed since <code>startNanos</code> (obtained with {@link System#nanoTime()})
+	 */
+	public void recordSince(long startNanos) {
+		record((System.nanoTime() - startNanos) / 1000L);
+	}
+
+	public void recordMillis(long millis) {
+		record(millis * 1000L);
+	}
+
+	public void record(long micros) {
+		if (micros < 0) {
+			micros = 0;
+		}
+
+		bucketCounts.incrementAndGet(bucketIndex(micros));
+		count.incrementAndGet();
+		sum.addAndGet(micros);
+
+		long currentMax;
+		while (micros > (currentMax = max.get())) {
+			if (max.compareAndSet(currentMax, micros)) {
+				break;
+			}
+		}
+
+		notifyListeners(Type.HISTOGRAM, micros);
+	}
+
+	public long getCount() {
+		return count.get();
+	}
+
+	public long getSumMicros() {
+		return sum.get();
+	}
+
+	public long getMaxMicros() {
+		return max.get();
+	}
+
+	public long getMeanMicros() {
+		long n = count.get();
+		return n > 0 ? sum.get() / n : 0;
+	}
+
+	/**
+	 * Returns the upper bound of the bucket containing the specified percentile (0..100) or the
+	 * max value if the percentile falls into the overflow bucket.
+	 */
+	public long getPercentileMicros(double percentile) {
+		long total = count.get();
+		if (total == 0) {
+			return 0;
+		}
+
+		long threshold = (long) Math.ceil(total * Math.min(100.0, Math.max(0.0, percentile)) / 100.0);
+		long cumulative = 0;
+		for (int i = 0; i < BUCKET_BOUNDS_MICROS.length; ++i) {
+			cumulative += bucketCounts.get(i);
+			if (cumulative >= threshold) {
+				return Math.min(BUCKET_BOUNDS_MICROS[i], max.get());
+			}
+		}
+		return max.get();
+	}
+
+	/**
+	 * Returns the number of values recorded in each bucket (the last one is the overflow bucket)
+	 */
+	public long[] getBucketCounts() {
+		long[] counts = new long[bucketCounts.length()];
+		for (int i = 0; i < counts.length; ++i) {
+			counts[i] = bucketCounts.get(i);
+		}
+		return counts;
+	}
+
+	/**
+	 * Returns upper bounds of the buckets in microseconds
+	 */
+	public static long[] getBucketBoundsMicros() {
+		return BUCKET_BOUNDS_MICROS.clone();
+	}
+
+	@Override
+	void reset() {
+		for (int i = 0; i < bucketCounts.length(); ++i) {
+			bucketCounts.set(i, 0);
+		}
+		count.set(0);
+		sum.set(0);
+		max.set(0);
+	}
+
+	private static int bucketIndex(long micros) {
+		int low = 0;
+		int high = BUCKET_BOUNDS_MICROS.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (BUCKET_BOUNDS_MICROS[mid] < micros) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	@Override
+	public String toString() {
+		return StringUtils.format("%s: count=%d mean=%dus p50=%dus p95=%dus max=%dus",
+			getName(), getCount(), getMeanMicros(), getPercentileMicros(50), getPercentileMicros(95), getMaxMicros());
+	}
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.debug;
+
+import androidx.annotation.NonNull;
+
+import com.apptentive.android.sdk.ApptentiveLog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * SDK-wide registry of performance metrics (counters, gauges and latency histograms). Metrics are
+ * created on first use and updated without locking. Listeners receive every recorded value so the
+ * host app can forward them to its own monitoring.
+ */
+public class Metrics {
+
+	//region Metric names
+
+	/** Duration of <code>engage()</code> calls (histogram) */
+	public static final String ENGAGE_LATENCY = "engage.latency";
+
+	/** Duration of a single interaction criteria evaluation (histogram) */
+	public static final String CRITERIA_EVALUATION_TIME = "criteria.evaluation_time";
+
+	/** Time between adding a payload to the queue and the server accepting it (histogram) */
+	public static final String PAYLOAD_ACK_LATENCY = "payload.ack_latency";
+
+	/** Number of payloads waiting to be sent (gauge) */
+	public static final String PAYLOAD_QUEUE_DEPTH = "payload.queue_depth";
+
+	/** Number of payloads successfully sent (counter) */
+	public static final String PAYLOADS_SENT = "payload.sent";
+
+	/** Number of pending payloads merged into newer ones instead of being sent (counter) */
+	public static final String PAYLOADS_MERGED = "payload.merged";
+
+	/** Number of payloads which failed to send (counter) */
+	public static final String PAYLOADS_FAILED = "payload.failed";
+
+	/** Duration of conversation data serialization (histogram) */
+	public static final String CONVERSATION_SAVE_DURATION = "conversation.save_duration";
+
+	/** Duration of HTTP requests (histogram) */
+	public static final String HTTP_REQUEST_DURATION = "http.request_duration";
+
+	/** Number of failed HTTP requests (counter) */
+	public static final String HTTP_REQUEST_FAILURES = "http.request_failures";
+
+	/** Number of times requests were put on hold after repeated failures (counter) */
+	public static final String HTTP_CIRCUIT_OPENED = "http.circuit_opened";
+
+	/** Number of HTTP requests which shared the response of an identical in-flight request (counter) */
+	public static final String HTTP_REQUEST_COALESCED = "http.request_coalesced";
+
+	/** Number of HTTP connections returned to the keep-alive pool after a request (counter) */
+	public static final String HTTP_CONNECTIONS_RELEASED = "http.connections_released";
+
+	/** Number of HTTP connections closed after a request (counter) */
+	public static final String HTTP_CONNECTIONS_DISCONNECTED = "http.connections_disconnected";
+
+	/** Duration of the master key resolution from the KeyStore (histogram) */
+	public static final String KEYSTORE_ACCESS_LATENCY = "security.keystore_latency";
+
+	/** Number of event payloads saved by client-side aggregation (counter) */
+	public static final String EVENTS_AGGREGATED = "event.aggregated";
+
+	//endregion
+
+	private static final ConcurrentMap<String, Metric> metrics = new ConcurrentHashMap<>();
+	private static final List<OnMetricListener> listeners = new CopyOnWriteArrayList<>();
+
+	//region Registry
+
+	public static MetricCounter counter(@NonNull String name) {
+		return getMetric(name, MetricCounter.class);
+	}
+
+	public static MetricGauge gauge(@NonNull String name) {
+		return getMetric(name, MetricGauge.class);
+	}
+
+	public static MetricHistogram histogram(@NonNull String name) {
+		return getMetric(name, MetricHistogram.class);
+	}
+
+	private static <T extends Metric> T getMetric(String name, Class<T> cls) {
+		Metric metric = metrics.get(name);
+		if (metric == null) {
+			Metric newMetric = createMetric(name, cls);
+			metric = metrics.putIfAbsent(name, newMetric);
+			if (metric == null) {
+				metric = newMetric;
+			}
+		}
+
+		if (!cls.isInstance(metric)) {
+			throw new IllegalArgumentException("Metric '" + name + "' is already registered as " + metric.getClass().getSimpleName());
+		}
+		return cls.cast(metric);
+	}
+
+	private static Metric createMetric(String name, Class<? extends Metric> cls) {
+		if (cls == MetricCounter.class) {
+			return new MetricCounter(name);
+		}
+		if (cls == MetricGauge.class) {
+			return new MetricGauge(name);
+		}
+		if (cls == MetricHistogram.class) {
+			return new MetricHistogram(name);
+		}
+		throw new IllegalArgumentException("Unexpected metric class: " + cls);
+	}
+
+	/**
+	 * Returns all registered metrics sorted by name
+	 */
+	public static List<Metric> getMetrics() {
+		List<Metric> result = new ArrayList<>(metrics.values());
+		Collections.sort(result, new Comparator<Metric>() {
+			@Override
+			public int compare(Metric o1, Metric o2) {
+				return o1.getName().compareTo(o2.getName());
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Resets the values of all registered metrics
+	 */
+	public static void reset() {
+		for (Metric metric : metrics.values()) {
+			metric.reset();
+		}
+	}
+
+	//endregion
+
+	//region Listeners
+
+	static void notifyListeners(String name, Metric.Type type, long value) {
+		if (listeners.isEmpty()) {
+			return;
+		}
+
+		for (OnMetricListener listener : listeners) {
+			try {
+				listener.onMetric(name, type, value);
+			} catch (Exception e) {
+				ApptentiveLog.e(e, "Exception while notifying listener " + listener);
+			}
+		}
+	}
+
+	public static void registerListener(@NonNull OnMetricListener listener) {
+		if (listener == null) {
+			throw new IllegalArgumentException("Listener is null");
+		}
+		listeners.add(listener);
+	}
+
+	public static void unregisterListener(@NonNull OnMetricListener listener) {
+		if (listener == null) {
+			throw new IllegalArgumentException("Listener is null");
+		}
+		listeners.remove(listener);
+	}
+
+	public interface OnMetricListener {
+		/**
+		 * Called each time a metric is updated. Histogram values are in microseconds; counter values
+		 * are deltas; gauge values are the new value. Might be called on any thread.
+		 */
+		void onMetric(String name, Metric.Type type, long value);
+	}
+
+	//endregion
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.debug;
+
+import com.apptentive.android.sdk.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records timings of the SDK initialization phases. Phases might run on different threads (some
+ * of them are executed in parallel or deferred) so each phase keeps its offset from the beginning
+ * of the trace and the name of the thread it was executed on.
+ */
+public class StartupTrace {
+	public static final String PHASE_CONFIGURE_LOGGING = "configure_logging";
+	public static final String PHASE_RESOLVE_ANDROID_ID = "resolve_android_id";
+	public static final String PHASE_CREATE_INSTANCE = "create_instance";
+	public static final String PHASE_RESOLVE_ENCRYPTION = "resolve_encryption";
+	public static final String PHASE_APP_RELEASE = "app_release";
+	public static final String PHASE_LOAD_CONVERSATION = "load_conversation";
+	public static final String PHASE_PACKAGE_INFO = "package_info";
+	public static final String PHASE_APPTIMIZE = "apptimize";
+
+	private final long startNanos;
+	private final List<Phase> phases;
+
+	public StartupTrace() {
+		this(System.nanoTime());
+	}
+
+	StartupTrace(long startNanos) {
+		this.startNanos = startNanos;
+		this.phases = new ArrayList<>();
+	}
+
+	/**
+	 * Starts a new phase on the current thread. The phase should be ended with {@link Phase#end()}.
+	 */
+	public Phase beginPhase(String name) {
+		if (StringUtils.isNullOrEmpty(name)) {
+			throw new IllegalArgumentException("Phase name is null or empty");
+		}
+
+		Phase phase = new Phase(name, Thread.currentThread().getName(), startNanos, System.nanoTime());
+		synchronized (phases) {
+			phases.add(phase);
+		}
+		return phase;
+	}
+
+	/**
+	 * Returns a snapshot of recorded phases in the order they were started
+	 */
+	public List<Phase> getPhases() {
+		synchronized (phases) {
+			return new ArrayList<>(phases);
+		}
+	}
+
+	/**
+	 * Returns a phase with the specified name or <code>null</code> if it was not recorded
+	 */
+	public Phase getPhase(String name) {
+		synchronized (phases) {
+			for (Phase phase : phases) {
+				if (phase.name.equals(name)) {
+					return phase;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns <code>true</code> if all the started phases are finished
+	 */
+	public boolean isFinished() {
+		synchronized (phases) {
+			for (Phase phase : phases) {
+				if (!phase.isFinished()) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Returns time elapsed between the beginning of the trace and the end of the last finished phase
+	 */
+	public long getTotalDurationMillis() {
+		long endNanos = 0;
+		synchronized (phases) {
+			for (Phase phase : phases) {
+				if (phase.isFinished()) {
+					endNanos = Math.max(endNanos, phase.startOffsetNanos + phase.durationNanos);
+				}
+			}
+		}
+		return toMillis(endNanos);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder("Startup trace (total ").append(getTotalDurationMillis()).append(" ms):");
+		for (Phase phase : getPhases()) {
+			result.append("\n\t").append(phase);
+		}
+		return result.toString();
+	}
+
+	private static long toMillis(long nanos) {
+		return nanos / 1000000L;
+	}
+
+	/**
+	 * A single initialization phase
+	 */
+	public static class Phase {
+		private final String name;
+		private final String threadName;
+		private final long startNanos;
+		private final long startOffsetNanos;
+		private volatile long durationNanos = -1;
+
+		Phase(String name, String threadName, long traceStartNanos, long startNanos) {
+			this.name = name;
+			this.threadName = threadName;
+			this.startNanos = startNanos;
+			this.startOffsetNanos = startNanos - traceStartNanos;
+		}
+
+		/**
+		 * Marks the phase as finished. Subsequent calls have no effect.
+		 */
+		public void end() {
+			if (durationNanos == -1) {
+				durationNanos = System.nanoTime() - startNanos;
+			}
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getThreadName() {
+			return threadName;
+		}
+
+		public long getStartOffsetMillis() {
+			return toMillis(startOffsetNanos);
+		}
+
+		/**
+		 * Returns phase duration or <code>-1</code> if the phase is not finished yet
+		 */
+		public long getDurationMillis() {
+			long duration = durationNanos;
+			return duration != -1 ? toMillis(duration) : -1;
+		}
+
+		public boolean isFinished() {
+			return durationNanos != -1;
+		}
+
+		@Override
+		public String toString() {
+			return isFinished() ?
+				StringUtils.format("%s: +%d ms %d ms (%s)", name, getStartOffsetMillis(), getDurationMillis(), threadName) :
+				StringUtils.format("%s: +%d ms running (%s)", name, getStartOffsetMillis(), threadName);
+		}
+	}
+}
@@ -48,7 +48,7 @@ class AesCBCEncryption implements Encryption {
 				return data;
 			}
 
-			final Cipher cipher = Cipher.getInstance(transformation);
+			final Cipher cipher = CipherCache.getCipher(transformation);
 
 			byte[] iv = new byte[IV_LENGTH];
 			secureRandom.nextBytes(iv);
@@ -93,7 +93,7 @@ class AesCBCEncryption implements Encryption {
 				throw new EncryptionException("Unable to read initialization vector");
 			}
 
-			final Cipher cipher = Cipher.getInstance(transformation);
+			final Cipher cipher = CipherCache.getCipher(transformation);
 			cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(iv));
 
 			ByteArrayOutputStream output = new ByteArrayOutputStream();
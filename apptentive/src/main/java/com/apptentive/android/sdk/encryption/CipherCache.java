@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.encryption;
+
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.crypto.Cipher;
+import javax.crypto.NoSuchPaddingException;
+
+/**
+ * Per-thread cache of {@link Cipher} instances. Creating a cipher involves a security provider
+ * lookup which is relatively expensive while <code>Cipher</code> objects are not thread-safe: each
+ * thread keeps its own instance for every transformation. Callers must initialize the cipher
+ * before each use.
+ */
+final class CipherCache {
+	private static final ThreadLocal<Map<String, Cipher>> CIPHERS = new ThreadLocal<Map<String, Cipher>>() {
+		@Override
+		protected Map<String, Cipher> initialValue() {
+			return new HashMap<>();
+		}
+	};
+
+	private CipherCache() {
+	}
+
+	/**
+	 * Returns a cipher for the transformation owned by the current thread
+	 */
+	static Cipher getCipher(String transformation) throws NoSuchPaddingException, NoSuchAlgorithmException {
+		Map<String, Cipher> ciphers = CIPHERS.get();
+		Cipher cipher = ciphers.get(transformation);
+		if (cipher == null) {
+			cipher = Cipher.getInstance(transformation);
+			ciphers.put(transformation, cipher);
+		}
+		return cipher;
+	}
+
+	/**
+	 * Removes all the ciphers owned by the current thread
+	 */
+	static void clear() {
+		CIPHERS.remove();
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.encryption;
+
+import androidx.annotation.NonNull;
+
+import com.apptentive.android.sdk.ApptentiveLog;
+import com.apptentive.android.sdk.Encryption;
+import com.apptentive.android.sdk.util.threading.DispatchQueue;
+import com.apptentive.android.sdk.util.threading.DispatchTask;
+
+import java.util.concurrent.CountDownLatch;
+
+import static com.apptentive.android.sdk.ApptentiveLogTag.SECURITY;
+import static com.apptentive.android.sdk.debug.ErrorMetrics.logException;
+
+/**
+ * Encryption which resolves its target asynchronously. Resolving the master key might involve slow
+ * KeyStore operations which should not block the SDK initialization: the target is resolved on a
+ * background queue and the first encrypt/decrypt call waits until it becomes available.
+ */
+public class DeferredEncryption implements Encryption {
+	private final CountDownLatch resolvedLatch = new CountDownLatch(1);
+	private volatile Encryption target;
+	private volatile Exception error;
+
+	DeferredEncryption() {
+	}
+
+	/**
+	 * Starts resolving the target encryption on the specified queue
+	 */
+	public static DeferredEncryption resolveAsync(DispatchQueue queue, final Resolver resolver) {
+		if (queue == null) {
+			throw new IllegalArgumentException("Queue is null");
+		}
+		if (resolver == null) {
+			throw new IllegalArgumentException("Resolver is null");
+		}
+
+		final DeferredEncryption encryption = new DeferredEncryption();
+		queue.dispatchAsync(new DispatchTask() {
+			@Override
+			protected void execute() {
+				encryption.resolve(resolver);
+			}
+		});
+		return encryption;
+	}
+
+	void resolve(Resolver resolver) {
+		try {
+			target = resolver.resolve();
+			if (target == null) {
+				throw new IllegalStateException("Resolved encryption is null");
+			}
+		} catch (Exception e) {
+			ApptentiveLog.e(SECURITY, e, "Exception while resolving encryption");
+			logException(e);
+			error = e;
+		} finally {
+			resolvedLatch.countDown();
+		}
+	}
+
+	@Override
+	public @NonNull byte[] encrypt(@NonNull byte[] data) throws EncryptionException {
+		return getTarget().encrypt(data);
+	}
+
+	@Override
+	public @NonNull byte[] decrypt(@NonNull byte[] data) throws EncryptionException {
+		return getTarget().decrypt(data);
+	}
+
+	/**
+	 * Returns <code>true</code> if the target encryption was resolved (successfully or not)
+	 */
+	public boolean isResolved() {
+		return resolvedLatch.getCount() == 0;
+	}
+
+	private Encryption getTarget() throws EncryptionException {
+		if (!isResolved()) {
+			ApptentiveLog.v(SECURITY, "Waiting for encryption to be resolved on thread: %s", Thread.currentThread().getName());
+			try {
+				resolvedLatch.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new EncryptionException("Interrupted while waiting for encryption", e);
+			}
+		}
+
+		Encryption target = this.target;
+		if (target == null) {
+			throw new EncryptionException("Encryption was not initialized", error);
+		}
+		return target;
+	}
+
+	/**
+	 * Resolves the target encryption
+	 */
+	public interface Resolver {
+		@NonNull Encryption resolve() throws Exception;
+	}
+}
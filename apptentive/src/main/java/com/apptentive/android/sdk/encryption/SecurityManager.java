@@ -9,6 +9,7 @@ import androidx.annotation.Nullable;
 import com.apptentive.android.sdk.ApptentiveLog;
 import com.apptentive.android.sdk.Encryption;
 import com.apptentive.android.sdk.debug.ErrorMetrics;
+import com.apptentive.android.sdk.debug.Metrics;
 import com.apptentive.android.sdk.encryption.resolvers.KeyResolver;
 import com.apptentive.android.sdk.encryption.resolvers.KeyResolverFactory;
 import com.apptentive.android.sdk.util.StringUtils;
@@ -33,6 +34,12 @@ public final class SecurityManager {
 	/** If we don't extract it into a constant - R8 would crash! */
 	private static final int SDK_INT = Build.VERSION.SDK_INT;
 
+	/** Key info of the cached master key */
+	private static KeyInfo cachedKeyInfo;
+
+	/** Master key resolved for the cached key info (resolving it involves slow KeyStore operations) */
+	private static EncryptionKey cachedMasterKey;
+
 	//region Initialization
 
 	/**
@@ -70,6 +77,12 @@ public final class SecurityManager {
 	public static void clear(Context context) {
 		SharedPreferences prefs = getPrefs(context);
 		prefs.edit().clear().apply();
+		clearCachedMasterKey();
+	}
+
+	static synchronized void clearCachedMasterKey() {
+		cachedKeyInfo = null;
+		cachedMasterKey = null;
 	}
 
 	private static boolean hasEncryptionInfo(Context context) {
@@ -103,12 +116,25 @@ public final class SecurityManager {
 		return new KeyInfo(keyAlias, versionCode);
 	}
 
-	private static @NonNull EncryptionKey resolveMasterKey(Context context, KeyInfo keyInfo) throws EncryptionInitializationException {
+	private static synchronized @NonNull EncryptionKey resolveMasterKey(Context context, KeyInfo keyInfo) throws EncryptionInitializationException {
+		if (cachedMasterKey != null && keyInfo.equals(cachedKeyInfo)) {
+			return cachedMasterKey;
+		}
+
+		long startTime = System.nanoTime();
 		try {
 			KeyResolver keyResolver = KeyResolverFactory.createKeyResolver(keyInfo.versionCode);
-			return keyResolver.resolveKey(context, keyInfo.alias);
+			EncryptionKey masterKey = keyResolver.resolveKey(context, keyInfo.alias);
+
+			cachedKeyInfo = keyInfo;
+			cachedMasterKey = masterKey;
+			return masterKey;
 		} catch (Exception e) {
 			throw new EncryptionInitializationException(StringUtils.format("Exception while resolving secret key for alias '%s'. Encryption might not work correctly!", hideIfSanitized(keyInfo.alias)), e);
+		} finally {
+			long durationMicros = (System.nanoTime() - startTime) / 1000L;
+			Metrics.histogram(Metrics.KEYSTORE_ACCESS_LATENCY).record(durationMicros);
+			ApptentiveLog.v(SECURITY, "Master key resolution took %d ms", durationMicros / 1000L);
 		}
 	}
 
@@ -151,6 +177,20 @@ public final class SecurityManager {
 			this.versionCode = versionCode;
 		}
 
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (o == null || getClass() != o.getClass()) return false;
+
+			KeyInfo keyInfo = (KeyInfo) o;
+			return versionCode == keyInfo.versionCode && alias.equals(keyInfo.alias);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * alias.hashCode() + versionCode;
+		}
+
 		@Override
 		public String toString() {
 			return StringUtils.format("KeyInfo: alias=%s versionCode=%d", hideIfSanitized(alias), versionCode);
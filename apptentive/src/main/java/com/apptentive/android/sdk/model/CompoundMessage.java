@@ -14,6 +14,7 @@ import com.apptentive.android.sdk.Encryption;
 import com.apptentive.android.sdk.debug.ErrorMetrics;
 import com.apptentive.android.sdk.module.messagecenter.model.MessageCenterUtil;
 import com.apptentive.android.sdk.network.HttpRequestMethod;
+import com.apptentive.android.sdk.storage.ApptentiveTaskManager;
 import com.apptentive.android.sdk.util.StringUtils;
 import com.apptentive.android.sdk.util.Util;
 import com.apptentive.android.sdk.util.image.ImageItem;
@@ -29,7 +30,6 @@ import java.io.FileInputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.Future;
 
 import static com.apptentive.android.sdk.ApptentiveLogTag.MESSAGES;
 import static com.apptentive.android.sdk.ApptentiveLogTag.PAYLOADS;
@@ -127,7 +127,7 @@ public class CompoundMessage extends ApptentiveMessage implements MessageCenterU
 		put(KEY_TEXT_ONLY, bVal);
 	}
 
-	private List<StoredFile> attachedFiles;
+	private volatile List<StoredFile> attachedFiles;
 
 	public boolean setAssociatedImages(List<ImageItem> attachedImages) {
 
@@ -153,16 +153,7 @@ public class CompoundMessage extends ApptentiveMessage implements MessageCenterU
 
 		attachedFiles = attachmentStoredFiles;
 
-		boolean bRet = false;
-		try {
-			Future<Boolean> future = ApptentiveInternal.getInstance().getApptentiveTaskManager().addCompoundMessageFiles(attachmentStoredFiles);
-			bRet = future.get();
-		} catch (Exception e) {
-			ApptentiveLog.e(MESSAGES, "Unable to set associated images in worker thread");
-			logException(e);
-		} finally {
-			return bRet;
-		}
+		return storeAssociatedFiles(attachmentStoredFiles);
 	}
 
 	public boolean setAssociatedFiles(List<StoredFile> attachedFiles) {
@@ -177,53 +168,94 @@ public class CompoundMessage extends ApptentiveMessage implements MessageCenterU
 		}
 		setTextOnly(hasNoAttachments);
 
-		boolean bRet = false;
-		try {
-			Future<Boolean> future = ApptentiveInternal.getInstance().getApptentiveTaskManager().addCompoundMessageFiles(attachedFiles);
-			bRet = future.get();
-		} catch (Exception e) {
-			ApptentiveLog.e(MESSAGES, "Unable to set associated files in worker thread");
-			logException(e);
-		} finally {
-			return bRet;
+		return storeAssociatedFiles(attachedFiles);
+	}
+
+	/**
+	 * Schedules storing associated files in the database.
+	 *
+	 * @return true if files were scheduled for storing
+	 */
+	private boolean storeAssociatedFiles(List<StoredFile> associatedFiles) {
+		ApptentiveTaskManager taskManager = ApptentiveInternal.getInstance().getApptentiveTaskManager();
+		if (taskManager == null) {
+			ApptentiveLog.e(MESSAGES, "Unable to set associated files: task manager is not available");
+			return false;
 		}
+
+		taskManager.addCompoundMessageFiles(associatedFiles, new ApptentiveTaskManager.Callback<Boolean>() {
+			@Override
+			public void onFinish(Boolean added) {
+				if (!added) {
+					ApptentiveLog.e(MESSAGES, "Unable to set associated files for message: %s", getNonce());
+				}
+			}
+		});
+		return true;
 	}
 
-	public List<StoredFile> getAssociatedFiles() {
+	public boolean hasAttachments() {
+		return !hasNoAttachments;
+	}
+
+	/**
+	 * Asynchronously resolves files associated with the message. If files are already known, the
+	 * callback is invoked immediately on the caller thread. Otherwise, files are loaded from the
+	 * database and the callback is invoked on the database queue.
+	 */
+	public void getAssociatedFiles(final ApptentiveTaskManager.Callback<List<StoredFile>> callback) {
 		if (hasNoAttachments) {
-			return null;
+			callback.onFinish(null);
+			return;
+		}
+
+		final List<StoredFile> associatedFiles = attachedFiles;
+		if (associatedFiles != null) {
+			callback.onFinish(associatedFiles);
+			return;
 		}
-		List<StoredFile> associatedFiles = null;
-		try {
-			Future<List<StoredFile>> future = ApptentiveInternal.getInstance().getApptentiveTaskManager().getAssociatedFiles(getNonce());
-			associatedFiles = future.get();
-		} catch (Exception e) {
-			ApptentiveLog.e(MESSAGES, "Unable to get associated files in worker thread");
-			logException(e);
-		} finally {
-			return associatedFiles;
+
+		ApptentiveTaskManager taskManager = ApptentiveInternal.getInstance().getApptentiveTaskManager();
+		if (taskManager == null) {
+			ApptentiveLog.e(MESSAGES, "Unable to get associated files: task manager is not available");
+			callback.onFinish(null);
+			return;
 		}
+
+		taskManager.getAssociatedFiles(getNonce(), new ApptentiveTaskManager.Callback<List<StoredFile>>() {
+			@Override
+			public void onFinish(List<StoredFile> files) {
+				if (files != null) {
+					attachedFiles = files;
+				}
+				callback.onFinish(files);
+			}
+		});
 	}
 
 	public void deleteAssociatedFiles() {
-		try {
-			Future<List<StoredFile>> future = ApptentiveInternal.getInstance().getApptentiveTaskManager().getAssociatedFiles(getNonce());
-			List<StoredFile> associatedFiles = future.get();
-			// Delete local cached files
-			if (associatedFiles == null || associatedFiles.size() == 0) {
-				return;
-			}
+		final ApptentiveTaskManager taskManager = ApptentiveInternal.getInstance().getApptentiveTaskManager();
+		if (taskManager == null) {
+			ApptentiveLog.e(MESSAGES, "Unable to delete associated files: task manager is not available");
+			return;
+		}
+
+		taskManager.getAssociatedFiles(getNonce(), new ApptentiveTaskManager.Callback<List<StoredFile>>() {
+			@Override
+			public void onFinish(List<StoredFile> associatedFiles) {
+				// Delete local cached files
+				if (associatedFiles == null || associatedFiles.size() == 0) {
+					return;
+				}
 
-			for (StoredFile file : associatedFiles) {
-				File localFile = new File(file.getLocalFilePath());
-				localFile.delete();
+				for (StoredFile file : associatedFiles) {
+					File localFile = new File(file.getLocalFilePath());
+					localFile.delete();
+				}
+				// Delete records from db
+				taskManager.deleteAssociatedFiles(getNonce());
 			}
-			// Delete records from db
-			ApptentiveInternal.getInstance().getApptentiveTaskManager().deleteAssociatedFiles(getNonce());
-		} catch (Exception e) {
-			ApptentiveLog.e(MESSAGES, "Unable to delete associated files in worker thread");
-			logException(e);
-		}
+		});
 	}
 
 
@@ -28,6 +28,10 @@ public class EventPayload extends ConversationItem {
 	private static final String KEY_INTERACTION_ID = "interaction_id";
 	private static final String KEY_DATA = "data";
 	private static final String KEY_TRIGGER = "trigger";
+	private static final String KEY_AGGREGATE = "aggregate";
+	private static final String KEY_AGGREGATE_COUNT = "count";
+	private static final String KEY_AGGREGATE_FIRST_CLIENT_CREATED_AT = "first_client_created_at";
+	private static final String KEY_AGGREGATE_LAST_CLIENT_CREATED_AT = "last_client_created_at";
 	@SensitiveDataKey private static final String KEY_CUSTOM_DATA = "custom_data";
 
 	static {
@@ -92,6 +96,33 @@ public class EventPayload extends ConversationItem {
 		}
 	}
 
+	/**
+	 * Creates a payload which represents multiple engagements of the same event within a time window
+	 */
+	public static EventPayload createAggregated(String label, int count, double firstClientCreatedAt, double lastClientCreatedAt) {
+		EventPayload payload = new EventPayload(label, (JSONObject) null);
+		payload.setClientCreatedAt(firstClientCreatedAt);
+		try {
+			JSONObject aggregate = new JSONObject();
+			aggregate.put(KEY_AGGREGATE_COUNT, count);
+			aggregate.put(KEY_AGGREGATE_FIRST_CLIENT_CREATED_AT, firstClientCreatedAt);
+			aggregate.put(KEY_AGGREGATE_LAST_CLIENT_CREATED_AT, lastClientCreatedAt);
+			payload.put(KEY_AGGREGATE, aggregate);
+		} catch (JSONException e) {
+			ApptentiveLog.e(e, "Unable to construct aggregated Event.");
+			logException(e);
+		}
+		return payload;
+	}
+
+	/**
+	 * Returns the number of engagements represented by this payload (1 for regular events)
+	 */
+	public int getAggregateCount() {
+		JSONObject aggregate = getJSONObject(KEY_AGGREGATE);
+		return aggregate != null ? aggregate.optInt(KEY_AGGREGATE_COUNT, 1) : 1;
+	}
+
 	public String getEventLabel() {
 		return optString(KEY_LABEL, null);
 	}
@@ -9,6 +9,7 @@ package com.apptentive.android.sdk.model;
 import android.os.Bundle;
 import androidx.annotation.NonNull;
 
+import com.apptentive.android.sdk.module.engagement.InteractionPrewarmer;
 import com.apptentive.android.sdk.module.engagement.interaction.fragment.AboutFragment;
 import com.apptentive.android.sdk.module.engagement.interaction.fragment.AppStoreRatingFragment;
 import com.apptentive.android.sdk.module.engagement.interaction.fragment.ApptentiveBaseFragment;
@@ -36,7 +37,7 @@ public class FragmentFactory {
 
 				interactionString = bundle.getString(Interaction.KEY_NAME);
 
-				interaction = Interaction.Factory.parseInteraction(interactionString);
+				interaction = InteractionPrewarmer.parseInteraction(bundle.getString(FragmentConfigKeys.INTERACTION_ID), interactionString);
 				if (interaction != null) {
 					switch (interaction.getType()) {
 						case UpgradeMessage:
@@ -81,7 +82,7 @@ public class FragmentFactory {
 		if (fragmentType == Constants.FragmentTypes.INTERACTION) {
 			String interactionString;
 			interactionString = bundle.getString(Interaction.KEY_NAME);
-			interaction = Interaction.Factory.parseInteraction(interactionString);
+			interaction = InteractionPrewarmer.parseInteraction(bundle.getString(FragmentConfigKeys.INTERACTION_ID), interactionString);
 			if (interaction != null) {
 				switch (interaction.getType()) {
 					case Survey:
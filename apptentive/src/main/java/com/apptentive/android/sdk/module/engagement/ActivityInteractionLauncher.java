@@ -21,7 +21,8 @@ class ActivityInteractionLauncher implements InteractionLauncher {
 		Intent intent = new Intent();
 		intent.setClass(context.getApplicationContext(), ApptentiveViewActivity.class);
 		intent.putExtra(Constants.FragmentConfigKeys.TYPE, Constants.FragmentTypes.INTERACTION);
-		intent.putExtra(Interaction.KEY_NAME, interaction.toString());
+		intent.putExtra(Interaction.KEY_NAME, InteractionPrewarmer.prepare(interaction));
+		intent.putExtra(Constants.FragmentConfigKeys.INTERACTION_ID, interaction.getId());
 			/* non-activity context start an Activity, but it requires that a new task be created.
 			 * This may fit specific use cases, but can create non-standard back stack behaviors in
 			 * hosting application. non-activity context include application context, context from Service
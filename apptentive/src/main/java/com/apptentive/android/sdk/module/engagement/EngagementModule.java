@@ -15,6 +15,7 @@ import com.apptentive.android.sdk.ApptentiveLog;
 import com.apptentive.android.sdk.conversation.Conversation;
 import com.apptentive.android.sdk.debug.Assert;
 import com.apptentive.android.sdk.debug.ErrorMetrics;
+import com.apptentive.android.sdk.debug.Metrics;
 import com.apptentive.android.sdk.model.EventPayload;
 import com.apptentive.android.sdk.model.ExtendedData;
 import com.apptentive.android.sdk.module.engagement.interaction.model.Interaction;
@@ -70,22 +71,39 @@ public class EngagementModule {
 			return false;
 		}
 
+		long startNanos = System.nanoTime();
 		try {
 			String eventLabel = generateEventLabel(vendor, interaction, eventName);
 			ApptentiveLog.i(INTERACTIONS, "Engage event: '%s'", eventLabel);
 
 			String versionName = ApptentiveInternal.getInstance().getApplicationVersionName();
 			int versionCode = ApptentiveInternal.getInstance().getApplicationVersionCode();
-			conversation.getEventData().storeEventForCurrentAppVersion(Util.currentTimeSeconds(), versionCode, versionName, eventLabel);
-			conversation.addPayload(new EventPayload(eventLabel, interactionId, data, customData, extendedData));
+			double timestamp = Util.currentTimeSeconds();
+			conversation.getEventData().storeEventForCurrentAppVersion(timestamp, versionCode, versionName, eventLabel);
+
+			EventAggregator aggregator = ApptentiveInternal.getInstance().getEventAggregator();
+			if (aggregator != null && aggregator.isAggregated(eventLabel) && isAggregatable(interactionId, data, customData, extendedData)) {
+				aggregator.aggregate(conversation, eventLabel, timestamp);
+			} else {
+				conversation.addPayload(new EventPayload(eventLabel, interactionId, data, customData, extendedData));
+			}
 			return doEngage(conversation, context, eventLabel);
 		} catch (Exception e) {
 			ApptentiveLog.e(INTERACTIONS, e, "Exception while engaging event '%s'", eventName);
 			logException(e);
+		} finally {
+			Metrics.histogram(Metrics.ENGAGE_LATENCY).recordSince(startNanos);
 		}
 		return false;
 	}
 
+	/**
+	 * Only events without any extra data can be aggregated (the data would be lost otherwise)
+	 */
+	private static boolean isAggregatable(String interactionId, String data, Map<String, Object> customData, ExtendedData... extendedData) {
+		return interactionId == null && data == null && (customData == null || customData.isEmpty()) && (extendedData == null || extendedData.length == 0);
+	}
+
 	private static boolean doEngage(Conversation conversation, Context context, String eventLabel) {
 		checkConversationQueue();
 
@@ -113,6 +131,7 @@ public class EngagementModule {
 		}
 
 		if (!isMainQueue()) {
+			InteractionPrewarmer.prepare(interaction); // serialize before the main queue hop (no-op if pre-warmed)
 			mainQueue().dispatchAsync(new DispatchTask() {
 				@Override
 				protected void execute() {
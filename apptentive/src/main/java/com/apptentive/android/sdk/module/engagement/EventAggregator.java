@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.module.engagement;
+
+import com.apptentive.android.sdk.ApptentiveLog;
+import com.apptentive.android.sdk.conversation.Conversation;
+import com.apptentive.android.sdk.debug.Metrics;
+import com.apptentive.android.sdk.model.EventPayload;
+import com.apptentive.android.sdk.util.threading.DispatchQueue;
+import com.apptentive.android.sdk.util.threading.DispatchTask;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static com.apptentive.android.sdk.ApptentiveLogTag.PAYLOADS;
+import static com.apptentive.android.sdk.debug.ErrorMetrics.logException;
+
+/**
+ * Counts engagements of high-frequency events in memory and sends a single aggregated payload per
+ * event label once the aggregation window expires (or the app goes to background/the conversation
+ * ends). Only affects the payloads: event counters used by interaction criteria are updated for
+ * every engagement. Should only be accessed on the conversation queue.
+ */
+public class EventAggregator {
+	private final DispatchQueue queue;
+	private final Set<String> eventLabels;
+	private final long windowMillis;
+	private final Map<String, Bucket> buckets;
+	private Conversation conversation;
+
+	private final DispatchTask flushTask = new DispatchTask() {
+		@Override
+		protected void execute() {
+			flush();
+		}
+	};
+
+	/**
+	 * @param queue        - queue for scheduling flushes (all calls are expected on this queue)
+	 * @param eventNames   - names of the app events which should be aggregated
+	 * @param windowMillis - time window for aggregating events
+	 */
+	public EventAggregator(DispatchQueue queue, Collection<String> eventNames, long windowMillis) {
+		if (queue == null) {
+			throw new IllegalArgumentException("Queue is null");
+		}
+		if (windowMillis <= 0) {
+			throw new IllegalArgumentException("Invalid aggregation window: " + windowMillis);
+		}
+
+		this.queue = queue;
+		this.windowMillis = windowMillis;
+		this.eventLabels = new HashSet<>();
+		if (eventNames != null) {
+			for (String eventName : eventNames) {
+				eventLabels.add(EngagementModule.generateEventLabel("local", "app", eventName));
+			}
+		}
+		this.buckets = new LinkedHashMap<>();
+	}
+
+	/**
+	 * Returns <code>true</code> if the event with the specified label should be aggregated
+	 */
+	public boolean isAggregated(String eventLabel) {
+		return eventLabels.contains(eventLabel);
+	}
+
+	/**
+	 * Records a single engagement of an aggregated event
+	 */
+	public void aggregate(Conversation conversation, String eventLabel, double timestamp) {
+		// events of different conversations should never end up in the same payload
+		if (this.conversation != null && this.conversation != conversation) {
+			flush();
+		}
+		this.conversation = conversation;
+
+		Bucket bucket = buckets.get(eventLabel);
+		if (bucket == null) {
+			bucket = new Bucket(timestamp);
+			buckets.put(eventLabel, bucket);
+		}
+		bucket.add(timestamp);
+
+		queue.dispatchAsyncOnce(flushTask, windowMillis);
+	}
+
+	/**
+	 * Sends aggregated payloads for all the pending events
+	 */
+	public void flush() {
+		if (buckets.isEmpty()) {
+			conversation = null;
+			return;
+		}
+
+		ApptentiveLog.v(PAYLOADS, "Flushing %d aggregated event(s)", buckets.size());
+		for (Map.Entry<String, Bucket> entry : buckets.entrySet()) {
+			Bucket bucket = entry.getValue();
+			try {
+				sendPayload(conversation, EventPayload.createAggregated(entry.getKey(), bucket.count, bucket.firstTimestamp, bucket.lastTimestamp));
+				Metrics.counter(Metrics.EVENTS_AGGREGATED).add(bucket.count - 1);
+			} catch (Exception e) {
+				ApptentiveLog.e(PAYLOADS, e, "Exception while sending aggregated event: '%s'", entry.getKey());
+				logException(e);
+			}
+		}
+		buckets.clear();
+		conversation = null;
+	}
+
+	/**
+	 * Returns the number of pending engagements for the specified event label
+	 */
+	int getPendingCount(String eventLabel) {
+		Bucket bucket = buckets.get(eventLabel);
+		return bucket != null ? bucket.count : 0;
+	}
+
+	protected void sendPayload(Conversation conversation, EventPayload payload) {
+		conversation.addPayload(payload);
+	}
+
+	private static class Bucket {
+		final double firstTimestamp;
+		double lastTimestamp;
+		int count;
+
+		Bucket(double firstTimestamp) {
+			this.firstTimestamp = firstTimestamp;
+		}
+
+		void add(double timestamp) {
+			lastTimestamp = timestamp;
+			++count;
+		}
+	}
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.module.engagement;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.apptentive.android.sdk.ApptentiveInternal;
+import com.apptentive.android.sdk.ApptentiveLog;
+import com.apptentive.android.sdk.conversation.Conversation;
+import com.apptentive.android.sdk.module.engagement.interaction.model.Interaction;
+import com.apptentive.android.sdk.util.threading.DispatchTask;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.apptentive.android.sdk.ApptentiveHelper.dispatchOnConversationQueueOnce;
+import static com.apptentive.android.sdk.ApptentiveLogTag.INTERACTIONS;
+import static com.apptentive.android.sdk.debug.ErrorMetrics.logException;
+
+/**
+ * Prepares interactions ahead of launch. After a manifest is loaded the interactions which are
+ * currently eligible for the targeted events (up to a limit) are parsed and serialized on the
+ * conversation queue so launching one only passes a prepared string through the intent and the
+ * fragments reuse the parsed model (looked up by the interaction id from the intent) instead of
+ * parsing the same JSON again on the main thread.
+ */
+public final class InteractionPrewarmer {
+	/**
+	 * Max number of prepared interactions kept in memory
+	 */
+	static final int MAX_PREPARED_INTERACTIONS = 8;
+
+	/**
+	 * Max number of targeted events evaluated by a single pre-warm (each evaluation runs the
+	 * interaction criteria)
+	 */
+	static final int MAX_PREWARMED_EVENTS = 16;
+
+	/**
+	 * Prepared interactions (interaction id => prepared interaction) in access order
+	 */
+	private static final Map<String, PreparedInteraction> preparedInteractions = new LinkedHashMap<String, PreparedInteraction>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, PreparedInteraction> eldest) {
+			return size() > MAX_PREPARED_INTERACTIONS;
+		}
+	};
+
+	private static final DispatchTask prewarmTask = new DispatchTask() {
+		@Override
+		protected void execute() {
+			Conversation conversation = ApptentiveInternal.getInstance().getConversation();
+			if (conversation != null && conversation.hasActiveState()) {
+				prewarm(conversation);
+			}
+		}
+	};
+
+	private InteractionPrewarmer() {
+	}
+
+	/**
+	 * Schedules pre-warming of currently eligible interactions on the conversation queue. Multiple
+	 * calls are coalesced into a single task.
+	 */
+	public static void schedulePrewarm() {
+		dispatchOnConversationQueueOnce(prewarmTask, 0L);
+	}
+
+	static void prewarm(@NonNull Conversation conversation) {
+		try {
+			long start = System.currentTimeMillis();
+			List<Interaction> interactions = conversation.getApplicableInteractions(MAX_PREWARMED_EVENTS, MAX_PREPARED_INTERACTIONS);
+			for (Interaction interaction : interactions) {
+				prepare(interaction);
+			}
+			ApptentiveLog.v(INTERACTIONS, "Pre-warmed %d interaction(s). Took %d ms", interactions.size(), System.currentTimeMillis() - start);
+		} catch (Exception e) {
+			ApptentiveLog.e(INTERACTIONS, e, "Exception while pre-warming interactions");
+			logException(e);
+		}
+	}
+
+	/**
+	 * Returns a serialized interaction for an intent extra. The interaction is serialized only if it
+	 * was not prepared yet and is kept for the launch.
+	 */
+	static @NonNull String prepare(@NonNull Interaction interaction) {
+		String id = interaction.getId();
+		synchronized (preparedInteractions) {
+			PreparedInteraction prepared = id != null ? preparedInteractions.get(id) : null;
+			if (prepared != null && prepared.interaction == interaction) {
+				return prepared.json;
+			}
+		}
+
+		// serialize outside of the lock
+		String json = interaction.toString();
+		if (id != null) {
+			synchronized (preparedInteractions) {
+				preparedInteractions.put(id, new PreparedInteraction(interaction, json));
+			}
+		}
+		return json;
+	}
+
+	/**
+	 * Returns a parsed interaction for the serialized definition. A prepared instance is returned if
+	 * available: callers must not modify it.
+	 *
+	 * @param id   - interaction id passed along with the definition (might be <code>null</code>)
+	 * @param json - serialized interaction definition
+	 */
+	public static @Nullable Interaction parseInteraction(@Nullable String id, @Nullable String json) {
+		if (json == null) {
+			return null;
+		}
+
+		if (id != null) {
+			PreparedInteraction prepared;
+			synchronized (preparedInteractions) {
+				prepared = preparedInteractions.get(id);
+			}
+			// definition might be stale (e.g. the activity is restored after a manifest update)
+			if (prepared != null && prepared.json.equals(json)) {
+				return prepared.interaction;
+			}
+		}
+
+		return Interaction.Factory.parseInteraction(json);
+	}
+
+	/**
+	 * Drops all prepared interactions (when the manifest or the conversation changes)
+	 */
+	public static void clear() {
+		synchronized (preparedInteractions) {
+			preparedInteractions.clear();
+		}
+	}
+
+	static int getPreparedCount() {
+		synchronized (preparedInteractions) {
+			return preparedInteractions.size();
+		}
+	}
+
+	private static class PreparedInteraction {
+		final Interaction interaction;
+		final String json;
+
+		PreparedInteraction(Interaction interaction, String json) {
+			this.interaction = interaction;
+			this.json = json;
+		}
+	}
+}
@@ -18,6 +18,7 @@ import static com.apptentive.android.sdk.ApptentiveLogTag.NOTIFICATIONS;
 import static com.apptentive.android.sdk.util.Constants.NOTIFICATION_ACTION_DISPLAY;
 import static com.apptentive.android.sdk.util.Constants.NOTIFICATION_CHANNEL_DEFAULT;
 import static com.apptentive.android.sdk.util.Constants.NOTIFICATION_EXTRA_INTERACTION_DEFINITION;
+import static com.apptentive.android.sdk.util.Constants.NOTIFICATION_EXTRA_INTERACTION_ID;
 import static com.apptentive.android.sdk.util.Constants.NOTIFICATION_EXTRA_INTERACTION_TYPE;
 
 class NotificationInteractionLauncher implements InteractionLauncher {
@@ -31,7 +32,8 @@ class NotificationInteractionLauncher implements InteractionLauncher {
 		final Intent launchIntent = new Intent(context, ApptentiveNotificationInteractionBroadcastReceiver.class);
 		launchIntent.setAction(NOTIFICATION_ACTION_DISPLAY);
 		launchIntent.putExtra(NOTIFICATION_EXTRA_INTERACTION_TYPE, interaction.getType().name());
-		launchIntent.putExtra(NOTIFICATION_EXTRA_INTERACTION_DEFINITION, interaction.toString());
+		launchIntent.putExtra(NOTIFICATION_EXTRA_INTERACTION_DEFINITION, InteractionPrewarmer.prepare(interaction));
+		launchIntent.putExtra(NOTIFICATION_EXTRA_INTERACTION_ID, interaction.getId());
 		context.sendBroadcast(launchIntent);
 		return true;
 	}
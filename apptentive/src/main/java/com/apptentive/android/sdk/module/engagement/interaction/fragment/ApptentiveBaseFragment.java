@@ -32,6 +32,7 @@ import com.apptentive.android.sdk.conversation.ConversationProxy;
 import com.apptentive.android.sdk.debug.ErrorMetrics;
 import com.apptentive.android.sdk.model.ExtendedData;
 import com.apptentive.android.sdk.module.engagement.EngagementModule;
+import com.apptentive.android.sdk.module.engagement.InteractionPrewarmer;
 import com.apptentive.android.sdk.module.engagement.interaction.InteractionManager;
 import com.apptentive.android.sdk.module.engagement.interaction.model.Interaction;
 import com.apptentive.android.sdk.util.Constants;
@@ -128,7 +129,7 @@ public abstract class ApptentiveBaseFragment<T extends Interaction> extends Dial
 				bShownAsModal = bundle.getBoolean(Constants.FragmentConfigKeys.MODAL, false);
 				String interactionString = bundle.getString("interaction");
 				if (!TextUtils.isEmpty(interactionString)) {
-					interaction = (T) Interaction.Factory.parseInteraction(interactionString);
+					interaction = (T) InteractionPrewarmer.parseInteraction(bundle.getString(Constants.FragmentConfigKeys.INTERACTION_ID), interactionString);
 				}
 			}
 
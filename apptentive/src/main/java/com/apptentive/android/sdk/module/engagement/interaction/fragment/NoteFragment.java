@@ -20,7 +20,6 @@ import com.apptentive.android.sdk.R;
 import com.apptentive.android.sdk.conversation.ConversationProxy;
 import com.apptentive.android.sdk.module.engagement.EngagementModule;
 import com.apptentive.android.sdk.module.engagement.interaction.model.Interaction;
-import com.apptentive.android.sdk.module.engagement.interaction.model.Interactions;
 import com.apptentive.android.sdk.module.engagement.interaction.model.Invocation;
 import com.apptentive.android.sdk.module.engagement.interaction.model.TextModalInteraction;
 import com.apptentive.android.sdk.module.engagement.interaction.model.common.Action;
@@ -139,15 +138,7 @@ public class NoteFragment extends ApptentiveBaseFragment<TextModalInteraction> {
 									if (interactionIdToLaunch != null) {
 										ConversationProxy conversation = getConversation();
 										if (conversation != null) {
-											String interactionsString = conversation.getInteractions();
-											if (interactionsString != null) {
-												try {
-													Interactions interactions = new Interactions(interactionsString);
-													invokedInteraction = interactions.getInteraction(interactionIdToLaunch);
-												}catch (JSONException e) {
-													logException(e);
-												}
-											}
+											invokedInteraction = conversation.getInteraction(interactionIdToLaunch);
 										}
 									}
 
@@ -7,6 +7,7 @@
 package com.apptentive.android.sdk.module.engagement.interaction.model;
 
 import com.apptentive.android.sdk.ApptentiveLog;
+import com.apptentive.android.sdk.debug.Metrics;
 import com.apptentive.android.sdk.module.engagement.logic.Clause;
 import com.apptentive.android.sdk.module.engagement.logic.ClauseParser;
 import com.apptentive.android.sdk.module.engagement.logic.FieldManager;
@@ -33,6 +34,15 @@ public class InteractionCriteria {
 	}
 
 	public boolean isMet(FieldManager fieldManager, boolean verbose) {
+		return isMet(fieldManager, verbose, true);
+	}
+
+	/**
+	 * @param recordMetrics - if <code>false</code> the evaluation time is not recorded (speculative
+	 *                      evaluations should not skew the engagement metrics)
+	 */
+	public boolean isMet(FieldManager fieldManager, boolean verbose, boolean recordMetrics) {
+		long startNanos = System.nanoTime();
 		try {
 			Clause rootClause = ClauseParser.parse(json);
 			boolean ret = false;
@@ -52,6 +62,10 @@ public class InteractionCriteria {
 		} catch (Exception e) {
 			ApptentiveLog.e(INTERACTIONS, e, "Exception while evaluating interaction criteria");
 			logException(e);
+		} finally {
+			if (recordMetrics) {
+				Metrics.histogram(Metrics.CRITERIA_EVALUATION_TIME).recordSince(startNanos);
+			}
 		}
 		return false;
 	}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.module.engagement.interaction.model;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import com.apptentive.android.sdk.ApptentiveLog;
+import com.apptentive.android.sdk.network.JsonResponseHandler;
+import com.apptentive.android.sdk.util.TeeInputStream;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static com.apptentive.android.sdk.ApptentiveLogTag.INTERACTIONS;
+import static com.apptentive.android.sdk.debug.ErrorMetrics.logException;
+
+/**
+ * Parses the interaction manifest response directly from the network stream: each interaction is
+ * read and parsed separately and the targets are copied as a string (no complete Json tree of the
+ * manifest is created). The interactions string to store is assembled from the raw interaction
+ * strings, so the parsed interactions are never serialized back. An optional raw copy of the response is written for troubleshooting.
+ */
+public class InteractionManifestResponseHandler extends JsonResponseHandler<InteractionManifestResponseHandler.Manifest> {
+	private final File rawManifestFile;
+
+	/**
+	 * @param rawManifestFile - optional file for the raw copy of the response
+	 */
+	public InteractionManifestResponseHandler(File rawManifestFile) {
+		this.rawManifestFile = rawManifestFile;
+	}
+
+	@Override
+	public Manifest handleResponse(InputStream stream) throws IOException {
+		if (rawManifestFile != null) {
+			try {
+				stream = new TeeInputStream(stream, new FileOutputStream(rawManifestFile));
+			} catch (Exception e) {
+				ApptentiveLog.e(INTERACTIONS, e, "Exception while trying to save engagement manifest data");
+				logException(e);
+			}
+		}
+
+		try {
+			return super.handleResponse(stream);
+		} finally {
+			if (stream instanceof TeeInputStream) {
+				stream.close(); // flush the raw copy (the response stream is left open)
+			}
+		}
+	}
+
+	@Override
+	protected Manifest parseResponse(JsonReader reader) throws IOException {
+		Interactions interactions = null;
+		String interactionsJson = null;
+		String targets = null;
+
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (Interactions.KEY_NAME.equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+				StringBuilder json = new StringBuilder();
+				interactions = readInteractions(reader, json);
+				interactionsJson = json.toString();
+			} else if (Targets.KEY_NAME.equals(name) && reader.peek() != JsonToken.NULL) {
+				targets = readJsonString(reader);
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+
+		return new Manifest(interactions, interactionsJson, targets);
+	}
+
+	/**
+	 * Reads the interactions array into parsed interactions and a Json string of interactions by id
+	 */
+	private static Interactions readInteractions(JsonReader reader, StringBuilder json) throws IOException {
+		try {
+			Interactions interactions = new Interactions();
+			json.append('{');
+			reader.beginArray();
+			while (reader.hasNext()) {
+				String interactionJson = readJsonString(reader);
+				Interaction interaction = Interaction.Factory.parseInteraction(interactionJson);
+				if (interaction != null) {
+					interactions.addInteraction(interaction);
+					if (json.length() > 1) {
+						json.append(',');
+					}
+					json.append(JSONObject.quote(interaction.getId())).append(':').append(interactionJson);
+				} else {
+					// This is an unknown Interaction type. Probably for a future SDK version.
+				}
+			}
+			reader.endArray();
+			json.append('}');
+			return interactions;
+		} catch (JSONException e) {
+			throw new IOException("Unable to load Interactions from InteractionManifest", e);
+		}
+	}
+
+	/**
+	 * Interactions and targets of a fetched manifest
+	 */
+	public static class Manifest {
+		private final Interactions interactions;
+		private final String interactionsJson;
+		private final String targets;
+
+		Manifest(Interactions interactions, String interactionsJson, String targets) {
+			this.interactions = interactions;
+			this.interactionsJson = interactionsJson;
+			this.targets = targets;
+		}
+
+		/**
+		 * Returns parsed interactions by id or <code>null</code> if the manifest has none
+		 */
+		public Interactions getInteractions() {
+			return interactions;
+		}
+
+		/**
+		 * Returns interactions by id Json string or <code>null</code> if the manifest has none
+		 */
+		public String getInteractionsJson() {
+			return interactionsJson;
+		}
+
+		/**
+		 * Returns targets Json string or <code>null</code> if the manifest has none
+		 */
+		public String getTargets() {
+			return targets;
+		}
+	}
+}
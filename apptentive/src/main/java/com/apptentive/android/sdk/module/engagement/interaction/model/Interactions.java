@@ -12,8 +12,10 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import static com.apptentive.android.sdk.ApptentiveLogTag.INTERACTIONS;
 import static com.apptentive.android.sdk.debug.ErrorMetrics.logException;
@@ -25,6 +27,12 @@ import static com.apptentive.android.sdk.debug.ErrorMetrics.logException;
 public class Interactions extends JSONObject {
 	public static final String KEY_NAME = "interactions";
 
+	/**
+	 * Interactions parsed so far. Parsing an interaction (a survey with many questions, for example)
+	 * is expensive: each interaction is parsed once and the instance is shared between lookups.
+	 */
+	private final Map<String, Interaction> parsedInteractions = new HashMap<>();
+
 	public Interactions() throws JSONException {
 		super();
 	}
@@ -33,10 +41,30 @@ public class Interactions extends JSONObject {
 		super(json);
 	}
 
+	/**
+	 * Adds an already parsed interaction (it's shared by the lookups without being parsed again)
+	 */
+	public void addInteraction(Interaction interaction) throws JSONException {
+		String id = interaction.getId();
+		put(id, interaction);
+		synchronized (parsedInteractions) {
+			parsedInteractions.put(id, interaction);
+		}
+	}
+
 	public Interaction getInteraction(String id) {
 		try {
 			if (!isNull(id)) {
-				return Interaction.Factory.parseInteraction(getJSONObject(id).toString());
+				synchronized (parsedInteractions) {
+					Interaction interaction = parsedInteractions.get(id);
+					if (interaction == null) {
+						interaction = Interaction.Factory.parseInteraction(getJSONObject(id).toString());
+						if (interaction != null) {
+							parsedInteractions.put(id, interaction);
+						}
+					}
+					return interaction;
+				}
 			}
 		} catch (JSONException e) {
 			ApptentiveLog.w(INTERACTIONS, e, "Exception parsing interactions array.");
@@ -50,9 +78,8 @@ public class Interactions extends JSONObject {
 		Iterator<String> keys = keys();
 		while (keys.hasNext()) {
 			String key = keys.next();
-			JSONObject interactionObject = optJSONObject(key);
-			if (interactionObject != null) {
-				Interaction interaction = Interaction.Factory.parseInteraction(interactionObject.toString());
+			if (optJSONObject(key) != null) {
+				Interaction interaction = getInteraction(key);
 				if (interaction != null) {
 					ret.add(interaction);
 				}
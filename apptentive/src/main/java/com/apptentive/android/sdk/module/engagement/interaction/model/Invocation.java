@@ -37,11 +37,15 @@ public class Invocation extends JSONObject {
 	}
 
 	public boolean isCriteriaMet(FieldManager fieldManager, boolean verbose) {
+		return isCriteriaMet(fieldManager, verbose, true);
+	}
+
+	public boolean isCriteriaMet(FieldManager fieldManager, boolean verbose, boolean recordMetrics) {
 		try {
 			if (!isNull(KEY_CRITERIA)) {
 				JSONObject criteriaObject = getJSONObject(KEY_CRITERIA);
 				InteractionCriteria criteria = new InteractionCriteria(criteriaObject.toString());
-				return criteria.isMet(fieldManager, verbose);
+				return criteria.isMet(fieldManager, verbose, recordMetrics);
 			}
 		} catch (JSONException e) {
 			logException(e);
@@ -15,6 +15,11 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import static com.apptentive.android.sdk.ApptentiveLogTag.INTERACTIONS;
 import static com.apptentive.android.sdk.debug.ErrorMetrics.logException;
 
@@ -25,31 +30,61 @@ public class Targets extends JSONObject {
 
 	public static final String KEY_NAME = "targets";
 
+	/**
+	 * Invocations parsed so far (event label => invocations)
+	 */
+	private final Map<String, List<Invocation>> parsedInvocations = new HashMap<>();
+
 	public Targets(String json) throws JSONException {
 		super(json);
 	}
 
 	public String getApplicableInteraction(String eventLabel, boolean verbose) {
-		JSONArray invocations = optJSONArray(eventLabel);
+		return getApplicableInteraction(eventLabel, verbose, true);
+	}
+
+	public String getApplicableInteraction(String eventLabel, boolean verbose, boolean recordMetrics) {
+		List<Invocation> invocations = getInvocations(eventLabel);
 		if (invocations != null) {
-			for (int i = 0; i < invocations.length(); i++) {
-				JSONObject invocationObject = invocations.optJSONObject(i);
-				if (invocationObject != null) {
-					try {
-						Invocation invocation = new Invocation(invocationObject.toString());
-						Conversation conversation = ApptentiveInternal.getInstance().getConversation();
-						FieldManager fieldManager = new FieldManager(ApptentiveInternal.getInstance().getApplicationContext(), conversation.getVersionHistory(), conversation.getEventData(), conversation.getPerson(), conversation.getDevice(), conversation.getAppRelease());
-
-						if (invocation.isCriteriaMet(fieldManager, verbose)) {
-							return invocation.getInteractionId();
-						}
-					} catch (JSONException e) {
-						logException(e);
-					}
+			for (Invocation invocation : invocations) {
+				Conversation conversation = ApptentiveInternal.getInstance().getConversation();
+				FieldManager fieldManager = new FieldManager(ApptentiveInternal.getInstance().getApplicationContext(), conversation.getVersionHistory(), conversation.getEventData(), conversation.getPerson(), conversation.getDevice(), conversation.getAppRelease());
+
+				if (invocation.isCriteriaMet(fieldManager, verbose, recordMetrics)) {
+					return invocation.getInteractionId();
 				}
 			}
 		}
 		ApptentiveLog.v(INTERACTIONS, "No runnable Interactions for EventLabel: %s", eventLabel);
 		return null;
 	}
+
+	/**
+	 * Returns parsed invocations for the event label or <code>null</code> if the event is not targeted
+	 */
+	List<Invocation> getInvocations(String eventLabel) {
+		synchronized (parsedInvocations) {
+			List<Invocation> invocations = parsedInvocations.get(eventLabel);
+			if (invocations == null) {
+				JSONArray invocationsArray = optJSONArray(eventLabel);
+				if (invocationsArray == null) {
+					return null;
+				}
+
+				invocations = new ArrayList<>(invocationsArray.length());
+				for (int i = 0; i < invocationsArray.length(); i++) {
+					JSONObject invocationObject = invocationsArray.optJSONObject(i);
+					if (invocationObject != null) {
+						try {
+							invocations.add(new Invocation(invocationObject.toString()));
+						} catch (JSONException e) {
+							logException(e);
+						}
+					}
+				}
+				parsedInvocations.put(eventLabel, invocations);
+			}
+			return invocations;
+		}
+	}
 }
@@ -14,6 +14,7 @@ import com.apptentive.android.sdk.ApptentiveLogTag;
 import com.apptentive.android.sdk.debug.Assert;
 import com.apptentive.android.sdk.storage.AppRelease;
 import com.apptentive.android.sdk.storage.CustomData;
+import com.apptentive.android.sdk.storage.DailyCounter;
 import com.apptentive.android.sdk.storage.Device;
 import com.apptentive.android.sdk.storage.EventData;
 import com.apptentive.android.sdk.storage.Person;
@@ -134,6 +135,10 @@ public class FieldManager {
 							case version_name:
 								String appVersionName = RuntimeUtils.getAppVersionName(context);
 								return new BigDecimal(eventData.getInteractionCountForVersionName(interactionId, appVersionName));
+							case last_days: { // Get total for the last N days (including today)
+								Integer days = parseDays(tokens, 4);
+								return days != null ? new BigDecimal(eventData.getInteractionCountForLastDays(interactionId, Util.currentTimeSeconds(), days)) : null;
+							}
 							default:
 								break;
 						}
@@ -169,6 +174,10 @@ public class FieldManager {
 							case version_name:
 								String appVersionName = RuntimeUtils.getAppVersionName(context);
 								return new BigDecimal(eventData.getEventCountForVersionName(eventLabel, appVersionName));
+							case last_days: { // Get total for the last N days (including today)
+								Integer days = parseDays(tokens, 4);
+								return days != null ? new BigDecimal(eventData.getEventCountForLastDays(eventLabel, Util.currentTimeSeconds(), days)) : null;
+							}
 							default:
 								break;
 						}
@@ -365,6 +374,8 @@ public class FieldManager {
 							case version_name:
 								String appVersionName = RuntimeUtils.getAppVersionName(context);
 								return StringUtils.format("number of invokes for interaction '%s' for version name '%s'", interactionId, appVersionName);
+							case last_days:
+								return StringUtils.format("number of invokes for interaction '%s' in the last %s day(s)", interactionId, tokens.length > 4 ? tokens[4].trim() : null);
 							default:
 								break;
 						}
@@ -397,6 +408,8 @@ public class FieldManager {
 							case version_name:
 								String appVersionName = RuntimeUtils.getAppVersionName(context);
 								return StringUtils.format("number of invokes for event '%s' for version name '%s'", eventLabel, appVersionName);
+							case last_days:
+								return StringUtils.format("number of invokes for event '%s' in the last %s day(s)", eventLabel, tokens.length > 4 ? tokens[4].trim() : null);
 							default:
 								break;
 						}
@@ -496,6 +509,25 @@ public class FieldManager {
 		return null;
 	}
 
+	/**
+	 * Parses the number of days for the <code>last_days</code> queries. Returns <code>null</code> if
+	 * the value is missing or is not within the tracked range.
+	 */
+	private static Integer parseDays(String[] tokens, int index) {
+		if (tokens.length > index) {
+			try {
+				int days = Integer.parseInt(tokens[index].trim());
+				if (days > 0 && days <= DailyCounter.MAX_DAYS) {
+					return days;
+				}
+			} catch (NumberFormatException e) {
+				// handled below
+			}
+		}
+		ApptentiveLog.w(INTERACTIONS, "Invalid number of days for query: '%s' (expected 1..%d)", StringUtils.join(tokens, "/"), DailyCounter.MAX_DAYS);
+		return null;
+	}
+
 	private enum QueryPart {
 		application,
 		current_time,
@@ -541,6 +573,7 @@ public class FieldManager {
 		version,
 		version_code,
 		version_name,
+		last_days,
 		debug,
 		build,
 		time_ago,
@@ -21,9 +21,9 @@ import com.apptentive.android.sdk.R;
 import com.apptentive.android.sdk.conversation.Conversation;
 import com.apptentive.android.sdk.conversation.ConversationDispatchTask;
 import com.apptentive.android.sdk.module.engagement.EngagementModule;
+import com.apptentive.android.sdk.module.engagement.InteractionPrewarmer;
 import com.apptentive.android.sdk.module.engagement.interaction.fragment.ApptentiveBaseFragment;
 import com.apptentive.android.sdk.module.engagement.interaction.model.Interaction;
-import com.apptentive.android.sdk.module.engagement.interaction.model.Interactions;
 import com.apptentive.android.sdk.module.engagement.interaction.model.Invocation;
 import com.apptentive.android.sdk.module.engagement.interaction.model.TextModalInteraction;
 import com.apptentive.android.sdk.module.engagement.interaction.model.common.Action;
@@ -49,6 +49,7 @@ import static com.apptentive.android.sdk.util.Constants.NOTIFICATION_ACTION_DISP
 import static com.apptentive.android.sdk.util.Constants.NOTIFICATION_ACTION_NOTE_BUTTON_PRESSED;
 import static com.apptentive.android.sdk.util.Constants.NOTIFICATION_EXTRA_ID;
 import static com.apptentive.android.sdk.util.Constants.NOTIFICATION_EXTRA_INTERACTION_DEFINITION;
+import static com.apptentive.android.sdk.util.Constants.NOTIFICATION_EXTRA_INTERACTION_ID;
 import static com.apptentive.android.sdk.util.Constants.NOTIFICATION_EXTRA_INTERACTION_TYPE;
 import static com.apptentive.android.sdk.util.Constants.NOTIFICATION_EXTRA_NOTE_ACTION_INDEX;
 import static com.apptentive.android.sdk.util.Constants.NOTIFICATION_ID_DEFAULT;
@@ -60,14 +61,15 @@ public class NoteInteractionNotificationAdapter implements InteractionNotificati
 
 		String action = intent.getAction();
 		String interactionString = intent.getStringExtra(NOTIFICATION_EXTRA_INTERACTION_DEFINITION);
-		TextModalInteraction interaction;
-		try {
-			interaction = new TextModalInteraction(intent.getStringExtra(NOTIFICATION_EXTRA_INTERACTION_DEFINITION));
-		} catch (JSONException e) {
+		String interactionId = intent.getStringExtra(NOTIFICATION_EXTRA_INTERACTION_ID);
+
+		// reuses the interaction prepared before the launch (if the definition is still up to date)
+		Interaction parsedInteraction = InteractionPrewarmer.parseInteraction(interactionId, interactionString);
+		if (!(parsedInteraction instanceof TextModalInteraction)) {
 			ApptentiveLog.w(NOTIFICATION_INTERACTIONS, "Unable to parse interaction: %s", interactionString);
-			logException(e);
 			return;
 		}
+		TextModalInteraction interaction = (TextModalInteraction) parsedInteraction;
 		if (StringUtils.equal(action, NOTIFICATION_ACTION_DISPLAY)) {
 			actionDisplayNotification(context, channelId, interaction);
 		} else if (StringUtils.equal(action, NOTIFICATION_ACTION_DELETE)) {
@@ -94,6 +96,7 @@ public class NoteInteractionNotificationAdapter implements InteractionNotificati
 		deleteIntent.putExtra(NOTIFICATION_EXTRA_ID, NOTIFICATION_ID_DEFAULT);
 		deleteIntent.putExtra(NOTIFICATION_EXTRA_INTERACTION_TYPE, interaction.getType().name());
 		deleteIntent.putExtra(NOTIFICATION_EXTRA_INTERACTION_DEFINITION, interaction.toString());
+		deleteIntent.putExtra(NOTIFICATION_EXTRA_INTERACTION_ID, interaction.getId());
 		deleteIntent.setAction(NOTIFICATION_ACTION_DELETE);
 		PendingIntent deletePendingIntent = PendingIntent.getBroadcast(context, new Random().nextInt(), deleteIntent, PendingIntent.FLAG_ONE_SHOT);
 		builder.setDeleteIntent(deletePendingIntent);
@@ -127,6 +130,7 @@ public class NoteInteractionNotificationAdapter implements InteractionNotificati
 				intent.putExtra(NOTIFICATION_EXTRA_ID, NOTIFICATION_ID_DEFAULT);
 				intent.putExtra(NOTIFICATION_EXTRA_INTERACTION_TYPE, interaction.getType().name());
 				intent.putExtra(NOTIFICATION_EXTRA_INTERACTION_DEFINITION, interaction.toString());
+				intent.putExtra(NOTIFICATION_EXTRA_INTERACTION_ID, interaction.getId());
 				intent.putExtra(NOTIFICATION_EXTRA_NOTE_ACTION_INDEX, i);
 				switch (actionType) {
 					// Don't worry about what each button does now, let the adapter make that choice when it does get pressed.
@@ -217,15 +221,7 @@ public class NoteInteractionNotificationAdapter implements InteractionNotificati
 						// If an Interaction can be launched, fetch its definition.
 						Interaction invokedInteraction = null;
 						if (interactionIdToLaunch != null) {
-							String interactionsString = conversation.getInteractions();
-							if (interactionsString != null) {
-								try {
-									Interactions interactions = new Interactions(interactionsString);
-									invokedInteraction = interactions.getInteraction(interactionIdToLaunch);
-								} catch (JSONException e) {
-									logException(e);
-								}
-							}
+							invokedInteraction = conversation.getInteraction(interactionIdToLaunch);
 						}
 
 						// Send the tracking event, now that we have all the necessary information.
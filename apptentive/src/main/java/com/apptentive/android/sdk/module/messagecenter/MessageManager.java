@@ -24,10 +24,10 @@ import com.apptentive.android.sdk.model.PayloadData;
 import com.apptentive.android.sdk.model.PayloadType;
 import com.apptentive.android.sdk.module.messagecenter.model.ApptentiveToastNotification;
 import com.apptentive.android.sdk.module.messagecenter.model.MessageCenterListItem;
-import com.apptentive.android.sdk.module.messagecenter.model.MessageFactory;
+import com.apptentive.android.sdk.module.messagecenter.model.MessageListResponseHandler;
 import com.apptentive.android.sdk.module.metric.MetricModule;
-import com.apptentive.android.sdk.network.HttpJsonRequest;
 import com.apptentive.android.sdk.network.HttpRequest;
+import com.apptentive.android.sdk.network.HttpStreamingRequest;
 import com.apptentive.android.sdk.notifications.ApptentiveNotification;
 import com.apptentive.android.sdk.notifications.ApptentiveNotificationCenter;
 import com.apptentive.android.sdk.notifications.ApptentiveNotificationObserver;
@@ -36,7 +36,6 @@ import com.apptentive.android.sdk.util.Destroyable;
 import com.apptentive.android.sdk.util.threading.DispatchQueue;
 import com.apptentive.android.sdk.util.threading.DispatchTask;
 
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -240,30 +239,23 @@ public class MessageManager implements Destroyable, ApptentiveNotificationObserv
 		messageStore.deleteAllMessages();
 	}
 
-	private HttpJsonRequest fetchMessages(String afterId, final MessageFetchListener listener) {
+	private HttpStreamingRequest<List<ApptentiveMessage>> fetchMessages(String afterId, final MessageFetchListener listener) {
 		ApptentiveLog.v(MESSAGES, "Fetching messages newer than: %s", (afterId == null) ? "0" : afterId);
 
 		// TODO: Use the new ApptentiveHttpClient for this.
 		ApptentiveHttpClient httpClient = ApptentiveInternal.getInstance().getApptentiveHttpClient();
-		HttpJsonRequest request = httpClient.createFetchMessagesRequest(conversation.getConversationToken(), conversation.getConversationId(), afterId, null, null, new HttpRequest.Listener<HttpJsonRequest>() {
+		HttpStreamingRequest<List<ApptentiveMessage>> request = httpClient.createFetchMessagesRequest(conversation.getConversationToken(), conversation.getConversationId(), afterId, null, null, new MessageListResponseHandler(), new HttpRequest.Listener<HttpStreamingRequest<List<ApptentiveMessage>>>() {
 			@Override
-			public void onFinish(HttpJsonRequest request) {
-				try {
-					notifyFinished(listener, parseMessages(request.getResponseObject()));
-				} catch (Exception e) {
-					ApptentiveLog.e(MESSAGES, e, "Exception while parsing messages");
-					logException(e);
-
-					notifyFinished(listener, null);
-				}
+			public void onFinish(HttpStreamingRequest<List<ApptentiveMessage>> request) {
+				notifyFinished(listener, request.getResponseResult()); // messages are parsed on the network queue
 			}
 
 			@Override
-			public void onCancel(HttpJsonRequest request) {
+			public void onCancel(HttpStreamingRequest<List<ApptentiveMessage>> request) {
 			}
 
 			@Override
-			public void onFail(HttpJsonRequest request, String reason) {
+			public void onFail(HttpStreamingRequest<List<ApptentiveMessage>> request, String reason) {
 				ApptentiveLog.e(MESSAGES, "Error while fetching messages: %s", reason);
 				notifyFinished(listener, null);
 			}
@@ -283,23 +275,6 @@ public class MessageManager implements Destroyable, ApptentiveNotificationObserv
 		messageStore.updateMessage(apptentiveMessage);
 	}
 
-	public List<ApptentiveMessage> parseMessages(JSONObject root) throws JSONException {
-		List<ApptentiveMessage> ret = new ArrayList<>();
-		if (!root.isNull("messages")) {
-			JSONArray items = root.getJSONArray("messages");
-			for (int i = 0; i < items.length(); i++) {
-				String json = items.getJSONObject(i).toString();
-				ApptentiveMessage apptentiveMessage = MessageFactory.fromJson(json);
-				// Since these came back from the server, mark them saved before updating them in the DB.
-				if (apptentiveMessage != null) {
-					apptentiveMessage.setState(ApptentiveMessage.State.saved);
-					ret.add(apptentiveMessage);
-				}
-			}
-		}
-		return ret;
-	}
-
 	public void resumeSending() {
 		if (afterSendMessageListener != null && afterSendMessageListener.get() != null) {
 			afterSendMessageListener.get().onResumeSending();
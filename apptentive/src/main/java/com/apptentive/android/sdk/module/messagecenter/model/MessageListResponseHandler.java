@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.module.messagecenter.model;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import com.apptentive.android.sdk.model.ApptentiveMessage;
+import com.apptentive.android.sdk.network.JsonResponseHandler;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses the fetched message list directly from the network stream: messages are read one by one
+ * so only a single message Json is kept in memory at a time.
+ */
+public class MessageListResponseHandler extends JsonResponseHandler<List<ApptentiveMessage>> {
+	private static final String KEY_MESSAGES = "messages";
+
+	@Override
+	protected List<ApptentiveMessage> parseResponse(JsonReader reader) throws IOException {
+		List<ApptentiveMessage> ret = new ArrayList<>();
+
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (KEY_MESSAGES.equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+				reader.beginArray();
+				while (reader.hasNext()) {
+					ApptentiveMessage apptentiveMessage = MessageFactory.fromJson(readJsonString(reader));
+					// Since these came back from the server, mark them saved before updating them in the DB.
+					if (apptentiveMessage != null) {
+						apptentiveMessage.setState(ApptentiveMessage.State.saved);
+						ret.add(apptentiveMessage);
+					}
+				}
+				reader.endArray();
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+
+		return ret;
+	}
+}
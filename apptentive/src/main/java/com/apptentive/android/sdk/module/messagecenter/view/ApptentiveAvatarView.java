@@ -21,12 +21,8 @@ import com.apptentive.android.sdk.ApptentiveLog;
 import com.apptentive.android.sdk.ApptentiveLogTag;
 import com.apptentive.android.sdk.R;
 import com.apptentive.android.sdk.debug.ErrorMetrics;
-import com.apptentive.android.sdk.module.metric.MetricModule;
+import com.apptentive.android.sdk.util.image.ImageUtil;
 
-import java.io.IOException;
-import java.net.URL;
-
-import static com.apptentive.android.sdk.ApptentiveLogTag.MESSAGES;
 import static com.apptentive.android.sdk.ApptentiveLogTag.UTIL;
 
 
@@ -217,41 +213,14 @@ public class ApptentiveAvatarView extends ImageView {
 	}
 
 
+	/**
+	 * Loads the avatar image (see {@link ImageUtil#startDownloadAvatarTask(ApptentiveAvatarView, String)})
+	 */
 	public void fetchImage(final String urlString) {
 		if (urlString == null) {
 			return;
 		}
-		Thread thread = new Thread() {
-			public void run() {
-				Bitmap bitmap = null;
-				try {
-					URL url = new URL(urlString);
-					bitmap = BitmapFactory.decodeStream(url.openStream());
-				} catch (IOException e) {
-					ApptentiveLog.e(UTIL, e, "Error opening avatar from URL: \"%s\"", urlString);
-					logException(e);
-				}
-				if (bitmap != null) {
-					final Bitmap finalBitmap = bitmap;
-					post(new Runnable() { // TODO: replace with DispatchQueue
-						public void run() {
-							setImageBitmap(finalBitmap);
-						}
-					});
-				}
-			}
-		};
-		Thread.UncaughtExceptionHandler handler = new Thread.UncaughtExceptionHandler() {
-			@Override
-			public void uncaughtException(Thread thread, Throwable throwable) {
-				ApptentiveLog.w(MESSAGES, throwable, "UncaughtException in AvatarView.");
-				MetricModule.sendError(throwable, null, null);
-			}
-		};
-		thread.setUncaughtExceptionHandler(handler);
-		thread.setName("Apptentive-AvatarView.fetchImage()");
-		thread.start();
-
+		ImageUtil.startDownloadAvatarTask(this, urlString);
 	}
 
 	/**
@@ -18,9 +18,12 @@ import com.apptentive.android.sdk.model.StoredFile;
 import com.apptentive.android.sdk.module.engagement.interaction.fragment.MessageCenterFragment;
 import com.apptentive.android.sdk.model.CompoundMessage;
 import com.apptentive.android.sdk.module.messagecenter.view.MessageCenterRecyclerViewAdapter;
+import com.apptentive.android.sdk.storage.ApptentiveTaskManager;
 import com.apptentive.android.sdk.util.Util;
 import com.apptentive.android.sdk.util.image.ApptentiveImageGridView;
 import com.apptentive.android.sdk.util.image.ImageItem;
+import com.apptentive.android.sdk.util.threading.DispatchQueue;
+import com.apptentive.android.sdk.util.threading.DispatchTask;
 import com.apptentive.android.sdk.view.ApptentiveMaterialIndeterminateProgressBar;
 
 import java.util.ArrayList;
@@ -37,6 +40,9 @@ public class OutgoingCompoundMessageHolder extends MessageHolder {
 	public ApptentiveImageGridView imageBandView;
 	public TextView status;
 
+	/** Message currently bound to the holder (used for discarding stale attachment callbacks) */
+	private CompoundMessage boundMessage;
+
 	public OutgoingCompoundMessageHolder(View itemView) {
 		super(itemView);
 		root = itemView.findViewById(R.id.message_root);
@@ -49,6 +55,7 @@ public class OutgoingCompoundMessageHolder extends MessageHolder {
 
 	public void bindView(MessageCenterFragment fragment, final RecyclerView recyclerView, final MessageCenterRecyclerViewAdapter adapter, final CompoundMessage message) {
 		super.bindView(fragment, recyclerView, message);
+		boundMessage = message;
 		imageBandView.setupUi();
 
 		messageBodyView.setText(message.getBody());
@@ -66,7 +73,7 @@ public class OutgoingCompoundMessageHolder extends MessageHolder {
 		String statusText;
 		if (createdAt == null || createdAt > Double.MIN_VALUE) {
 			// show progress bar if: 1. no sent time set, and 2. not paused, and 3. have either text or files to sent
-			showProgress = createdAt == null && !fragment.isPaused() && (message.getAssociatedFiles() != null || !TextUtils.isEmpty(message.getBody()));
+			showProgress = createdAt == null && !fragment.isPaused() && (message.hasAttachments() || !TextUtils.isEmpty(message.getBody()));
 			statusText = createStatus(createdAt, message.isLastSent(), fragment.isPaused());
 		} else {
 			showProgress = false;
@@ -82,7 +89,34 @@ public class OutgoingCompoundMessageHolder extends MessageHolder {
 			progressBar.setVisibility(View.GONE);
 		}
 
-		List<StoredFile> files = message.getAssociatedFiles();
+		status.setText(statusText);
+		status.setTextColor(getStatusColor(createdAt, fragment.isPaused()));
+		status.setVisibility(!TextUtils.isEmpty(statusText) ? View.VISIBLE : View.GONE);
+
+		// attachments might need to be loaded from the database: don't block the main thread
+		imageBandView.setVisibility(View.GONE);
+		message.getAssociatedFiles(new ApptentiveTaskManager.Callback<List<StoredFile>>() {
+			@Override
+			public void onFinish(final List<StoredFile> files) {
+				if (DispatchQueue.isMainQueue()) {
+					bindAttachments(recyclerView, adapter, message, files);
+				} else {
+					DispatchQueue.mainQueue().dispatchAsync(new DispatchTask() {
+						@Override
+						protected void execute() {
+							bindAttachments(recyclerView, adapter, message, files);
+						}
+					});
+				}
+			}
+		});
+	}
+
+	private void bindAttachments(RecyclerView recyclerView, final MessageCenterRecyclerViewAdapter adapter, CompoundMessage message, List<StoredFile> files) {
+		if (boundMessage != message) {
+			return; // the holder was recycled while attachments were loading
+		}
+
 		int imagebandWidth = 0;
 		if (files != null && files.size() > 0) {
 			int widthMeasureSpec = View.MeasureSpec.makeMeasureSpec(recyclerView.getWidth(), View.MeasureSpec.EXACTLY);
@@ -110,9 +144,6 @@ public class OutgoingCompoundMessageHolder extends MessageHolder {
 				}
 			});
 		}
-		status.setText(statusText);
-		status.setTextColor(getStatusColor(createdAt, fragment.isPaused()));
-		status.setVisibility(!TextUtils.isEmpty(statusText) ? View.VISIBLE : View.GONE);
 	}
 
 	protected String createStatus(Double seconds, boolean showSent, boolean isPaused) {
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.network;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+
+import com.apptentive.android.sdk.ApptentiveLog;
+
+import static com.apptentive.android.sdk.ApptentiveLogTag.NETWORK;
+import static com.apptentive.android.sdk.debug.ErrorMetrics.logException;
+
+/**
+ * Forwards network connectivity changes to the {@link HttpRequestManager} so the requests are held
+ * while the device is offline and resumed as soon as the connection is back.
+ */
+public class ConnectivityReceiver extends BroadcastReceiver {
+	private final HttpRequestManager requestManager;
+
+	private ConnectivityReceiver(HttpRequestManager requestManager) {
+		this.requestManager = requestManager;
+	}
+
+	/**
+	 * Registers a receiver for connectivity changes and sets the initial connectivity state
+	 */
+	public static void register(Context context, HttpRequestManager requestManager) {
+		if (context == null) {
+			throw new IllegalArgumentException("Context is null");
+		}
+		if (requestManager == null) {
+			throw new IllegalArgumentException("Request manager is null");
+		}
+
+		try {
+			requestManager.setNetworkAvailable(isNetworkAvailable(context));
+
+			@SuppressWarnings("deprecation")
+			IntentFilter filter = new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION);
+			context.getApplicationContext().registerReceiver(new ConnectivityReceiver(requestManager), filter);
+		} catch (Exception e) {
+			ApptentiveLog.e(NETWORK, e, "Unable to register network connectivity receiver");
+			logException(e);
+		}
+	}
+
+	@Override
+	public void onReceive(Context context, Intent intent) {
+		try {
+			requestManager.setNetworkAvailable(isNetworkAvailable(context));
+		} catch (Exception e) {
+			ApptentiveLog.e(NETWORK, e, "Exception while handling network connectivity change");
+			logException(e);
+		}
+	}
+
+	private static boolean isNetworkAvailable(Context context) {
+		ConnectivityManager cm = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+		if (cm == null) {
+			return true; // can't tell: let the requests decide
+		}
+		NetworkInfo activeNetwork = cm.getActiveNetworkInfo();
+		return activeNetwork != null && activeNetwork.isConnectedOrConnecting();
+	}
+}
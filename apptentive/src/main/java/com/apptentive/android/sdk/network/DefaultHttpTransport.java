@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.network;
+
+import com.apptentive.android.sdk.util.Util;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * Platform {@link HttpURLConnection} transport
+ */
+public class DefaultHttpTransport implements HttpTransport {
+	@Override
+	public HttpURLConnection openConnection(URL url) throws IOException {
+		return (HttpURLConnection) url.openConnection();
+	}
+
+	@Override
+	public boolean isNetworkConnectionPresent() {
+		return Util.isNetworkConnectionPresent();
+	}
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.network;
+
+import java.net.HttpURLConnection;
+import java.util.Random;
+
+/**
+ * Tracks server health shared by all the requests of a {@link HttpRequestManager}. After a number of
+ * consecutive failures (connection errors, 5xx or 429 responses) the circuit opens and requests are
+ * held instead of being sent. Once the open timeout expires (or network connectivity is restored)
+ * the circuit becomes half-open and a single request is sent as a probe: a successful response
+ * closes the circuit, a failure opens it again with an exponentially longer timeout.
+ */
+class HttpCircuitBreaker {
+	enum State {
+		CLOSED,
+		OPEN,
+		HALF_OPEN
+	}
+
+	static final int DEFAULT_FAILURE_THRESHOLD = 5;
+	static final long DEFAULT_MIN_OPEN_TIMEOUT_MILLIS = 30 * 1000L;
+	static final long DEFAULT_MAX_OPEN_TIMEOUT_MILLIS = 30 * 60 * 1000L;
+
+	private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+	/**
+	 * Number of consecutive failures which opens the circuit
+	 */
+	private final int failureThreshold;
+
+	/**
+	 * Open timeout after the first failed probe (doubled after each failed probe)
+	 */
+	private final long minOpenTimeoutMillis;
+
+	/**
+	 * Maximum open timeout for the exponential back-off
+	 */
+	private final long maxOpenTimeoutMillis;
+
+	private final Random random;
+
+	private State state = State.CLOSED;
+	private int consecutiveFailures;
+
+	/**
+	 * How many times the circuit was opened since it was closed last time
+	 */
+	private int openCount;
+
+	/**
+	 * Flag indicating if the half-open probe request is being sent
+	 */
+	private boolean probeInFlight;
+
+	HttpCircuitBreaker() {
+		this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_MIN_OPEN_TIMEOUT_MILLIS, DEFAULT_MAX_OPEN_TIMEOUT_MILLIS, new Random());
+	}
+
+	HttpCircuitBreaker(int failureThreshold, long minOpenTimeoutMillis, long maxOpenTimeoutMillis, Random random) {
+		if (failureThreshold < 1) {
+			throw new IllegalArgumentException("Invalid failure threshold: " + failureThreshold);
+		}
+		if (random == null) {
+			throw new IllegalArgumentException("Random is null");
+		}
+		this.failureThreshold = failureThreshold;
+		this.minOpenTimeoutMillis = minOpenTimeoutMillis;
+		this.maxOpenTimeoutMillis = maxOpenTimeoutMillis;
+		this.random = random;
+	}
+
+	/**
+	 * Returns <code>true</code> if a request can be sent right now
+	 */
+	synchronized boolean tryAcquire() {
+		switch (state) {
+			case CLOSED:
+				return true;
+			case HALF_OPEN:
+				if (!probeInFlight) {
+					probeInFlight = true;
+					return true;
+				}
+				return false;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * Records a response of a sent request.
+	 *
+	 * @param responseCode - HTTP response code or <code>-1</code> if the request failed to connect
+	 * @return open timeout in millis if the circuit was opened or <code>-1</code> if it was not
+	 */
+	synchronized long recordResponse(int responseCode) {
+		if (isFailure(responseCode)) {
+			return recordFailure();
+		}
+
+		recordSuccess();
+		return -1;
+	}
+
+	private long recordFailure() {
+		++consecutiveFailures;
+
+		if (state == State.HALF_OPEN) {
+			probeInFlight = false;
+			return open();
+		}
+
+		if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+			return open();
+		}
+
+		return -1;
+	}
+
+	private void recordSuccess() {
+		consecutiveFailures = 0;
+		openCount = 0;
+		probeInFlight = false;
+		state = State.CLOSED;
+	}
+
+	/**
+	 * Should be called when a request was cancelled without a response: a cancelled probe should not
+	 * keep the circuit half-open forever.
+	 */
+	synchronized void recordCancel() {
+		if (state == State.HALF_OPEN) {
+			probeInFlight = false;
+		}
+	}
+
+	/**
+	 * Opens the circuit and returns the open timeout in millis
+	 */
+	private long open() {
+		state = State.OPEN;
+		probeInFlight = false;
+		return getOpenTimeoutMillis(++openCount);
+	}
+
+	/**
+	 * Transitions an open circuit to the half-open state.
+	 *
+	 * @return <code>true</code> if the state has changed
+	 */
+	synchronized boolean halfOpen() {
+		if (state == State.OPEN) {
+			state = State.HALF_OPEN;
+			probeInFlight = false;
+			return true;
+		}
+		return false;
+	}
+
+	synchronized State getState() {
+		return state;
+	}
+
+	private long getOpenTimeoutMillis(int openCount) {
+		long timeout = Math.min(maxOpenTimeoutMillis, (long) (minOpenTimeoutMillis * Math.pow(2.0, openCount - 1)));
+		return (long) ((timeout / 2) * (1.0 + random.nextDouble())); // spread probes of all the clients
+	}
+
+	private static boolean isFailure(int responseCode) {
+		return responseCode <= 0 ||
+			       responseCode >= HttpURLConnection.HTTP_INTERNAL_ERROR ||
+			       responseCode == HTTP_TOO_MANY_REQUESTS;
+	}
+}
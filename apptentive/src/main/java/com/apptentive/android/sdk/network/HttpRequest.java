@@ -11,6 +11,7 @@ import android.util.Base64;
 import com.apptentive.android.sdk.Apptentive;
 import com.apptentive.android.sdk.ApptentiveLog;
 import com.apptentive.android.sdk.debug.ErrorMetrics;
+import com.apptentive.android.sdk.debug.Metrics;
 import com.apptentive.android.sdk.util.Constants;
 import com.apptentive.android.sdk.util.StringUtils;
 import com.apptentive.android.sdk.util.Util;
@@ -47,6 +48,11 @@ public class HttpRequest {
 	 */
 	private static final HttpRequestRetryPolicy DEFAULT_RETRY_POLICY = new HttpRequestRetryPolicyDefault();
 
+	/**
+	 * Default transport (used if the request is not attached to a request manager)
+	 */
+	private static final HttpTransport DEFAULT_TRANSPORT = new DefaultHttpTransport();
+
 	/**
 	 * Id-number of the next request
 	 */
@@ -62,6 +68,12 @@ public class HttpRequest {
 	 */
 	private HttpURLConnection connection;
 
+	/**
+	 * Flag indicating if the response body was fully read and the connection can go back to the
+	 * pool (<code>Connection: Keep-Alive</code>) instead of being disconnected
+	 */
+	private boolean responseConsumed;
+
 	/**
 	 * Optional request tag (for an easy request identification)
 	 */
@@ -142,6 +154,33 @@ public class HttpRequest {
 	 */
 	boolean retrying;
 
+	/**
+	 * Flag indicating if identical requests started while this one is in-flight can share its
+	 * response (see {@link #canCoalesceWith(HttpRequest)})
+	 */
+	private boolean coalescable;
+
+	/**
+	 * In-flight request which delivers its response to the listeners of this (coalesced) request
+	 */
+	private HttpRequest inFlightRequest;
+
+	/**
+	 * Listeners which this request moved to the in-flight request when coalesced
+	 */
+	@SuppressWarnings("rawtypes")
+	private List<Listener> coalescedListeners;
+
+	/**
+	 * Flag indicating if the response was received and listeners can't be detached anymore
+	 */
+	private boolean responseReceived;
+
+	/**
+	 * Priority class of the request (see {@link HttpRequestManager})
+	 */
+	private HttpRequestPriority priority = HttpRequestPriority.TELEMETRY;
+
 	@SuppressWarnings("rawtypes")
 	private List<Listener> listeners;
 
@@ -166,6 +205,11 @@ public class HttpRequest {
 	////////////////////////////////////////////////////////////////
 	// Lifecycle
 
+	/**
+	 * Starts the request. A coalescable request might be coalesced with an identical in-flight one
+	 * instead: its listeners are notified with the in-flight request and {@link #cancel()} only
+	 * detaches them.
+	 */
 	public void start() {
 		assertNotNull(requestManager);
 		if (requestManager != null) {
@@ -222,6 +266,21 @@ public class HttpRequest {
 	protected void handleResponse(String response) throws IOException {
 	}
 
+	/**
+	 * Override this method to consume a successful response directly from the connection stream
+	 * (see {@link #handleResponseStream(InputStream)}) instead of reading it into a string
+	 */
+	protected boolean isStreamingResponse() {
+		return false;
+	}
+
+	/**
+	 * Override this method in a subclass to handle the successful response stream (only called if
+	 * {@link #isStreamingResponse()} returns <code>true</code>). The stream is closed afterwards.
+	 */
+	protected void handleResponseStream(InputStream stream) throws IOException {
+	}
+
 	////////////////////////////////////////////////////////////////
 	// Request async task
 
@@ -229,7 +288,7 @@ public class HttpRequest {
 	 * Send request synchronously on a background network queue
 	 */
 	void dispatchSync(DispatchQueue networkQueue) {
-		long requestStartTime = System.currentTimeMillis();
+		long requestStartTime = System.nanoTime();
 
 		try {
 			sendRequestSync();
@@ -249,13 +308,26 @@ public class HttpRequest {
 			// TODO: send error metrics with the details of the request
 		}
 
-		ApptentiveLog.d(NETWORK, "Request finished in %d ms", System.currentTimeMillis() - requestStartTime);
+		Metrics.histogram(Metrics.HTTP_REQUEST_DURATION).recordSince(requestStartTime);
+		if (isFailed()) {
+			Metrics.counter(Metrics.HTTP_REQUEST_FAILURES).increment();
+		}
+		ApptentiveLog.d(NETWORK, "Request finished in %d ms", (System.nanoTime() - requestStartTime) / 1000000L);
+
+		// update the shared server health state (might hold the retry below)
+		requestManager.recordResponse(this);
 
 		// attempt a retry if request failed
 		if (isFailed() && retryRequest(networkQueue, responseCode)) { // we schedule request retry on the same queue as it was originally dispatched
 			return;
 		}
 
+		// no more listeners can be attached or detached after this point
+		synchronized (this) {
+			responseReceived = true;
+		}
+		requestManager.endCoalescing(this);
+
 		// use custom callback queue (if any)
 		if (callbackQueue != null) {
 			callbackQueue.dispatchAsync(new DispatchTask() {
@@ -282,19 +354,21 @@ public class HttpRequest {
 			}
 			retrying = false;
 
-			connection = openConnection(url);
-			connection.setRequestMethod(method.toString());
-			connection.setConnectTimeout(connectTimeout);
-			connection.setReadTimeout(readTimeout);
+			if (isCancelled()) {
+				return;
+			}
 
+			// check the connectivity before opening a connection
 			if (!isNetworkConnectionPresent()) {
 				ApptentiveLog.d(NETWORK, "No network connection present. Request will fail.");
 				throw new NetworkUnavailableException("The network is not currently active.");
 			}
 
-			if (isCancelled()) {
-				return;
-			}
+			responseConsumed = false;
+			connection = openConnection(url);
+			connection.setRequestMethod(method.toString());
+			connection.setConnectTimeout(connectTimeout);
+			connection.setReadTimeout(readTimeout);
 
 			if (requestProperties != null && requestProperties.size() > 0) {
 				setupRequestProperties(connection, requestProperties);
@@ -331,17 +405,24 @@ public class HttpRequest {
 			// TODO: figure out a better way of handling response codes
 			boolean gzipped = isGzipContentEncoding(responseHeaders);
 			if (responseCode >= HttpURLConnection.HTTP_OK && responseCode < HttpURLConnection.HTTP_MULT_CHOICE) {
-				responseData = readResponse(connection.getInputStream(), gzipped);
-				if (ApptentiveLog.shouldSanitizeLogMessages()) {
-					ApptentiveLog.v(NETWORK, "Response data: <HIDDEN> %d bytes", responseData.length());
+				if (isStreamingResponse()) {
+					// the response is parsed while being read: no string copy is kept
+					handleResponseStream(connection.getInputStream(), gzipped);
+					ApptentiveLog.v(NETWORK, "Response data: <STREAMED>");
 				} else {
-					ApptentiveLog.v(NETWORK, "Response data: %s", responseData);
+					responseData = readResponse(connection.getInputStream(), gzipped);
+					if (ApptentiveLog.shouldSanitizeLogMessages()) {
+						ApptentiveLog.v(NETWORK, "Response data: <HIDDEN> %d bytes", responseData.length());
+					} else {
+						ApptentiveLog.v(NETWORK, "Response data: %s", responseData);
+					}
 				}
 			} else {
 				errorMessage = StringUtils.format("Unexpected response code: %d (%s)", responseCode, connection.getResponseMessage());
 				responseData = readResponse(connection.getErrorStream(), gzipped);
 				ApptentiveLog.w(NETWORK, "Error response data: %s", responseData);
 			}
+			responseConsumed = true;
 
 			if (isCancelled()) {
 				return;
@@ -359,7 +440,7 @@ public class HttpRequest {
 	}
 
 	protected boolean isNetworkConnectionPresent() {
-		return Util.isNetworkConnectionPresent();
+		return getTransport().isNetworkConnectionPresent();
 	}
 
 	//region Retry
@@ -409,13 +490,29 @@ public class HttpRequest {
 
 	/* This method can be overridden in a subclass for customizing or mocking the connection */
 	protected HttpURLConnection openConnection(URL url) throws IOException {
-		return (HttpURLConnection) url.openConnection();
+		return getTransport().openConnection(url);
+	}
+
+	private HttpTransport getTransport() {
+		assertNotNull(requestManager);
+		return requestManager != null ? requestManager.getTransport() : DEFAULT_TRANSPORT;
 	}
 
 	private void closeConnection() {
 		if (connection != null) {
-			connection.disconnect();
-			connection = null;
+			try {
+				if (responseConsumed) {
+					// response streams are drained and closed: the socket goes back to the pool
+					Metrics.counter(Metrics.HTTP_CONNECTIONS_RELEASED).increment();
+				} else {
+					// the connection is in an unknown state (cancelled or failed request)
+					Metrics.counter(Metrics.HTTP_CONNECTIONS_DISCONNECTED).increment();
+					connection.disconnect();
+				}
+			} finally {
+				connection = null;
+				responseConsumed = false;
+			}
 		}
 	}
 
@@ -436,6 +533,33 @@ public class HttpRequest {
 		return false;
 	}
 
+	private void handleResponseStream(InputStream is, boolean gzipped) throws IOException {
+		if (is == null) {
+			throw new IOException("Response stream is null");
+		}
+
+		try {
+			if (gzipped) {
+				is = new GZIPInputStream(is);
+			}
+			handleResponseStream(is);
+			drain(is); // the handler might not read the stream till the end
+		} finally {
+			Util.ensureClosed(is);
+		}
+	}
+
+	/**
+	 * Reads the remaining bytes of the stream: a connection can only be reused if its response
+	 * stream was exhausted before being closed.
+	 */
+	private static void drain(InputStream is) throws IOException {
+		byte[] buffer = new byte[1024];
+		while (is.read(buffer) != -1) {
+			// skip
+		}
+	}
+
 	private static String readResponse(InputStream is, boolean gzipped) throws IOException {
 		if (is == null) {
 			return null;
@@ -463,10 +587,106 @@ public class HttpRequest {
 	}
 
 	/**
-	 * Marks request as cancelled
+	 * Marks request as cancelled. If the request was coalesced with an in-flight request its
+	 * listeners are detached from it and notified right away.
 	 */
-	public synchronized void cancel() {
-		cancelled = true;
+	public void cancel() {
+		HttpRequest inFlightRequest;
+		synchronized (this) {
+			cancelled = true;
+			inFlightRequest = this.inFlightRequest;
+			this.inFlightRequest = null;
+		}
+
+		if (inFlightRequest != null && inFlightRequest.detachListeners(this)) {
+			ApptentiveLog.v(NETWORK, "Cancelled coalesced request: %s", getName());
+			notifyCoalescedRequestCancelled();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void notifyCoalescedRequestCancelled() {
+		DispatchTask task = new DispatchTask() {
+			@Override
+			protected void execute() {
+				for (Listener listener : listeners) {
+					try {
+						listener.onCancel(HttpRequest.this);
+					} catch (Exception e) {
+						ApptentiveLog.e(e, "Exception in request onCancel() listener");
+						logException(e);
+					}
+				}
+			}
+		};
+
+		if (callbackQueue != null) {
+			callbackQueue.dispatchAsync(task);
+		} else {
+			task.run();
+		}
+	}
+
+	//endregion
+
+	//region Coalescing
+
+	/**
+	 * Returns <code>true</code> if this in-flight request can deliver its response to the listeners
+	 * of <code>other</code> instead of sending an identical request. Only idempotent GET requests of
+	 * the same type, tag, headers and callback queue are coalesced.
+	 */
+	boolean canCoalesceWith(HttpRequest other) {
+		return coalescable && other.coalescable &&
+			       HttpRequestMethod.GET.equals(method) &&
+			       method.equals(other.method) &&
+			       getClass().equals(other.getClass()) &&
+			       urlString.equals(other.urlString) &&
+			       (tag == null ? other.tag == null : tag.equals(other.tag)) &&
+			       callbackQueue == other.callbackQueue &&
+			       (requestProperties == null ? other.requestProperties == null : requestProperties.equals(other.requestProperties)) &&
+			       !isCancelled() && !other.isCancelled();
+	}
+
+	/**
+	 * Moves listeners of a coalesced request to this request (called while this request is
+	 * in-flight)
+	 */
+	@SuppressWarnings("rawtypes")
+	synchronized void attachListeners(HttpRequest other) {
+		List<Listener> attached = new ArrayList<>(other.listeners.size());
+		for (Listener<?> listener : other.listeners) {
+			if (!listeners.contains(listener)) {
+				listeners.add(listener);
+				attached.add(listener);
+			}
+		}
+
+		synchronized (other) {
+			other.inFlightRequest = this;
+			other.coalescedListeners = attached;
+		}
+	}
+
+	/**
+	 * Detaches listeners of a cancelled coalesced request. Returns <code>false</code> if the
+	 * response was already received (the listeners are notified with it).
+	 */
+	synchronized boolean detachListeners(HttpRequest other) {
+		if (responseReceived) {
+			return false;
+		}
+		if (other.coalescedListeners != null) {
+			listeners.removeAll(other.coalescedListeners);
+		}
+		return true;
+	}
+
+	/**
+	 * Returns a key for finding identical in-flight requests
+	 */
+	String getCoalescingKey() {
+		return method.name() + " " + urlString;
 	}
 
 	//endregion
@@ -555,6 +775,30 @@ public class HttpRequest {
 		this.method = method;
 	}
 
+	public boolean isCoalescable() {
+		return coalescable;
+	}
+
+	/**
+	 * Allows identical GET requests started while this request is in-flight to share its response
+	 * instead of hitting the server again.
+	 */
+	public void setCoalescable(boolean coalescable) {
+		this.coalescable = coalescable;
+	}
+
+	public HttpRequestPriority getPriority() {
+		return priority;
+	}
+
+	public void setPriority(HttpRequestPriority priority) {
+		if (priority == null) {
+			throw new IllegalArgumentException("Priority is null");
+		}
+
+		this.priority = priority;
+	}
+
 	public void setConnectTimeout(int connectTimeout) {
 		this.connectTimeout = connectTimeout;
 	}
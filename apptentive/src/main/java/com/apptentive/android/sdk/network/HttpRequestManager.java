@@ -1,17 +1,28 @@
 package com.apptentive.android.sdk.network;
 
+import com.apptentive.android.sdk.ApptentiveLog;
+import com.apptentive.android.sdk.debug.Metrics;
 import com.apptentive.android.sdk.util.StringUtils;
 import com.apptentive.android.sdk.util.threading.DispatchQueue;
-import com.apptentive.android.sdk.util.threading.DispatchQueueType;
 import com.apptentive.android.sdk.util.threading.DispatchTask;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 
+import static com.apptentive.android.sdk.ApptentiveLogTag.NETWORK;
 import static com.apptentive.android.sdk.debug.Assert.*;
 
 /**
- * Class for asynchronous HTTP requests handling.
+ * Class for asynchronous HTTP requests handling. Requests are held (instead of being sent) while the
+ * network connection is not available or the server is considered unhealthy (see
+ * {@link HttpCircuitBreaker}). Held requests are sent once the connectivity is restored or the
+ * server responds to a probe request. Each {@link HttpRequestPriority} class has its own concurrency
+ * limit so background uploads never delay user-initiated requests.
  */
 public class HttpRequestManager {
 	/**
@@ -19,11 +30,56 @@ public class HttpRequestManager {
 	 */
 	private List<HttpRequest> activeRequests;
 
+	/**
+	 * Active requests by tag (the first started request wins if several requests share the same tag)
+	 */
+	private final Map<String, HttpRequest> taggedRequests;
+
+	/**
+	 * Coalescable requests which haven't received the response yet (keyed by method and URL)
+	 */
+	private final Map<String, HttpRequest> inFlightRequests;
+
 	/**
 	 * Dispatch queue for blocking network operations
 	 */
 	private final DispatchQueue networkQueue;
 
+	/**
+	 * Shared server health state for all the requests
+	 */
+	private final HttpCircuitBreaker circuitBreaker;
+
+	/**
+	 * Requests waiting for the network connectivity or the circuit to close
+	 */
+	private final List<HttpRequest> heldRequests;
+
+	/**
+	 * Last known network connectivity state (updated by the connectivity callback)
+	 */
+	private boolean networkAvailable = true;
+
+	/**
+	 * Delayed task for transitioning an open circuit to the half-open state
+	 */
+	private final DispatchTask halfOpenCircuitTask = new DispatchTask() {
+		@Override
+		protected void execute() {
+			halfOpenCircuit();
+		}
+	};
+
+	/**
+	 * Concurrency limits and waiting requests for each priority class
+	 */
+	private final Map<HttpRequestPriority, PriorityClass> priorityClasses;
+
+	/**
+	 * Opens connections for the requests (can be replaced with an alternative HTTP client)
+	 */
+	private volatile HttpTransport transport = new DefaultHttpTransport();
+
 	private Listener listener;
 	private HttpRequest.Injector requestInjector;
 
@@ -34,23 +90,50 @@ public class HttpRequestManager {
 	 * @throws IllegalArgumentException if queue is null
 	 */
 	public HttpRequestManager(DispatchQueue networkQueue) {
+		this(networkQueue, new HttpCircuitBreaker());
+	}
+
+	HttpRequestManager(DispatchQueue networkQueue, HttpCircuitBreaker circuitBreaker) {
 		if (networkQueue == null) {
 			throw new IllegalArgumentException("Network queue is null");
 		}
+		if (circuitBreaker == null) {
+			throw new IllegalArgumentException("Circuit breaker is null");
+		}
 		this.networkQueue = networkQueue;
+		this.circuitBreaker = circuitBreaker;
 		this.activeRequests = new ArrayList<>();
+		this.heldRequests = new ArrayList<>();
+		this.taggedRequests = new HashMap<>();
+		this.inFlightRequests = new HashMap<>();
+		this.priorityClasses = new EnumMap<>(HttpRequestPriority.class);
+		for (HttpRequestPriority priority : HttpRequestPriority.values()) {
+			priorityClasses.put(priority, new PriorityClass(priority.getConcurrencyLimit()));
+		}
 	}
 
 	//region Requests
 
 	/**
-	 * Starts network request on the network queue (method returns immediately)
+	 * Starts network request on the network queue (method returns immediately). If an identical
+	 * coalescable request is already in-flight - the listeners are attached to it and the in-flight
+	 * request is returned instead.
 	 */
 	synchronized HttpRequest startRequest(HttpRequest request) {
 		if (request == null) {
 			throw new IllegalArgumentException("Request is null");
 		}
 
+		if (request.isCoalescable()) {
+			HttpRequest inFlightRequest = inFlightRequests.get(request.getCoalescingKey());
+			if (inFlightRequest != null && inFlightRequest.canCoalesceWith(request)) {
+				ApptentiveLog.v(NETWORK, "Coalescing request with an in-flight one: %s", request.getName());
+				Metrics.counter(Metrics.HTTP_REQUEST_COALESCED).increment();
+				inFlightRequest.attachListeners(request);
+				return inFlightRequest;
+			}
+		}
+
 		if (requestInjector != null) {
 			request.setInjector(requestInjector);
 		}
@@ -63,17 +146,77 @@ public class HttpRequestManager {
 	}
 
 	/**
-	 * Handles request synchronously
+	 * Handles request synchronously on the network queue or holds it until the network connectivity
+	 * is restored or the circuit is closed. Requests exceeding the concurrency limit of their
+	 * priority class wait until a request of the same class is finished. Cancelled requests are
+	 * always dispatched so they could finish.
 	 */
-	void dispatchRequest(final HttpRequest request) {
+	synchronized void dispatchRequest(final HttpRequest request) {
+		if (request.isCancelled()) {
+			dispatchOnNetworkQueue(request, null);
+			return;
+		}
+
+		if (!(networkAvailable && circuitBreaker.tryAcquire())) {
+			ApptentiveLog.v(NETWORK, "Holding request (network available: %b, circuit: %s): %s", networkAvailable, circuitBreaker.getState(), request.getName());
+			heldRequests.add(request);
+			return;
+		}
+
+		PriorityClass priorityClass = priorityClasses.get(request.getPriority());
+		if (priorityClass.runningCount >= priorityClass.concurrencyLimit) {
+			ApptentiveLog.v(NETWORK, "Too many %s requests: waiting for a slot: %s", request.getPriority(), request.getName());
+			priorityClass.pendingRequests.add(request);
+			return;
+		}
+
+		++priorityClass.runningCount;
+		dispatchOnNetworkQueue(request, priorityClass);
+	}
+
+	private void dispatchOnNetworkQueue(final HttpRequest request, final PriorityClass priorityClass) {
 		networkQueue.dispatchAsync(new DispatchTask() {
 			@Override
 			protected void execute() {
-				request.dispatchSync(networkQueue);
+				try {
+					request.dispatchSync(networkQueue);
+				} finally {
+					if (priorityClass != null) {
+						releaseSlot(priorityClass);
+					}
+				}
 			}
 		});
 	}
 
+	/**
+	 * Called when a request leaves the network queue (finished or scheduled for a retry)
+	 */
+	private synchronized void releaseSlot(PriorityClass priorityClass) {
+		--priorityClass.runningCount;
+		assertTrue(priorityClass.runningCount >= 0, "Unbalanced request count: %d", priorityClass.runningCount);
+
+		HttpRequest request = priorityClass.pendingRequests.poll();
+		if (request != null) {
+			dispatchRequest(request);
+		}
+	}
+
+	/**
+	 * Dispatches requests waiting for a slot (cancelled requests should finish)
+	 */
+	private void dispatchPendingRequests() {
+		for (PriorityClass priorityClass : priorityClasses.values()) {
+			if (priorityClass.pendingRequests.size() > 0) {
+				List<HttpRequest> temp = new ArrayList<>(priorityClass.pendingRequests);
+				priorityClass.pendingRequests.clear();
+				for (HttpRequest request : temp) {
+					dispatchRequest(request);
+				}
+			}
+		}
+	}
+
 	/**
 	 * Cancel all active requests
 	 */
@@ -84,6 +227,8 @@ public class HttpRequestManager {
 				request.cancel();
 			}
 		}
+		dispatchHeldRequests(); // cancelled requests should finish
+		dispatchPendingRequests();
 		notifyCancelledAllRequests();
 	}
 
@@ -93,6 +238,18 @@ public class HttpRequestManager {
 	synchronized void registerRequest(HttpRequest request) {
 		assertTrue(this == request.requestManager);
 		activeRequests.add(request);
+
+		String tag = request.getTag();
+		if (tag != null && !taggedRequests.containsKey(tag)) {
+			taggedRequests.put(tag, request);
+		}
+
+		if (request.isCoalescable()) {
+			String key = request.getCoalescingKey();
+			if (!inFlightRequests.containsKey(key)) {
+				inFlightRequests.put(key, request);
+			}
+		}
 	}
 
 	/**
@@ -104,20 +261,157 @@ public class HttpRequestManager {
 		assertTrue(removed, "Attempted to unregister missing request: %s", request);
 
 		if (removed) {
+			unregisterTag(request);
+			endCoalescing(request);
 			notifyRequestFinished(request);
 		}
 	}
 
+	private void unregisterTag(HttpRequest request) {
+		String tag = request.getTag();
+		if (tag != null && taggedRequests.get(tag) == request) {
+			taggedRequests.remove(tag);
+
+			// another request might share the same tag
+			for (HttpRequest activeRequest : activeRequests) {
+				if (StringUtils.equal(activeRequest.getTag(), tag)) {
+					taggedRequests.put(tag, activeRequest);
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Stops attaching new listeners to the request (called once the response is received)
+	 */
+	synchronized void endCoalescing(HttpRequest request) {
+		if (request.isCoalescable()) {
+			String key = request.getCoalescingKey();
+			if (inFlightRequests.get(key) == request) {
+				inFlightRequests.remove(key);
+			}
+		}
+	}
+
 	/**
 	 * Returns a request with a specified tag or <code>null</code> is not found
 	 */
 	public synchronized HttpRequest findRequest(String tag) {
-		for (HttpRequest request : activeRequests) {
-			if (StringUtils.equal(request.getTag(), tag)) {
-				return request;
+		return tag != null ? taggedRequests.get(tag) : null;
+	}
+
+	//endregion
+
+	//region Connectivity and server health
+
+	/**
+	 * Called when a request was sent (or failed to connect) before the retry policy is applied
+	 */
+	synchronized void recordResponse(HttpRequest request) {
+		if (request.isCancelled()) {
+			circuitBreaker.recordCancel();
+			dispatchHeldRequests(); // if probe was cancelled - the next request should become a probe
+			return;
+		}
+
+		long openTimeout = circuitBreaker.recordResponse(request.getResponseCode());
+		if (openTimeout != -1) {
+			ApptentiveLog.w(NETWORK, "Too many failed requests: holding all requests for %d ms", openTimeout);
+			Metrics.counter(Metrics.HTTP_CIRCUIT_OPENED).increment();
+			networkQueue.dispatchAsyncOnce(halfOpenCircuitTask, openTimeout);
+		} else if (circuitBreaker.getState() == HttpCircuitBreaker.State.CLOSED) {
+			dispatchHeldRequests();
+		}
+	}
+
+	/**
+	 * Updates network connectivity state. Held requests are sent when the connectivity is restored:
+	 * an open circuit doesn't wait for the timeout and sends a probe right away.
+	 */
+	public synchronized void setNetworkAvailable(boolean networkAvailable) {
+		if (this.networkAvailable == networkAvailable) {
+			return;
+		}
+
+		ApptentiveLog.d(NETWORK, "Network connection %s", networkAvailable ? "available" : "lost");
+		this.networkAvailable = networkAvailable;
+		if (networkAvailable) {
+			circuitBreaker.halfOpen();
+			dispatchHeldRequests();
+		}
+	}
+
+	public synchronized boolean isNetworkAvailable() {
+		return networkAvailable;
+	}
+
+	private synchronized void halfOpenCircuit() {
+		if (circuitBreaker.halfOpen()) {
+			ApptentiveLog.d(NETWORK, "Sending a probe request");
+			dispatchHeldRequests();
+		}
+	}
+
+	private void dispatchHeldRequests() {
+		if (heldRequests.size() > 0) {
+			List<HttpRequest> temp = new ArrayList<>(heldRequests);
+			heldRequests.clear();
+			for (HttpRequest request : temp) {
+				dispatchRequest(request); // might be held again
 			}
 		}
-		return null;
+	}
+
+	HttpCircuitBreaker.State getCircuitState() {
+		return circuitBreaker.getState();
+	}
+
+	synchronized int getHeldRequestCount() {
+		return heldRequests.size();
+	}
+
+	//endregion
+
+	//region Priority classes
+
+	/**
+	 * Overrides max number of concurrent requests of a priority class
+	 */
+	synchronized void setConcurrencyLimit(HttpRequestPriority priority, int concurrencyLimit) {
+		if (concurrencyLimit < 1) {
+			throw new IllegalArgumentException("Invalid concurrency limit: " + concurrencyLimit);
+		}
+		priorityClasses.get(priority).concurrencyLimit = concurrencyLimit;
+	}
+
+	synchronized int getPendingRequestCount(HttpRequestPriority priority) {
+		return priorityClasses.get(priority).pendingRequests.size();
+	}
+
+	synchronized int getRunningRequestCount(HttpRequestPriority priority) {
+		return priorityClasses.get(priority).runningCount;
+	}
+
+	private static class PriorityClass {
+		/**
+		 * Max number of requests of this class being sent at the same time
+		 */
+		int concurrencyLimit;
+
+		/**
+		 * Number of requests of this class on the network queue
+		 */
+		int runningCount;
+
+		/**
+		 * Requests waiting for a slot (FIFO)
+		 */
+		final Queue<HttpRequest> pendingRequests = new LinkedList<>();
+
+		PriorityClass(int concurrencyLimit) {
+			this.concurrencyLimit = concurrencyLimit;
+		}
 	}
 
 	//endregion
@@ -162,6 +456,20 @@ public class HttpRequestManager {
 		this.requestInjector = requestInjector;
 	}
 
+	public HttpTransport getTransport() {
+		return transport;
+	}
+
+	/**
+	 * Replaces the transport for all the subsequent connections (the in-flight ones are not affected)
+	 */
+	public void setTransport(HttpTransport transport) {
+		if (transport == null) {
+			throw new IllegalArgumentException("Transport is null");
+		}
+		this.transport = transport;
+	}
+
 	//endregion
 
 	//region Listener
@@ -179,7 +487,7 @@ public class HttpRequestManager {
 	//region Holder
 
 	private static class Holder {
-		private static final HttpRequestManager INSTANCE = new HttpRequestManager(DispatchQueue.createBackgroundQueue("Apptentive Network Queue", DispatchQueueType.Concurrent));
+		private static final HttpRequestManager INSTANCE = new HttpRequestManager(DispatchQueue.createBackgroundQueue("Apptentive Network Queue", HttpRequestPriority.getTotalConcurrencyLimit()));
 	}
 
 	//endregion
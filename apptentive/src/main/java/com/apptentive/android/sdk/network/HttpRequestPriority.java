@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.network;
+
+/**
+ * Priority class of an HTTP request. Each class has its own concurrency limit in
+ * {@link HttpRequestManager} so requests of one class never wait for the requests of another one.
+ */
+public enum HttpRequestPriority {
+	/**
+	 * User is waiting for the result: login, logout, conversation creation
+	 */
+	INTERACTIVE(2),
+
+	/**
+	 * Message Center: sending and fetching messages
+	 */
+	MESSAGING(2),
+
+	/**
+	 * Background synchronization: events, device/person updates, configuration and interactions
+	 */
+	TELEMETRY(1),
+
+	/**
+	 * Large uploads (messages with attachments)
+	 */
+	BULK(1);
+
+	/**
+	 * Max number of concurrent requests of this class
+	 */
+	private final int concurrencyLimit;
+
+	HttpRequestPriority(int concurrencyLimit) {
+		this.concurrencyLimit = concurrencyLimit;
+	}
+
+	public int getConcurrencyLimit() {
+		return concurrencyLimit;
+	}
+
+	/**
+	 * Returns max number of concurrent requests for all the classes
+	 */
+	public static int getTotalConcurrencyLimit() {
+		int total = 0;
+		for (HttpRequestPriority priority : values()) {
+			total += priority.concurrencyLimit;
+		}
+		return total;
+	}
+}
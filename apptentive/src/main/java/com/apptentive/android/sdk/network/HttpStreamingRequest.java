@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.network;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Class representing HTTP request with Json body which response is parsed directly from the
+ * connection stream by a {@link StreamingResponseHandler} (the response is never kept as a string
+ * or a complete Json tree).
+ */
+public class HttpStreamingRequest<T> extends HttpRequest {
+	private final JSONObject requestObject;
+	private final StreamingResponseHandler<T> responseHandler;
+	private T responseResult;
+
+	public HttpStreamingRequest(String urlString, JSONObject requestObject, StreamingResponseHandler<T> responseHandler) {
+		super(urlString);
+
+		if (requestObject == null) {
+			throw new IllegalArgumentException("Json object is null");
+		}
+		if (responseHandler == null) {
+			throw new IllegalArgumentException("Response handler is null");
+		}
+		this.requestObject = requestObject;
+		this.responseHandler = responseHandler;
+	}
+
+	@Override
+	protected byte[] createRequestData() throws IOException {
+		String json = requestObject.toString();
+		return json.getBytes("UTF-8");
+	}
+
+	@Override
+	protected boolean isStreamingResponse() {
+		return true;
+	}
+
+	@Override
+	protected void handleResponseStream(InputStream stream) throws IOException {
+		responseResult = responseHandler.handleResponse(stream);
+	}
+
+	@Override
+	boolean canCoalesceWith(HttpRequest other) {
+		// listeners of the coalesced request receive the result of this request's handler
+		return super.canCoalesceWith(other) &&
+			       responseHandler.getClass().equals(((HttpStreamingRequest<?>) other).responseHandler.getClass());
+	}
+
+	/**
+	 * Returns the result of the response handler (or <code>null</code> if the request did not finish
+	 * successfully)
+	 */
+	public T getResponseResult() {
+		return responseResult;
+	}
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.network;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * Opens connections for the requests of a {@link HttpRequestManager}. Alternative HTTP clients can
+ * be plugged in as long as they expose the {@link HttpURLConnection} API (for example, OkHttp or
+ * Cronet url-connection adapters) and tests can replace the network with an in-process server.
+ * Methods are called on the network queue and must be thread-safe.
+ */
+public interface HttpTransport {
+	/**
+	 * Returns a new (not yet connected) connection for the URL
+	 */
+	HttpURLConnection openConnection(URL url) throws IOException;
+
+	/**
+	 * Returns <code>true</code> if the transport can reach the server right now
+	 */
+	boolean isNetworkConnectionPresent();
+}
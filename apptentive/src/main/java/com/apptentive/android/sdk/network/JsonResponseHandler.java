@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.network;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+import android.util.JsonWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+
+/**
+ * Streaming handler for Json responses: subclasses pull the tokens they need from a
+ * {@link JsonReader} and skip the rest.
+ */
+public abstract class JsonResponseHandler<T> implements StreamingResponseHandler<T> {
+	@Override
+	public T handleResponse(InputStream stream) throws IOException {
+		JsonReader reader = new JsonReader(new InputStreamReader(stream, "UTF-8"));
+		try {
+			return parseResponse(reader);
+		} catch (IllegalStateException | NumberFormatException e) {
+			throw new IOException("Unexpected Json response", e); // unexpected token
+		}
+	}
+
+	/**
+	 * Parses the response Json
+	 */
+	protected abstract T parseResponse(JsonReader reader) throws IOException;
+
+	//region Helpers
+
+	/**
+	 * Reads the next Json value into a string without building a Json tree
+	 */
+	public static String readJsonString(JsonReader reader) throws IOException {
+		StringWriter out = new StringWriter();
+		JsonWriter writer = new JsonWriter(out);
+		copyValue(reader, writer);
+		writer.flush();
+		return out.toString();
+	}
+
+	private static void copyValue(JsonReader reader, JsonWriter writer) throws IOException {
+		JsonToken token = reader.peek();
+		switch (token) {
+			case BEGIN_OBJECT:
+				reader.beginObject();
+				writer.beginObject();
+				while (reader.hasNext()) {
+					writer.name(reader.nextName());
+					copyValue(reader, writer);
+				}
+				reader.endObject();
+				writer.endObject();
+				break;
+			case BEGIN_ARRAY:
+				reader.beginArray();
+				writer.beginArray();
+				while (reader.hasNext()) {
+					copyValue(reader, writer);
+				}
+				reader.endArray();
+				writer.endArray();
+				break;
+			case STRING:
+				writer.value(reader.nextString());
+				break;
+			case NUMBER:
+				writeNumber(writer, reader.nextString());
+				break;
+			case BOOLEAN:
+				writer.value(reader.nextBoolean());
+				break;
+			case NULL:
+				reader.nextNull();
+				writer.nullValue();
+				break;
+			default:
+				throw new IOException("Unexpected Json token: " + token);
+		}
+	}
+
+	private static void writeNumber(JsonWriter writer, String number) throws IOException {
+		// keep the number representation (integers should not become doubles)
+		try {
+			writer.value(Long.parseLong(number));
+		} catch (NumberFormatException e) {
+			writer.value(Double.parseDouble(number));
+		}
+	}
+
+	//endregion
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.network;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Consumes a successful HTTP response directly from the connection stream (see
+ * {@link HttpStreamingRequest}). Called on the network queue.
+ */
+public interface StreamingResponseHandler<T> {
+	/**
+	 * Reads the response stream. Handlers must not close the stream: the caller drains the unread
+	 * bytes (so the connection can be reused) and closes it afterwards.
+	 *
+	 * @return an object created from the response
+	 * @throws IOException if the response can't be read or parsed
+	 */
+	T handleResponse(InputStream stream) throws IOException;
+}
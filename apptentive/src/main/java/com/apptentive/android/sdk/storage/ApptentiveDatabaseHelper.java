@@ -18,6 +18,7 @@ import com.apptentive.android.sdk.ApptentiveLog;
 import com.apptentive.android.sdk.Encryption;
 import com.apptentive.android.sdk.encryption.EncryptionException;
 import com.apptentive.android.sdk.debug.ErrorMetrics;
+import com.apptentive.android.sdk.debug.Metrics;
 import com.apptentive.android.sdk.encryption.EncryptionHelper;
 import com.apptentive.android.sdk.model.Payload;
 import com.apptentive.android.sdk.model.PayloadData;
@@ -94,6 +95,15 @@ public class ApptentiveDatabaseHelper extends SQLiteOpenHelper {
 			" ORDER BY " + PayloadEntry.COLUMN_PRIMARY_KEY +
 			" ASC";
 
+	private static final String SQL_SELECT_MERGEABLE_PAYLOADS =
+		"SELECT " + PayloadEntry.COLUMN_IDENTIFIER + " FROM " + PayloadEntry.TABLE_NAME +
+			" WHERE " +
+			PayloadEntry.COLUMN_PAYLOAD_TYPE + " = ? AND " +
+			PayloadEntry.COLUMN_LOCAL_CONVERSATION_ID + " = ? AND " +
+			PayloadEntry.COLUMN_AUTHENTICATED + " = " + FALSE +
+			" ORDER BY " + PayloadEntry.COLUMN_PRIMARY_KEY +
+			" ASC";
+
 	private static final String SQL_UPDATE_INCOMPLETE_PAYLOADS =
 		"UPDATE " + PayloadEntry.TABLE_NAME + " SET " +
 			PayloadEntry.COLUMN_AUTH_TOKEN + " = ?, " +
@@ -267,14 +277,23 @@ public class ApptentiveDatabaseHelper extends SQLiteOpenHelper {
 
 	/**
 	 * If an item with the same nonce as an item passed in already exists, it is overwritten by the item. Otherwise
-	 * a new message is added.
+	 * a new message is added. Pending person and device payloads of the same conversation are merged
+	 * into the new one.
+	 *
+	 * @return identifiers of the pending payloads which were merged into the new one (and removed)
 	 */
-	void addPayload(Payload payload) throws Exception {
+	List<String> addPayload(Payload payload) throws Exception {
 		SQLiteDatabase db = null;
+		List<String> mergedIdentifiers = new ArrayList<>();
 		try {
 			db = getWritableDatabase();
 			db.beginTransaction();
 
+			byte[] data = payload.renderData();
+			if (PayloadMerger.isMergeable(payload)) {
+				data = mergeWithPendingPayloads(db, payload, data, mergedIdentifiers);
+			}
+
 			ContentValues values = new ContentValues();
 			values.put(PayloadEntry.COLUMN_IDENTIFIER.name, notNull(payload.getNonce()));
 			values.put(PayloadEntry.COLUMN_PAYLOAD_TYPE.name, notNull(payload.getPayloadType().name()));
@@ -291,7 +310,7 @@ public class ApptentiveDatabaseHelper extends SQLiteOpenHelper {
 
 			File dest = getPayloadBodyFile(payload.getNonce());
 			ApptentiveLog.v(DATABASE, "Saving payload body to: %s", dest);
-			writeToFile(dest, payload.renderData(), !payload.isAuthenticated());  // only anonymous payloads get encrypted upon write (authenticated payloads get encrypted on serialization)
+			writeToFile(dest, data, !payload.isAuthenticated());  // only anonymous payloads get encrypted upon write (authenticated payloads get encrypted on serialization)
 
 			values.put(PayloadEntry.COLUMN_AUTHENTICATED.name, payload.isAuthenticated() ? TRUE : FALSE);
 			values.put(PayloadEntry.COLUMN_LOCAL_CONVERSATION_ID.name, notNull(payload.getLocalConversationIdentifier()));
@@ -304,9 +323,65 @@ public class ApptentiveDatabaseHelper extends SQLiteOpenHelper {
 			}
 		}
 
+		// remove data files of the merged payloads after the transaction succeeded
+		for (String identifier : mergedIdentifiers) {
+			getPayloadBodyFile(identifier).delete();
+		}
+
 		if (ApptentiveLog.canLog(ApptentiveLog.Level.VERBOSE)) {
 			printPayloadTable("Added payload");
 		}
+
+		return mergedIdentifiers;
+	}
+
+	/**
+	 * Merges the bodies of pending payloads of the same type (oldest first) with the new payload data
+	 * and deletes merged rows. A payload currently being sent might be merged as well: it would be
+	 * sent again as part of the merged payload which is safe since person and device updates are
+	 * idempotent.
+	 */
+	private byte[] mergeWithPendingPayloads(SQLiteDatabase db, Payload payload, byte[] data, List<String> mergedIdentifiers) {
+		Cursor cursor = null;
+		try {
+			cursor = db.rawQuery(SQL_SELECT_MERGEABLE_PAYLOADS, new String[] {
+				payload.getPayloadType().name(),
+				notNull(payload.getLocalConversationIdentifier())
+			});
+
+			byte[] mergedData = null;
+			List<String> identifiers = new ArrayList<>();
+			while (cursor.moveToNext()) {
+				String identifier = cursor.getString(0);
+				byte[] pendingData = tryReadFromFile(getPayloadBodyFile(identifier), true);
+				if (pendingData == null) {
+					continue; // it would be deleted when it becomes the oldest unsent payload
+				}
+
+				mergedData = mergedData != null ? PayloadMerger.merge(mergedData, pendingData) : pendingData;
+				identifiers.add(identifier);
+			}
+
+			if (mergedData == null) {
+				return data;
+			}
+
+			mergedData = PayloadMerger.merge(mergedData, data);
+			for (String identifier : identifiers) {
+				db.delete(PayloadEntry.TABLE_NAME, PayloadEntry.COLUMN_IDENTIFIER + " = ?", new String[]{identifier});
+			}
+			mergedIdentifiers.addAll(identifiers);
+
+			ApptentiveLog.v(PAYLOADS, "Merged %d pending %s payload(s) into: %s", identifiers.size(), payload.getPayloadType(), payload.getNonce());
+			Metrics.counter(Metrics.PAYLOADS_MERGED).add(identifiers.size());
+			return mergedData;
+		} catch (Exception e) {
+			ApptentiveLog.e(PAYLOADS, e, "Exception while merging pending payloads");
+			logException(e);
+			return data;
+		} finally {
+			ensureClosed(cursor);
+		}
 	}
 
 	void deletePayload(String payloadIdentifier) {
@@ -360,6 +435,7 @@ public class ApptentiveDatabaseHelper extends SQLiteOpenHelper {
 			cursor = db.rawQuery(SQL_SELECT_PAYLOADS_IN_SEND_ORDER, null);
 			int count = cursor.getCount();
 			ApptentiveLog.v(PAYLOADS, "Unsent payloads count: %d", count);
+			Metrics.gauge(Metrics.PAYLOAD_QUEUE_DEPTH).set(count);
 
 			while(cursor.moveToNext()) {
 				final String conversationId = cursor.getString(PayloadEntry.COLUMN_CONVERSATION_ID.index);
@@ -8,11 +8,14 @@ package com.apptentive.android.sdk.storage;
 
 import android.content.Context;
 
+import androidx.annotation.Nullable;
+
 import com.apptentive.android.sdk.ApptentiveLog;
 import com.apptentive.android.sdk.Encryption;
 import com.apptentive.android.sdk.comm.ApptentiveHttpClient;
 import com.apptentive.android.sdk.conversation.Conversation;
 import com.apptentive.android.sdk.conversation.ConversationState;
+import com.apptentive.android.sdk.debug.Metrics;
 import com.apptentive.android.sdk.encryption.EncryptionKey;
 import com.apptentive.android.sdk.model.Payload;
 import com.apptentive.android.sdk.model.PayloadData;
@@ -26,16 +29,13 @@ import com.apptentive.android.sdk.util.threading.DispatchTask;
 import org.json.JSONObject;
 
 import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.apptentive.android.sdk.ApptentiveHelper.checkConversationQueue;
-import static com.apptentive.android.sdk.ApptentiveHelper.conversationQueue;
 import static com.apptentive.android.sdk.ApptentiveHelper.dispatchOnConversationQueue;
 import static com.apptentive.android.sdk.ApptentiveLogTag.CONVERSATION;
+import static com.apptentive.android.sdk.ApptentiveLogTag.MESSAGES;
 import static com.apptentive.android.sdk.ApptentiveLogTag.PAYLOADS;
 import static com.apptentive.android.sdk.ApptentiveNotifications.NOTIFICATION_APP_ENTERED_BACKGROUND;
 import static com.apptentive.android.sdk.ApptentiveNotifications.NOTIFICATION_APP_ENTERED_FOREGROUND;
@@ -58,30 +58,67 @@ import static java.lang.Boolean.TRUE;
 
 public class ApptentiveTaskManager implements PayloadStore, EventStore, ApptentiveNotificationObserver, PayloadSender.Listener {
 
+	/**
+	 * Max number of pending database tasks before background producers are blocked
+	 */
+	private static final int DATABASE_QUEUE_CAPACITY = 256;
+
 	private final ApptentiveDatabaseHelper dbHelper;
-	private final ThreadPoolExecutor singleThreadExecutor; // TODO: replace with a private concurrent dispatch queue
+	private final DatabaseDispatchQueue databaseQueue;
+
+	/**
+	 * Shared task for sending the next payload: multiple requests are coalesced into a single
+	 * database query while the task is waiting on the queue.
+	 */
+	private final DispatchTask sendNextPayloadTask = new DispatchTask() {
+		@Override
+		protected void execute() {
+			try {
+				sendNextPayloadSync();
+			} catch (Exception e) {
+				ApptentiveLog.e(e, "Exception while trying to send next payload");
+				logException(e);
+			}
+		}
+	};
 
 	private final PayloadSender payloadSender;
 	private boolean appInBackground = true;
 
+	/**
+	 * Time (System.nanoTime) each payload was added to the queue (only payloads added during the
+	 * current session are tracked)
+	 */
+	private final Map<String, Long> payloadEnqueueTimes = new ConcurrentHashMap<>();
+
+	/**
+	 * Delayed task for retrying failed payloads (scheduled with the shared timer service)
+	 */
+	private final DispatchTask retrySendingTask = new DispatchTask() {
+		@Override
+		protected void execute() {
+			try {
+				ApptentiveLog.d(PAYLOADS, "Retrying sending payloads");
+				sendNextPayloadSync();
+			} catch (Exception e) {
+				ApptentiveLog.e(PAYLOADS, e, "Exception while trying to retry sending payloads");
+				logException(e);
+			}
+		}
+	};
+
 	/*
 	 * Creates an asynchronous task manager with one worker thread. This constructor must be invoked on the UI thread.
 	 */
 	public ApptentiveTaskManager(Context context, ApptentiveHttpClient apptentiveHttpClient, Encryption encryption) {
 		dbHelper = new ApptentiveDatabaseHelper(context, encryption);
-		/* When a new database task is submitted, the executor has the following behaviors:
-		 * 1. If the thread pool has no thread yet, it creates a single worker thread.
-		 * 2. If the single worker thread is running with tasks, it queues tasks.
-		 * 3. If the queue is full, the task will be rejected and run on caller thread.
-		 *
+		/* When a new database task is submitted, the queue has the following behaviors:
+		 * 1. If there is no worker thread yet, it creates a single worker thread.
+		 * 2. If the worker thread is running with tasks, it queues tasks (in the submission order).
+		 * 3. If the queue is full, a background caller waits for the pending tasks (the main thread never waits).
+		 * 4. If no new task arrives in 30 seconds, the worker thread terminates.
 		 */
-		singleThreadExecutor = new ThreadPoolExecutor(1, 1,
-			30L, TimeUnit.SECONDS,
-			new LinkedBlockingQueue<Runnable>(),
-			new ThreadPoolExecutor.CallerRunsPolicy());
-
-		// If no new task arrives in 30 seconds, the worker thread terminates; otherwise it will be reused
-		singleThreadExecutor.allowCoreThreadTimeOut(true);
+		databaseQueue = new DatabaseDispatchQueue("Apptentive Database Queue", DATABASE_QUEUE_CAPACITY);
 
 		// Create payload sender object with a custom 'retry' policy
 		payloadSender = new PayloadSender(apptentiveHttpClient, new HttpRequestRetryPolicyDefault() {
@@ -105,12 +142,16 @@ public class ApptentiveTaskManager implements PayloadStore, EventStore, Apptenti
 	 */
 	public void addPayload(final Payload payload) {
 		ApptentiveLog.v(PAYLOADS, "Adding payload: %s", payload);
-		singleThreadExecutor.execute(new Runnable() {
+		payloadEnqueueTimes.put(payload.getNonce(), System.nanoTime());
+		databaseQueue.dispatchAsync(new DispatchTask() {
 			@Override
-			public void run() {
+			protected void execute() {
 				try {
-					dbHelper.addPayload(payload);
-					sendNextPayloadSync();
+					List<String> mergedIdentifiers = dbHelper.addPayload(payload);
+					for (String identifier : mergedIdentifiers) {
+						payloadEnqueueTimes.remove(identifier);
+					}
+					sendNextPayload();
 				} catch (Exception e) {
 					ApptentiveLog.e(PAYLOADS, e, "Exception while adding a payload: %s", payload);
 					logException(e);
@@ -121,12 +162,13 @@ public class ApptentiveTaskManager implements PayloadStore, EventStore, Apptenti
 
 	public void deletePayload(final String payloadIdentifier) {
 		if (payloadIdentifier != null) {
-			singleThreadExecutor.execute(new Runnable() {
+			payloadEnqueueTimes.remove(payloadIdentifier);
+			databaseQueue.dispatchAsync(new DispatchTask() {
 				@Override
-				public void run() {
+				protected void execute() {
 					try {
 						dbHelper.deletePayload(payloadIdentifier);
-						sendNextPayloadSync();
+						sendNextPayload();
 					} catch (Exception e) {
 						ApptentiveLog.e(PAYLOADS, e, "Exception while deleting a payload: %s", payloadIdentifier);
 						logException(e);
@@ -137,9 +179,10 @@ public class ApptentiveTaskManager implements PayloadStore, EventStore, Apptenti
 	}
 
 	public void deleteAllPayloads() {
-		singleThreadExecutor.execute(new Runnable() {
+		payloadEnqueueTimes.clear();
+		databaseQueue.dispatchAsync(new DispatchTask() {
 			@Override
-			public void run() {
+			protected void execute() {
 				try {
 					dbHelper.deleteAllPayloads();
 				} catch (Exception e) {
@@ -155,9 +198,9 @@ public class ApptentiveTaskManager implements PayloadStore, EventStore, Apptenti
 	}
 
 	public void deleteAssociatedFiles(final String messageNonce) {
-		singleThreadExecutor.execute(new Runnable() {
+		databaseQueue.dispatchAsync(new DispatchTask() {
 			@Override
-			public void run() {
+			protected void execute() {
 				try {
 					dbHelper.deleteAssociatedFiles(messageNonce);
 				} catch (Exception e) {
@@ -168,24 +211,89 @@ public class ApptentiveTaskManager implements PayloadStore, EventStore, Apptenti
 		});
 	}
 
-	public Future<List<StoredFile>> getAssociatedFiles(final String nonce) throws Exception {
-		return singleThreadExecutor.submit(new Callable<List<StoredFile>>() {
+	/**
+	 * Asynchronously loads files associated with a message. The callback is invoked on the database
+	 * queue with <code>null</code> if files could not be loaded.
+	 */
+	public void getAssociatedFiles(final String nonce, final Callback<List<StoredFile>> callback) {
+		databaseQueue.dispatchAsync(new DispatchTask() {
 			@Override
-			public List<StoredFile> call() throws Exception {
-				return dbHelper.getAssociatedFiles(nonce);
+			protected void execute() {
+				List<StoredFile> associatedFiles = null;
+				try {
+					associatedFiles = dbHelper.getAssociatedFiles(nonce);
+				} catch (Exception e) {
+					ApptentiveLog.e(MESSAGES, e, "Exception while getting associated files: %s", nonce);
+					logException(e);
+				}
+				notifyCallback(callback, associatedFiles);
 			}
 		});
 	}
 
-	public Future<Boolean> addCompoundMessageFiles(final List<StoredFile> associatedFiles) throws Exception {
-		return singleThreadExecutor.submit(new Callable<Boolean>() {
+	/**
+	 * Asynchronously stores files associated with a message. The callback (if any) is invoked on the
+	 * database queue with the result of the operation.
+	 */
+	public void addCompoundMessageFiles(final List<StoredFile> associatedFiles, final @Nullable Callback<Boolean> callback) {
+		databaseQueue.dispatchAsync(new DispatchTask() {
 			@Override
-			public Boolean call() throws Exception {
-				return dbHelper.addCompoundMessageFiles(associatedFiles);
+			protected void execute() {
+				boolean added = false;
+				try {
+					added = dbHelper.addCompoundMessageFiles(associatedFiles);
+				} catch (Exception e) {
+					ApptentiveLog.e(MESSAGES, e, "Exception while adding associated files");
+					logException(e);
+				}
+				notifyCallback(callback, added);
 			}
 		});
 	}
 
+	private static <T> void notifyCallback(@Nullable Callback<T> callback, T result) {
+		if (callback != null) {
+			try {
+				callback.onFinish(result);
+			} catch (Exception e) {
+				ApptentiveLog.e(e, "Exception while notifying database task callback");
+				logException(e);
+			}
+		}
+	}
+
+	//region Instrumentation
+
+	/**
+	 * Returns the number of database tasks waiting for execution
+	 */
+	public int getPendingTaskCount() {
+		return databaseQueue.getPendingTaskCount();
+	}
+
+	/**
+	 * Returns the highest number of pending database tasks observed
+	 */
+	public int getMaxPendingTaskCount() {
+		return databaseQueue.getMaxPendingTaskCount();
+	}
+
+	/**
+	 * Returns the number of redundant "send next payload" requests which were coalesced
+	 */
+	public long getCoalescedTaskCount() {
+		return databaseQueue.getCoalescedTaskCount();
+	}
+
+	/**
+	 * Returns the number of database dispatches which had to wait because the queue was full
+	 */
+	public long getBlockedTaskCount() {
+		return databaseQueue.getBlockedTaskCount();
+	}
+
+	//endregion
+
 	public void reset(Context context) {
 		dbHelper.reset(context);
 	}
@@ -207,6 +315,7 @@ public class ApptentiveTaskManager implements PayloadStore, EventStore, Apptenti
 		}
 
 		if (errorMessage != null) {
+			Metrics.counter(Metrics.PAYLOADS_FAILED).increment();
 			ApptentiveLog.e(PAYLOADS, "Payload sending failed: %s\n%s", payload, errorMessage);
 			if (appInBackground) {
 				ApptentiveLog.v(PAYLOADS, "The app went to the background so we won't remove the payload from the queue");
@@ -223,6 +332,12 @@ public class ApptentiveTaskManager implements PayloadStore, EventStore, Apptenti
 			}
 		} else {
 			ApptentiveLog.v(PAYLOADS, "Payload was successfully sent: %s", payload);
+			Metrics.counter(Metrics.PAYLOADS_SENT).increment();
+
+			Long enqueueTime = payloadEnqueueTimes.get(payload.getNonce());
+			if (enqueueTime != null) {
+				Metrics.histogram(Metrics.PAYLOAD_ACK_LATENCY).recordSince(enqueueTime);
+			}
 		}
 
 		// Only let the payload be deleted if it was successfully sent, or got an unrecoverable client error.
@@ -231,40 +346,14 @@ public class ApptentiveTaskManager implements PayloadStore, EventStore, Apptenti
 
 	private void retrySending(long delayMillis) {
 		ApptentiveLog.d(PAYLOADS, "Retry sending payloads in %d ms", delayMillis);
-		conversationQueue().dispatchAsync(new DispatchTask() {
-			@Override
-			protected void execute() {
-				singleThreadExecutor.execute(new Runnable() {
-					@Override
-					public void run() {
-						try {
-							ApptentiveLog.d(PAYLOADS, "Retrying sending payloads");
-							sendNextPayloadSync();
-						} catch (Exception e) {
-							ApptentiveLog.e(PAYLOADS, e, "Exception while trying to retry sending payloads");
-							logException(e);
-						}
-					}
-				});
-			}
-		}, delayMillis);
+		databaseQueue.dispatchAsyncOnce(retrySendingTask, delayMillis);
 	}
 
 	//endregion
 
 	//region Payload Sending
 	private void sendNextPayload() {
-		singleThreadExecutor.execute(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					sendNextPayloadSync();
-				} catch (Exception e) {
-					ApptentiveLog.e(e, "Exception while trying to send next payload");
-					logException(e);
-				}
-			}
-		});
+		databaseQueue.dispatchAsyncOnce(sendNextPayloadTask);
 	}
 
 	private void sendNextPayloadSync() {
@@ -326,12 +415,12 @@ public class ApptentiveTaskManager implements PayloadStore, EventStore, Apptenti
 				// the payloads that may have already been enqueued so
 				// that they each have the Conversation ID.
 				if (conversation.hasState(ANONYMOUS)) {
-					singleThreadExecutor.execute(new Runnable() {
+					databaseQueue.dispatchAsync(new DispatchTask() {
 						@Override
-						public void run() {
+						protected void execute() {
 							try {
 								dbHelper.updateIncompletePayloads(conversationId, conversationToken, conversationLocalIdentifier, legacyPayloads);
-								sendNextPayloadSync(); // after we've updated payloads - we need to send them
+								sendNextPayload(); // after we've updated payloads - we need to send them
 							} catch (Exception e) {
 								ApptentiveLog.e(CONVERSATION, e, "Exception while trying to update incomplete payloads");
 								logException(e);
@@ -347,4 +436,11 @@ public class ApptentiveTaskManager implements PayloadStore, EventStore, Apptenti
 			appInBackground = true;
 		}
 	}
+
+	/**
+	 * Callback for asynchronous database operations
+	 */
+	public interface Callback<T> {
+		void onFinish(T result);
+	}
 }
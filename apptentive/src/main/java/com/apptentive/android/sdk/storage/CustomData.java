@@ -9,9 +9,12 @@ package com.apptentive.android.sdk.storage;
 import com.apptentive.android.sdk.ApptentiveLog;
 
 import org.json.JSONException;
+import org.json.JSONObject;
 
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -21,6 +24,13 @@ public class CustomData extends HashMap<String, Serializable> implements Saveabl
 
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * Keys which were modified since the last {@link #clearChangedKeys()} call. Not serialized: the
+	 * field is <code>null</code> after loading from disk which means "unknown" and all the keys
+	 * should be considered.
+	 */
+	private transient Set<String> changedKeys = new HashSet<>();
+
 	//region Listeners
 	private transient DataChangedListener listener;
 
@@ -43,6 +53,7 @@ public class CustomData extends HashMap<String, Serializable> implements Saveabl
 	@Override
 	public Serializable put(String key, Serializable value) {
 		Serializable ret = super.put(key, value);
+		markChanged(key);
 		notifyDataChanged();
 		return ret;
 	}
@@ -50,23 +61,139 @@ public class CustomData extends HashMap<String, Serializable> implements Saveabl
 	@Override
 	public void putAll(Map<? extends String, ? extends Serializable> m) {
 		super.putAll(m);
+		for (String key : m.keySet()) {
+			markChanged(key);
+		}
 		notifyDataChanged();
 	}
 
 	@Override
 	public Serializable remove(Object key) {
 		Serializable ret = super.remove(key);
+		if (key instanceof String) {
+			markChanged((String) key);
+		}
 		notifyDataChanged();
 		return ret;
 	}
 
+	/**
+	 * Applies multiple changes with a single change notification: keys with <code>null</code> values
+	 * are removed, the rest are added or replaced.
+	 */
+	public void update(Map<String, ? extends Serializable> changes) {
+		if (changes.isEmpty()) {
+			return;
+		}
+
+		for (Map.Entry<String, ? extends Serializable> entry : changes.entrySet()) {
+			String key = entry.getKey();
+			Serializable value = entry.getValue();
+			if (value != null) {
+				super.put(key, value);
+			} else {
+				super.remove(key);
+			}
+			markChanged(key);
+		}
+		notifyDataChanged();
+	}
+
 	@Override
 	public void clear() {
+		for (String key : keySet()) {
+			markChanged(key);
+		}
 		super.clear();
 		notifyDataChanged();
 	}
 	//endregion
 
+	//region Change tracking
+
+	private void markChanged(String key) {
+		if (changedKeys != null) {
+			changedKeys.add(key);
+		}
+	}
+
+	/**
+	 * Returns keys which were added, modified or removed since the last {@link #clearChangedKeys()}
+	 * call or <code>null</code> if the changes are unknown (the object was loaded from disk).
+	 */
+	public Set<String> getChangedKeys() {
+		return changedKeys != null ? Collections.unmodifiableSet(changedKeys) : null;
+	}
+
+	public void clearChangedKeys() {
+		if (changedKeys != null) {
+			changedKeys.clear();
+		} else {
+			changedKeys = new HashSet<>();
+		}
+	}
+
+	/**
+	 * Updates this object with the changed keys of the <code>source</code> (or all of its keys if
+	 * the changes are unknown). Used for keeping "last sent" snapshots in sync without copying the
+	 * whole map. Listener is not notified: the owner is responsible for that.
+	 */
+	public void updateFrom(CustomData source) {
+		Set<String> keys = source.changedKeys;
+		if (keys == null) {
+			super.clear();
+			super.putAll(source);
+		} else {
+			for (String key : keys) {
+				if (source.containsKey(key)) {
+					super.put(key, source.get(key));
+				} else {
+					super.remove(key);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns a JSON object with the keys which differ between <code>oldData</code> and
+	 * <code>newData</code> (removed keys are mapped to <code>null</code>) or <code>null</code> if
+	 * there are no differences. Only the changed keys of <code>newData</code> are compared when
+	 * they are known.
+	 */
+	public static com.apptentive.android.sdk.model.CustomData diff(CustomData oldData, CustomData newData) {
+		Set<String> keys = newData.changedKeys;
+		if (keys == null) {
+			keys = new HashSet<>(newData.keySet());
+			keys.addAll(oldData.keySet());
+		}
+
+		try {
+			com.apptentive.android.sdk.model.CustomData ret = null;
+			for (String key : keys) {
+				Serializable newValue = newData.get(key);
+				Serializable oldValue = oldData.get(key);
+				if (!equal(oldValue, newValue) || oldData.containsKey(key) != newData.containsKey(key)) {
+					if (ret == null) {
+						ret = new com.apptentive.android.sdk.model.CustomData();
+					}
+					ret.put(key, newValue != null ? newValue : JSONObject.NULL);
+				}
+			}
+			return ret;
+		} catch (JSONException e) {
+			ApptentiveLog.e(e, "Exception while creating custom data diff");
+			logException(e);
+		}
+
+		return newData.toJson();
+	}
+
+	private static boolean equal(Object a, Object b) {
+		return a == null && b == null || a != null && b != null && a.equals(b);
+	}
+
+	//endregion
+
 	public com.apptentive.android.sdk.model.CustomData toJson() {
 		try {
 			com.apptentive.android.sdk.model.CustomData ret = new com.apptentive.android.sdk.model.CustomData();
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.storage;
+
+import java.io.Serializable;
+
+/**
+ * Counts occurrences per day for a fixed number of recent days (a ring of per-day buckets). Memory
+ * usage does not depend on the number of occurrences and counting the occurrences within a time
+ * window takes O(days). Days are UTC calendar days.
+ */
+public class DailyCounter implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Maximum number of days the counter can answer queries for
+	 */
+	public static final int MAX_DAYS = 30;
+
+	private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+
+	private final int[] counts;
+	private long lastDay;
+
+	public DailyCounter() {
+		counts = new int[MAX_DAYS];
+		lastDay = -1;
+	}
+
+	/**
+	 * Records a single occurrence
+	 * @param timestamp The timestamp in seconds at which the occurrence happened.
+	 */
+	public void add(double timestamp) {
+		long day = toDay(timestamp);
+		if (day > lastDay) {
+			advanceTo(day);
+		} else if (day <= lastDay - MAX_DAYS) {
+			return; // too old to be tracked
+		}
+
+		int index = indexOf(day);
+		if (counts[index] < Integer.MAX_VALUE) {
+			counts[index]++;
+		}
+	}
+
+	/**
+	 * Returns the number of occurrences within the specified number of days (including the current one)
+	 * @param now  The current timestamp in seconds.
+	 * @param days The number of days (capped at {@link #MAX_DAYS})
+	 */
+	public long getCount(double now, int days) {
+		if (days <= 0 || lastDay == -1) {
+			return 0;
+		}
+
+		long today = toDay(now);
+		long firstDay = Math.max(Math.max(today - Math.min(days, MAX_DAYS) + 1, lastDay - MAX_DAYS + 1), 0);
+		long endDay = Math.min(today, lastDay);
+
+		long count = 0;
+		for (long day = firstDay; day <= endDay; ++day) {
+			count += counts[indexOf(day)];
+		}
+		return count;
+	}
+
+	private void advanceTo(long day) {
+		if (lastDay == -1 || day - lastDay >= MAX_DAYS) {
+			for (int i = 0; i < counts.length; ++i) {
+				counts[i] = 0;
+			}
+		} else {
+			for (long d = lastDay + 1; d <= day; ++d) {
+				counts[indexOf(d)] = 0;
+			}
+		}
+		lastDay = day;
+	}
+
+	private static int indexOf(long day) {
+		return (int) (day % MAX_DAYS);
+	}
+
+	private static long toDay(double timestamp) {
+		return Math.max(0, (long) Math.floor(timestamp / SECONDS_PER_DAY));
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder("[");
+		for (int i = MAX_DAYS - 1; lastDay != -1 && i >= 0; --i) {
+			long day = lastDay - i;
+			if (day < 0) {
+				continue;
+			}
+			if (result.length() > 1) {
+				result.append(", ");
+			}
+			result.append(counts[indexOf(day)]);
+		}
+		return result.append(']').toString();
+	}
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.storage;
+
+import com.apptentive.android.sdk.ApptentiveLog;
+import com.apptentive.android.sdk.util.StringUtils;
+import com.apptentive.android.sdk.util.threading.DispatchQueue;
+import com.apptentive.android.sdk.util.threading.DispatchTask;
+import com.apptentive.android.sdk.util.threading.TimerService;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.apptentive.android.sdk.ApptentiveLogTag.DATABASE;
+
+/**
+ * Serial dispatch queue for database work. Tasks are executed one after another (in the FIFO
+ * order) on a single worker thread which terminates after a period of inactivity. Tasks are never
+ * executed on the caller thread. Once the number of pending tasks reaches the capacity, background
+ * producers are blocked until the worker catches up. The main thread, the worker thread itself and
+ * the expired timers are never blocked: their tasks are always queued (the capacity is exceeded).
+ * Tasks dispatched with {@link #dispatchAsyncOnce(DispatchTask)} are coalesced while they are
+ * waiting on the queue.
+ */
+class DatabaseDispatchQueue extends DispatchQueue implements ThreadFactory, RejectedExecutionHandler {
+
+	/**
+	 * Idle time before the worker thread terminates (it's re-created on demand)
+	 */
+	private static final long KEEP_ALIVE_TIME_MILLIS = 30000L;
+
+	private final ThreadPoolExecutor executor;
+	private final int capacity;
+
+	/** Signalled each time a pending task is taken by the worker (or the queue is stopped) */
+	private final Object capacityLock = new Object();
+
+	/** Current worker thread (if any) */
+	private volatile Thread workerThread;
+
+	//region Instrumentation
+
+	/** Total number of tasks added to the queue */
+	private final AtomicLong dispatchedTaskCount = new AtomicLong();
+
+	/** Number of tasks which were dropped because the same task was already waiting on the queue */
+	private final AtomicLong coalescedTaskCount = new AtomicLong();
+
+	/** Number of dispatches which had to wait because the queue was full */
+	private final AtomicLong blockedTaskCount = new AtomicLong();
+
+	/** The highest number of pending tasks observed */
+	private final AtomicInteger maxPendingTaskCount = new AtomicInteger();
+
+	//endregion
+
+	DatabaseDispatchQueue(String name, int capacity) {
+		super(name);
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Invalid capacity: " + capacity);
+		}
+		this.capacity = capacity;
+		this.executor = new ThreadPoolExecutor(1, 1,
+			KEEP_ALIVE_TIME_MILLIS, TimeUnit.MILLISECONDS,
+			new LinkedBlockingQueue<Runnable>(),
+			this, this) {
+			@Override
+			protected void beforeExecute(Thread t, Runnable r) {
+				super.beforeExecute(t, r);
+				synchronized (capacityLock) {
+					capacityLock.notifyAll();
+				}
+			}
+		};
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	@Override
+	protected void dispatch(DispatchTask task, long delayMillis) {
+		if (delayMillis > 0) {
+			TimerService.defaultService().schedule(this, task, delayMillis);
+			return;
+		}
+
+		dispatchedTaskCount.incrementAndGet();
+		executor.execute(task);
+
+		int pendingTaskCount = getPendingTaskCount();
+		int maxCount = maxPendingTaskCount.get();
+		while (pendingTaskCount > maxCount) {
+			if (maxPendingTaskCount.compareAndSet(maxCount, pendingTaskCount)) {
+				if (pendingTaskCount >= capacity / 2 && maxCount < capacity / 2) {
+					ApptentiveLog.w(DATABASE, "Queue '%s' is more than half full: %d pending task(s)", getName(), pendingTaskCount);
+				}
+				break;
+			}
+			maxCount = maxPendingTaskCount.get();
+		}
+	}
+
+	/**
+	 * Adds the task to the queue (a background caller is blocked while the queue is full)
+	 */
+	@Override
+	public void dispatchAsync(DispatchTask task, long delayMillis) {
+		if (delayMillis <= 0) {
+			awaitCapacity();
+		}
+		super.dispatchAsync(task, delayMillis);
+	}
+
+	/**
+	 * Adds the task to the queue unless it's already waiting there. The check and the scheduling are
+	 * atomic so the task can be safely dispatched from multiple threads (a background caller is
+	 * blocked while the queue is full).
+	 *
+	 * @return true if task was scheduled
+	 */
+	@Override
+	public boolean dispatchAsyncOnce(DispatchTask task, long delayMillis) {
+		if (delayMillis <= 0 && !task.isScheduled()) {
+			awaitCapacity(); // never block while holding the lock: the worker might need it
+		}
+
+		synchronized (this) {
+			if (task.isScheduled()) {
+				coalescedTaskCount.incrementAndGet();
+				return false;
+			}
+			super.dispatchAsync(task, delayMillis);
+			return true;
+		}
+	}
+
+	/**
+	 * Blocks the caller until the number of pending tasks drops below the capacity. The main
+	 * thread and the worker thread are never blocked.
+	 */
+	private void awaitCapacity() {
+		if (isCurrent() || DispatchQueue.isMainQueue()) {
+			return;
+		}
+
+		synchronized (capacityLock) {
+			if (getPendingTaskCount() < capacity || executor.isShutdown()) {
+				return;
+			}
+
+			blockedTaskCount.incrementAndGet();
+			ApptentiveLog.w(DATABASE, "Queue '%s' is full (%d tasks): waiting for the pending tasks", getName(), capacity);
+			try {
+				while (getPendingTaskCount() >= capacity && !executor.isShutdown()) {
+					capacityLock.wait();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt(); // the task is queued anyway
+			}
+		}
+	}
+
+	@Override
+	public void stop() {
+		TimerService.defaultService().cancelTimers(this);
+		executor.shutdownNow();
+		synchronized (capacityLock) {
+			capacityLock.notifyAll();
+		}
+	}
+
+	@Override
+	public boolean isCurrent() {
+		return Thread.currentThread() == workerThread;
+	}
+
+	//region Instrumentation
+
+	/**
+	 * Returns the number of tasks waiting for execution
+	 */
+	public int getPendingTaskCount() {
+		return executor.getQueue().size();
+	}
+
+	public int getMaxPendingTaskCount() {
+		return maxPendingTaskCount.get();
+	}
+
+	public long getDispatchedTaskCount() {
+		return dispatchedTaskCount.get();
+	}
+
+	public long getCoalescedTaskCount() {
+		return coalescedTaskCount.get();
+	}
+
+	public long getBlockedTaskCount() {
+		return blockedTaskCount.get();
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	//endregion
+
+	//region Thread factory
+
+	@Override
+	public Thread newThread(Runnable r) {
+		Thread thread = new Thread(r, getName());
+		workerThread = thread;
+		return thread;
+	}
+
+	//endregion
+
+	//region Rejected execution handler
+
+	@Override
+	public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+		// the task queue is unbounded: tasks are only rejected once the queue is stopped
+		ApptentiveLog.w(DATABASE, "Unable to execute task: queue '%s' is stopped", getName());
+	}
+
+	//endregion
+
+	@Override
+	public String toString() {
+		return StringUtils.format("%s: pending=%d max=%d capacity=%d dispatched=%d coalesced=%d blocked=%d",
+			getName(), getPendingTaskCount(), getMaxPendingTaskCount(), capacity,
+			getDispatchedTaskCount(), getCoalescedTaskCount(), getBlockedTaskCount());
+	}
+}
@@ -111,6 +111,48 @@ public class Device implements Saveable, DataChangedListener {
 		return clone;
 	}
 
+	/**
+	 * Updates this "last sent" snapshot with the state of the <code>other</code> device. Only changed
+	 * custom data keys are copied. Device data changed listener is not notified (no update is
+	 * scheduled) but the data changed listener is, so the snapshot gets saved.
+	 */
+	public void updateFrom(Device other) {
+		uuid = other.uuid;
+		osName = other.osName;
+		osVersion = other.osVersion;
+		osBuild = other.osBuild;
+		osApiLevel = other.osApiLevel;
+		manufacturer = other.manufacturer;
+		model = other.model;
+		board = other.board;
+		product = other.product;
+		brand = other.brand;
+		cpu = other.cpu;
+		device = other.device;
+		carrier = other.carrier;
+		currentCarrier = other.currentCarrier;
+		networkType = other.networkType;
+		buildType = other.buildType;
+		buildId = other.buildId;
+		bootloaderVersion = other.bootloaderVersion;
+		radioVersion = other.radioVersion;
+		if (customData != null && other.customData != null) {
+			customData.updateFrom(other.customData);
+		}
+		localeCountryCode = other.localeCountryCode;
+		localeLanguageCode = other.localeLanguageCode;
+		localeRaw = other.localeRaw;
+		utcOffset = other.utcOffset;
+		advertiserId = other.advertiserId;
+		integrationConfig = other.integrationConfig != null ? other.integrationConfig.clone() : null;
+		if (integrationConfig != null) {
+			integrationConfig.setDataChangedListener(this);
+		}
+		if (listener != null) {
+			listener.onDataChanged();
+		}
+	}
+
 	//region Getters & Setters
 
 	public String getUuid() {
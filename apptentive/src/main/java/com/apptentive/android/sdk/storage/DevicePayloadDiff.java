@@ -110,9 +110,17 @@ public final class DevicePayloadDiff {
 			changed = true;
 		}
 
-		if (oldDevice == null || !equal(oldDevice.getCustomData(), newDevice.getCustomData())) {
-			CustomData customData = newDevice.getCustomData();
-			ret.setCustomData(customData != null ? customData.toJson() : null);
+		CustomData oldCustomData = oldDevice != null ? oldDevice.getCustomData() : null;
+		CustomData newCustomData = newDevice.getCustomData();
+		if (oldCustomData != null && newCustomData != null) {
+			// only send the keys which were changed since the last update
+			com.apptentive.android.sdk.model.CustomData customDataDiff = CustomData.diff(oldCustomData, newCustomData);
+			if (customDataDiff != null) {
+				ret.setCustomData(customDataDiff);
+				changed = true;
+			}
+		} else if (oldDevice == null || !equal(oldCustomData, newCustomData)) {
+			ret.setCustomData(newCustomData != null ? newCustomData.toJson() : null);
 			changed = true;
 		}
 
@@ -128,6 +128,21 @@ public class EventData implements Saveable {
 		return 0L;
 	}
 
+	public synchronized Long getEventCountForLastDays(String eventLabel, double now, int days) {
+		EventRecord eventRecord = events.get(eventLabel);
+		if (eventRecord != null) {
+			return eventRecord.getCountForLastDays(now, days);
+		}
+		return 0L;
+	}
+
+	public synchronized Long getInteractionCountForLastDays(String interactionId, double now, int days) {
+		EventRecord eventRecord = interactions.get(interactionId);
+		if (eventRecord != null) {
+			return eventRecord.getCountForLastDays(now, days);
+		}
+		return 0L;
+	}
 
 	public synchronized String toString() {
 		StringBuilder builder = new StringBuilder();
@@ -6,8 +6,11 @@
 
 package com.apptentive.android.sdk.storage;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -15,16 +18,36 @@ import java.util.Map;
  */
 public class EventRecord implements Serializable {
 	private static final long serialVersionUID = 1485363290506105166L;
+
+	/**
+	 * Counters are serialized as primitive arrays. Older versions of the SDK serialized them as
+	 * <code>versionCodes</code> and <code>versionNames</code> maps: keep the fields to be able to
+	 * read the existing conversation data.
+	 */
+	private static final ObjectStreamField[] serialPersistentFields = {
+		new ObjectStreamField("last", double.class),
+		new ObjectStreamField("total", long.class),
+		new ObjectStreamField("versionCodes", Map.class),
+		new ObjectStreamField("versionNames", Map.class),
+		new ObjectStreamField("versionCodeKeys", int[].class),
+		new ObjectStreamField("versionCodeCounts", long[].class),
+		new ObjectStreamField("versionNameKeys", String[].class),
+		new ObjectStreamField("versionNameCounts", long[].class),
+		new ObjectStreamField("dailyCounter", DailyCounter.class)
+	};
+
 	private double last;
 	private long total;
-	private Map<Integer, Long> versionCodes;
-	private Map<String, Long> versionNames;
+	private transient IntLongMap versionCodes;
+	private transient StringLongMap versionNames;
+	private transient DailyCounter dailyCounter;
 
 	public EventRecord() {
 		last = 0D;
 		total = 0L;
-		versionCodes = new HashMap<Integer, Long>();
-		versionNames = new HashMap<String, Long>();
+		versionCodes = new IntLongMap();
+		versionNames = new StringLongMap();
+		dailyCounter = new DailyCounter();
 	}
 
 	//region Getters & Setters
@@ -45,35 +68,31 @@ public class EventRecord implements Serializable {
 	 * @param versionName The Android versionName of the app when the event occurred.
 	 * @param versionCode The Android versionCode of the app when the event occurred.
 	 */
-	public void update(double timestamp, String versionName, Integer versionCode) {
+	public void update(double timestamp, String versionName, int versionCode) {
 		last = timestamp;
 		total++;
-		Long countForVersionName = versionNames.get(versionName);
-		if (countForVersionName == null) {
-			countForVersionName = 0L;
-		}
-		Long countForVersionCode = versionCodes.get(versionCode);
-		if (countForVersionCode == null) {
-			countForVersionCode = 0L;
-		}
-		versionNames.put(versionName, countForVersionName + 1);
-		versionCodes.put(versionCode, countForVersionCode + 1);
+		versionNames.increment(versionName);
+		versionCodes.increment(versionCode);
+		dailyCounter.add(timestamp);
 	}
 
-	public Long getCountForVersionName(String versionName) {
-		Long count = versionNames.get(versionName);
-		if (count != null) {
-			return count;
-		}
-		return 0L;
+	public long getCountForVersionName(String versionName) {
+		return versionNames.get(versionName);
 	}
 
-	public Long getCountForVersionCode(Integer versionCode) {
-		Long count = versionCodes.get(versionCode);
-		if (count != null) {
-			return count;
-		}
-		return 0L;
+	public long getCountForVersionCode(Integer versionCode) {
+		return versionCode != null ? versionCodes.get(versionCode) : 0L;
+	}
+
+	/**
+	 * Returns the number of times the event occurred within the last days (including the current one).
+	 * Only the last {@link DailyCounter#MAX_DAYS} days are tracked and records migrated from older SDK
+	 * versions have no daily history.
+	 * @param now  The current timestamp in seconds.
+	 * @param days The number of days.
+	 */
+	public long getCountForLastDays(double now, int days) {
+		return dailyCounter.getCount(now, days);
 	}
 
 	/**
@@ -94,16 +113,76 @@ public class EventRecord implements Serializable {
 	 * Only access directly for migration.
 	 */
 	public void setVersionCodes(Map<Integer, Long> versionCodes) {
-		this.versionCodes = versionCodes;
+		this.versionCodes = new IntLongMap(versionCodes.size());
+		for (Map.Entry<Integer, Long> entry : versionCodes.entrySet()) {
+			if (entry.getKey() != null && entry.getValue() != null) {
+				this.versionCodes.put(entry.getKey(), entry.getValue());
+			}
+		}
 	}
 
 	/**
 	 * Only access directly for migration.
 	 */
 	public void setVersionNames(Map<String, Long> versionNames) {
-		this.versionNames = versionNames;
+		this.versionNames = new StringLongMap(versionNames.size());
+		for (Map.Entry<String, Long> entry : versionNames.entrySet()) {
+			if (entry.getValue() != null) {
+				this.versionNames.put(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	//region Serialization
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		ObjectOutputStream.PutField fields = out.putFields();
+		fields.put("last", last);
+		fields.put("total", total);
+		fields.put("versionCodeKeys", versionCodes.keys());
+		fields.put("versionCodeCounts", versionCodes.values());
+		fields.put("versionNameKeys", versionNames.keys());
+		fields.put("versionNameCounts", versionNames.values());
+		fields.put("dailyCounter", dailyCounter);
+		out.writeFields();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = in.readFields();
+		last = fields.get("last", 0D);
+		total = fields.get("total", 0L);
+
+		Map<Integer, Long> legacyVersionCodes = (Map<Integer, Long>) fields.get("versionCodes", null);
+		if (legacyVersionCodes != null) {
+			setVersionCodes(legacyVersionCodes);
+		} else {
+			int[] keys = (int[]) fields.get("versionCodeKeys", null);
+			long[] counts = (long[]) fields.get("versionCodeCounts", null);
+			versionCodes = new IntLongMap(keys != null ? keys.length : 0);
+			for (int i = 0; keys != null && counts != null && i < keys.length; ++i) {
+				versionCodes.put(keys[i], counts[i]);
+			}
+		}
+
+		Map<String, Long> legacyVersionNames = (Map<String, Long>) fields.get("versionNames", null);
+		if (legacyVersionNames != null) {
+			setVersionNames(legacyVersionNames);
+		} else {
+			String[] keys = (String[]) fields.get("versionNameKeys", null);
+			long[] counts = (long[]) fields.get("versionNameCounts", null);
+			versionNames = new StringLongMap(keys != null ? keys.length : 0);
+			for (int i = 0; keys != null && counts != null && i < keys.length; ++i) {
+				versionNames.put(keys[i], counts[i]);
+			}
+		}
+
+		DailyCounter dailyCounter = (DailyCounter) fields.get("dailyCounter", null);
+		this.dailyCounter = dailyCounter != null ? dailyCounter : new DailyCounter();
 	}
 
+	//endregion
+
 	@Override
 	public String toString() {
 		return "EventRecord{" +
@@ -111,6 +190,7 @@ public class EventRecord implements Serializable {
 			", total=" + total +
 			", versionNames=" + versionNames +
 			", versionCodes=" + versionCodes +
+			", daily=" + dailyCounter +
 			'}';
 	}
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.storage;
+
+import java.util.Arrays;
+
+/**
+ * Compact map of non-negative <code>long</code> counters keyed by <code>int</code> (open addressing
+ * with linear probing). Avoids boxing keys and values and allocating an entry object per mapping.
+ * Not thread-safe.
+ */
+final class IntLongMap {
+	private static final long EMPTY = -1;
+	private static final int MIN_CAPACITY = 4;
+
+	private int[] keys;
+	private long[] values;
+	private int size;
+
+	IntLongMap() {
+		this(MIN_CAPACITY);
+	}
+
+	IntLongMap(int expectedSize) {
+		allocate(capacityFor(expectedSize));
+	}
+
+	/**
+	 * Returns the value for the key or <code>0</code> if the key is missing
+	 */
+	long get(int key) {
+		int index = indexOf(key);
+		return values[index] != EMPTY ? values[index] : 0;
+	}
+
+	void put(int key, long value) {
+		if (value < 0) {
+			throw new IllegalArgumentException("Negative value: " + value);
+		}
+		int index = indexOf(key);
+		if (values[index] == EMPTY) {
+			keys[index] = key;
+			values[index] = value;
+			if (++size > maxSize()) {
+				rehash(keys.length * 2);
+			}
+		} else {
+			values[index] = value;
+		}
+	}
+
+	void increment(int key) {
+		int index = indexOf(key);
+		if (values[index] == EMPTY) {
+			put(key, 1);
+		} else {
+			++values[index];
+		}
+	}
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Returns all the keys (the order matches {@link #values()})
+	 */
+	int[] keys() {
+		int[] result = new int[size];
+		for (int i = 0, j = 0; i < values.length; ++i) {
+			if (values[i] != EMPTY) {
+				result[j++] = keys[i];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns all the values (the order matches {@link #keys()})
+	 */
+	long[] values() {
+		long[] result = new long[size];
+		for (int i = 0, j = 0; i < values.length; ++i) {
+			if (values[i] != EMPTY) {
+				result[j++] = values[i];
+			}
+		}
+		return result;
+	}
+
+	private int indexOf(int key) {
+		int mask = keys.length - 1;
+		int index = mix(key) & mask;
+		while (values[index] != EMPTY && keys[index] != key) {
+			index = (index + 1) & mask;
+		}
+		return index;
+	}
+
+	private void rehash(int capacity) {
+		int[] oldKeys = keys;
+		long[] oldValues = values;
+		allocate(capacity);
+		size = 0;
+		for (int i = 0; i < oldValues.length; ++i) {
+			if (oldValues[i] != EMPTY) {
+				put(oldKeys[i], oldValues[i]);
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		values = new long[capacity];
+		Arrays.fill(values, EMPTY);
+	}
+
+	private int maxSize() {
+		return keys.length * 3 / 4;
+	}
+
+	private static int capacityFor(int expectedSize) {
+		int capacity = MIN_CAPACITY;
+		while (capacity * 3 / 4 < expectedSize) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	private static int mix(int key) {
+		int hash = key * 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder("{");
+		for (int i = 0; i < values.length; ++i) {
+			if (values[i] != EMPTY) {
+				if (result.length() > 1) {
+					result.append(", ");
+				}
+				result.append(keys[i]).append('=').append(values[i]);
+			}
+		}
+		return result.append('}').toString();
+	}
+}
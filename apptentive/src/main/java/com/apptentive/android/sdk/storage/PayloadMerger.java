@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.storage;
+
+import com.apptentive.android.sdk.model.DevicePayload;
+import com.apptentive.android.sdk.model.Payload;
+import com.apptentive.android.sdk.model.PayloadType;
+import com.apptentive.android.sdk.model.PersonPayload;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Merges person and device diff payloads which are waiting to be sent. Only the end state matters
+ * for these payloads: instead of uploading a chain of intermediate states the pending diffs are
+ * folded into a single payload.
+ */
+final class PayloadMerger {
+	/**
+	 * Keys which hold objects which should be merged key-by-key (the rest of the values are replaced)
+	 */
+	private static final Set<String> MERGEABLE_KEYS = new HashSet<>(Arrays.asList(
+		PersonPayload.KEY,
+		DevicePayload.KEY,
+		"custom_data"
+	));
+
+	private PayloadMerger() {
+	}
+
+	/**
+	 * Returns <code>true</code> if pending payloads of the same type can be merged with this one.
+	 * Authenticated payloads are encrypted with the conversation key and are never merged.
+	 */
+	static boolean isMergeable(Payload payload) {
+		PayloadType type = payload.getPayloadType();
+		return (type == PayloadType.person || type == PayloadType.device) && !payload.isAuthenticated();
+	}
+
+	/**
+	 * Merges a newer payload body into an older one. Values of the newer payload win.
+	 */
+	static byte[] merge(byte[] olderData, byte[] newerData) throws JSONException, UnsupportedEncodingException {
+		JSONObject older = new JSONObject(new String(olderData, "UTF-8"));
+		JSONObject newer = new JSONObject(new String(newerData, "UTF-8"));
+		return merge(older, newer).toString().getBytes("UTF-8");
+	}
+
+	private static JSONObject merge(JSONObject older, JSONObject newer) throws JSONException {
+		Iterator<String> keys = newer.keys();
+		while (keys.hasNext()) {
+			String key = keys.next();
+			Object newValue = newer.get(key);
+			Object oldValue = older.opt(key);
+			if (MERGEABLE_KEYS.contains(key) && oldValue instanceof JSONObject && newValue instanceof JSONObject) {
+				merge((JSONObject) oldValue, (JSONObject) newValue);
+			} else {
+				older.put(key, newValue);
+			}
+		}
+		return older;
+	}
+}
@@ -217,5 +217,30 @@ public class Person implements Saveable, DataChangedListener {
 		return person;
 	}
 
+	/**
+	 * Updates this "last sent" snapshot with the state of the <code>other</code> person. Only changed
+	 * custom data keys are copied. Person data changed listener is not notified (no update is
+	 * scheduled) but the data changed listener is, so the snapshot gets saved.
+	 */
+	public void updateFrom(Person other) {
+		id = other.id;
+		email = other.email;
+		name = other.name;
+		facebookId = other.facebookId;
+		phoneNumber = other.phoneNumber;
+		street = other.street;
+		city = other.city;
+		zip = other.zip;
+		country = other.country;
+		birthday = other.birthday;
+		mParticleId = other.mParticleId;
+		if (customData != null && other.customData != null) {
+			customData.updateFrom(other.customData);
+		}
+		if (listener != null) {
+			listener.onDataChanged();
+		}
+	}
+
 	//endregion
 }
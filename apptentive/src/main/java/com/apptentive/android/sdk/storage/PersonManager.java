@@ -68,9 +68,17 @@ public class PersonManager {
 			changed = true;
 		}
 
-		if (oldPerson == null || !equal(oldPerson.getCustomData(), newPerson.getCustomData())) {
-			CustomData customData = newPerson.getCustomData();
-			ret.setCustomData(customData != null ? customData.toJson() : null);
+		CustomData oldCustomData = oldPerson != null ? oldPerson.getCustomData() : null;
+		CustomData newCustomData = newPerson.getCustomData();
+		if (oldCustomData != null && newCustomData != null) {
+			// only send the keys which were changed since the last update
+			com.apptentive.android.sdk.model.CustomData customDataDiff = CustomData.diff(oldCustomData, newCustomData);
+			if (customDataDiff != null) {
+				ret.setCustomData(customDataDiff);
+				changed = true;
+			}
+		} else if (oldPerson == null || !equal(oldCustomData, newCustomData)) {
+			ret.setCustomData(newCustomData != null ? newCustomData.toJson() : null);
 			changed = true;
 		}
 
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.storage;
+
+import com.apptentive.android.sdk.util.ObjectUtils;
+
+import java.util.Arrays;
+
+/**
+ * Compact map of non-negative <code>long</code> counters keyed by version names. An event is usually
+ * recorded for a handful of app versions so the mappings are kept in parallel arrays and looked up
+ * with a linear scan. Keys are interned: the same version name is shared between all the records.
+ * <code>null</code> keys are allowed. Not thread-safe.
+ */
+final class StringLongMap {
+	private static final int MIN_CAPACITY = 2;
+
+	private String[] keys;
+	private long[] values;
+	private int size;
+
+	StringLongMap() {
+		this(MIN_CAPACITY);
+	}
+
+	StringLongMap(int expectedSize) {
+		keys = new String[Math.max(MIN_CAPACITY, expectedSize)];
+		values = new long[keys.length];
+	}
+
+	/**
+	 * Returns the value for the key or <code>0</code> if the key is missing
+	 */
+	long get(String key) {
+		int index = indexOf(key);
+		return index != -1 ? values[index] : 0;
+	}
+
+	void put(String key, long value) {
+		if (value < 0) {
+			throw new IllegalArgumentException("Negative value: " + value);
+		}
+		int index = indexOf(key);
+		if (index != -1) {
+			values[index] = value;
+		} else {
+			add(key, value);
+		}
+	}
+
+	void increment(String key) {
+		int index = indexOf(key);
+		if (index != -1) {
+			++values[index];
+		} else {
+			add(key, 1);
+		}
+	}
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Returns all the keys (the order matches {@link #values()})
+	 */
+	String[] keys() {
+		return Arrays.copyOf(keys, size);
+	}
+
+	/**
+	 * Returns all the values (the order matches {@link #keys()})
+	 */
+	long[] values() {
+		return Arrays.copyOf(values, size);
+	}
+
+	private int indexOf(String key) {
+		for (int i = 0; i < size; ++i) {
+			if (keys[i] == key || ObjectUtils.equal(keys[i], key)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private void add(String key, long value) {
+		if (size == keys.length) {
+			keys = Arrays.copyOf(keys, size * 2);
+			values = Arrays.copyOf(values, size * 2);
+		}
+		keys[size] = key != null ? key.intern() : null;
+		values[size] = value;
+		++size;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder("{");
+		for (int i = 0; i < size; ++i) {
+			if (i > 0) {
+				result.append(", ");
+			}
+			result.append(keys[i]).append('=').append(values[i]);
+		}
+		return result.append('}').toString();
+	}
+}
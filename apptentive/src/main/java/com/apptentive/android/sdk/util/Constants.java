@@ -110,6 +110,7 @@ public class Constants {
 	public static final String NOTIFICATION_ACTION_DISPLAY = "com.apptentive.notification.action.DISPLAY";
 	public static final String NOTIFICATION_EXTRA_INTERACTION_TYPE = "com.apptentive.notification.extra.INTERACTION_TYPE";
 	public static final String NOTIFICATION_EXTRA_INTERACTION_DEFINITION= "com.apptentive.notification.extra.INTERACTION_DEFINITION";
+	public static final String NOTIFICATION_EXTRA_INTERACTION_ID = "com.apptentive.notification.extra.INTERACTION_ID";
 	public static final String NOTIFICATION_EXTRA_ID= "com.apptentive.notification.extra.ID";
 	public static final int NOTIFICATION_ID_DEFAULT = 0xFEEDBAAC;
 	public static final String NOTIFICATION_ACTION_NOTE_BUTTON_PRESSED = "com.apptentive.notification.action.note.BUTTON_PRESSED";
@@ -161,6 +162,7 @@ public class Constants {
 		String MODAL = "showAsModal";
 		String TYPE = "fragmentType";
 		String EXTRA = "fragmentExtraData";
+		String INTERACTION_ID = "interactionId";
 	}
 
 	public interface FragmentTypes {
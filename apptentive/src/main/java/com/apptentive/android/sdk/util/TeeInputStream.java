@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Copies all the bytes read from the wrapped InputStream to an OutputStream. Closing this stream
+ * only closes the OutputStream: the wrapped stream is owned (drained and closed) by its creator.
+ */
+public class TeeInputStream extends FilterInputStream {
+	private final OutputStream out;
+
+	public TeeInputStream(InputStream in, OutputStream out) {
+		super(in);
+
+		if (out == null) {
+			throw new IllegalArgumentException("Output stream is null");
+		}
+		this.out = out;
+	}
+
+	@Override
+	public int read() throws IOException {
+		int b = super.read();
+		if (b != -1) {
+			out.write(b);
+		}
+		return b;
+	}
+
+	@Override
+	public int read(byte[] buffer, int offset, int count) throws IOException {
+		int bytesRead = super.read(buffer, offset, count);
+		if (bytesRead > 0) {
+			out.write(buffer, offset, bytesRead);
+		}
+		return bytesRead;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		throw new IOException("Skipping is not supported");
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+}
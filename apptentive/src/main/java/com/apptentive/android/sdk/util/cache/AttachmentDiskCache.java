@@ -0,0 +1,486 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.util.cache;
+
+import android.content.Context;
+
+import com.apptentive.android.sdk.ApptentiveLog;
+import com.apptentive.android.sdk.util.Util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.apptentive.android.sdk.ApptentiveLogTag.UTIL;
+import static com.apptentive.android.sdk.debug.ErrorMetrics.logException;
+
+/**
+ * Size-bounded disk cache for the downloaded message attachments. Only the files committed through
+ * the cache are tracked (and may be evicted): copies of the outgoing attachments which share the
+ * same directory are never touched.
+ *
+ * Downloads are written into a partial file and atomically renamed on {@link #commit(String)} so a
+ * visible cache file is always complete. The access order is persisted in an append-only journal:
+ * <pre>
+ *   CLEAN &lt;name&gt; &lt;size&gt; - file was committed
+ *   READ &lt;name&gt;         - file was accessed
+ *   REMOVE &lt;name&gt;       - file was removed or evicted
+ * </pre>
+ * The journal is compacted once redundant operations outnumber the live entries. Least recently used
+ * files are evicted when the total size exceeds the budget.
+ *
+ * Incoming attachments downloaded before the cache was introduced are adopted once (by their exact
+ * paths, see {@link #adoptLegacyFiles(List)}) which is recorded in the journal:
+ * <pre>
+ *   ADOPTED              - legacy files were adopted
+ * </pre>
+ */
+public class AttachmentDiskCache {
+	public static final long DEFAULT_MAX_SIZE = 50 * 1024 * 1024;
+
+	static final String JOURNAL_FILE = "apptentive-attachments.journal";
+	private static final String JOURNAL_FILE_TEMP = JOURNAL_FILE + ".tmp";
+	private static final String JOURNAL_HEADER = "apptentive-attachments-journal 1";
+	private static final String PARTIAL_SUFFIX = ".partial";
+
+	private static final String CLEAN = "CLEAN";
+	private static final String READ = "READ";
+	private static final String REMOVE = "REMOVE";
+	private static final String ADOPTED = "ADOPTED";
+
+	private static final int MIN_REDUNDANT_OPS_TO_COMPACT = 1000;
+	private static final int MAX_PENDING_READS = 100;
+
+	private static AttachmentDiskCache instance;
+
+	private final File directory;
+	private final long maxSize;
+
+	/**
+	 * Committed files by name (ordered from the least to the most recently used)
+	 */
+	private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(0, 0.75f, true);
+
+	/**
+	 * Names of the files being written right now
+	 */
+	private final List<String> pendingWrites = new ArrayList<>();
+
+	/**
+	 * Accessed file names not yet written into the journal (flushed with the next journal write to
+	 * keep the reads cheap)
+	 */
+	private final List<String> pendingReads = new ArrayList<>();
+
+	private long size;
+	private int redundantOpCount;
+	private Writer journalWriter;
+	private boolean legacyFilesAdopted;
+
+	AttachmentDiskCache(File directory, long maxSize) {
+		if (directory == null) {
+			throw new IllegalArgumentException("Directory is null");
+		}
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("Invalid max size: " + maxSize);
+		}
+		this.directory = directory;
+		this.maxSize = maxSize;
+		readJournal();
+		deletePartialFiles();
+	}
+
+	/**
+	 * Returns shared cache instance in the application's disk cache directory or <code>null</code>
+	 * if the directory is not available
+	 */
+	public static synchronized AttachmentDiskCache getInstance(Context context) {
+		if (context == null) {
+			throw new IllegalArgumentException("Context is null");
+		}
+		File directory = Util.getDiskCacheDir(context);
+		if (directory == null) {
+			return null;
+		}
+		if (instance == null || !instance.directory.equals(directory)) {
+			instance = new AttachmentDiskCache(directory, DEFAULT_MAX_SIZE);
+		}
+		return instance;
+	}
+
+	//region Files
+
+	/**
+	 * Returns a file the download should be written into before it's committed
+	 */
+	public synchronized File beginWrite(String path) {
+		String name = getEntryName(path);
+		if (name != null && !pendingWrites.contains(name)) {
+			pendingWrites.add(name);
+		}
+		return getPartialFile(path);
+	}
+
+	/**
+	 * Atomically replaces the cache file with the partial download and evicts the least recently used
+	 * files if the cache is over budget.
+	 *
+	 * @return <code>true</code> if the file was committed
+	 */
+	public synchronized boolean commit(String path) {
+		File partialFile = getPartialFile(path);
+		File file = new File(path);
+		String name = getEntryName(path);
+		if (name != null) {
+			pendingWrites.remove(name);
+		}
+
+		if (!partialFile.exists()) {
+			return false;
+		}
+
+		if (file.exists() && !file.delete() || !partialFile.renameTo(file)) {
+			ApptentiveLog.w(UTIL, "Unable to commit attachment download: %s", path);
+			partialFile.delete();
+			return false;
+		}
+
+		if (name != null) {
+			Long oldSize = entries.put(name, file.length());
+			if (oldSize != null) {
+				size -= oldSize;
+				++redundantOpCount;
+			}
+			size += file.length();
+			writeJournal(CLEAN + " " + name + " " + file.length());
+			trimToSize(maxSize);
+		}
+		return true;
+	}
+
+	/**
+	 * Deletes a partial download
+	 */
+	public synchronized void abort(String path) {
+		String name = getEntryName(path);
+		if (name != null) {
+			pendingWrites.remove(name);
+		}
+		getPartialFile(path).delete();
+	}
+
+	/**
+	 * Returns <code>true</code> if a file is being written
+	 */
+	public synchronized boolean isWriting(String path) {
+		String name = getEntryName(path);
+		return name != null && pendingWrites.contains(name);
+	}
+
+	/**
+	 * Marks a cache file as the most recently used one.
+	 *
+	 * @return <code>true</code> if the file is tracked by the cache
+	 */
+	public synchronized boolean recordAccess(String path) {
+		String name = getEntryName(path);
+		if (name != null && entries.get(name) != null) {
+			pendingReads.add(name);
+			if (pendingReads.size() >= MAX_PENDING_READS) {
+				writeJournal(null);
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Deletes a cache file (tracked or not)
+	 */
+	public synchronized void remove(String path) {
+		String name = getEntryName(path);
+		if (name == null) {
+			return;
+		}
+
+		removeEntry(name);
+		new File(directory, name).delete();
+	}
+
+	private void removeEntry(String name) {
+		Long oldSize = entries.remove(name);
+		if (oldSize != null) {
+			size -= oldSize;
+			++redundantOpCount;
+			writeJournal(REMOVE + " " + name);
+		}
+	}
+
+	/**
+	 * Starts tracking the incoming attachments downloaded before the cache was introduced (otherwise
+	 * they are never evicted). Only the given paths are adopted: outgoing attachment copies share the
+	 * directory and the naming, and must never be evicted. Adopted files become the least recently
+	 * used ones (in the modification order). Does nothing once the legacy files were adopted.
+	 *
+	 * @param paths - download paths of the known incoming attachments and thumbnails
+	 */
+	public synchronized void adoptLegacyFiles(List<String> paths) {
+		if (legacyFilesAdopted) {
+			return;
+		}
+
+		List<File> legacyFiles = new ArrayList<>();
+		for (String path : paths) {
+			String name = getEntryName(path);
+			if (name == null || entries.containsKey(name) || pendingWrites.contains(name)) {
+				continue;
+			}
+			File file = new File(directory, name);
+			if (file.isFile() && !legacyFiles.contains(file)) {
+				legacyFiles.add(file);
+			}
+		}
+
+		Collections.sort(legacyFiles, new Comparator<File>() {
+			@Override
+			public int compare(File a, File b) {
+				long diff = a.lastModified() - b.lastModified();
+				return diff < 0 ? -1 : diff > 0 ? 1 : 0;
+			}
+		});
+
+		// adopted files go before the tracked ones in the access order
+		Map<String, Long> trackedEntries = new LinkedHashMap<>(entries);
+		entries.clear();
+		for (File file : legacyFiles) {
+			entries.put(file.getName(), file.length());
+			size += file.length();
+		}
+		entries.putAll(trackedEntries);
+		legacyFilesAdopted = true;
+
+		try {
+			compactJournal();
+		} catch (Exception e) {
+			ApptentiveLog.e(UTIL, e, "Exception while writing attachment cache journal");
+			logException(e);
+		}
+
+		if (legacyFiles.size() > 0) {
+			ApptentiveLog.v(UTIL, "Adopted %d legacy attachment(s) into disk cache (%d bytes)", legacyFiles.size(), size);
+			trimToSize(maxSize);
+		}
+	}
+
+	/**
+	 * Evicts the least recently used files until the total size fits the budget
+	 */
+	synchronized void trimToSize(long maxSize) {
+		Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+		while (size > maxSize && iterator.hasNext()) {
+			Map.Entry<String, Long> entry = iterator.next();
+			String name = entry.getKey();
+			iterator.remove();
+			size -= entry.getValue();
+			++redundantOpCount;
+			writeJournal(REMOVE + " " + name);
+			new File(directory, name).delete();
+			ApptentiveLog.v(UTIL, "Evicted attachment from disk cache: %s", name);
+		}
+	}
+
+	/**
+	 * Returns the name of the cache entry or <code>null</code> if the file is not in the cache directory
+	 */
+	private String getEntryName(String path) {
+		if (path == null) {
+			return null;
+		}
+		File file = new File(path);
+		return directory.equals(file.getParentFile()) ? file.getName() : null;
+	}
+
+	private static File getPartialFile(String path) {
+		return new File(path + PARTIAL_SUFFIX);
+	}
+
+	/**
+	 * Deletes downloads which were interrupted by the process death
+	 */
+	private void deletePartialFiles() {
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				if (file.getName().endsWith(PARTIAL_SUFFIX)) {
+					file.delete();
+				}
+			}
+		}
+	}
+
+	//endregion
+
+	//region Journal
+
+	private void readJournal() {
+		File journalFile = new File(directory, JOURNAL_FILE);
+		if (!journalFile.exists()) {
+			return;
+		}
+
+		BufferedReader reader = null;
+		try {
+			reader = new BufferedReader(new InputStreamReader(new FileInputStream(journalFile), "UTF-8"));
+			if (!JOURNAL_HEADER.equals(reader.readLine())) {
+				ApptentiveLog.w(UTIL, "Unexpected attachment cache journal header");
+				return;
+			}
+
+			int lineCount = 0;
+			String line;
+			while ((line = reader.readLine()) != null) {
+				++lineCount;
+				String[] tokens = line.split(" ");
+				if (tokens.length == 3 && CLEAN.equals(tokens[0])) {
+					entries.put(tokens[1], Long.parseLong(tokens[2]));
+				} else if (tokens.length == 2 && READ.equals(tokens[0])) {
+					entries.get(tokens[1]); // moves the entry to the end of the access order
+				} else if (tokens.length == 2 && REMOVE.equals(tokens[0])) {
+					entries.remove(tokens[1]);
+				} else if (tokens.length == 1 && ADOPTED.equals(tokens[0])) {
+					legacyFilesAdopted = true;
+				}
+			}
+
+			// files might have been deleted by the system while the app was not running
+			Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+			while (iterator.hasNext()) {
+				Map.Entry<String, Long> entry = iterator.next();
+				if (new File(directory, entry.getKey()).exists()) {
+					size += entry.getValue();
+				} else {
+					iterator.remove();
+				}
+			}
+			redundantOpCount = lineCount - entries.size() - (legacyFilesAdopted ? 1 : 0);
+		} catch (Exception e) {
+			ApptentiveLog.e(UTIL, e, "Exception while reading attachment cache journal");
+			logException(e);
+			entries.clear();
+			size = 0;
+		} finally {
+			Util.ensureClosed(reader);
+		}
+	}
+
+	/**
+	 * Appends an operation (along with the pending reads) to the journal
+	 *
+	 * @param operation - journal line or <code>null</code> to flush the pending reads only
+	 */
+	private void writeJournal(String operation) {
+		try {
+			if (shouldCompactJournal()) {
+				compactJournal();
+				return; // the compacted journal already reflects the operation
+			}
+
+			if (journalWriter == null) {
+				File journalFile = new File(directory, JOURNAL_FILE);
+				boolean exists = journalFile.exists();
+				journalWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(journalFile, true), "UTF-8"));
+				if (!exists) {
+					journalWriter.write(JOURNAL_HEADER + "\n");
+				}
+			}
+
+			for (String name : pendingReads) {
+				journalWriter.write(READ + " " + name + "\n");
+			}
+			redundantOpCount += pendingReads.size();
+			pendingReads.clear();
+
+			if (operation != null) {
+				journalWriter.write(operation + "\n");
+			}
+			journalWriter.flush();
+		} catch (Exception e) {
+			ApptentiveLog.e(UTIL, e, "Exception while writing attachment cache journal");
+			logException(e);
+			Util.ensureClosed(journalWriter);
+			journalWriter = null;
+		}
+	}
+
+	private boolean shouldCompactJournal() {
+		return redundantOpCount >= MIN_REDUNDANT_OPS_TO_COMPACT && redundantOpCount >= entries.size();
+	}
+
+	/**
+	 * Rewrites the journal with the live entries only (in the access order)
+	 */
+	private void compactJournal() throws IOException {
+		Util.ensureClosed(journalWriter);
+		journalWriter = null;
+
+		File tempFile = new File(directory, JOURNAL_FILE_TEMP);
+		Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempFile), "UTF-8"));
+		try {
+			writer.write(JOURNAL_HEADER + "\n");
+			if (legacyFilesAdopted) {
+				writer.write(ADOPTED + "\n");
+			}
+			for (Map.Entry<String, Long> entry : entries.entrySet()) {
+				writer.write(CLEAN + " " + entry.getKey() + " " + entry.getValue() + "\n");
+			}
+		} finally {
+			Util.ensureClosed(writer);
+		}
+
+		File journalFile = new File(directory, JOURNAL_FILE);
+		if (!tempFile.renameTo(journalFile)) {
+			throw new IOException("Unable to replace attachment cache journal");
+		}
+		redundantOpCount = 0;
+		pendingReads.clear();
+	}
+
+	//endregion
+
+	//region Getters
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	public synchronized long getSize() {
+		return size;
+	}
+
+	public long getMaxSize() {
+		return maxSize;
+	}
+
+	public synchronized boolean isLegacyFilesAdopted() {
+		return legacyFilesAdopted;
+	}
+
+	//endregion
+}
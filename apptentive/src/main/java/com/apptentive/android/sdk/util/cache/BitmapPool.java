@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.util.cache;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+
+/**
+ * Byte-budgeted pool of mutable bitmaps which are no longer displayed. Pooled bitmaps are reused as
+ * <code>BitmapFactory.Options.inBitmap</code> or as scaling targets so scrolling through the same-size
+ * thumbnails does not allocate a new bitmap for every decode. Only bitmaps which are guaranteed to
+ * be unused can be put into the pool: the oldest ones are recycled when the pool is over budget.
+ */
+public class BitmapPool {
+	private final long maxSize;
+
+	/**
+	 * Pooled bitmaps (from the oldest to the newest)
+	 */
+	private final LinkedList<Bitmap> bitmaps = new LinkedList<>();
+	private long size;
+
+	public BitmapPool(long maxSize) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("Invalid max size: " + maxSize);
+		}
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Adds a bitmap to the pool. Immutable or recycled bitmaps are ignored.
+	 */
+	public synchronized void put(Bitmap bitmap) {
+		if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable()) {
+			return;
+		}
+
+		long bitmapSize = getSize(bitmap);
+		if (bitmapSize > maxSize) {
+			return;
+		}
+
+		for (Bitmap pooled : bitmaps) {
+			if (pooled == bitmap) {
+				return; // already in the pool
+			}
+		}
+
+		bitmaps.addLast(bitmap);
+		size += bitmapSize;
+
+		while (size > maxSize) {
+			Bitmap eldest = bitmaps.removeFirst();
+			size -= getSize(eldest);
+			eldest.recycle();
+		}
+	}
+
+	/**
+	 * Removes and returns a bitmap of exactly the same dimensions and configuration (or
+	 * <code>null</code> if there is none). The contents of the bitmap are undefined.
+	 */
+	public synchronized Bitmap get(int width, int height, Bitmap.Config config) {
+		Iterator<Bitmap> iterator = bitmaps.descendingIterator();
+		while (iterator.hasNext()) {
+			Bitmap bitmap = iterator.next();
+			if (bitmap.getWidth() == width && bitmap.getHeight() == height && bitmap.getConfig() == config) {
+				iterator.remove();
+				size -= getSize(bitmap);
+				return bitmap;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Removes and returns a bitmap which can be used as <code>BitmapFactory.Options.inBitmap</code>
+	 * for decoding an image of the given dimensions.
+	 *
+	 * @param sampleSize - <code>BitmapFactory.Options.inSampleSize</code> of the decode
+	 */
+	public synchronized Bitmap getReusable(int width, int height, int sampleSize, Bitmap.Config config) {
+		if (width <= 0 || height <= 0) {
+			return null;
+		}
+
+		if (Build.VERSION.SDK_INT < Build.VERSION_CODES.KITKAT) {
+			// older decoders require the exact same size and no sampling
+			return sampleSize <= 1 ? get(width, height, config) : null;
+		}
+
+		long requiredSize = (long) width * height * getBytesPerPixel(config);
+		Iterator<Bitmap> iterator = bitmaps.descendingIterator();
+		while (iterator.hasNext()) {
+			Bitmap bitmap = iterator.next();
+			if (bitmap.getConfig() == config && bitmap.getAllocationByteCount() >= requiredSize) {
+				iterator.remove();
+				size -= getSize(bitmap);
+				return bitmap;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Recycles all the pooled bitmaps
+	 */
+	public synchronized void clear() {
+		for (Bitmap bitmap : bitmaps) {
+			bitmap.recycle();
+		}
+		bitmaps.clear();
+		size = 0;
+	}
+
+	public synchronized long getSize() {
+		return size;
+	}
+
+	public long getMaxSize() {
+		return maxSize;
+	}
+
+	private static long getSize(Bitmap bitmap) {
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+			return bitmap.getAllocationByteCount();
+		}
+		return bitmap.getByteCount();
+	}
+
+	private static int getBytesPerPixel(Bitmap.Config config) {
+		if (config == Bitmap.Config.ALPHA_8) {
+			return 1;
+		}
+		if (config == Bitmap.Config.RGB_565 || config == Bitmap.Config.ARGB_4444) {
+			return 2;
+		}
+		return 4;
+	}
+}
@@ -5,12 +5,18 @@
  */
 package com.apptentive.android.sdk.util.cache;
 
+import android.app.ActivityManager;
+import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.drawable.BitmapDrawable;
 import androidx.collection.LruCache;
 
+import com.apptentive.android.sdk.ApptentiveInternal;
+
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -21,44 +27,45 @@ public class ImageMemoryCache {
 	private static final String URI_DIMENTION_SEPARATOR = "_";
 	private static final String WIDTH_HEIGHT_SEPARATOR = ":";
 
-	private static final int MAX_CACHE_COUNT = 1;
+	/**
+	 * Fraction of the application heap (memory class) used for the cache
+	 */
+	private static final int MEMORY_CLASS_FRACTION = 8;
 
 	private final LruCache<String, Object> bufferCache;
 
+	/**
+	 * Cache keys by image URI (all the cached sizes of the same image)
+	 */
+	private final Map<String, Set<String>> uriKeys = new HashMap<>();
+
+	private EvictionListener evictionListener;
+
+	/**
+	 * Creates a cache sized from the device memory class
+	 */
 	public ImageMemoryCache() {
-		bufferCache = new LruCache<String, Object>(
-				MAX_CACHE_COUNT) {
-			/**
-			 * recycle the removed bitmap from memory
-			 */
-			@Override
-			protected void entryRemoved(boolean evicted, String key, Object oldValue, Object newValue) {
-				if (oldValue != null) {
-					if (oldValue instanceof Bitmap) {
-						((Bitmap) oldValue).recycle();
-					} else if (oldValue instanceof BitmapDrawable) {
-						((BitmapDrawable) oldValue).getBitmap().recycle();
-					}
-					oldValue = null;
-				}
-			}
-		};
+		this(calculateMaxSize());
 	}
 
 	public ImageMemoryCache(int maxMega) {
-		bufferCache = new LruCache<String, Object>(maxMega * 1024 * 1024) { // by default use 1M as a unit for the in memory Lrucache
+		this((long) maxMega * 1024 * 1024); // by default use 1M as a unit for the in memory Lrucache
+	}
+
+	private ImageMemoryCache(long maxBytes) {
+		bufferCache = new LruCache<String, Object>((int) Math.min(Integer.MAX_VALUE, maxBytes)) {
 			/**
-			 * recycle the removed bitmap from memory
+			 * Evicted bitmaps are not recycled: they might still be displayed. The listener decides
+			 * when it's safe to reuse them.
 			 */
 			@Override
 			protected void entryRemoved(boolean evicted, String key, Object oldValue, Object newValue) {
-				if (oldValue != null) {
-					if (oldValue instanceof Bitmap) {
-						((Bitmap) oldValue).recycle();
-					} else if (oldValue instanceof BitmapDrawable) {
-						((BitmapDrawable) oldValue).getBitmap().recycle();
-					}
-					oldValue = null;
+				if (newValue == null) {
+					unindexKey(key);
+				}
+				EvictionListener listener = evictionListener;
+				if (listener != null && oldValue != null && oldValue != newValue) {
+					listener.onEntryRemoved(key, oldValue);
 				}
 			}
 
@@ -66,19 +73,39 @@ public class ImageMemoryCache {
 			protected int sizeOf(String key, Object object) {
 				// The cache size will be measured in bytes rather than
 				// number of items.
-				int byteCount = 0;
-
-				if (object instanceof Bitmap) {
-					byteCount = ((Bitmap) object).getRowBytes() * ((Bitmap) object).getHeight();
-				} else if (object instanceof BitmapDrawable) {
-					Bitmap bm = ((BitmapDrawable) object).getBitmap();
-					byteCount = bm.getRowBytes() * bm.getHeight();
-				}
-				return byteCount;
+				return getByteCount(object);
 			}
 		};
 	}
 
+	private static int getByteCount(Object object) {
+		int byteCount = 0;
+
+		if (object instanceof Bitmap) {
+			byteCount = ((Bitmap) object).getRowBytes() * ((Bitmap) object).getHeight();
+		} else if (object instanceof BitmapDrawable) {
+			Bitmap bm = ((BitmapDrawable) object).getBitmap();
+			byteCount = bm.getRowBytes() * bm.getHeight();
+		}
+		return byteCount;
+	}
+
+	/**
+	 * Returns the cache size in bytes for the device memory class (or the max heap size if the
+	 * application context is not available)
+	 */
+	public static long calculateMaxSize() {
+		long heapSize = Runtime.getRuntime().maxMemory();
+		Context context = ApptentiveInternal.getInstance().getApplicationContext();
+		if (context != null) {
+			ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+			if (activityManager != null) {
+				heapSize = activityManager.getMemoryClass() * 1024L * 1024L;
+			}
+		}
+		return heapSize / MEMORY_CLASS_FRACTION;
+	}
+
 	public Set<String> getKeySet() {
 		Map<String, Object> snapshot = bufferCache.snapshot();
 		return snapshot.keySet();
@@ -96,8 +123,15 @@ public class ImageMemoryCache {
 			return;
 		}
 
+		// An object larger than the whole cache would be evicted right away and handed to the eviction
+		// listener (which reuses bitmaps) while the caller is about to display it
+		if (getByteCount(value) > bufferCache.maxSize()) {
+			return;
+		}
+
 		// Add to memory cache
 		if (getObjectFromCache(key) == null) {
+			indexKey(key);
 			bufferCache.put(key, value);
 		}
 	}
@@ -119,6 +153,62 @@ public class ImageMemoryCache {
 		}
 	}
 
+	public long getSize() {
+		return bufferCache.size();
+	}
+
+	public long getMaxSize() {
+		return bufferCache.maxSize();
+	}
+
+	public void setEvictionListener(EvictionListener evictionListener) {
+		this.evictionListener = evictionListener;
+	}
+
+	//region URI index
+
+	private void indexKey(String key) {
+		String imageUri = getImageUri(key);
+		synchronized (uriKeys) {
+			Set<String> keys = uriKeys.get(imageUri);
+			if (keys == null) {
+				keys = new HashSet<>();
+				uriKeys.put(imageUri, keys);
+			}
+			keys.add(key);
+		}
+	}
+
+	private void unindexKey(String key) {
+		String imageUri = getImageUri(key);
+		synchronized (uriKeys) {
+			Set<String> keys = uriKeys.get(imageUri);
+			if (keys != null) {
+				keys.remove(key);
+				if (keys.isEmpty()) {
+					uriKeys.remove(imageUri);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns all the cache keys for the image URI (without an LRU scan)
+	 */
+	public List<String> getKeysForImageUri(String imageUri) {
+		synchronized (uriKeys) {
+			Set<String> keys = uriKeys.get(imageUri);
+			return keys != null ? new ArrayList<>(keys) : new ArrayList<String>();
+		}
+	}
+
+	private static String getImageUri(String key) {
+		int index = key.lastIndexOf(URI_DIMENTION_SEPARATOR);
+		return index != -1 ? key.substring(0, index) : key;
+	}
+
+	//endregion
+
 	/**
 	 * Generates key for memory cache entry
 	 * Format for memory cache key is [imageUri]_[width]:[height].
@@ -143,9 +233,10 @@ public class ImageMemoryCache {
 	 */
 	public static List<Bitmap> getCachedBitmapsForImageUri(String imageUri, ImageMemoryCache memoryCache) {
 		List<Bitmap> values = new ArrayList<Bitmap>();
-		for (String key : memoryCache.getKeySet()) {
-			if (key.startsWith(imageUri)) {
-				values.add((Bitmap) memoryCache.getObjectFromCache(key));
+		for (String key : memoryCache.getKeysForImageUri(imageUri)) {
+			Object value = memoryCache.getObjectFromCache(key);
+			if (value instanceof Bitmap) {
+				values.add((Bitmap) value);
 			}
 		}
 		return values;
@@ -155,27 +246,22 @@ public class ImageMemoryCache {
 	 * Searches all keys in memory cache which are corresponded to incoming URI.<br />
 	 */
 	public static List<String> findCacheKeysForImageUri(String imageUri, ImageMemoryCache memoryCache) {
-		List<String> values = new ArrayList<String>();
-		for (String key : memoryCache.getKeySet()) {
-			if (key.startsWith(imageUri)) {
-				values.add(key);
-			}
-		}
-		return values;
+		return memoryCache.getKeysForImageUri(imageUri);
 	}
 
 	/**
 	 * Removes from memory cache all sizes of a given image URI.<br />
 	 */
 	public static void removeFromCache(String imageUri, ImageMemoryCache memoryCache) {
-		List<String> keysToRemove = new ArrayList<String>();
-		for (String key : memoryCache.getKeySet()) {
-			if (key.startsWith(imageUri)) {
-				keysToRemove.add(key);
-			}
-		}
-		for (String keyToRemove : keysToRemove) {
+		for (String keyToRemove : memoryCache.getKeysForImageUri(imageUri)) {
 			memoryCache.removeObjectFromCache(keyToRemove);
 		}
 	}
+
+	public interface EvictionListener {
+		/**
+		 * Called when an entry is evicted or removed from the cache
+		 */
+		void onEntryRemoved(String key, Object value);
+	}
 }
@@ -7,8 +7,8 @@
 package com.apptentive.android.sdk.util.image;
 
 import android.annotation.SuppressLint;
+import android.content.Context;
 import android.graphics.Bitmap;
-import android.os.AsyncTask;
 import android.os.Build;
 import android.text.TextUtils;
 import android.webkit.URLUtil;
@@ -16,23 +16,66 @@ import android.widget.ImageView;
 
 import com.apptentive.android.sdk.ApptentiveLog;
 import com.apptentive.android.sdk.R;
+import com.apptentive.android.sdk.util.cache.AttachmentDiskCache;
+import com.apptentive.android.sdk.util.cache.BitmapPool;
 import com.apptentive.android.sdk.util.cache.ImageMemoryCache;
 import com.apptentive.android.sdk.util.task.ApptentiveDownloaderTask;
-import com.apptentive.android.sdk.util.task.ApptentiveDrawableLoaderTask;
+import com.apptentive.android.sdk.util.threading.DispatchQueue;
+import com.apptentive.android.sdk.util.threading.DispatchQueueType;
+import com.apptentive.android.sdk.util.threading.DispatchTask;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static com.apptentive.android.sdk.ApptentiveLogTag.UTIL;
+import static com.apptentive.android.sdk.debug.ErrorMetrics.logException;
 
 public class ApptentiveAttachmentLoader {
 
 	public static final int DRAWABLE_DOWNLOAD_TAG = R.id.apptentive_drawable_downloader;
 
+	/**
+	 * Idle time before a download thread terminates
+	 */
+	private static final long DOWNLOAD_THREAD_KEEP_ALIVE_MILLIS = 30000L;
+
 	private ImageMemoryCache bitmapMemoryCache;
+	private BitmapPool bitmapPool;
+	private ImageDecodeQueue decodeQueue;
+
+	/**
+	 * Dedicated executor for the attachment downloads (instead of the global AsyncTask executor
+	 * shared with the host app)
+	 */
+	private ThreadPoolExecutor downloadExecutor;
+
+	/**
+	 * Serial queue for the disk cache operations (opening the cache reads its journal and the
+	 * accesses are periodically written into it)
+	 */
+	private DispatchQueue diskCacheQueue;
+
+	/**
+	 * Bitmaps currently displayed by image views (only accessed on the main thread)
+	 */
+	private WeakHashMap<ImageView, Bitmap> displayedBitmaps;
+
+	/**
+	 * Bitmaps evicted from the memory cache while still being displayed: they are moved to the pool
+	 * once no view displays them
+	 */
+	private Set<Bitmap> evictedBitmaps;
 	private ArrayList<LoaderRequest> queuedDownLoaderRequests;
 	private ArrayList<LoaderRequest> runningDownLoaderRequests;
 	private HashSet<String> filesBeingDownloaded;
@@ -68,22 +111,73 @@ public class ApptentiveAttachmentLoader {
 	}
 
 	protected ApptentiveAttachmentLoader() {
-		setup(10);
+		setup(10, null);
 	}
 
 	protected ApptentiveAttachmentLoader(int maxDownloads) {
-		setup(maxDownloads);
+		setup(maxDownloads, null);
 	}
 
-	private void setup(int maxDownloads) {
+	/**
+	 * Creates a loader which decodes the images on the specified queue (used by the tests)
+	 */
+	ApptentiveAttachmentLoader(int maxDownloads, ImageDecodeQueue decodeQueue) {
+		setup(maxDownloads, decodeQueue);
+	}
+
+	private void setup(int maxDownloads, ImageDecodeQueue decodeQueue) {
 		queuedDownLoaderRequests = new ArrayList<LoaderRequest>();
 		runningDownLoaderRequests = new ArrayList<LoaderRequest>();
 		filesBeingDownloaded = new HashSet<String>();
 		this.maxDownloads = maxDownloads;
 		duplicateDownloads = new HashMap<String, ArrayList<LoaderRequest>>();
-		bitmapMemoryCache = new ImageMemoryCache(30);
+		bitmapMemoryCache = new ImageMemoryCache();
+		bitmapPool = new BitmapPool(Math.max(1, bitmapMemoryCache.getMaxSize() / 4));
+		displayedBitmaps = new WeakHashMap<>();
+		evictedBitmaps = Collections.newSetFromMap(new IdentityHashMap<Bitmap, Boolean>());
+		this.decodeQueue = decodeQueue != null ? decodeQueue : new ImageDecodeQueue(bitmapPool);
+		downloadExecutor = new ThreadPoolExecutor(maxDownloads, maxDownloads, DOWNLOAD_THREAD_KEEP_ALIVE_MILLIS, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
+		downloadExecutor.allowCoreThreadTimeOut(true);
+		diskCacheQueue = DispatchQueue.createBackgroundQueue("Apptentive Attachment Cache Queue", DispatchQueueType.Serial);
+		bitmapMemoryCache.setEvictionListener(new ImageMemoryCache.EvictionListener() {
+			@Override
+			public void onEntryRemoved(String key, Object value) {
+				if (value instanceof Bitmap) {
+					recycleBitmap((Bitmap) value);
+				}
+			}
+		});
 	}
 
+	//region Bitmap reuse
+
+	/**
+	 * Moves an evicted bitmap to the pool (or postpones it until the bitmap is no longer displayed)
+	 */
+	private void recycleBitmap(Bitmap bitmap) {
+		if (displayedBitmaps.containsValue(bitmap)) {
+			evictedBitmaps.add(bitmap);
+		} else {
+			bitmapPool.put(bitmap);
+		}
+	}
+
+	private void setDisplayedBitmap(ImageView imageView, Bitmap bitmap) {
+		Bitmap oldBitmap = bitmap != null ? displayedBitmaps.put(imageView, bitmap) : displayedBitmaps.remove(imageView);
+		if (oldBitmap != null && oldBitmap != bitmap && !evictedBitmaps.isEmpty()) {
+			Iterator<Bitmap> iterator = evictedBitmaps.iterator();
+			while (iterator.hasNext()) {
+				Bitmap evictedBitmap = iterator.next();
+				if (!displayedBitmaps.containsValue(evictedBitmap)) {
+					iterator.remove();
+					bitmapPool.put(evictedBitmap);
+				}
+			}
+		}
+	}
+
+	//endregion
+
 	/* Check if a file is being downloaded. If true, the file is not completely written by download task yet.
 	*  This method is to be used with File.exists() to make sure file can only be viewed after fully downloaded
 	*/
@@ -91,6 +185,10 @@ public class ApptentiveAttachmentLoader {
 		return !filesBeingDownloaded.contains(path);
 	}
 
+	/**
+	 * @param conversationToken - only needed for the links redirected through the Apptentive server
+	 *                          (might be <code>null</code> for the public images like avatars)
+	 */
 	public void load(String conversationToken, String uri, String diskFilePath, int pos, ImageView imageView, int width, int height, boolean bLoadImage, LoaderCallback callback) {
 		LoaderRequest d = new LoaderRequest(conversationToken, uri, diskFilePath, pos, imageView, width, height, bLoadImage, callback);
 		d.load();
@@ -108,13 +206,13 @@ public class ApptentiveAttachmentLoader {
 		filesBeingDownloaded.clear();
 	}
 
-	public class LoaderRequest implements ApptentiveDownloaderTask.FileDownloadListener, ApptentiveDrawableLoaderTask.BitmapLoadListener {
+	public class LoaderRequest implements ApptentiveDownloaderTask.FileDownloadListener, ImageDecodeQueue.Listener {
 		private final String conversationToken;
 		private String uri;
 		private String diskCacheFilePath;
 		private WeakReference<ImageView> mImageViewRef;
 		private ApptentiveDownloaderTask mDrawableDownloaderTask;
-		private ApptentiveDrawableLoaderTask mDrawableLoaderTask;
+		private ImageDecodeQueue.Request mDecodeRequest;
 		private boolean mIsCancelled;
 		private boolean mWasDownloaded = false;
 		private int imageViewWidth;
@@ -124,9 +222,6 @@ public class ApptentiveAttachmentLoader {
 		private int pos;
 
 		public LoaderRequest(String conversationToken, String url, String diskPath, int position, ImageView imageView, int width, int height, boolean bLoadImage, LoaderCallback loadingTaskCallback) {
-			if (conversationToken == null) {
-				throw new IllegalArgumentException("Conversation token is null");
-			}
 			this.conversationToken = conversationToken;
 			this.uri = url;
 			this.diskCacheFilePath = diskPath;
@@ -198,6 +293,10 @@ public class ApptentiveAttachmentLoader {
 					imageView.setTag(DRAWABLE_DOWNLOAD_TAG, null);
 				} else {
 					imageView.setTag(DRAWABLE_DOWNLOAD_TAG, this);
+
+					// keep the recently viewed attachments from being evicted
+					recordDiskCacheAccess(imageView.getContext().getApplicationContext(), diskCacheFilePath);
+
 					if (bLoadImage) {
 						loadImageFromDisk(imageView);
 					} else {
@@ -219,12 +318,12 @@ public class ApptentiveAttachmentLoader {
 			}
 			ImageView imageView = mImageViewRef.get();
 			if (imageView != null && imageView.getTag(DRAWABLE_DOWNLOAD_TAG) == this && URLUtil.isNetworkUrl(uri)) {
-				mDrawableDownloaderTask = new ApptentiveDownloaderTask(imageView, this);
+				mDrawableDownloaderTask = new ApptentiveDownloaderTask(imageView, this, imageView.getContext().getApplicationContext());
 				try {
 					ApptentiveLog.v(UTIL, "ApptentiveAttachmentLoader doDownload: " + uri);
 					// Conversation token is needed if the download url is a redirect link from an Apptentive endpoint
 					if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
-						mDrawableDownloaderTask.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR, uri, diskCacheFilePath, conversationToken);
+						mDrawableDownloaderTask.executeOnExecutor(downloadExecutor, uri, diskCacheFilePath, conversationToken);
 					} else {
 						mDrawableDownloaderTask.execute(uri, diskCacheFilePath, conversationToken);
 					}
@@ -253,19 +352,13 @@ public class ApptentiveAttachmentLoader {
 			return false;
 		}
 
-		@SuppressLint("NewApi")
 		private void loadImageFromDisk(ImageView imageView) {
 			if (imageView != null && !mIsCancelled) {
 				ApptentiveLog.v(UTIL, "ApptentiveAttachmentLoader loadImageFromDisk: " + uri);
-				mDrawableLoaderTask = new ApptentiveDrawableLoaderTask(imageView, this);
-				try {
-					if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
-						mDrawableLoaderTask.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR, uri, diskCacheFilePath, String.valueOf(imageViewWidth), String.valueOf(imageViewHeight));
-					} else {
-						mDrawableLoaderTask.execute(uri, diskCacheFilePath, String.valueOf(imageViewWidth), String.valueOf(imageViewHeight));
-					}
-				} catch (RejectedExecutionException e) {
+				if (mDecodeRequest != null) {
+					mDecodeRequest.cancel();
 				}
+				mDecodeRequest = decodeQueue.decode(uri, diskCacheFilePath, imageViewWidth, imageViewHeight, this);
 			}
 		}
 
@@ -297,8 +390,9 @@ public class ApptentiveAttachmentLoader {
 			if (mDrawableDownloaderTask != null) {
 				mDrawableDownloaderTask.cancel(true);
 			}
-			if (mDrawableLoaderTask != null) {
-				mDrawableLoaderTask.cancel(true);
+			if (mDecodeRequest != null) {
+				mDecodeRequest.cancel();
+				mDecodeRequest = null;
 			}
 		}
 
@@ -381,6 +475,7 @@ public class ApptentiveAttachmentLoader {
 			ApptentiveLog.v(UTIL, "ApptentiveAttachmentLoader loadDrawable");
 			ImageView imageView = getImageView();
 			if (imageView != null) {
+				setDisplayedBitmap(imageView, d);
 				if (loadingTaskCallback != null) {
 					loadingTaskCallback.onLoaded(imageView, pos, d);
 				}
@@ -567,6 +662,7 @@ public class ApptentiveAttachmentLoader {
 		@Override
 		public void notFound() {
 			ApptentiveLog.v(UTIL, "ApptentiveAttachmentLoader notFound: " + uri);
+			mDecodeRequest = null;
 			if (mIsCancelled) {
 				return;
 			}
@@ -620,6 +716,7 @@ public class ApptentiveAttachmentLoader {
 
 		@Override
 		public void loadBitmap(Bitmap b) {
+			mDecodeRequest = null;
 			bitmapMemoryCache.addObjectToCache(ImageMemoryCache.generateMemoryCacheEntryKey(uri, imageViewWidth, imageViewHeight), b);
 			ImageView imageView = getImageView();
 			if (imageView != null && this == imageView.getTag(DRAWABLE_DOWNLOAD_TAG)) {
@@ -633,6 +730,7 @@ public class ApptentiveAttachmentLoader {
 		@Override
 		public void onLoadError() {
 			ApptentiveLog.v(UTIL, "ApptentiveAttachmentLoader onLoadError: " + uri);
+			mDecodeRequest = null;
 			ImageView imageView = getImageView();
 
 			if (imageView != null && this == imageView.getTag(DRAWABLE_DOWNLOAD_TAG)) {
@@ -644,19 +742,23 @@ public class ApptentiveAttachmentLoader {
 				}
 			}
 		}
+	}
 
-		@Override
-		public void onLoadCancelled() {
-			ApptentiveLog.v(UTIL, "ApptentiveAttachmentLoader onLoadCancelled: " + uri);
-			ImageView imageView = getImageView();
-			if (imageView != null && this == imageView.getTag(DRAWABLE_DOWNLOAD_TAG)) {
-				imageView.setTag(DRAWABLE_DOWNLOAD_TAG, null);
-
-				if (loadingTaskCallback != null) {
-					loadingTaskCallback.onLoadTerminated();
+	private void recordDiskCacheAccess(final Context context, final String path) {
+		diskCacheQueue.dispatchAsync(new DispatchTask() {
+			@Override
+			protected void execute() {
+				try {
+					AttachmentDiskCache diskCache = AttachmentDiskCache.getInstance(context);
+					if (diskCache != null) {
+						diskCache.recordAccess(path);
+					}
+				} catch (Exception e) {
+					ApptentiveLog.e(UTIL, e, "Unable to record attachment disk cache access");
+					logException(e);
 				}
 			}
-		}
+		});
 	}
 
 	public boolean isBitmapLoaded(String memoryKey) {
@@ -665,10 +767,11 @@ public class ApptentiveAttachmentLoader {
 	}
 
 	/**
-	 * Clears memory cache
+	 * Clears memory cache (along with the pool of reusable bitmaps)
 	 */
 	public void clearMemoryCache() {
 		bitmapMemoryCache.evictAll();
+		bitmapPool.clear();
 	}
 
 }
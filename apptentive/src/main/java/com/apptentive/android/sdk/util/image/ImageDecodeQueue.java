@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.util.image;
+
+import android.graphics.Bitmap;
+import android.media.ExifInterface;
+import android.text.TextUtils;
+import android.webkit.URLUtil;
+
+import com.apptentive.android.sdk.ApptentiveLog;
+import com.apptentive.android.sdk.util.cache.BitmapPool;
+import com.apptentive.android.sdk.util.cache.ImageMemoryCache;
+import com.apptentive.android.sdk.util.threading.DispatchQueue;
+import com.apptentive.android.sdk.util.threading.DispatchTask;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.apptentive.android.sdk.ApptentiveLogTag.UTIL;
+
+/**
+ * Decodes local images on a dedicated bounded queue (instead of the global AsyncTask executor shared
+ * with the host app). Requests for the same image and size share a single decode, which is cancelled
+ * once all of its requests are cancelled (e.g. when the image view is recycled for another
+ * attachment).
+ *
+ * The queue is confined to the callback queue (main queue by default): requests must be made and
+ * cancelled on it and listeners are notified on it.
+ */
+public class ImageDecodeQueue {
+	/**
+	 * Max number of the images decoded at the same time (each decode holds an intermediate bitmap so
+	 * the number is kept small)
+	 */
+	private static final int MAX_CONCURRENT_DECODES = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+	private final DispatchQueue decodeQueue;
+	private final DispatchQueue callbackQueue;
+	private final Decoder decoder;
+	private final BitmapPool bitmapPool;
+
+	/**
+	 * In-flight decodes by memory cache key (image URI and size)
+	 */
+	private final Map<String, DecodeTask> tasks = new HashMap<>();
+
+	public ImageDecodeQueue(BitmapPool bitmapPool) {
+		this(DispatchQueue.createBackgroundQueue("Apptentive Image Decode Queue", MAX_CONCURRENT_DECODES), DispatchQueue.mainQueue(), new LocalImageDecoder(bitmapPool), bitmapPool);
+	}
+
+	ImageDecodeQueue(DispatchQueue decodeQueue, DispatchQueue callbackQueue, Decoder decoder, BitmapPool bitmapPool) {
+		if (decodeQueue == null) {
+			throw new IllegalArgumentException("Decode queue is null");
+		}
+		if (callbackQueue == null) {
+			throw new IllegalArgumentException("Callback queue is null");
+		}
+		if (decoder == null) {
+			throw new IllegalArgumentException("Decoder is null");
+		}
+		this.decodeQueue = decodeQueue;
+		this.callbackQueue = callbackQueue;
+		this.decoder = decoder;
+		this.bitmapPool = bitmapPool;
+	}
+
+	/**
+	 * Schedules an image decode (or joins the in-flight decode of the same image and size)
+	 *
+	 * @param uri            - source image URI
+	 * @param cachedFilePath - path to the Apptentive cached copy of the image (tried first)
+	 * @return request handle which can be cancelled
+	 */
+	public Request decode(String uri, String cachedFilePath, int width, int height, Listener listener) {
+		if (listener == null) {
+			throw new IllegalArgumentException("Listener is null");
+		}
+
+		String key = ImageMemoryCache.generateMemoryCacheEntryKey(uri, width, height);
+		DecodeTask task = tasks.get(key);
+		if (task == null) {
+			task = new DecodeTask(key, uri, cachedFilePath, width, height);
+			tasks.put(key, task);
+			decodeQueue.dispatchAsync(task);
+		} else {
+			ApptentiveLog.v(UTIL, "Joined in-flight image decode: %s", key);
+		}
+
+		Request request = new Request(task, listener);
+		task.requests.add(request);
+		return request;
+	}
+
+	/**
+	 * Returns the number of the scheduled or running decodes
+	 */
+	int getPendingDecodeCount() {
+		return tasks.size();
+	}
+
+	private void cancelRequest(Request request) {
+		DecodeTask task = request.task;
+		if (task.requests.remove(request) && task.requests.isEmpty()) {
+			if (tasks.get(task.key) == task) {
+				tasks.remove(task.key);
+			}
+			task.cancel();
+			ApptentiveLog.v(UTIL, "Cancelled image decode: %s", task.key);
+		}
+	}
+
+	private void finishTask(DecodeTask task, Bitmap bitmap, Exception error) {
+		if (tasks.get(task.key) == task) {
+			tasks.remove(task.key);
+		}
+
+		if (task.requests.isEmpty()) {
+			// all the requests were cancelled while decoding: nobody displays the bitmap
+			if (bitmap != null && bitmapPool != null) {
+				bitmapPool.put(bitmap);
+			}
+			return;
+		}
+
+		if (error != null) {
+			ApptentiveLog.v(UTIL, "Unable to decode image: %s (%s)", task.key, error);
+		}
+
+		List<Request> requests = new ArrayList<>(task.requests);
+		task.requests.clear();
+		for (Request request : requests) {
+			if (error != null) {
+				request.listener.onLoadError();
+			} else if (bitmap == null) {
+				request.listener.notFound();
+			} else {
+				request.listener.loadBitmap(bitmap);
+			}
+		}
+	}
+
+	//region Decode task
+
+	private class DecodeTask extends DispatchTask {
+		private final String key;
+		private final String uri;
+		private final String cachedFilePath;
+		private final int width;
+		private final int height;
+
+		/**
+		 * Active requests (only accessed on the callback queue)
+		 */
+		private final List<Request> requests = new ArrayList<>();
+
+		DecodeTask(String key, String uri, String cachedFilePath, int width, int height) {
+			this.key = key;
+			this.uri = uri;
+			this.cachedFilePath = cachedFilePath;
+			this.width = width;
+			this.height = height;
+		}
+
+		@Override
+		protected void execute() {
+			Bitmap bitmap = null;
+			Exception error = null;
+			try {
+				bitmap = decoder.decode(uri, cachedFilePath, width, height);
+			} catch (Exception e) {
+				error = e;
+			}
+
+			final Bitmap decodedBitmap = bitmap;
+			final Exception decodeError = error;
+			callbackQueue.dispatchAsync(new DispatchTask() {
+				@Override
+				protected void execute() {
+					finishTask(DecodeTask.this, decodedBitmap, decodeError);
+				}
+			});
+		}
+	}
+
+	//endregion
+
+	//region Request
+
+	/**
+	 * Handle of a single decode request
+	 */
+	public class Request {
+		private final DecodeTask task;
+		private final Listener listener;
+
+		private Request(DecodeTask task, Listener listener) {
+			this.task = task;
+			this.listener = listener;
+		}
+
+		/**
+		 * Stops notifying the listener. The decode is cancelled if there are no other requests for it.
+		 */
+		public void cancel() {
+			cancelRequest(this);
+		}
+	}
+
+	//endregion
+
+	//region Decoder
+
+	public interface Listener {
+		/**
+		 * Called if the image is not available locally and should be downloaded
+		 */
+		void notFound();
+
+		void loadBitmap(Bitmap b);
+
+		void onLoadError();
+	}
+
+	interface Decoder {
+		/**
+		 * Returns decoded image or <code>null</code> if the image is not available locally.
+		 * Throws an exception if the image can't be decoded.
+		 */
+		Bitmap decode(String uri, String cachedFilePath, int width, int height) throws Exception;
+	}
+
+	/**
+	 * Decodes the Apptentive cached copy of the image or the image from the original source
+	 */
+	private static class LocalImageDecoder implements Decoder {
+		private final BitmapPool bitmapPool;
+
+		LocalImageDecoder(BitmapPool bitmapPool) {
+			this.bitmapPool = bitmapPool;
+		}
+
+		@Override
+		public Bitmap decode(String uri, String cachedFilePath, int width, int height) throws Exception {
+			Bitmap bitmap = null;
+
+			// Always try to load image from apptentive cached copy first
+			if (!TextUtils.isEmpty(cachedFilePath) && new File(cachedFilePath).exists()) {
+				try {
+					bitmap = loadFromLocalImageSource(cachedFilePath, width, height);
+				} catch (Exception e) {
+					// corrupted cached copy: fall back to the original source
+				}
+			}
+			// Then try to load the image from the original uri/file path to the source
+			if (bitmap == null) {
+				bitmap = loadFromLocalImageSource(uri, width, height);
+			}
+			return bitmap;
+		}
+
+		private Bitmap loadFromLocalImageSource(String fileLocation, int width, int height) throws Exception {
+			if (TextUtils.isEmpty(fileLocation)) {
+				return null;
+			}
+
+			int imageOrientation = 0;
+			try {
+				ExifInterface exif = new ExifInterface(fileLocation);
+				imageOrientation = exif.getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+			} catch (IOException e) {
+				// Fail to obtain orientation from Exif, Just ignore, and treat it as 0
+			}
+
+			try {
+				return ImageUtil.createScaledBitmapFromLocalImageSource(fileLocation, width, height, null, imageOrientation, bitmapPool);
+			} catch (FileNotFoundException e) {
+				if (URLUtil.isValidUrl(fileLocation)) {
+					return null; // remote image: should be downloaded
+				}
+				throw e;
+			}
+		}
+	}
+
+	//endregion
+}
@@ -9,19 +9,24 @@ package com.apptentive.android.sdk.util.image;
 import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
 import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
 import android.media.ExifInterface;
 import android.net.Uri;
-import android.os.AsyncTask;
-import android.os.Build;
 import android.text.TextUtils;
 import android.webkit.URLUtil;
+import android.widget.ImageView;
 
 import com.apptentive.android.sdk.ApptentiveInternal;
 import com.apptentive.android.sdk.ApptentiveLog;
+import com.apptentive.android.sdk.R;
 import com.apptentive.android.sdk.module.messagecenter.view.ApptentiveAvatarView;
 import com.apptentive.android.sdk.util.CountingOutputStream;
 import com.apptentive.android.sdk.util.Util;
+import com.apptentive.android.sdk.util.cache.BitmapPool;
 
 import java.io.BufferedOutputStream;
 import java.io.File;
@@ -30,8 +35,6 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.lang.ref.WeakReference;
-import java.net.URL;
 
 import static com.apptentive.android.sdk.ApptentiveLogTag.UTIL;
 import static com.apptentive.android.sdk.debug.ErrorMetrics.logException;
@@ -40,6 +43,27 @@ public class ImageUtil {
 
 	private static final int MAX_SENT_IMAGE_EDGE = 1024;
 
+	private static final ApptentiveAttachmentLoader.LoaderCallback AVATAR_LOADER_CALLBACK = new ApptentiveAttachmentLoader.LoaderCallback() {
+		@Override
+		public void onLoaded(ImageView view, int pos, Bitmap d) {
+			if (d != null) { // keep the default avatar otherwise
+				view.setImageBitmap(d);
+			}
+		}
+
+		@Override
+		public void onLoadTerminated() {
+		}
+
+		@Override
+		public void onDownloadStart() {
+		}
+
+		@Override
+		public void onDownloadProgress(int progress) {
+		}
+	};
+
 	/**
 	 * From <a href="http://developer.android.com/training/displaying-bitmaps/load-bitmap.html">Loading Large Bitmaps Efficiently</a>
 	 */
@@ -75,9 +99,10 @@ public class ImageUtil {
 	 * @param minShrunkHeight  If edge of this image is greater than minShrunkHeight, the image will be shrunken such it is not smaller than minShrunkHeight.
 	 * @param config           You can use this to change the number of bytes per pixel using various bitmap configurations.
 	 * @param orientation      The orientation for the image expressed as degrees
+	 * @param bitmapPool       Pool of the bitmaps to be reused for decoding (optional, maybe null)
 	 * @return A bitmap whose edges are equal to or less than minShrunkEdge in length.
 	 */
-	private static Bitmap createLightweightScaledBitmap(String fileAbsolutePath, Uri fileUri, int minShrunkWidth, int minShrunkHeight, Bitmap.Config config, int orientation) {
+	private static Bitmap createLightweightScaledBitmap(String fileAbsolutePath, Uri fileUri, int minShrunkWidth, int minShrunkHeight, Bitmap.Config config, int orientation, BitmapPool bitmapPool) {
 		boolean bCreateFromUri;
 		Context context = ApptentiveInternal.getInstance().getApplicationContext();
 		if (context != null && fileUri != null) {
@@ -134,19 +159,28 @@ public class ImageUtil {
 		options.inJustDecodeBounds = false;
 		ApptentiveLog.v(UTIL, "Bitmap sample size = %d", options.inSampleSize);
 
-		Bitmap retImg = null;
-		if (bCreateFromUri && context != null) {
-			InputStream is = null;
-			try {
-				is = context.getContentResolver().openInputStream(fileUri);
-				retImg = BitmapFactory.decodeStream(is, null, options);
-			} catch (FileNotFoundException e) {
-				throw new NullPointerException("Failed to decode image");
-			} finally {
-				Util.ensureClosed(is);
+		if (bitmapPool != null) {
+			// decode into a pooled bitmap instead of allocating a new one
+			int sampleSize = Math.max(1, options.inSampleSize);
+			options.inMutable = true;
+			options.inBitmap = bitmapPool.getReusable(divideRoundingUp(decodeBoundsOptions.outWidth, sampleSize),
+				divideRoundingUp(decodeBoundsOptions.outHeight, sampleSize), sampleSize, getConfig(config));
+		}
+
+		Bitmap retImg;
+		try {
+			retImg = decodeBitmap(context, fileUri, fileAbsolutePath, bCreateFromUri, options);
+		} catch (IllegalArgumentException e) {
+			if (options.inBitmap == null) {
+				throw e;
 			}
-		} else if (!bCreateFromUri){
-			retImg = BitmapFactory.decodeFile(fileAbsolutePath, options);
+			// the pooled bitmap can't hold this image: decode into a new one
+			bitmapPool.put(options.inBitmap);
+			options.inBitmap = null;
+			retImg = decodeBitmap(context, fileUri, fileAbsolutePath, bCreateFromUri, options);
+		}
+		if (retImg == null && options.inBitmap != null) {
+			bitmapPool.put(options.inBitmap); // decoding failed: the pooled bitmap was not used
 		}
 
 
@@ -166,8 +200,12 @@ public class ImageUtil {
 					break;
 			}
             try {
-				retImg = Bitmap.createBitmap(retImg, 0, 0, retImg.getWidth(),
+				Bitmap rotatedImg = Bitmap.createBitmap(retImg, 0, 0, retImg.getWidth(),
 						retImg.getHeight(), matrix, true);
+				if (bitmapPool != null && rotatedImg != retImg) {
+					bitmapPool.put(retImg);
+				}
+				retImg = rotatedImg;
 			} catch (IllegalArgumentException e) {
 				throw new NullPointerException("Failed to decode image");
 			}
@@ -180,6 +218,48 @@ public class ImageUtil {
 		return retImg;
 	}
 
+	private static Bitmap decodeBitmap(Context context, Uri fileUri, String fileAbsolutePath, boolean bCreateFromUri, BitmapFactory.Options options) {
+		if (bCreateFromUri && context != null) {
+			InputStream is = null;
+			try {
+				is = context.getContentResolver().openInputStream(fileUri);
+				return BitmapFactory.decodeStream(is, null, options);
+			} catch (FileNotFoundException e) {
+				throw new NullPointerException("Failed to decode image");
+			} finally {
+				Util.ensureClosed(is);
+			}
+		} else if (!bCreateFromUri) {
+			return BitmapFactory.decodeFile(fileAbsolutePath, options);
+		}
+		return null;
+	}
+
+	/**
+	 * Scales the bitmap into a pooled bitmap of the same size if there is one (same as
+	 * {@link Bitmap#createScaledBitmap(Bitmap, int, int, boolean)} otherwise)
+	 */
+	private static Bitmap createScaledBitmap(Bitmap source, int width, int height, BitmapPool bitmapPool) {
+		Bitmap target = bitmapPool != null ? bitmapPool.get(width, height, getConfig(source.getConfig())) : null;
+		if (target == null) {
+			return Bitmap.createScaledBitmap(source, width, height, true);
+		}
+
+		target.eraseColor(Color.TRANSPARENT);
+		target.setHasAlpha(source.hasAlpha());
+		Canvas canvas = new Canvas(target);
+		canvas.drawBitmap(source, new Rect(0, 0, source.getWidth(), source.getHeight()), new Rect(0, 0, width, height), new Paint(Paint.FILTER_BITMAP_FLAG));
+		return target;
+	}
+
+	private static Bitmap.Config getConfig(Bitmap.Config config) {
+		return config != null ? config : Bitmap.Config.ARGB_8888;
+	}
+
+	private static int divideRoundingUp(int value, int divider) {
+		return (value + divider - 1) / divider;
+	}
+
 	/**
 	 * This method first uses a straight binary pixel conversion to shrink an image to *almost* the right size, and then
 	 * performs a scaling of this resulting bitmap to achieve the final size. It will create two bitmaps in memory while it
@@ -192,14 +272,25 @@ public class ImageUtil {
 	 * @param orientation The orientation for the image expressed as degrees
 	 * @return A Bitmap scaled by maxWidth, maxHeight, and config.
 	 */
-	public synchronized static Bitmap createScaledBitmapFromLocalImageSource(String fileUrl, int maxWidth, int maxHeight, Bitmap.Config config, int orientation)
+	public static Bitmap createScaledBitmapFromLocalImageSource(String fileUrl, int maxWidth, int maxHeight, Bitmap.Config config, int orientation)
+			throws FileNotFoundException {
+		return createScaledBitmapFromLocalImageSource(fileUrl, maxWidth, maxHeight, config, orientation, null);
+	}
+
+	/**
+	 * Same as {@link #createScaledBitmapFromLocalImageSource(String, int, int, Bitmap.Config, int)}
+	 * but reuses the bitmaps from the pool and returns the intermediate ones back to it.
+	 *
+	 * @param bitmapPool  Pool of the reusable bitmaps (optional, maybe null)
+	 */
+	public static Bitmap createScaledBitmapFromLocalImageSource(String fileUrl, int maxWidth, int maxHeight, Bitmap.Config config, int orientation, BitmapPool bitmapPool)
 			throws FileNotFoundException {
 		Bitmap tempBitmap = null;
 
 		if (URLUtil.isContentUrl(fileUrl)) {
 			try {
 				Uri uri = Uri.parse(fileUrl);
-				tempBitmap = createLightweightScaledBitmap(null, uri, maxWidth, maxHeight, config, orientation);
+				tempBitmap = createLightweightScaledBitmap(null, uri, maxWidth, maxHeight, config, orientation, bitmapPool);
 			} catch (NullPointerException e) {
 				throw new NullPointerException("Failed to create scaled bitmap");
 			}
@@ -207,7 +298,7 @@ public class ImageUtil {
 			File file = new File(fileUrl);
 			if (file.exists()) {
 				try {
-					tempBitmap = createLightweightScaledBitmap(fileUrl, null, maxWidth, maxHeight, config, orientation);
+					tempBitmap = createLightweightScaledBitmap(fileUrl, null, maxWidth, maxHeight, config, orientation, bitmapPool);
 				} catch (NullPointerException e) {
 					throw new NullPointerException("Failed to create scaled bitmap");
 				}
@@ -233,12 +324,16 @@ public class ImageUtil {
 			int newHeight = (int) (ratio * height);
 			ApptentiveLog.v(UTIL, "Scaling image further down to %d x %d", newWidth, newHeight);
 			try {
-				outBitmap = Bitmap.createScaledBitmap(tempBitmap, newWidth, newHeight, true);
+				outBitmap = createScaledBitmap(tempBitmap, newWidth, newHeight, bitmapPool);
 			} catch (IllegalArgumentException e) {
 				throw new NullPointerException("Failed to create scaled bitmap");
 			}
 			ApptentiveLog.v(UTIL, "Final bitmap dimensions: %d x %d", outBitmap.getWidth(), outBitmap.getHeight());
-			tempBitmap.recycle();
+			if (bitmapPool != null) {
+				bitmapPool.put(tempBitmap); // intermediate bitmap is never displayed
+			} else {
+				tempBitmap.recycle();
+			}
 		}
 		return outBitmap;
 	}
@@ -250,13 +345,41 @@ public class ImageUtil {
 	}
 
 
+	/**
+	 * Loads an avatar through the attachment loader: the image is downsampled to the view size and
+	 * cached in memory and on disk (keyed by URL). Concurrent requests for the same URL share a single
+	 * download. A <code>null</code> URL cancels the pending avatar request of the view.
+	 */
 	public static void startDownloadAvatarTask(ApptentiveAvatarView view, String imageUrl) {
-		DownloadImageTask task = new DownloadImageTask(view);
-		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
-			task.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR, imageUrl);
-		} else {
-			task.execute(imageUrl);
+		startDownloadAvatarTask(ApptentiveAttachmentLoader.getInstance(), view, imageUrl);
+	}
+
+	static void startDownloadAvatarTask(ApptentiveAttachmentLoader loader, ApptentiveAvatarView view, String imageUrl) {
+		if (view == null) {
+			throw new IllegalArgumentException("View is null");
+		}
+
+		String diskCachePath = null;
+		if (!TextUtils.isEmpty(imageUrl)) {
+			File cacheDir = Util.getDiskCacheDir(view.getContext());
+			if (cacheDir != null) {
+				diskCachePath = Util.generateCacheFileFullPath(imageUrl, cacheDir);
+			}
+		}
+
+		int width = getAvatarDimension(view, view.getLayoutParams() != null ? view.getLayoutParams().width : 0);
+		int height = getAvatarDimension(view, view.getLayoutParams() != null ? view.getLayoutParams().height : 0);
+		loader.load(null, imageUrl, diskCachePath, 0, view, width, height, true, AVATAR_LOADER_CALLBACK);
+	}
+
+	/**
+	 * Returns the avatar size in pixels (the default avatar diameter if the view has no fixed size)
+	 */
+	private static int getAvatarDimension(ImageView view, int layoutDimension) {
+		if (layoutDimension > 0) {
+			return layoutDimension;
 		}
+		return view.getResources().getDimensionPixelSize(R.dimen.apptentive_message_center_avatar_image_diameter);
 	}
 
 	/**
@@ -335,41 +458,4 @@ public class ImageUtil {
 			Util.ensureClosed(cos);
 		}
 	}
-
-	private static class DownloadImageTask extends AsyncTask<String, Void, Bitmap> {
-
-		private WeakReference<ApptentiveAvatarView> resultView;
-
-		DownloadImageTask(ApptentiveAvatarView view) {
-			resultView = new WeakReference<ApptentiveAvatarView>(view);
-		}
-
-		protected Bitmap doInBackground(String... urls) {
-			Bitmap bmp = null;
-			try {
-				bmp = this.loadImageFromNetwork(urls[0]);
-			} catch (IOException e) {
-				logException(e);
-			}
-			return bmp;
-		}
-
-
-		@Override
-		protected void onPostExecute(Bitmap result) {
-			if (result == null) {
-				return;
-			}
-
-			ApptentiveAvatarView view = resultView.get();
-			if (view != null) {
-				view.setImageBitmap(result);
-			}
-		}
-
-		private Bitmap loadImageFromNetwork(String imageUrl) throws IOException {
-			URL url = new URL(imageUrl);
-			return BitmapFactory.decodeStream(url.openStream());
-		}
-	}
 }
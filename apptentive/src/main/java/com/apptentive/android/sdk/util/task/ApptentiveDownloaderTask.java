@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 
 
+import android.content.Context;
 import android.os.AsyncTask;
 import android.widget.ImageView;
 
@@ -28,6 +29,7 @@ import com.apptentive.android.sdk.comm.ApptentiveClient;
 import com.apptentive.android.sdk.comm.ApptentiveHttpResponse;
 import com.apptentive.android.sdk.util.Constants;
 import com.apptentive.android.sdk.util.Util;
+import com.apptentive.android.sdk.util.cache.AttachmentDiskCache;
 
 import static com.apptentive.android.sdk.ApptentiveLogTag.UTIL;
 import static com.apptentive.android.sdk.debug.ErrorMetrics.logException;
@@ -38,6 +40,12 @@ public class ApptentiveDownloaderTask extends AsyncTask<Object, Integer, Apptent
 
 	private final FileDownloadListener listener;
 
+	/**
+	 * Optional context of the disk cache the downloaded file is committed to (the file is written
+	 * directly if missing). The cache is opened on the background thread.
+	 */
+	private final Context diskCacheContext;
+
 	boolean download = false;
 
 	public interface FileDownloadListener {
@@ -53,7 +61,12 @@ public class ApptentiveDownloaderTask extends AsyncTask<Object, Integer, Apptent
 	}
 
 	public ApptentiveDownloaderTask(ImageView imageView, FileDownloadListener listener) {
+		this(imageView, listener, null);
+	}
+
+	public ApptentiveDownloaderTask(ImageView imageView, FileDownloadListener listener, Context diskCacheContext) {
 		this.listener = listener;
+		this.diskCacheContext = diskCacheContext;
 	}
 
 	@Override
@@ -67,7 +80,7 @@ public class ApptentiveDownloaderTask extends AsyncTask<Object, Integer, Apptent
 	protected ApptentiveHttpResponse doInBackground(Object... params) {
 		ApptentiveHttpResponse finished = new ApptentiveHttpResponse();
 		try {
-			finished = downloadBitmap((String) params[0], (String) params[1], (String) params[2]);
+			finished = downloadBitmap((String) params[0], (String) params[1], (String) params[2], openDiskCache());
 		} catch (Exception e) {
 			ApptentiveLog.e(UTIL, e, "Error downloading bitmap");
 			logException(e);
@@ -75,6 +88,19 @@ public class ApptentiveDownloaderTask extends AsyncTask<Object, Integer, Apptent
 		return finished;
 	}
 
+	private AttachmentDiskCache openDiskCache() {
+		if (diskCacheContext == null) {
+			return null;
+		}
+		try {
+			return AttachmentDiskCache.getInstance(diskCacheContext);
+		} catch (Exception e) {
+			ApptentiveLog.e(UTIL, e, "Unable to open attachment disk cache");
+			logException(e);
+			return null;
+		}
+	}
+
 	//for 2.2 where onCancelled(Object obj) is not implemented
 	@Override
 	protected void onCancelled() {
@@ -116,7 +142,7 @@ public class ApptentiveDownloaderTask extends AsyncTask<Object, Integer, Apptent
 	/**
 	 * This function download the large file from the server
 	 */
-	private ApptentiveHttpResponse downloadBitmap(String urlString, String destFilePath, String conversationToken) {
+	private ApptentiveHttpResponse downloadBitmap(String urlString, String destFilePath, String conversationToken, AttachmentDiskCache diskCache) {
 		if (isCancelled()) {
 			return null;
 		}
@@ -192,7 +218,8 @@ public class ApptentiveDownloaderTask extends AsyncTask<Object, Integer, Apptent
 
 					// input stream to read file - with 8k buffer
 					input = new BufferedInputStream(httpUrl.openStream(), 8192);
-					output = new FileOutputStream(destFilePath);
+					// partial downloads never show up under the destination path
+					output = new FileOutputStream(diskCache != null ? diskCache.beginWrite(destFilePath) : new File(destFilePath));
 
 					byte data[] = new byte[8192];
 
@@ -214,17 +241,30 @@ public class ApptentiveDownloaderTask extends AsyncTask<Object, Integer, Apptent
 					}
 					// flushing output
 					output.flush();
+					Util.ensureClosed(output);
+					output = null;
+
 					if (!this.download) {
-						File fileToDelete = new File(destFilePath);
-						fileToDelete.delete();
+						if (diskCache != null) {
+							diskCache.abort(destFilePath);
+						} else {
+							File fileToDelete = new File(destFilePath);
+							fileToDelete.delete();
+						}
 						publishProgress(-1);
 					} else {
+						if (diskCache != null && !diskCache.commit(destFilePath)) {
+							ret.setCode(-1);
+						}
 						publishProgress(100);
 					}
 				} finally {
 					// closing streams
 					Util.ensureClosed(output);
 					Util.ensureClosed(input);
+					if (output != null && diskCache != null) {
+						diskCache.abort(destFilePath); // download failed with an exception
+					}
 				}
 			}
 		} catch (IllegalArgumentException e) {
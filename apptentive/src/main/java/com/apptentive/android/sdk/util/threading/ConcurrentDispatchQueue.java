@@ -6,8 +6,9 @@
 
 package com.apptentive.android.sdk.util.threading;
 
-import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -22,24 +23,36 @@ class ConcurrentDispatchQueue extends DispatchQueue implements ThreadFactory {
 	private static final int NUMBER_OF_CORES = Runtime.getRuntime().availableProcessors();
 
 	/**
-	 * Thread pool executor for scheduling tasks
+	 * Idle time before a worker thread terminates (delayed tasks are handled by {@link TimerService}
+	 * so threads don't need to stay alive while waiting for them)
 	 */
-	private final ScheduledThreadPoolExecutor threadPoolExecutor;
+	private static final long KEEP_ALIVE_TIME_MILLIS = 30000L;
+
+	/**
+	 * Thread pool executor for running tasks
+	 */
+	private final ThreadPoolExecutor threadPoolExecutor;
 
 	/** The number of the next thread in the pool */
 	private final AtomicInteger threadNumber;
 
 	ConcurrentDispatchQueue(String name) {
+		this(name, NUMBER_OF_CORES);
+	}
+
+	ConcurrentDispatchQueue(String name, int threadCount) {
 		super(name);
-		this.threadPoolExecutor = new ScheduledThreadPoolExecutor(NUMBER_OF_CORES, this);
-		this.threadPoolExecutor.setMaximumPoolSize(NUMBER_OF_CORES);
+		this.threadPoolExecutor = new ThreadPoolExecutor(threadCount, threadCount,
+			KEEP_ALIVE_TIME_MILLIS, TimeUnit.MILLISECONDS,
+			new LinkedBlockingQueue<Runnable>(), this);
+		this.threadPoolExecutor.allowCoreThreadTimeOut(true);
 		this.threadNumber = new AtomicInteger(1);
 	}
 
 	@Override
 	protected void dispatch(DispatchTask task, long delayMillis) {
 		if (delayMillis > 0) {
-			threadPoolExecutor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+			TimerService.defaultService().schedule(this, task, delayMillis);
 		} else {
 			threadPoolExecutor.execute(task);
 		}
@@ -47,6 +60,7 @@ class ConcurrentDispatchQueue extends DispatchQueue implements ThreadFactory {
 
 	@Override
 	public void stop() {
+		TimerService.defaultService().cancelTimers(this);
 		threadPoolExecutor.shutdownNow();
 	}
 
@@ -140,6 +140,17 @@ public abstract class DispatchQueue {
 		throw new IllegalArgumentException("Unexpected queue type: " + type);
 	}
 
+	/**
+	 * Creates a concurrent background queue with specified <code>name</code> which executes up to
+	 * <code>maxConcurrentTasks</code> tasks at the same time.
+	 */
+	public static DispatchQueue createBackgroundQueue(String name, int maxConcurrentTasks) {
+		if (maxConcurrentTasks < 1) {
+			throw new IllegalArgumentException("Invalid number of concurrent tasks: " + maxConcurrentTasks);
+		}
+		return new ConcurrentDispatchQueue(name, maxConcurrentTasks);
+	}
+
 	/**
 	 * Thread safe singleton trick
 	 */
@@ -59,7 +59,7 @@ class SerialDispatchQueue extends DispatchQueue {
 	@Override
 	protected void dispatch(DispatchTask task, long delayMillis) {
 		if (delayMillis > 0) {
-			handler.postDelayed(task, delayMillis);
+			TimerService.defaultService().schedule(this, task, delayMillis);
 		} else {
 			handler.post(task);
 		}
@@ -69,6 +69,7 @@ class SerialDispatchQueue extends DispatchQueue {
 	public void stop() {
 		assertNotNull(handlerThread, "Attempted to stop a non-private queue '%s'", handler.getLooper().getThread());
 		if (handlerThread != null) {
+			TimerService.defaultService().cancelTimers(this);
 			handler.removeCallbacks(null);
 			handlerThread.quit();
 		}
@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.util.threading;
+
+import com.apptentive.android.sdk.ApptentiveLog;
+import com.apptentive.android.sdk.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.apptentive.android.sdk.debug.ErrorMetrics.logException;
+
+/**
+ * A single scheduler for all the delayed SDK work. Instead of each queue owning its own timer
+ * (handler messages, scheduled executors, etc) delayed tasks are registered here and dispatched
+ * to their target queues when they expire. Timers are stored in a hierarchical timing wheel
+ * serviced by a single thread which only wakes up when the nearest timer expires. Timers which
+ * expire within a tolerance window of each other are coalesced and fired with a single wake-up.
+ */
+public class TimerService {
+
+	/** Resolution of the finest wheel level */
+	private static final long TICK_MILLIS = 16;
+
+	/** Number of buckets in each wheel level */
+	private static final int WHEEL_SIZE = 64;
+
+	/** Default tolerance: a fraction of the timer delay */
+	private static final int DEFAULT_TOLERANCE_DIVISOR = 10;
+
+	/** Default tolerance upper bound */
+	private static final long MAX_DEFAULT_TOLERANCE_MILLIS = 5000;
+
+	private final String name;
+	private final TimerWheel wheel;
+
+	/** Timers which are currently scheduled */
+	private final Set<Timer> pendingTimers;
+
+	/** Timer thread (created on demand) */
+	private Thread thread;
+
+	/** Number of times the timer thread woke up to fire timers */
+	private long wakeUpCount;
+
+	/** Number of timers fired */
+	private long firedTimerCount;
+
+	TimerService(String name) {
+		this.name = name;
+		this.wheel = new TimerWheel(TICK_MILLIS, WHEEL_SIZE, currentTimeMillis());
+		this.pendingTimers = new HashSet<>();
+	}
+
+	public static TimerService defaultService() {
+		return Holder.INSTANCE;
+	}
+
+	//region Scheduling
+
+	/**
+	 * Schedules the task to be dispatched on the queue after a delay with a default tolerance
+	 * (a fraction of the delay).
+	 */
+	public Timer schedule(DispatchQueue queue, DispatchTask task, long delayMillis) {
+		return schedule(queue, task, delayMillis, getDefaultToleranceMillis(delayMillis));
+	}
+
+	/**
+	 * Schedules the task to be dispatched on the queue after a delay. The task is never dispatched
+	 * earlier than the delay and might be dispatched up to <code>toleranceMillis</code> later so it
+	 * can be fired together with other timers.
+	 */
+	public Timer schedule(DispatchQueue queue, DispatchTask task, long delayMillis, long toleranceMillis) {
+		if (queue == null) {
+			throw new IllegalArgumentException("Queue is null");
+		}
+		if (task == null) {
+			throw new IllegalArgumentException("Task is null");
+		}
+
+		long expirationMillis = resolveExpiration(currentTimeMillis() + Math.max(0, delayMillis), toleranceMillis);
+		Timer timer = new Timer(queue, task, expirationMillis);
+
+		synchronized (this) {
+			pendingTimers.add(timer);
+			if (wheel.add(timer)) {
+				startThreadIfNeeded();
+				notifyAll(); // the timer might expire earlier than the one the thread is waiting for
+				return timer;
+			}
+
+			// already expired
+			pendingTimers.remove(timer);
+		}
+
+		// don't hold the lock while dispatching tasks
+		timer.fire();
+		return timer;
+	}
+
+	/**
+	 * Cancels all the timers targeting the queue
+	 *
+	 * @return the number of cancelled timers
+	 */
+	public synchronized int cancelTimers(DispatchQueue queue) {
+		int count = 0;
+		for (Timer timer : new ArrayList<>(pendingTimers)) {
+			if (timer.queue == queue && cancelTimer(timer)) {
+				++count;
+			}
+		}
+		return count;
+	}
+
+	private synchronized boolean cancelTimer(Timer timer) {
+		if (pendingTimers.remove(timer)) {
+			timer.remove();
+			timer.task.setScheduled(false); // the task can be dispatched again
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Rounds expiration time up to a boundary within tolerance window: timers with close deadlines
+	 * end up sharing the same boundary and fire together.
+	 */
+	static long resolveExpiration(long deadlineMillis, long toleranceMillis) {
+		long quantumMillis = TICK_MILLIS;
+		if (toleranceMillis > TICK_MILLIS) {
+			quantumMillis = TICK_MILLIS * Long.highestOneBit(toleranceMillis / TICK_MILLIS);
+		}
+		return ((deadlineMillis + quantumMillis - 1) / quantumMillis) * quantumMillis;
+	}
+
+	static long getDefaultToleranceMillis(long delayMillis) {
+		return Math.min(MAX_DEFAULT_TOLERANCE_MILLIS, delayMillis / DEFAULT_TOLERANCE_DIVISOR);
+	}
+
+	//endregion
+
+	//region Timer thread
+
+	private void startThreadIfNeeded() {
+		if (thread == null) {
+			thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					runLoop();
+				}
+			}, name);
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	private void runLoop() {
+		List<TimerWheel.Entry> expired = new ArrayList<>();
+		while (true) {
+			try {
+				synchronized (this) {
+					while (true) {
+						long now = currentTimeMillis();
+						wheel.advance(now, expired);
+						if (expired.size() > 0) {
+							++wakeUpCount;
+							break;
+						}
+
+						long nextExpiration = wheel.nextExpiration();
+						if (nextExpiration == -1) {
+							wait();
+						} else {
+							wait(Math.max(1, nextExpiration - now));
+						}
+					}
+
+					for (TimerWheel.Entry entry : expired) {
+						pendingTimers.remove(entry);
+					}
+					firedTimerCount += expired.size();
+				}
+
+				// don't hold the lock while dispatching tasks
+				for (TimerWheel.Entry entry : expired) {
+					((Timer) entry).fire();
+				}
+				expired.clear();
+			} catch (InterruptedException e) {
+				ApptentiveLog.w(e, "Timer thread interrupted: %s", name);
+				break;
+			} catch (Exception e) {
+				ApptentiveLog.e(e, "Exception while firing timers: %s", name);
+				logException(e);
+				expired.clear();
+			}
+		}
+	}
+
+	//endregion
+
+	//region Reporting
+
+	/**
+	 * Returns the number of timers waiting to fire
+	 */
+	public synchronized int getPendingTimerCount() {
+		return pendingTimers.size();
+	}
+
+	/**
+	 * Returns a snapshot of timers waiting to fire sorted by expiration time
+	 */
+	public synchronized List<Timer> getPendingTimers() {
+		List<Timer> timers = new ArrayList<>(pendingTimers);
+		Collections.sort(timers);
+		return timers;
+	}
+
+	/**
+	 * Returns the number of times the timer thread woke up to fire timers (coalesced timers
+	 * share a single wake-up)
+	 */
+	public synchronized long getWakeUpCount() {
+		return wakeUpCount;
+	}
+
+	public synchronized long getFiredTimerCount() {
+		return firedTimerCount;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return StringUtils.format("%s: pending=%d fired=%d wakeups=%d", name, pendingTimers.size(), firedTimerCount, wakeUpCount);
+	}
+
+	//endregion
+
+	//region Helpers
+
+	static long currentTimeMillis() {
+		return System.nanoTime() / 1000000L;
+	}
+
+	//endregion
+
+	/**
+	 * A handle for a scheduled task
+	 */
+	public class Timer extends TimerWheel.Entry implements Comparable<Timer> {
+		private final DispatchQueue queue;
+		private final DispatchTask task;
+
+		Timer(DispatchQueue queue, DispatchTask task, long expirationMillis) {
+			super(expirationMillis);
+			this.queue = queue;
+			this.task = task;
+		}
+
+		/**
+		 * Cancels the timer. The task is not dispatched if the timer hasn't fired yet.
+		 *
+		 * @return true if the timer was cancelled
+		 */
+		public boolean cancel() {
+			return cancelTimer(this);
+		}
+
+		/**
+		 * Returns the time remaining until the timer fires
+		 */
+		public long getRemainingMillis() {
+			return Math.max(0, expirationMillis - currentTimeMillis());
+		}
+
+		public String getQueueName() {
+			return queue.getName();
+		}
+
+		private void fire() {
+			queue.dispatch(task, 0L);
+		}
+
+		@Override
+		public int compareTo(Timer other) {
+			return expirationMillis < other.expirationMillis ? -1 : (expirationMillis == other.expirationMillis ? 0 : 1);
+		}
+
+		@Override
+		public String toString() {
+			return StringUtils.format("%s: queue='%s' remaining=%d ms", task, queue.getName(), getRemainingMillis());
+		}
+	}
+
+	/**
+	 * Thread safe singleton trick
+	 */
+	private static class Holder {
+		private static final TimerService INSTANCE = new TimerService("Apptentive Timer");
+	}
+}
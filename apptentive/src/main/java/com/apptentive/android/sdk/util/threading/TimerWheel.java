@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.util.threading;
+
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Hierarchical timing wheel. Each level has a fixed number of buckets with the bucket span of the
+ * next level being equal to the whole span of the previous one. Entries which don't fit into the
+ * current level go to the overflow level and are moved down as time advances. Non-empty buckets
+ * are ordered by expiration time so the owner only needs to wake up when the next bucket expires
+ * (instead of on every tick).
+ * <p/>
+ * The wheel is not thread-safe and has no notion of a clock: the owner provides current time.
+ */
+class TimerWheel {
+	private final long tickMillis;
+	private final int wheelSize;
+	private final long intervalMillis;
+	private final Bucket[] buckets;
+
+	/** Buckets of all levels ordered by expiration time (shared between levels) */
+	private final PriorityQueue<Bucket> queue;
+
+	/** Current time rounded down to the tick size */
+	private long currentTime;
+
+	/** Next (coarser) level of the wheel (created on demand) */
+	private TimerWheel overflowWheel;
+
+	TimerWheel(long tickMillis, int wheelSize, long startMillis) {
+		this(tickMillis, wheelSize, startMillis, new PriorityQueue<Bucket>());
+	}
+
+	private TimerWheel(long tickMillis, int wheelSize, long startMillis, PriorityQueue<Bucket> queue) {
+		if (tickMillis <= 0) {
+			throw new IllegalArgumentException("Invalid tick: " + tickMillis);
+		}
+		if (wheelSize <= 0) {
+			throw new IllegalArgumentException("Invalid wheel size: " + wheelSize);
+		}
+
+		this.tickMillis = tickMillis;
+		this.wheelSize = wheelSize;
+		this.intervalMillis = tickMillis * wheelSize;
+		this.currentTime = startMillis - (startMillis % tickMillis);
+		this.queue = queue;
+		this.buckets = new Bucket[wheelSize];
+		for (int i = 0; i < wheelSize; ++i) {
+			buckets[i] = new Bucket();
+		}
+	}
+
+	/**
+	 * Adds entry to the wheel.
+	 *
+	 * @return false if the entry is already expired (and should be fired right away)
+	 */
+	boolean add(Entry entry) {
+		long expiration = entry.expirationMillis;
+		if (expiration < currentTime + tickMillis) {
+			return false;
+		}
+
+		if (expiration < currentTime + intervalMillis) {
+			long virtualId = expiration / tickMillis;
+			Bucket bucket = buckets[(int) (virtualId % wheelSize)];
+			bucket.add(entry);
+
+			// the bucket is re-used after it expires: schedule it again
+			if (bucket.setExpiration(virtualId * tickMillis)) {
+				queue.add(bucket);
+			}
+			return true;
+		}
+
+		if (overflowWheel == null) {
+			overflowWheel = new TimerWheel(intervalMillis, wheelSize, currentTime, queue);
+		}
+		return overflowWheel.add(entry);
+	}
+
+	/**
+	 * Advances the wheel to the specified time and collects all the expired entries. Entries which
+	 * are not expired yet are moved down to the finer levels.
+	 */
+	void advance(long timeMillis, List<Entry> expired) {
+		Bucket bucket;
+		while ((bucket = queue.peek()) != null && bucket.expirationMillis <= timeMillis) {
+			queue.poll();
+			advanceClock(bucket.expirationMillis);
+
+			Entry entry;
+			while ((entry = bucket.poll()) != null) {
+				if (!add(entry)) {
+					expired.add(entry);
+				}
+			}
+		}
+		advanceClock(timeMillis);
+	}
+
+	/**
+	 * Returns the expiration time of the nearest non-empty bucket or <code>-1</code> if there are no
+	 * buckets scheduled.
+	 */
+	long nextExpiration() {
+		Bucket bucket = queue.peek();
+		return bucket != null ? bucket.expirationMillis : -1;
+	}
+
+	private void advanceClock(long timeMillis) {
+		if (timeMillis >= currentTime + tickMillis) {
+			currentTime = timeMillis - (timeMillis % tickMillis);
+			if (overflowWheel != null) {
+				overflowWheel.advanceClock(currentTime);
+			}
+		}
+	}
+
+	long getTickMillis() {
+		return tickMillis;
+	}
+
+	/**
+	 * Single wheel entry. Entries are stored in a doubly linked list so they can be removed in a
+	 * constant time.
+	 */
+	static class Entry {
+		final long expirationMillis;
+
+		private Bucket bucket;
+		private Entry prev;
+		private Entry next;
+
+		Entry(long expirationMillis) {
+			this.expirationMillis = expirationMillis;
+		}
+
+		/**
+		 * Removes the entry from the wheel
+		 *
+		 * @return true if entry was removed
+		 */
+		boolean remove() {
+			return bucket != null && bucket.remove(this);
+		}
+
+		boolean isScheduled() {
+			return bucket != null;
+		}
+	}
+
+	private static class Bucket implements Comparable<Bucket> {
+		private final Entry root;
+		private long expirationMillis = -1;
+
+		Bucket() {
+			root = new Entry(-1);
+			root.prev = root;
+			root.next = root;
+		}
+
+		void add(Entry entry) {
+			if (entry.bucket != null) {
+				entry.bucket.remove(entry);
+			}
+
+			entry.bucket = this;
+			entry.next = root;
+			entry.prev = root.prev;
+			root.prev.next = entry;
+			root.prev = entry;
+		}
+
+		boolean remove(Entry entry) {
+			if (entry.bucket != this) {
+				return false;
+			}
+
+			entry.prev.next = entry.next;
+			entry.next.prev = entry.prev;
+			entry.bucket = null;
+			entry.prev = null;
+			entry.next = null;
+			return true;
+		}
+
+		Entry poll() {
+			Entry entry = root.next;
+			if (entry == root) {
+				expirationMillis = -1;
+				return null;
+			}
+			remove(entry);
+			return entry;
+		}
+
+		/**
+		 * @return true if the expiration time has changed
+		 */
+		boolean setExpiration(long expirationMillis) {
+			if (this.expirationMillis != expirationMillis) {
+				this.expirationMillis = expirationMillis;
+				return true;
+			}
+			return false;
+		}
+
+		@Override
+		public int compareTo(Bucket other) {
+			return expirationMillis < other.expirationMillis ? -1 : (expirationMillis == other.expirationMillis ? 0 : 1);
+		}
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.conversation;
+
+import androidx.annotation.NonNull;
+
+import com.apptentive.android.sdk.Encryption;
+import com.apptentive.android.sdk.TestCaseBase;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FileManifestStoreTest extends TestCaseBase {
+
+	@Rule
+	public TemporaryFolder tempDir = new TemporaryFolder();
+
+	@Test
+	public void testSaveAndLoad() throws Exception {
+		File file = new File(tempDir.getRoot(), "manifest.bin");
+
+		FileManifestStore store = new FileManifestStore(file, new XorEncryption(1));
+		assertFalse(store.hasManifest());
+		assertNull(store.getTargets());
+		assertEquals(0, store.getRevision());
+
+		String targets = createLargeString('t', 100000); // larger than DataOutput.writeUTF() limit
+		store.setManifest(targets, "{\"interactions\":\"é\"}");
+		assertTrue(store.hasManifest());
+		assertFalse(file.exists()); // not saved yet
+		store.save();
+		assertTrue(file.exists());
+
+		FileManifestStore loaded = new FileManifestStore(file, new XorEncryption(1));
+		assertTrue(loaded.hasManifest());
+		assertEquals(targets, loaded.getTargets());
+		assertEquals("{\"interactions\":\"é\"}", loaded.getInteractions());
+		assertEquals(1, loaded.getRevision());
+
+		loaded.setManifest("targets", "interactions");
+		assertEquals(2, loaded.getRevision());
+	}
+
+	@Test
+	public void testUpdateEncryption() throws Exception {
+		File file = new File(tempDir.getRoot(), "manifest.bin");
+
+		FileManifestStore store = new FileManifestStore(file, new XorEncryption(1));
+		store.setManifest("targets", "interactions");
+		store.save();
+
+		FileManifestStore reloaded = new FileManifestStore(file, new XorEncryption(1));
+		reloaded.updateEncryption(new XorEncryption(2));
+
+		FileManifestStore loaded = new FileManifestStore(file, new XorEncryption(2));
+		assertEquals("targets", loaded.getTargets());
+		assertEquals("interactions", loaded.getInteractions());
+
+		// wrong encryption key: manifest is not readable
+		FileManifestStore corrupted = new FileManifestStore(file, new XorEncryption(3));
+		assertNull(corrupted.getTargets());
+	}
+
+	private static String createLargeString(char c, int length) {
+		char[] chars = new char[length];
+		Arrays.fill(chars, c);
+		return new String(chars);
+	}
+
+	private static class XorEncryption implements Encryption {
+		private final byte key;
+
+		XorEncryption(int key) {
+			this.key = (byte) key;
+		}
+
+		@Override
+		public @NonNull byte[] encrypt(@NonNull byte[] data) {
+			return xor(data);
+		}
+
+		@Override
+		public @NonNull byte[] decrypt(@NonNull byte[] data) {
+			return xor(data);
+		}
+
+		private byte[] xor(byte[] data) {
+			byte[] result = new byte[data.length];
+			for (int i = 0; i < data.length; ++i) {
+				result[i] = (byte) (data[i] ^ key);
+			}
+			return result;
+		}
+	}
+}
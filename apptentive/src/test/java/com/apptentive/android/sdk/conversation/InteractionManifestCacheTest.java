@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.conversation;
+
+import androidx.annotation.NonNull;
+
+import com.apptentive.android.sdk.Encryption;
+import com.apptentive.android.sdk.TestCaseBase;
+import com.apptentive.android.sdk.module.engagement.interaction.model.Interaction;
+import com.apptentive.android.sdk.module.engagement.interaction.model.Interactions;
+import com.apptentive.android.sdk.module.engagement.interaction.model.Targets;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class InteractionManifestCacheTest extends TestCaseBase {
+
+	private static final String TARGETS = "{'local#app#event':[{'interaction_id':'1','criteria':{}}]}";
+	private static final String INTERACTIONS = "{'1':{'id':'1','type':'TextModal','configuration':{'title':'Title'}},'2':{'id':'2','type':'NavigateToLink','configuration':{}}}";
+
+	@Rule
+	public TemporaryFolder tempDir = new TemporaryFolder();
+
+	@Test
+	public void testSharedInstances() throws Exception {
+		FileManifestStore store = createStore();
+		InteractionManifestCache cache = new InteractionManifestCache(store);
+		assertNull(cache.getTargets());
+		assertNull(cache.getInteractions());
+
+		store.setManifest(TARGETS, INTERACTIONS);
+
+		Targets targets = cache.getTargets();
+		assertNotNull(targets);
+		assertSame(targets, cache.getTargets());
+
+		Interactions interactions = cache.getInteractions();
+		assertNotNull(interactions);
+		assertSame(interactions, cache.getInteractions());
+
+		Interaction interaction = interactions.getInteraction("1");
+		assertEquals(Interaction.Type.TextModal, interaction.getType());
+		assertSame(interaction, interactions.getInteraction("1"));
+		assertNull(interactions.getInteraction("3"));
+		assertEquals(2, interactions.getInteractionList().size());
+		assertTrue(interactions.getInteractionList().contains(interaction)); // same instance is returned
+	}
+
+	@Test
+	public void testInvalidation() throws Exception {
+		FileManifestStore store = createStore();
+		store.setManifest(TARGETS, INTERACTIONS);
+
+		InteractionManifestCache cache = new InteractionManifestCache(store);
+		Targets targets = cache.getTargets();
+		Interaction interaction = cache.getInteractions().getInteraction("1");
+
+		// new manifest: cached objects should be rebuilt
+		store.setManifest(TARGETS, INTERACTIONS);
+		assertNotSame(targets, cache.getTargets());
+		assertNotSame(interaction, cache.getInteractions().getInteraction("1"));
+	}
+
+	@Test
+	public void testSeedParsedInteractions() throws Exception {
+		FileManifestStore store = createStore();
+		InteractionManifestCache cache = new InteractionManifestCache(store);
+
+		// interactions parsed along with a fetched manifest are used as is
+		Interactions parsedInteractions = new Interactions(INTERACTIONS);
+		Interaction interaction = parsedInteractions.getInteraction("1");
+		store.setManifest(TARGETS, INTERACTIONS);
+		cache.setInteractions(parsedInteractions);
+		assertSame(parsedInteractions, cache.getInteractions());
+		assertSame(interaction, cache.getInteractions().getInteraction("1"));
+
+		// a newer manifest replaces them
+		store.setManifest(TARGETS, INTERACTIONS);
+		assertNotSame(parsedInteractions, cache.getInteractions());
+	}
+
+	private FileManifestStore createStore() {
+		return new FileManifestStore(new File(tempDir.getRoot(), "manifest.bin"), new Encryption() {
+			@Override
+			public @NonNull byte[] encrypt(@NonNull byte[] data) {
+				return data;
+			}
+
+			@Override
+			public @NonNull byte[] decrypt(@NonNull byte[] data) {
+				return data;
+			}
+		});
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.debug;
+
+import com.apptentive.android.sdk.TestCaseBase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class MetricsTest extends TestCaseBase {
+
+	private final Metrics.OnMetricListener listener = new Metrics.OnMetricListener() {
+		@Override
+		public void onMetric(String name, Metric.Type type, long value) {
+			addResult("%s:%s:%d", name, type, value);
+		}
+	};
+
+	@Before
+	public void setUp() throws Exception {
+		super.setUp();
+		Metrics.reset();
+	}
+
+	@After
+	public void tearDown() {
+		Metrics.unregisterListener(listener);
+		super.tearDown();
+	}
+
+	@Test
+	public void testCounter() throws Exception {
+		final MetricCounter counter = Metrics.counter("test.counter");
+		assertSame(counter, Metrics.counter("test.counter"));
+
+		final int threadCount = 4;
+		final int iterations = 10000;
+		final CountDownLatch latch = new CountDownLatch(threadCount);
+		for (int i = 0; i < threadCount; ++i) {
+			new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int j = 0; j < iterations; ++j) {
+						counter.increment();
+					}
+					latch.countDown();
+				}
+			}).start();
+		}
+		latch.await();
+
+		assertEquals(threadCount * iterations, counter.get());
+	}
+
+	@Test
+	public void testGauge() {
+		MetricGauge gauge = Metrics.gauge("test.gauge");
+		gauge.set(10);
+		gauge.add(-3);
+		assertEquals(7, gauge.get());
+	}
+
+	@Test
+	public void testHistogram() {
+		MetricHistogram histogram = Metrics.histogram("test.histogram");
+		for (int i = 0; i < 90; ++i) {
+			histogram.record(80); // first bucket
+		}
+		for (int i = 0; i < 10; ++i) {
+			histogram.recordMillis(20); // 25 ms bucket
+		}
+
+		assertEquals(100, histogram.getCount());
+		assertEquals(20000, histogram.getMaxMicros());
+		assertEquals(100, histogram.getPercentileMicros(50)); // bucket upper bound
+		assertEquals(100, histogram.getPercentileMicros(90));
+		assertEquals(20000, histogram.getPercentileMicros(95)); // capped by max
+		assertEquals((90 * 80 + 10 * 20000) / 100, histogram.getMeanMicros());
+
+		long[] counts = histogram.getBucketCounts();
+		assertEquals(90, counts[0]);
+		assertEquals(MetricHistogram.getBucketBoundsMicros().length + 1, counts.length);
+	}
+
+	@Test
+	public void testListener() {
+		Metrics.registerListener(listener);
+		Metrics.counter("test.counter").add(2);
+		Metrics.gauge("test.gauge").set(5);
+		Metrics.histogram("test.histogram").record(100);
+		assertResult("test.counter:COUNTER:2", "test.gauge:GAUGE:5", "test.histogram:HISTOGRAM:100");
+
+		Metrics.unregisterListener(listener);
+		Metrics.counter("test.counter").increment();
+		assertResult();
+	}
+
+	@Test
+	public void testTypeMismatch() {
+		Metrics.counter("test.mismatch");
+		try {
+			Metrics.gauge("test.mismatch");
+			fail("Exception expected");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.debug;
+
+import com.apptentive.android.sdk.TestCaseBase;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StartupTraceTest extends TestCaseBase {
+
+	@Test
+	public void testPhases() throws Exception {
+		StartupTrace trace = new StartupTrace();
+		StartupTrace.Phase first = trace.beginPhase("first");
+		Thread.sleep(20);
+		first.end();
+
+		StartupTrace.Phase second = trace.beginPhase("second");
+		assertFalse(trace.isFinished());
+		assertEquals(-1, second.getDurationMillis());
+		second.end();
+		assertTrue(trace.isFinished());
+
+		List<StartupTrace.Phase> phases = trace.getPhases();
+		assertEquals(2, phases.size());
+		assertEquals("first", phases.get(0).getName());
+		assertEquals("second", phases.get(1).getName());
+		assertEquals(Thread.currentThread().getName(), first.getThreadName());
+		assertTrue(first.getDurationMillis() >= 20);
+		assertTrue(second.getStartOffsetMillis() >= first.getDurationMillis());
+		assertTrue(trace.getTotalDurationMillis() >= second.getStartOffsetMillis() + second.getDurationMillis());
+
+		assertEquals(second, trace.getPhase("second"));
+		assertNull(trace.getPhase("third"));
+	}
+
+	@Test
+	public void testEndingPhaseTwice() throws Exception {
+		StartupTrace trace = new StartupTrace();
+		StartupTrace.Phase phase = trace.beginPhase("phase");
+		phase.end();
+		long duration = phase.getDurationMillis();
+		Thread.sleep(20);
+		phase.end();
+		assertEquals(duration, phase.getDurationMillis());
+	}
+
+	@Test
+	public void testParallelPhases() throws Exception {
+		final StartupTrace trace = new StartupTrace();
+		StartupTrace.Phase main = trace.beginPhase("main");
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				trace.beginPhase("background").end();
+			}
+		}, "Background");
+		thread.start();
+		thread.join();
+		main.end();
+
+		assertEquals("Background", trace.getPhase("background").getThreadName());
+		assertTrue(trace.isFinished());
+	}
+}
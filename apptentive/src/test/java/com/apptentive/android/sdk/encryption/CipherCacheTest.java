@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.encryption;
+
+import com.apptentive.android.sdk.Encryption;
+import com.apptentive.android.sdk.TestCaseBase;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class CipherCacheTest extends TestCaseBase {
+	private static final String TRANSFORMATION = "AES/CBC/PKCS5Padding";
+
+	@After
+	public void tearDown() {
+		CipherCache.clear();
+		super.tearDown();
+	}
+
+	@Test
+	public void testCipherReusedOnSameThread() throws Exception {
+		Cipher cipher = CipherCache.getCipher(TRANSFORMATION);
+		assertSame(cipher, CipherCache.getCipher(TRANSFORMATION));
+
+		CipherCache.clear();
+		assertNotSame(cipher, CipherCache.getCipher(TRANSFORMATION));
+	}
+
+	@Test
+	public void testCipherNotSharedBetweenThreads() throws Exception {
+		final AtomicReference<Cipher> otherCipher = new AtomicReference<>();
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					otherCipher.set(CipherCache.getCipher(TRANSFORMATION));
+				} catch (Exception e) {
+					throw new AssertionError(e);
+				}
+			}
+		});
+		thread.start();
+		thread.join();
+
+		assertNotNull(otherCipher.get());
+		assertNotSame(otherCipher.get(), CipherCache.getCipher(TRANSFORMATION));
+	}
+
+	@Test
+	public void testEncryptionWithCachedCipher() throws Exception {
+		Encryption encryption = new AesCBCEncryption(new SecretKeySpec(new byte[16], "AES"), TRANSFORMATION);
+		byte[] data = "Some data which takes more than a single block".getBytes("UTF-8");
+
+		// the same cipher is re-initialized for every operation
+		byte[] first = encryption.encrypt(data);
+		byte[] second = encryption.encrypt(data);
+		assertArrayEquals(data, encryption.decrypt(first));
+		assertArrayEquals(data, encryption.decrypt(second));
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.encryption;
+
+import androidx.annotation.NonNull;
+
+import com.apptentive.android.sdk.Encryption;
+import com.apptentive.android.sdk.TestCaseBase;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DeferredEncryptionTest extends TestCaseBase {
+
+	@Test
+	public void testWaitingForTarget() throws Exception {
+		final CountDownLatch resolveLatch = new CountDownLatch(1);
+		final DeferredEncryption encryption = new DeferredEncryption();
+		new Thread(new Runnable() {
+			@Override
+			public void run() {
+				encryption.resolve(new DeferredEncryption.Resolver() {
+					@Override
+					public @NonNull Encryption resolve() throws Exception {
+						resolveLatch.await();
+						return EncryptionFactory.NULL;
+					}
+				});
+			}
+		}).start();
+
+		final CountDownLatch encryptedLatch = new CountDownLatch(1);
+		new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					encryption.encrypt(new byte[] { 1, 2, 3 });
+					encryptedLatch.countDown();
+				} catch (EncryptionException e) {
+					throw new AssertionError(e);
+				}
+			}
+		}).start();
+
+		assertFalse(encryptedLatch.await(50, TimeUnit.MILLISECONDS));
+		assertFalse(encryption.isResolved());
+
+		resolveLatch.countDown();
+		assertTrue(encryptedLatch.await(1, TimeUnit.SECONDS));
+		assertTrue(encryption.isResolved());
+		assertArrayEquals(new byte[] { 1, 2, 3 }, encryption.decrypt(new byte[] { 1, 2, 3 }));
+	}
+
+	@Test
+	public void testFailedResolution() {
+		DeferredEncryption encryption = new DeferredEncryption();
+		encryption.resolve(new DeferredEncryption.Resolver() {
+			@Override
+			public @NonNull Encryption resolve() {
+				throw new EncryptionInitializationException("Unable to resolve key", null);
+			}
+		});
+
+		try {
+			encryption.encrypt(new byte[] { 1 });
+			fail("Exception expected");
+		} catch (EncryptionException e) {
+			assertTrue(e.getCause() instanceof EncryptionInitializationException);
+		}
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.module.engagement;
+
+import com.apptentive.android.sdk.TestCaseBase;
+import com.apptentive.android.sdk.conversation.Conversation;
+import com.apptentive.android.sdk.model.EventPayload;
+import com.apptentive.android.sdk.util.threading.MockDispatchQueue;
+
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EventAggregatorTest extends TestCaseBase {
+
+	private MockDispatchQueue queue;
+	private EventAggregator aggregator;
+
+	@Before
+	public void setUp() throws Exception {
+		super.setUp();
+		queue = new MockDispatchQueue(false);
+		aggregator = new EventAggregator(queue, Arrays.asList("scroll", "screen_view"), 1000) {
+			@Override
+			protected void sendPayload(Conversation conversation, EventPayload payload) {
+				JSONObject aggregate = payload.getJsonObject().optJSONObject("aggregate");
+				addResult("%s:%d:%d:%d", payload.getEventLabel(),
+					aggregate.optInt("count"), aggregate.optLong("first_client_created_at"), aggregate.optLong("last_client_created_at"));
+			}
+		};
+	}
+
+	@Test
+	public void testAggregatedLabels() {
+		assertTrue(aggregator.isAggregated("local#app#scroll"));
+		assertFalse(aggregator.isAggregated("local#app#launch"));
+		assertFalse(aggregator.isAggregated("com.apptentive#app#scroll"));
+	}
+
+	@Test
+	public void testAggregation() throws Exception {
+		aggregator.aggregate(null, "local#app#scroll", 10);
+		aggregator.aggregate(null, "local#app#screen_view", 11);
+		aggregator.aggregate(null, "local#app#scroll", 12);
+		aggregator.aggregate(null, "local#app#scroll", 15);
+		assertEquals(3, aggregator.getPendingCount("local#app#scroll"));
+		assertResult(); // nothing sent until the window expires
+
+		queue.dispatchTasks();
+		assertResult(
+			"local#app#scroll:3:10:15",
+			"local#app#screen_view:1:11:11"
+		);
+		assertEquals(0, aggregator.getPendingCount("local#app#scroll"));
+
+		// a new window starts
+		aggregator.aggregate(null, "local#app#scroll", 20);
+		queue.dispatchTasks();
+		assertResult("local#app#scroll:1:20:20");
+	}
+}
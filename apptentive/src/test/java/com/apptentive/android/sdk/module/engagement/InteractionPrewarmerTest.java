@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.module.engagement;
+
+import com.apptentive.android.sdk.TestCaseBase;
+import com.apptentive.android.sdk.module.engagement.interaction.model.Interaction;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class InteractionPrewarmerTest extends TestCaseBase {
+
+	@Before
+	public void setUp() throws Exception {
+		super.setUp();
+		InteractionPrewarmer.clear();
+	}
+
+	@After
+	public void tearDown() {
+		InteractionPrewarmer.clear();
+		super.tearDown();
+	}
+
+	@Test
+	public void testPreparedInteraction() {
+		Interaction interaction = createInteraction("1");
+
+		String json = InteractionPrewarmer.prepare(interaction);
+		assertEquals(interaction.toString(), json);
+		assertSame(json, InteractionPrewarmer.prepare(interaction)); // serialized only once
+
+		// string passed through an intent is a different instance
+		assertSame(interaction, InteractionPrewarmer.parseInteraction("1", new String(json)));
+
+		// without an id the definition is parsed
+		Interaction parsed = InteractionPrewarmer.parseInteraction(null, json);
+		assertNotNull(parsed);
+		assertNotSame(interaction, parsed);
+		assertEquals("1", parsed.getId());
+
+		// unknown interactions are parsed
+		Interaction other = InteractionPrewarmer.parseInteraction("2", createInteraction("2").toString());
+		assertNotNull(other);
+		assertEquals("2", other.getId());
+
+		assertNull(InteractionPrewarmer.parseInteraction("1", null));
+	}
+
+	@Test
+	public void testNewManifestInstance() {
+		Interaction interaction = createInteraction("1");
+		InteractionPrewarmer.prepare(interaction);
+
+		// same interaction id parsed from a new manifest replaces the old one
+		Interaction updated = createInteraction("1");
+		InteractionPrewarmer.prepare(updated);
+		assertEquals(1, InteractionPrewarmer.getPreparedCount());
+
+		Interaction parsed = InteractionPrewarmer.parseInteraction("1", updated.toString());
+		assertSame(updated, parsed);
+		assertNotSame(interaction, parsed);
+	}
+
+	@Test
+	public void testStaleDefinition() {
+		Interaction interaction = createInteraction("1", "Old");
+		String json = InteractionPrewarmer.prepare(interaction);
+
+		// a new manifest changed the interaction after the definition was passed to the intent
+		Interaction updated = createInteraction("1", "New");
+		InteractionPrewarmer.prepare(updated);
+
+		Interaction parsed = InteractionPrewarmer.parseInteraction("1", json);
+		assertNotNull(parsed);
+		assertNotSame(updated, parsed);
+		assertEquals("Old", parsed.getTitle());
+	}
+
+	@Test
+	public void testMaxPreparedInteractions() {
+		Interaction first = createInteraction("0");
+		InteractionPrewarmer.prepare(first);
+		for (int i = 1; i <= InteractionPrewarmer.MAX_PREPARED_INTERACTIONS; ++i) {
+			InteractionPrewarmer.prepare(createInteraction(Integer.toString(i)));
+		}
+		assertEquals(InteractionPrewarmer.MAX_PREPARED_INTERACTIONS, InteractionPrewarmer.getPreparedCount());
+
+		// the eldest interaction was evicted and would be parsed again
+		assertNotSame(first, InteractionPrewarmer.parseInteraction("0", first.toString()));
+	}
+
+	private static Interaction createInteraction(String id) {
+		return createInteraction(id, "Title " + id);
+	}
+
+	private static Interaction createInteraction(String id, String title) {
+		return Interaction.Factory.parseInteraction("{'id':'" + id + "','type':'TextModal','configuration':{'title':'" + title + "'}}");
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.module.engagement.logic;
+
+import android.content.ContextWrapper;
+
+import com.apptentive.android.sdk.LogicTestCaseBase;
+import com.apptentive.android.sdk.module.engagement.interaction.model.InteractionCriteria;
+import com.apptentive.android.sdk.storage.AppRelease;
+import com.apptentive.android.sdk.storage.Device;
+import com.apptentive.android.sdk.storage.EventData;
+import com.apptentive.android.sdk.storage.Person;
+import com.apptentive.android.sdk.storage.VersionHistory;
+import com.apptentive.android.sdk.util.Util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FieldManagerLastDaysTest extends LogicTestCaseBase {
+	private static final double DAY_SECONDS = 24 * 60 * 60;
+	private static final int VERSION_CODE = 1;
+	private static final String VERSION_NAME = "1.0";
+
+	private EventData eventData;
+	private FieldManager fieldManager;
+
+	@Before
+	public void setUp() throws Exception {
+		super.setUp();
+		eventData = new EventData();
+		fieldManager = new FieldManager(new ContextWrapper(null), new VersionHistory(), eventData, new Person(), new Device(), new AppRelease());
+	}
+
+	@After
+	public void tearDown() {
+		super.tearDown();
+	}
+
+	@Test
+	public void testCodePointInvokesLastDays() throws Exception {
+		InteractionCriteria criteria = new InteractionCriteria("{'code_point/test.event/invokes/last_days/7':{'$gte':2}}");
+		assertFalse(criteria.isMet(fieldManager));
+
+		double now = Util.currentTimeSeconds();
+		eventData.storeEventForCurrentAppVersion(now - 10 * DAY_SECONDS, VERSION_CODE, VERSION_NAME, "test.event"); // outside of the window
+		eventData.storeEventForCurrentAppVersion(now, VERSION_CODE, VERSION_NAME, "test.event");
+		assertFalse(criteria.isMet(fieldManager));
+
+		eventData.storeEventForCurrentAppVersion(now - 3 * DAY_SECONDS, VERSION_CODE, VERSION_NAME, "test.event");
+		assertTrue(criteria.isMet(fieldManager));
+
+		// the whole tracked range
+		assertTrue(new InteractionCriteria("{'code_point/test.event/invokes/last_days/30':3}").isMet(fieldManager));
+		assertTrue(new InteractionCriteria("{'code_point/test.event/invokes/last_days/1':1}").isMet(fieldManager));
+		assertTrue(new InteractionCriteria("{'code_point/other.event/invokes/last_days/7':0}").isMet(fieldManager));
+	}
+
+	@Test
+	public void testInteractionInvokesLastDays() throws Exception {
+		InteractionCriteria criteria = new InteractionCriteria("{'interactions/123/invokes/last_days/7':{'$lt':2}}");
+		assertTrue(criteria.isMet(fieldManager));
+
+		double now = Util.currentTimeSeconds();
+		eventData.storeInteractionForCurrentAppVersion(now, VERSION_CODE, VERSION_NAME, "123");
+		eventData.storeInteractionForCurrentAppVersion(now - 20 * DAY_SECONDS, VERSION_CODE, VERSION_NAME, "123"); // outside of the window
+		assertTrue(criteria.isMet(fieldManager));
+
+		eventData.storeInteractionForCurrentAppVersion(now - 6 * DAY_SECONDS, VERSION_CODE, VERSION_NAME, "123");
+		assertFalse(criteria.isMet(fieldManager));
+
+		assertTrue(new InteractionCriteria("{'interactions/123/invokes/last_days/30':3}").isMet(fieldManager));
+		assertTrue(new InteractionCriteria("{'interactions/456/invokes/last_days/7':0}").isMet(fieldManager));
+	}
+
+	@Test
+	public void testInvalidNumberOfDays() throws Exception {
+		eventData.storeEventForCurrentAppVersion(Util.currentTimeSeconds(), VERSION_CODE, VERSION_NAME, "test.event");
+		eventData.storeInteractionForCurrentAppVersion(Util.currentTimeSeconds(), VERSION_CODE, VERSION_NAME, "123");
+
+		String[] queries = {
+			"code_point/test.event/invokes/last_days/0",
+			"code_point/test.event/invokes/last_days/31",
+			"code_point/test.event/invokes/last_days/-1",
+			"code_point/test.event/invokes/last_days/seven",
+			"code_point/test.event/invokes/last_days",
+			"interactions/123/invokes/last_days/0",
+			"interactions/123/invokes/last_days/31",
+			"interactions/123/invokes/last_days/1.5",
+		};
+		for (String query : queries) {
+			// invalid queries have no value: comparisons are never met
+			assertNull(query, fieldManager.getValue(query));
+			assertFalse(query, new InteractionCriteria("{'" + query + "':{'$gte':0}}").isMet(fieldManager));
+			assertTrue(query, new InteractionCriteria("{'" + query + "':{'$exists':false}}").isMet(fieldManager));
+		}
+	}
+
+	@Test
+	public void testDescription() {
+		assertEquals("number of invokes for event 'test.event' in the last 7 day(s)", fieldManager.getDescription("code_point/test.event/invokes/last_days/7"));
+		assertEquals("number of invokes for interaction '123' in the last 30 day(s)", fieldManager.getDescription("interactions/123/invokes/last_days/30"));
+		assertEquals("number of invokes for event 'test.event' in the last 31 day(s)", fieldManager.getDescription("code_point/test.event/invokes/last_days/31"));
+		assertEquals("number of invokes for event 'test.event' in the last null day(s)", fieldManager.getDescription("code_point/test.event/invokes/last_days"));
+	}
+}
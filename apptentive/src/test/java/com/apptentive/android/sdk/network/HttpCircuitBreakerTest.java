@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.network;
+
+import com.apptentive.android.sdk.TestCaseBase;
+import com.apptentive.android.sdk.network.HttpCircuitBreaker.State;
+import com.apptentive.android.sdk.util.threading.MockDispatchQueue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HttpCircuitBreakerTest extends TestCaseBase {
+
+	private MockDispatchQueue networkQueue;
+	private HttpRequestManager requestManager;
+
+	@Before
+	public void setUp() throws Exception {
+		super.setUp();
+
+		networkQueue = new MockDispatchQueue(false);
+		requestManager = new HttpRequestManager(networkQueue, createCircuitBreaker(2));
+	}
+
+	@After
+	public void tearDown() {
+		requestManager.cancelAll();
+		super.tearDown();
+	}
+
+	@Test
+	public void testStateTransitions() {
+		HttpCircuitBreaker circuitBreaker = createCircuitBreaker(3);
+		assertEquals(-1, circuitBreaker.recordResponse(500));
+		assertEquals(-1, circuitBreaker.recordResponse(-1));
+		assertEquals(-1, circuitBreaker.recordResponse(404)); // server is reachable: failures are reset
+		assertEquals(-1, circuitBreaker.recordResponse(503));
+		assertEquals(-1, circuitBreaker.recordResponse(429));
+		assertEquals(State.CLOSED, circuitBreaker.getState());
+		assertTrue(circuitBreaker.tryAcquire());
+
+		// third consecutive failure
+		assertEquals(1000, circuitBreaker.recordResponse(-1));
+		assertEquals(State.OPEN, circuitBreaker.getState());
+		assertFalse(circuitBreaker.tryAcquire());
+
+		// a single probe is allowed
+		assertTrue(circuitBreaker.halfOpen());
+		assertTrue(circuitBreaker.tryAcquire());
+		assertFalse(circuitBreaker.tryAcquire());
+
+		// failed probe: open timeout grows exponentially
+		assertEquals(2000, circuitBreaker.recordResponse(500));
+		assertTrue(circuitBreaker.halfOpen());
+		assertTrue(circuitBreaker.tryAcquire());
+		assertEquals(4000, circuitBreaker.recordResponse(500));
+		assertTrue(circuitBreaker.halfOpen());
+		assertTrue(circuitBreaker.tryAcquire());
+		assertEquals(5000, circuitBreaker.recordResponse(500)); // capped
+
+		// cancelled probe should let another one through
+		assertTrue(circuitBreaker.halfOpen());
+		assertTrue(circuitBreaker.tryAcquire());
+		circuitBreaker.recordCancel();
+		assertTrue(circuitBreaker.tryAcquire());
+
+		// successful probe closes the circuit
+		assertEquals(-1, circuitBreaker.recordResponse(200));
+		assertEquals(State.CLOSED, circuitBreaker.getState());
+		assertTrue(circuitBreaker.tryAcquire());
+		assertTrue(circuitBreaker.tryAcquire());
+		assertFalse(circuitBreaker.halfOpen());
+	}
+
+	@Test
+	public void testHoldRequestsWhenCircuitIsOpen() {
+		startRequest(new MockHttpRequest("1").setMockResponseCode(500));
+		startRequest(new MockHttpRequest("2").setMockResponseCode(500));
+		networkQueue.dispatchTasks(); // runs the requests and the half-open task (mock queue ignores delays)
+		assertResult(
+			"failed: 1 Unexpected response code: 500 (Internal Server Error)",
+			"failed: 2 Unexpected response code: 500 (Internal Server Error)"
+		);
+		assertEquals(State.HALF_OPEN, requestManager.getCircuitState());
+
+		// the first request is a probe, the rest is held until it finishes
+		startRequest(new MockHttpRequest("3"));
+		startRequest(new MockHttpRequest("4"));
+		startRequest(new MockHttpRequest("5"));
+		assertEquals(2, requestManager.getHeldRequestCount());
+
+		networkQueue.dispatchTasks();
+		assertResult("finished: 3", "finished: 4", "finished: 5");
+		assertEquals(State.CLOSED, requestManager.getCircuitState());
+		assertEquals(0, requestManager.getHeldRequestCount());
+	}
+
+	@Test
+	public void testHoldRequestsWhileOffline() {
+		requestManager.setNetworkAvailable(false);
+		startRequest(new MockHttpRequest("1"));
+		startRequest(new MockHttpRequest("2"));
+		networkQueue.dispatchTasks();
+		assertResult();
+		assertEquals(2, requestManager.getHeldRequestCount());
+
+		requestManager.setNetworkAvailable(true);
+		networkQueue.dispatchTasks();
+		assertResult("finished: 1", "finished: 2");
+	}
+
+	@Test
+	public void testCancelHeldRequests() {
+		requestManager.setNetworkAvailable(false);
+		startRequest(new MockHttpRequest("1"));
+		requestManager.cancelAll();
+		networkQueue.dispatchTasks();
+		assertResult("cancelled: 1");
+		assertEquals(0, requestManager.getHeldRequestCount());
+	}
+
+	//region Helpers
+
+	private static HttpCircuitBreaker createCircuitBreaker(int failureThreshold) {
+		return new HttpCircuitBreaker(failureThreshold, 1000, 5000, new Random() {
+			@Override
+			public double nextDouble() {
+				return 1.0; // no jitter
+			}
+		});
+	}
+
+	private void startRequest(HttpRequest request) {
+		request.setRequestManager(requestManager);
+		request.addListener(new HttpRequest.Listener<MockHttpRequest>() {
+			@Override
+			public void onFinish(MockHttpRequest request) {
+				addResult("finished: " + request);
+			}
+
+			@Override
+			public void onCancel(MockHttpRequest request) {
+				addResult("cancelled: " + request);
+			}
+
+			@Override
+			public void onFail(MockHttpRequest request, String reason) {
+				addResult("failed: " + request + " " + reason);
+			}
+		});
+		request.start();
+	}
+
+	//endregion
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.network;
+
+import com.apptentive.android.sdk.TestCaseBase;
+import com.apptentive.android.sdk.debug.Metrics;
+import com.apptentive.android.sdk.util.threading.MockDispatchQueue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class HttpConnectionReuseTest extends TestCaseBase {
+	private static final int REQUEST_COUNT = 10;
+
+	private MockHttpServer server;
+	private MockDispatchQueue networkQueue;
+	private HttpRequestManager requestManager;
+
+	@Before
+	public void setUp() throws Exception {
+		super.setUp();
+
+		Metrics.reset();
+		server = new MockHttpServer();
+		networkQueue = new MockDispatchQueue(false);
+		requestManager = new HttpRequestManager(networkQueue);
+	}
+
+	@After
+	public void tearDown() {
+		requestManager.cancelAll();
+		server.shutdown();
+		Metrics.reset();
+		super.tearDown();
+	}
+
+	@Test
+	public void testSequentialPayloadsReuseConnection() {
+		for (int i = 0; i < REQUEST_COUNT; ++i) {
+			sendPayload(i);
+		}
+
+		assertEquals(REQUEST_COUNT, server.getRequestCount());
+		assertEquals(1, server.getConnectionCount());
+		assertEquals(REQUEST_COUNT, Metrics.counter(Metrics.HTTP_CONNECTIONS_RELEASED).get());
+		assertEquals(0, Metrics.counter(Metrics.HTTP_CONNECTIONS_DISCONNECTED).get());
+	}
+
+	@Test
+	public void testErrorResponsesReuseConnection() {
+		server.setResponse(400, "{\"error\":\"Bad payload\"}");
+		for (int i = 0; i < REQUEST_COUNT; ++i) {
+			sendPayload(i);
+		}
+
+		assertEquals(REQUEST_COUNT, server.getRequestCount());
+		assertEquals(1, server.getConnectionCount());
+	}
+
+	@Test
+	public void testPartiallyReadStreamingResponsesReuseConnection() {
+		server.setResponse(200, "{\"messages\":[{\"id\":1},{\"id\":2}],\"ends_with\":\"2\"}");
+		for (int i = 0; i < REQUEST_COUNT; ++i) {
+			HttpStreamingRequest<String> request = new HttpStreamingRequest<String>(server.getUrl("/conversations/1/messages"), new JSONObject(), new StreamingResponseHandler<String>() {
+				@Override
+				public String handleResponse(InputStream stream) throws IOException {
+					return String.valueOf((char) stream.read()); // the rest of the response is drained
+				}
+			}) {
+				@Override
+				protected boolean isNetworkConnectionPresent() {
+					return true;
+				}
+			};
+			startRequest(request);
+			assertEquals("{", request.getResponseResult());
+		}
+
+		assertEquals(REQUEST_COUNT, server.getRequestCount());
+		assertEquals(1, server.getConnectionCount());
+		assertEquals(REQUEST_COUNT, Metrics.counter(Metrics.HTTP_CONNECTIONS_RELEASED).get());
+	}
+
+	@Test
+	public void testFailedConnectionIsDisconnected() {
+		MockHttpRequest request = new MockHttpRequest("1").setThrowsExceptionOnConnect(true).setThrowsExceptionOnDisconnect(true);
+		request.addListener(new HttpRequest.Adapter<MockHttpRequest>() {
+			@Override
+			public void onFail(MockHttpRequest request, String reason) {
+				addResult("failed: " + request + " " + reason);
+			}
+		});
+		startRequest(request);
+
+		assertResult("failed: 1 Disconnection error");
+		assertEquals(1, Metrics.counter(Metrics.HTTP_CONNECTIONS_DISCONNECTED).get());
+		assertEquals(0, Metrics.counter(Metrics.HTTP_CONNECTIONS_RELEASED).get());
+	}
+
+	//region Helpers
+
+	private void sendPayload(int index) {
+		final String expected = "{\"event\":" + index + "}";
+		HttpRequest request = new RawHttpRequest(server.getUrl("/conversations/1/events"), expected.getBytes()) {
+			@Override
+			protected boolean isNetworkConnectionPresent() {
+				return true;
+			}
+		};
+		request.setMethod(HttpRequestMethod.POST);
+		request.setRequestProperty("Content-Type", "application/json");
+		startRequest(request);
+	}
+
+	private void startRequest(HttpRequest request) {
+		request.setRequestProperty("Connection", "Keep-Alive");
+		request.setRequestManager(requestManager);
+		request.setRetryPolicy(new HttpRequestRetryPolicyDefault() {
+			@Override
+			public boolean shouldRetryRequest(int responseCode, int retryAttempt) {
+				return false;
+			}
+		});
+		request.start();
+		networkQueue.dispatchTasks();
+	}
+
+	//endregion
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.network;
+
+import com.apptentive.android.sdk.TestCaseBase;
+import com.apptentive.android.sdk.util.threading.MockDispatchQueue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class HttpRequestCoalescingTest extends TestCaseBase {
+
+	private MockDispatchQueue networkQueue;
+	private HttpRequestManager requestManager;
+
+	@Before
+	public void setUp() throws Exception {
+		super.setUp();
+
+		networkQueue = new MockDispatchQueue(false);
+		requestManager = new HttpRequestManager(networkQueue);
+	}
+
+	@After
+	public void tearDown() {
+		requestManager.cancelAll();
+		super.tearDown();
+	}
+
+	@Test
+	public void testCoalesceIdenticalRequests() {
+		HttpRequest first = startRequest(createRequest("1"), "a");
+		HttpRequest second = startRequest(createRequest("2"), "b");
+		assertSame(first, second);
+
+		networkQueue.dispatchTasks();
+		assertResult("a: finished 1", "b: finished 1");
+
+		// the response was received: the next request is sent
+		startRequest(createRequest("3"), "c");
+		networkQueue.dispatchTasks();
+		assertResult("c: finished 3");
+	}
+
+	@Test
+	public void testDoNotCoalesceDifferentRequests() {
+		startRequest(createRequest("1"), "a");
+		startRequest(new MockHttpRequest("2"), "b"); // not coalescable
+
+		MockHttpRequest post = createRequest("3");
+		post.setMethod(HttpRequestMethod.POST);
+		startRequest(post, "c");
+
+		MockHttpRequest tagged = createRequest("4");
+		tagged.setTag("tag");
+		startRequest(tagged, "d");
+
+		MockHttpRequest authorized = createRequest("5");
+		authorized.setRequestProperty("Authorization", "Bearer token");
+		startRequest(authorized, "e");
+
+		networkQueue.dispatchTasks();
+		assertResult("a: finished 1", "b: finished 2", "c: finished 3", "d: finished 4", "e: finished 5");
+	}
+
+	@Test
+	public void testDoNotCoalesceCancelledRequest() {
+		HttpRequest cancelled = startRequest(createRequest("1"), "a");
+		cancelled.cancel();
+		startRequest(createRequest("2"), "b");
+
+		networkQueue.dispatchTasks();
+		assertResult("a: cancelled 1", "b: finished 2");
+	}
+
+	@Test
+	public void testCancelCoalescedRequest() {
+		HttpRequest first = startRequest(createRequest("1"), "a");
+		HttpRequest coalesced = createRequest("2");
+		assertSame(first, startRequest(coalesced, "b"));
+
+		// only listeners of the coalesced request are detached
+		coalesced.cancel();
+		assertResult("b: cancelled 2");
+
+		networkQueue.dispatchTasks();
+		assertResult("a: finished 1");
+	}
+
+	@Test
+	public void testCancelCoalescedRequestAfterResponse() {
+		HttpRequest coalesced = createRequest("2");
+		startRequest(createRequest("1"), "a");
+		startRequest(coalesced, "b");
+
+		networkQueue.dispatchTasks();
+		assertResult("a: finished 1", "b: finished 1");
+
+		// listeners were already notified with the response
+		coalesced.cancel();
+		assertResult();
+	}
+
+	@Test
+	public void testFindRequest() {
+		MockHttpRequest first = createRequest("1");
+		first.setTag("tag");
+		startRequest(first, "a");
+
+		final MockHttpRequest second = new MockHttpRequest("2");
+		second.setTag("tag");
+		second.addListener(new HttpRequest.Listener<MockHttpRequest>() {
+			@Override
+			public void onFinish(MockHttpRequest request) {
+				// the first request is finished: the tag should point to the second one
+				addResult("found: " + requestManager.findRequest("tag"));
+			}
+
+			@Override
+			public void onCancel(MockHttpRequest request) {
+			}
+
+			@Override
+			public void onFail(MockHttpRequest request, String reason) {
+			}
+		});
+		startRequest(second, "b");
+
+		assertSame(first, requestManager.findRequest("tag"));
+		assertNull(requestManager.findRequest("other"));
+
+		networkQueue.dispatchTasks();
+		assertResult("a: finished 1", "found: 2", "b: finished 2");
+		assertNull(requestManager.findRequest("tag"));
+	}
+
+	//region Helpers
+
+	private static MockHttpRequest createRequest(String name) {
+		MockHttpRequest request = new MockHttpRequest(name);
+		request.setCoalescable(true);
+		return request;
+	}
+
+	private HttpRequest startRequest(HttpRequest request, final String caller) {
+		request.setRequestManager(requestManager);
+		request.addListener(new HttpRequest.Listener<MockHttpRequest>() {
+			@Override
+			public void onFinish(MockHttpRequest request) {
+				addResult(caller + ": finished " + request);
+			}
+
+			@Override
+			public void onCancel(MockHttpRequest request) {
+				addResult(caller + ": cancelled " + request);
+			}
+
+			@Override
+			public void onFail(MockHttpRequest request, String reason) {
+				addResult(caller + ": failed " + request + " " + reason);
+			}
+		});
+		return requestManager.startRequest(request);
+	}
+
+	//endregion
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.network;
+
+import com.apptentive.android.sdk.TestCaseBase;
+import com.apptentive.android.sdk.util.threading.MockDispatchQueue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.apptentive.android.sdk.network.HttpRequestPriority.BULK;
+import static com.apptentive.android.sdk.network.HttpRequestPriority.INTERACTIVE;
+import static com.apptentive.android.sdk.network.HttpRequestPriority.TELEMETRY;
+import static org.junit.Assert.assertEquals;
+
+public class HttpRequestPriorityTest extends TestCaseBase {
+
+	private MockDispatchQueue networkQueue;
+	private HttpRequestManager requestManager;
+
+	@Before
+	public void setUp() throws Exception {
+		super.setUp();
+
+		networkQueue = new MockDispatchQueue(false);
+		requestManager = new HttpRequestManager(networkQueue);
+	}
+
+	@After
+	public void tearDown() {
+		requestManager.cancelAll();
+		super.tearDown();
+	}
+
+	@Test
+	public void testConcurrencyLimits() {
+		requestManager.setConcurrencyLimit(TELEMETRY, 2);
+		startRequest("t1", TELEMETRY);
+		startRequest("t2", TELEMETRY);
+		startRequest("t3", TELEMETRY);
+		startRequest("b1", BULK);
+		startRequest("b2", BULK);
+		startRequest("i1", INTERACTIVE);
+
+		assertEquals(2, requestManager.getRunningRequestCount(TELEMETRY));
+		assertEquals(1, requestManager.getPendingRequestCount(TELEMETRY));
+		assertEquals(1, requestManager.getRunningRequestCount(BULK));
+		assertEquals(1, requestManager.getPendingRequestCount(BULK));
+
+		// interactive request doesn't wait for the others
+		assertEquals(1, requestManager.getRunningRequestCount(INTERACTIVE));
+		assertEquals(0, requestManager.getPendingRequestCount(INTERACTIVE));
+
+		// pending requests are sent as soon as a request of the same class finishes
+		networkQueue.dispatchTasks();
+		assertResult(
+			"finished: t1",
+			"finished: t2",
+			"finished: b1",
+			"finished: i1",
+			"finished: t3",
+			"finished: b2"
+		);
+		for (HttpRequestPriority priority : HttpRequestPriority.values()) {
+			assertEquals(0, requestManager.getRunningRequestCount(priority));
+			assertEquals(0, requestManager.getPendingRequestCount(priority));
+		}
+	}
+
+	@Test
+	public void testCancelPendingRequests() {
+		startRequest("t1", TELEMETRY);
+		startRequest("t2", TELEMETRY);
+		assertEquals(1, requestManager.getPendingRequestCount(TELEMETRY));
+
+		requestManager.cancelAll();
+		assertEquals(0, requestManager.getPendingRequestCount(TELEMETRY));
+
+		networkQueue.dispatchTasks();
+		assertResult("cancelled: t1", "cancelled: t2");
+		assertEquals(0, requestManager.getRunningRequestCount(TELEMETRY));
+	}
+
+	//region Helpers
+
+	private void startRequest(String name, HttpRequestPriority priority) {
+		HttpRequest request = new MockHttpRequest(name);
+		request.setPriority(priority);
+		request.setRequestManager(requestManager);
+		request.addListener(new HttpRequest.Listener<MockHttpRequest>() {
+			@Override
+			public void onFinish(MockHttpRequest request) {
+				addResult("finished: " + request);
+			}
+
+			@Override
+			public void onCancel(MockHttpRequest request) {
+				addResult("cancelled: " + request);
+			}
+
+			@Override
+			public void onFail(MockHttpRequest request, String reason) {
+				addResult("failed: " + request + " " + reason);
+			}
+		});
+		request.start();
+	}
+
+	//endregion
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.storage;
+
+import com.apptentive.android.sdk.TestCaseBase;
+import com.apptentive.android.sdk.model.PersonPayload;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CustomDataTest extends TestCaseBase {
+
+	@Test
+	public void testChangeTracking() {
+		CustomData data = new CustomData();
+		data.put("key1", "value1");
+		data.put("key2", "value2");
+		assertEquals(new HashSet<>(Arrays.asList("key1", "key2")), data.getChangedKeys());
+
+		data.clearChangedKeys();
+		assertTrue(data.getChangedKeys().isEmpty());
+
+		data.remove("key1");
+		assertEquals(new HashSet<>(Arrays.asList("key1")), data.getChangedKeys());
+
+		data.clearChangedKeys();
+		data.clear();
+		assertEquals(new HashSet<>(Arrays.asList("key2")), data.getChangedKeys());
+	}
+
+	@Test
+	public void testDiff() throws Exception {
+		CustomData oldData = new CustomData();
+		CustomData newData = new CustomData();
+		for (int i = 0; i < 100; ++i) {
+			oldData.put("key" + i, i);
+			newData.put("key" + i, i);
+		}
+		newData.clearChangedKeys();
+		assertNull(CustomData.diff(oldData, newData));
+
+		newData.put("key1", "changed");
+		newData.put("key2", 2); // same value
+		newData.remove("key3");
+		newData.put("key100", true);
+
+		JSONObject diff = CustomData.diff(oldData, newData);
+		assertEquals(3, diff.length());
+		assertEquals("changed", diff.get("key1"));
+		assertTrue(diff.isNull("key3"));
+		assertEquals(true, diff.get("key100"));
+	}
+
+	@Test
+	public void testDiffWithUnknownChanges() throws Exception {
+		CustomData oldData = new CustomData();
+		oldData.put("key1", "value1");
+		oldData.put("key2", "value2");
+
+		CustomData newData = new CustomData();
+		newData.put("key1", "value1");
+		newData.put("key3", "value3");
+		setChangedKeysUnknown(newData);
+
+		JSONObject diff = CustomData.diff(oldData, newData);
+		assertEquals(2, diff.length());
+		assertTrue(diff.isNull("key2"));
+		assertEquals("value3", diff.get("key3"));
+	}
+
+	@Test
+	public void testUpdateFrom() {
+		CustomData snapshot = new CustomData();
+		snapshot.put("key1", "value1");
+		snapshot.put("key2", "value2");
+
+		CustomData current = new CustomData();
+		current.putAll(snapshot);
+		current.clearChangedKeys();
+		current.put("key1", "changed");
+		current.remove("key2");
+		current.put("key3", "value3");
+
+		snapshot.updateFrom(current);
+		assertEquals(current, snapshot);
+	}
+
+	@Test
+	public void testBulkUpdate() {
+		CustomData data = new CustomData();
+		data.put("key1", "value1");
+		data.put("key2", "value2");
+		data.clearChangedKeys();
+		data.setDataChangedListener(new DataChangedListener() {
+			@Override
+			public void onDataChanged() {
+				addResult("changed");
+			}
+		});
+
+		Map<String, Serializable> changes = new HashMap<>();
+		changes.put("key1", null);
+		changes.put("key2", 2);
+		changes.put("key3", true);
+		data.update(changes);
+
+		assertResult("changed"); // single notification
+		assertFalse(data.containsKey("key1"));
+		assertEquals(2, data.get("key2"));
+		assertEquals(true, data.get("key3"));
+		assertEquals(new HashSet<>(Arrays.asList("key1", "key2", "key3")), data.getChangedKeys());
+
+		data.update(new HashMap<String, Serializable>());
+		assertResult();
+	}
+
+	@Test
+	public void testPersonDiffPayload() throws Exception {
+		Person person = new Person();
+		person.setEmail("test@example.com");
+		for (int i = 0; i < 100; ++i) {
+			person.getCustomData().put("key" + i, i);
+		}
+
+		PersonPayload payload = PersonManager.getDiffPayload(null, person);
+		assertEquals(100, payload.getJsonObject().getJSONObject("custom_data").length());
+
+		Person lastSent = person.clone();
+		person.getCustomData().clearChangedKeys();
+		assertNull(PersonManager.getDiffPayload(lastSent, person));
+
+		person.getCustomData().put("key5", "changed");
+		payload = PersonManager.getDiffPayload(lastSent, person);
+		JSONObject customData = payload.getJsonObject().getJSONObject("custom_data");
+		assertEquals(1, customData.length());
+		assertEquals("changed", customData.get("key5"));
+		assertFalse(payload.getJsonObject().has("email"));
+
+		lastSent.updateFrom(person);
+		person.getCustomData().clearChangedKeys();
+		assertEquals(person.getCustomData(), lastSent.getCustomData());
+		assertNull(PersonManager.getDiffPayload(lastSent, person));
+	}
+
+	private static void setChangedKeysUnknown(CustomData data) throws Exception {
+		Field field = CustomData.class.getDeclaredField("changedKeys");
+		field.setAccessible(true);
+		field.set(data, null);
+	}
+}
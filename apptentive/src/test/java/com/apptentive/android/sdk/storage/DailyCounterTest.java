@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.storage;
+
+import com.apptentive.android.sdk.TestCaseBase;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class DailyCounterTest extends TestCaseBase {
+	private static final double DAY = 24 * 60 * 60;
+	private static final double START = 18000 * DAY; // beginning of a UTC day
+
+	@Test
+	public void testCount() {
+		DailyCounter counter = new DailyCounter();
+		assertEquals(0, counter.getCount(START, 7));
+
+		counter.add(START + 10);
+		counter.add(START + 20);
+		counter.add(START + DAY + 10);
+		counter.add(START + 3 * DAY + 10);
+
+		double now = START + 3 * DAY + 100;
+		assertEquals(1, counter.getCount(now, 1));
+		assertEquals(1, counter.getCount(now, 2));
+		assertEquals(2, counter.getCount(now, 3));
+		assertEquals(4, counter.getCount(now, 4));
+		assertEquals(4, counter.getCount(now, DailyCounter.MAX_DAYS));
+		assertEquals(4, counter.getCount(now, 1000)); // capped
+		assertEquals(0, counter.getCount(now, 0));
+
+		// the window moves with the current time
+		assertEquals(1, counter.getCount(now + 2 * DAY, 3));
+		assertEquals(0, counter.getCount(now + 3 * DAY, 3));
+	}
+
+	@Test
+	public void testExpiration() {
+		DailyCounter counter = new DailyCounter();
+		for (int day = 0; day < 2 * DailyCounter.MAX_DAYS; ++day) {
+			counter.add(START + day * DAY);
+		}
+
+		double now = START + (2 * DailyCounter.MAX_DAYS - 1) * DAY;
+		assertEquals(DailyCounter.MAX_DAYS, counter.getCount(now, DailyCounter.MAX_DAYS));
+		assertEquals(7, counter.getCount(now, 7));
+
+		// a gap longer than the tracked range resets the counter
+		counter.add(now + DailyCounter.MAX_DAYS * DAY);
+		assertEquals(1, counter.getCount(now + DailyCounter.MAX_DAYS * DAY, DailyCounter.MAX_DAYS));
+	}
+
+	@Test
+	public void testOutOfOrderTimestamps() {
+		DailyCounter counter = new DailyCounter();
+		counter.add(START + 5 * DAY);
+		counter.add(START + 2 * DAY); // clock moved backwards: still within the tracked range
+		counter.add(START - DailyCounter.MAX_DAYS * DAY); // too old: ignored
+
+		assertEquals(1, counter.getCount(START + 5 * DAY, 1));
+		assertEquals(2, counter.getCount(START + 5 * DAY, 4));
+		assertEquals(2, counter.getCount(START + 5 * DAY, DailyCounter.MAX_DAYS));
+	}
+}
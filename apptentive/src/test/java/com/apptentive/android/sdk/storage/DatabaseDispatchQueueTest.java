@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.storage;
+
+import com.apptentive.android.sdk.TestCaseBase;
+import com.apptentive.android.sdk.util.threading.DispatchTask;
+import com.apptentive.android.sdk.util.threading.MockDispatchQueue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DatabaseDispatchQueueTest extends TestCaseBase {
+
+	private DatabaseDispatchQueue queue;
+	private CountDownLatch blockLatch;
+
+	@Before
+	public void setUp() throws Exception {
+		super.setUp();
+		blockLatch = new CountDownLatch(1);
+	}
+
+	@After
+	public void tearDown() {
+		blockLatch.countDown();
+		if (queue != null) {
+			queue.stop();
+		}
+		MockDispatchQueue.overrideMainQueue(false); // identified as the main queue by default
+		super.tearDown();
+	}
+
+	@Test
+	public void testCoalescingTasks() throws Exception {
+		queue = new DatabaseDispatchQueue("Test Queue", 10);
+		blockQueue();
+
+		DispatchTask task = new DispatchTask() {
+			@Override
+			protected void execute() {
+				addResult("executed");
+			}
+		};
+
+		assertTrue(queue.dispatchAsyncOnce(task));
+		assertFalse(queue.dispatchAsyncOnce(task));
+		assertFalse(queue.dispatchAsyncOnce(task));
+		assertEquals(1, queue.getPendingTaskCount());
+
+		unblockQueue();
+
+		assertResult("executed");
+		assertEquals(2, queue.getCoalescedTaskCount());
+	}
+
+	@Test
+	public void testBackPressure() throws Exception {
+		MockDispatchQueue mainQueue = MockDispatchQueue.overrideMainQueue(false);
+		mainQueue.setIndentifyAsMainQueue(false);
+
+		queue = new DatabaseDispatchQueue("Test Queue", 2);
+		blockQueue();
+
+		queue.dispatchAsync(createTask("task-1"));
+		queue.dispatchAsync(createTask("task-2"));
+
+		// the queue is full: a background producer is blocked
+		final CountDownLatch producerLatch = new CountDownLatch(1);
+		Thread producer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				queue.dispatchAsync(createTask("task-4"));
+				producerLatch.countDown();
+			}
+		});
+		producer.start();
+		assertFalse(producerLatch.await(100, TimeUnit.MILLISECONDS));
+		assertEquals(1, queue.getBlockedTaskCount());
+
+		// the main thread is never blocked (and tasks are never executed on the caller thread)
+		mainQueue.setIndentifyAsMainQueue(true);
+		queue.dispatchAsync(createTask("task-3"));
+		assertEquals(3, queue.getPendingTaskCount());
+		assertResult();
+
+		unblockQueue();
+		assertTrue(producerLatch.await(1, TimeUnit.SECONDS));
+		unblockQueue();
+
+		assertResult("task-1", "task-2", "task-3", "task-4");
+		assertEquals(3, queue.getMaxPendingTaskCount());
+	}
+
+	//region Helpers
+
+	private void blockQueue() throws InterruptedException {
+		final CountDownLatch startedLatch = new CountDownLatch(1);
+		queue.dispatchAsync(new DispatchTask() {
+			@Override
+			protected void execute() {
+				startedLatch.countDown();
+				try {
+					blockLatch.await();
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		});
+		assertTrue(startedLatch.await(1, TimeUnit.SECONDS));
+	}
+
+	private void unblockQueue() throws InterruptedException {
+		blockLatch.countDown();
+
+		// wait for the queue to drain
+		long timeout = System.currentTimeMillis() + 1000;
+		while (queue.getPendingTaskCount() > 0 && System.currentTimeMillis() < timeout) {
+			Thread.sleep(10);
+		}
+
+		final CountDownLatch finishedLatch = new CountDownLatch(1);
+		queue.dispatchAsync(new DispatchTask() {
+			@Override
+			protected void execute() {
+				finishedLatch.countDown();
+			}
+		});
+		assertTrue(finishedLatch.await(1, TimeUnit.SECONDS));
+	}
+
+	private DispatchTask createTask(final String name) {
+		return new DispatchTask() {
+			@Override
+			protected void execute() {
+				assertTrue(queue.isCurrent());
+				addResult(name);
+			}
+		};
+	}
+
+	//endregion
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.storage;
+
+import com.apptentive.android.sdk.TestCaseBase;
+import com.apptentive.android.sdk.util.StringUtils;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class EventRecordTest extends TestCaseBase {
+
+	// EventRecord serialized by an older SDK version (boxed version code/name maps):
+	// update(10, "1.0", 1); update(20, "1.0", 1); update(30, "2.0", 2)
+	private static final String LEGACY_RECORD =
+		"aced00057372002e636f6d2e61707074656e746976652e616e64726f69642e73646b2e73746f726167652e4576656e745265636f7264149d120afd05" +
+		"914e0200044400046c6173744a0005746f74616c4c000c76657273696f6e436f64657374000f4c6a6176612f7574696c2f4d61703b4c000c76657273" +
+		"696f6e4e616d657371007e00017870403e0000000000000000000000000003737200116a6176612e7574696c2e486173684d61700507dac1c31660d1" +
+		"03000246000a6c6f6164466163746f724900097468726573686f6c6478703f4000000000000c77080000001000000002737200116a6176612e6c616e" +
+		"672e496e746567657212e2a0a4f781873802000149000576616c7565787200106a6176612e6c616e672e4e756d62657286ac951d0b94e08b02000078" +
+		"70000000017372000e6a6176612e6c616e672e4c6f6e673b8be490cc8f23df0200014a000576616c75657871007e000600000000000000027371007e" +
+		"0005000000027371007e00080000000000000001787371007e00033f4000000000000c77080000001000000002740003312e3071007e000974000332" +
+		"2e3071007e000b78";
+
+	@Test
+	public void testUpdate() {
+		EventRecord record = new EventRecord();
+		for (int i = 0; i < 100; ++i) {
+			record.update(i, "version-" + (i % 10), i % 20);
+		}
+		record.update(100, null, 0);
+
+		assertEquals(101, record.getTotal());
+		assertEquals(100, record.getLast(), 0.0);
+		assertEquals(10, record.getCountForVersionName("version-3"));
+		assertEquals(1, record.getCountForVersionName(null));
+		assertEquals(0, record.getCountForVersionName("version-10"));
+		assertEquals(6, record.getCountForVersionCode(0));
+		assertEquals(5, record.getCountForVersionCode(19));
+		assertEquals(0, record.getCountForVersionCode(20));
+		assertEquals(0, record.getCountForVersionCode(null));
+	}
+
+	@Test
+	public void testSerialization() throws Exception {
+		EventRecord expected = new EventRecord();
+		expected.update(10, "1.0", 1);
+		expected.update(20, "2.0", 2);
+		expected.update(30, "2.0", 2);
+
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(bos);
+		oos.writeObject(expected);
+		oos.close();
+
+		EventRecord actual = deserialize(bos.toByteArray());
+		assertEquals(3, actual.getTotal());
+		assertEquals(30, actual.getLast(), 0.0);
+		assertEquals(1, actual.getCountForVersionName("1.0"));
+		assertEquals(2, actual.getCountForVersionName("2.0"));
+		assertEquals(1, actual.getCountForVersionCode(1));
+		assertEquals(2, actual.getCountForVersionCode(2));
+		assertEquals(3, actual.getCountForLastDays(30, 1));
+
+		// record should still be updatable after deserialization
+		actual.update(40, "3.0", 3);
+		assertEquals(1, actual.getCountForVersionCode(3));
+	}
+
+	@Test
+	public void testLegacySerialization() throws Exception {
+		EventRecord record = deserialize(StringUtils.hexToBytes(LEGACY_RECORD));
+		assertEquals(3, record.getTotal());
+		assertEquals(30, record.getLast(), 0.0);
+		assertEquals(2, record.getCountForVersionName("1.0"));
+		assertEquals(1, record.getCountForVersionName("2.0"));
+		assertEquals(2, record.getCountForVersionCode(1));
+		assertEquals(1, record.getCountForVersionCode(2));
+		assertEquals(0, record.getCountForLastDays(30, 1)); // no daily history for legacy records
+
+		record.update(40, "2.0", 2);
+		assertEquals(1, record.getCountForLastDays(40, 1));
+	}
+
+	private static EventRecord deserialize(byte[] data) throws Exception {
+		ObjectInputStream ois = new OverrideSerialVersionUIDObjectInputStream(new ByteArrayInputStream(data));
+		try {
+			return (EventRecord) ois.readObject();
+		} finally {
+			ois.close();
+		}
+	}
+}
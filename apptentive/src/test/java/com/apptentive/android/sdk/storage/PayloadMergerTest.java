@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.storage;
+
+import com.apptentive.android.sdk.TestCaseBase;
+import com.apptentive.android.sdk.model.EventPayload;
+import com.apptentive.android.sdk.model.PersonPayload;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PayloadMergerTest extends TestCaseBase {
+
+	@Test
+	public void testMerge() throws Exception {
+		String older = "{'person':{'nonce':'1','email':'old@example.com','name':'Old','custom_data':{'key1':'value1','key2':'value2'}},'session_id':'s1'}";
+		String middle = "{'person':{'nonce':'2','name':'Middle','custom_data':{'key2':null,'key3':'value3'}},'session_id':'s1'}";
+		String newer = "{'person':{'nonce':'3','name':'New','custom_data':{'key1':'changed'}},'session_id':'s2'}";
+
+		byte[] merged = PayloadMerger.merge(PayloadMerger.merge(older.getBytes(), middle.getBytes()), newer.getBytes());
+
+		JSONObject json = new JSONObject(new String(merged));
+		assertEquals("s2", json.getString("session_id"));
+
+		JSONObject person = json.getJSONObject("person");
+		assertEquals("3", person.getString("nonce"));
+		assertEquals("old@example.com", person.getString("email"));
+		assertEquals("New", person.getString("name"));
+
+		JSONObject customData = person.getJSONObject("custom_data");
+		assertEquals(3, customData.length());
+		assertEquals("changed", customData.getString("key1"));
+		assertTrue(customData.isNull("key2"));
+		assertEquals("value3", customData.getString("key3"));
+	}
+
+	@Test
+	public void testReplacingNonMergeableObjects() throws Exception {
+		String older = "{'device':{'integration_config':{'apptentive':{'token':'1'},'parse':{'token':'2'}}}}";
+		String newer = "{'device':{'integration_config':{'apptentive':{'token':'3'}}}}";
+
+		JSONObject device = new JSONObject(new String(PayloadMerger.merge(older.getBytes(), newer.getBytes()))).getJSONObject("device");
+		JSONObject integrationConfig = device.getJSONObject("integration_config");
+		assertEquals(1, integrationConfig.length());
+		assertEquals("3", integrationConfig.getJSONObject("apptentive").getString("token"));
+	}
+
+	@Test
+	public void testMergeNonAsciiValues() throws Exception {
+		String older = "{'person':{'name':'Zoë','custom_data':{'city':'Zürich'}}}";
+		String newer = "{'person':{'custom_data':{'greeting':'こんにちは'}}}";
+
+		byte[] merged = PayloadMerger.merge(older.getBytes("UTF-8"), newer.getBytes("UTF-8"));
+
+		JSONObject person = new JSONObject(new String(merged, "UTF-8")).getJSONObject("person");
+		assertEquals("Zoë", person.getString("name"));
+		assertEquals("Zürich", person.getJSONObject("custom_data").getString("city"));
+		assertEquals("こんにちは", person.getJSONObject("custom_data").getString("greeting"));
+	}
+
+	@Test
+	public void testMergeablePayloads() {
+		assertTrue(PayloadMerger.isMergeable(new PersonPayload()));
+		assertFalse(PayloadMerger.isMergeable(new EventPayload("label", (String) null)));
+
+		PersonPayload authenticated = new PersonPayload();
+		authenticated.setAuthenticated(true);
+		assertFalse(PayloadMerger.isMergeable(authenticated));
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.storage;
+
+import com.apptentive.android.sdk.LogicTestCaseBase;
+import com.apptentive.android.sdk.comm.ApptentiveHttpClient;
+import com.apptentive.android.sdk.model.PayloadData;
+import com.apptentive.android.sdk.model.PayloadType;
+import com.apptentive.android.sdk.network.HttpRequestManager;
+import com.apptentive.android.sdk.network.HttpRequestMethod;
+import com.apptentive.android.sdk.network.HttpRequestRetryPolicyDefault;
+import com.apptentive.android.sdk.network.MockApptentiveServer;
+import com.apptentive.android.sdk.network.MockApptentiveServer.RecordedRequest;
+import com.apptentive.android.sdk.util.threading.MockDispatchQueue;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.apptentive.android.sdk.network.MockApptentiveServer.CONNECTION_ERROR;
+import static com.apptentive.android.sdk.network.MockApptentiveServer.PATH_PAYLOADS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PayloadSenderLoadTest extends LogicTestCaseBase {
+	private MockDispatchQueue networkQueue;
+	private HttpRequestManager requestManager;
+
+	@Before
+	public void setUp() throws Exception {
+		super.setUp();
+		networkQueue = new MockDispatchQueue(false);
+		requestManager = new HttpRequestManager(networkQueue);
+	}
+
+	@After
+	public void tearDown() {
+		requestManager.cancelAll();
+		super.tearDown();
+	}
+
+	@Test
+	public void testDrainPayloadsWithRetries() throws Exception {
+		MockApptentiveServer server = new MockApptentiveServer();
+		server.failNextRequests(PATH_PAYLOADS, 3, 503);
+		server.failNextRequests(PATH_PAYLOADS, 1, CONNECTION_ERROR);
+
+		PayloadSender sender = createSender(server);
+		drainPayloads(sender, 20);
+
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; i < 20; ++i) {
+			expected.add("succeed: " + i);
+		}
+		assertResult(expected.toArray(new String[expected.size()]));
+
+		assertEquals(24, server.getRequestCount(PATH_PAYLOADS)); // 20 payloads + 4 retries
+		assertEquals(createPayloadBodies(20), getDeliveredBodies(server));
+	}
+
+	@Test
+	public void testRejectedPayloadIsNotRetried() throws Exception {
+		MockApptentiveServer server = new MockApptentiveServer();
+		server.failNextRequests(PATH_PAYLOADS, 1, 400);
+
+		PayloadSender sender = createSender(server);
+		drainPayloads(sender, 2);
+
+		assertResult(
+			"failed: 0 Unexpected response code: 400 (Client Error)",
+			"succeed: 1"
+		);
+		assertEquals(2, server.getRequestCount(PATH_PAYLOADS));
+	}
+
+	@Test
+	public void testRandomFailuresAreDeterministic() throws Exception {
+		int firstRunRequests = drainWithRandomFailures();
+		int secondRunRequests = drainWithRandomFailures();
+		assertTrue(firstRunRequests > 50);
+		assertEquals(firstRunRequests, secondRunRequests);
+	}
+
+	//region Helpers
+
+	private int drainWithRandomFailures() throws Exception {
+		MockApptentiveServer server = new MockApptentiveServer();
+		server.setFailureRate(0.3, 500, 42);
+
+		PayloadSender sender = createSender(server);
+		drainPayloads(sender, 50);
+
+		assertEquals(createPayloadBodies(50), getDeliveredBodies(server));
+		return server.getRequestCount(PATH_PAYLOADS);
+	}
+
+	private PayloadSender createSender(MockApptentiveServer server) {
+		requestManager.setTransport(server);
+
+		ApptentiveHttpClient client = new ApptentiveHttpClient("key", "signature", MockApptentiveServer.SERVER_URL, requestManager);
+		HttpRequestRetryPolicyDefault retryPolicy = new HttpRequestRetryPolicyDefault();
+		retryPolicy.setMaxRetryCount(HttpRequestRetryPolicyDefault.RETRY_COUNT_INFINITE);
+
+		PayloadSender sender = new PayloadSender(client, retryPolicy);
+		sender.setListener(new PayloadSender.Listener() {
+			@Override
+			public void onFinishSending(PayloadSender sender, PayloadData payload, boolean cancelled, String errorMessage, int responseCode, JSONObject responseData) {
+				if (cancelled) {
+					addResult("cancelled: " + payload.getNonce());
+				} else if (errorMessage != null) {
+					addResult("failed: " + payload.getNonce() + " " + errorMessage);
+				} else {
+					addResult("succeed: " + payload.getNonce());
+				}
+			}
+		});
+		return sender;
+	}
+
+	private void drainPayloads(PayloadSender sender, int count) throws Exception {
+		List<String> bodies = createPayloadBodies(count);
+		for (int i = 0; i < count; ++i) {
+			PayloadData payload = new PayloadData(PayloadType.event, String.valueOf(i), "conversation", bodies.get(i).getBytes("UTF-8"), "token", "application/json", "/conversations/conversation/events", HttpRequestMethod.POST, false);
+			assertTrue(sender.sendPayload(payload));
+			networkQueue.dispatchTasks(); // runs the request with all of its retries
+		}
+	}
+
+	private static List<String> createPayloadBodies(int count) {
+		List<String> bodies = new ArrayList<>();
+		for (int i = 0; i < count; ++i) {
+			bodies.add("{\"event\":" + i + "}");
+		}
+		return bodies;
+	}
+
+	private static List<String> getDeliveredBodies(MockApptentiveServer server) {
+		List<String> bodies = new ArrayList<>();
+		for (RecordedRequest request : server.getRequests(PATH_PAYLOADS)) {
+			if (request.getResponseCode() == 201) {
+				bodies.add(request.getBodyAsString());
+			}
+		}
+		return bodies;
+	}
+
+	//endregion
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.util.cache;
+
+import com.apptentive.android.sdk.TestCaseBase;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AttachmentDiskCacheTest extends TestCaseBase {
+
+	@Rule
+	public TemporaryFolder cacheDir = new TemporaryFolder();
+
+	@Test
+	public void testCommitPartialDownload() throws IOException {
+		AttachmentDiskCache cache = new AttachmentDiskCache(cacheDir.getRoot(), 100);
+
+		String path = getPath("a");
+		writeFile(cache.beginWrite(path), 10);
+		assertTrue(cache.isWriting(path));
+		assertFalse(new File(path).exists()); // partial downloads are not visible
+
+		assertTrue(cache.commit(path));
+		assertFalse(cache.isWriting(path));
+		assertTrue(new File(path).exists());
+		assertEquals(10, cache.getSize());
+
+		// aborted download
+		String abortedPath = getPath("b");
+		writeFile(cache.beginWrite(abortedPath), 10);
+		cache.abort(abortedPath);
+		assertFalse(cache.commit(abortedPath));
+		assertFalse(new File(abortedPath).exists());
+		assertEquals(10, cache.getSize());
+	}
+
+	@Test
+	public void testEvictLeastRecentlyUsed() throws IOException {
+		AttachmentDiskCache cache = new AttachmentDiskCache(cacheDir.getRoot(), 30);
+		download(cache, "a", 10);
+		download(cache, "b", 10);
+		download(cache, "c", 10);
+
+		assertTrue(cache.recordAccess(getPath("a")));
+		download(cache, "d", 10); // over budget: "b" is the least recently used
+
+		assertCachedFiles("a", "c", "d");
+		assertEquals(30, cache.getSize());
+
+		// files which were not committed through the cache are never evicted
+		File untracked = new File(getPath("untracked"));
+		writeFile(untracked, 50);
+		assertFalse(cache.recordAccess(untracked.getPath()));
+		download(cache, "e", 20);
+		assertCachedFiles("d", "e");
+		assertTrue(untracked.exists());
+	}
+
+	@Test
+	public void testJournalReplay() throws IOException {
+		AttachmentDiskCache cache = new AttachmentDiskCache(cacheDir.getRoot(), 30);
+		download(cache, "a", 10);
+		download(cache, "b", 10);
+		download(cache, "c", 10);
+		cache.recordAccess(getPath("a"));
+		cache.remove(getPath("c"));
+
+		// interrupted download
+		writeFile(cache.beginWrite(getPath("d")), 10);
+
+		// reopen the cache: access order and size are restored from the journal
+		cache = new AttachmentDiskCache(cacheDir.getRoot(), 30);
+		assertEquals(20, cache.getSize());
+		assertFalse(new File(getPath("d") + ".partial").exists());
+
+		download(cache, "e", 10);
+		download(cache, "f", 10); // evicts "b": "a" was accessed after it
+		assertCachedFiles("a", "e", "f");
+	}
+
+	@Test
+	public void testJournalCompaction() throws IOException {
+		AttachmentDiskCache cache = new AttachmentDiskCache(cacheDir.getRoot(), 100);
+		download(cache, "a", 10);
+		for (int i = 0; i < 3000; ++i) {
+			cache.recordAccess(getPath("a"));
+		}
+		download(cache, "b", 10);
+
+		File journal = new File(cacheDir.getRoot(), AttachmentDiskCache.JOURNAL_FILE);
+		assertTrue(journal.length() < 1000 * "READ a\n".length());
+
+		cache = new AttachmentDiskCache(cacheDir.getRoot(), 100);
+		assertEquals(20, cache.getSize());
+	}
+
+	@Test
+	public void testAdoptLegacyFiles() throws IOException {
+		final long day = 24 * 60 * 60 * 1000L;
+		File legacy1 = writeLegacyFile("3a7bd3e2360a3d29eea436fcfb7e44c7", 10, 3 * day);
+		File legacy2 = writeLegacyFile("7b9c6f1a2e4d8c0b5a3f9e1d7c2b4a6", 10, 2 * day);
+		File outgoing = writeLegacyFile("c4ca4238a0b923820dcc509a6f75849b", 10, 5 * day); // outgoing attachment copy
+
+		AttachmentDiskCache cache = new AttachmentDiskCache(cacheDir.getRoot(), 30);
+		download(cache, "a", 10);
+		assertFalse(cache.isLegacyFilesAdopted());
+
+		// only the known incoming attachments are adopted (before the tracked files in the access order)
+		cache.adoptLegacyFiles(Arrays.asList(legacy2.getPath(), legacy1.getPath(), getPath("missing"), getPath("a")));
+		assertTrue(cache.isLegacyFilesAdopted());
+		assertEquals(30, cache.getSize());
+
+		download(cache, "b", 10); // over budget: the oldest legacy file goes first
+		assertFalse(legacy1.exists());
+		assertTrue(legacy2.exists());
+		assertTrue(outgoing.exists());
+		assertCachedFiles("a", "b");
+
+		// reopen the cache: legacy files are only adopted once
+		cache = new AttachmentDiskCache(cacheDir.getRoot(), 30);
+		assertTrue(cache.isLegacyFilesAdopted());
+		assertEquals(30, cache.getSize());
+		cache.adoptLegacyFiles(Arrays.asList(outgoing.getPath()));
+		assertFalse(cache.recordAccess(outgoing.getPath()));
+
+		download(cache, "c", 10); // evicts the remaining legacy file
+		assertFalse(legacy2.exists());
+		assertTrue(outgoing.exists());
+		assertCachedFiles("a", "b", "c");
+	}
+
+	//region Helpers
+
+	private File writeLegacyFile(String name, int size, long ageMillis) throws IOException {
+		File file = new File(getPath(name));
+		writeFile(file, size);
+		assertTrue(file.setLastModified(System.currentTimeMillis() - ageMillis));
+		return file;
+	}
+
+	private void download(AttachmentDiskCache cache, String name, int size) throws IOException {
+		String path = getPath(name);
+		writeFile(cache.beginWrite(path), size);
+		assertTrue(cache.commit(path));
+	}
+
+	private void assertCachedFiles(String... expected) {
+		for (String name : new String[] { "a", "b", "c", "d", "e", "f" }) {
+			boolean cached = false;
+			for (String e : expected) {
+				cached |= e.equals(name);
+			}
+			assertEquals(name, cached, new File(getPath(name)).exists());
+		}
+	}
+
+	private String getPath(String name) {
+		return new File(cacheDir.getRoot(), name).getPath();
+	}
+
+	private static void writeFile(File file, int size) throws IOException {
+		FileOutputStream stream = new FileOutputStream(file);
+		try {
+			stream.write(new byte[size]);
+		} finally {
+			stream.close();
+		}
+	}
+
+	//endregion
+}
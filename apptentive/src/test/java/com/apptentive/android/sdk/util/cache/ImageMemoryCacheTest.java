@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.util.cache;
+
+import com.apptentive.android.sdk.TestCaseBase;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static com.apptentive.android.sdk.util.cache.ImageMemoryCache.generateMemoryCacheEntryKey;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class ImageMemoryCacheTest extends TestCaseBase {
+
+	@Test
+	public void testFindKeysForImageUri() {
+		ImageMemoryCache cache = new ImageMemoryCache(1);
+		cache.addObjectToCache(generateMemoryCacheEntryKey("file:///image", 10, 10), "small");
+		cache.addObjectToCache(generateMemoryCacheEntryKey("file:///image", 20, 20), "large");
+		cache.addObjectToCache(generateMemoryCacheEntryKey("file:///image2", 10, 10), "other");
+
+		List<String> keys = ImageMemoryCache.findCacheKeysForImageUri("file:///image", cache);
+		Collections.sort(keys);
+		assertEquals("[file:///image_10:10, file:///image_20:20]", keys.toString());
+		assertEquals(0, ImageMemoryCache.findCacheKeysForImageUri("file:///missing", cache).size());
+	}
+
+	@Test
+	public void testRemoveFromCache() {
+		ImageMemoryCache cache = new ImageMemoryCache(1);
+		cache.addObjectToCache(generateMemoryCacheEntryKey("file:///image", 10, 10), "small");
+		cache.addObjectToCache(generateMemoryCacheEntryKey("file:///image", 20, 20), "large");
+		cache.addObjectToCache(generateMemoryCacheEntryKey("file:///image2", 10, 10), "other");
+
+		ImageMemoryCache.removeFromCache("file:///image", cache);
+		assertNull(cache.getObjectFromCache(generateMemoryCacheEntryKey("file:///image", 10, 10)));
+		assertNull(cache.getObjectFromCache(generateMemoryCacheEntryKey("file:///image", 20, 20)));
+		assertNotNull(cache.getObjectFromCache(generateMemoryCacheEntryKey("file:///image2", 10, 10)));
+		assertEquals(0, cache.getKeysForImageUri("file:///image").size());
+	}
+
+	@Test
+	public void testEvictionListener() {
+		ImageMemoryCache cache = new ImageMemoryCache(1);
+		cache.setEvictionListener(new ImageMemoryCache.EvictionListener() {
+			@Override
+			public void onEntryRemoved(String key, Object value) {
+				addResult(key + "=" + value);
+			}
+		});
+		cache.addObjectToCache(generateMemoryCacheEntryKey("file:///image", 10, 10), "small");
+		cache.addObjectToCache(generateMemoryCacheEntryKey("file:///image", 10, 10), "duplicate"); // ignored
+
+		cache.evictAll();
+		assertResult("file:///image_10:10=small");
+		assertEquals(0, cache.getKeysForImageUri("file:///image").size());
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.util.image;
+
+import android.graphics.Bitmap;
+
+import com.apptentive.android.sdk.TestCaseBase;
+import com.apptentive.android.sdk.util.threading.MockDispatchQueue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+public class ImageDecodeQueueTest extends TestCaseBase {
+	private MockDispatchQueue decodeQueue;
+	private MockDispatchQueue callbackQueue;
+	private ImageDecodeQueue queue;
+
+	@Before
+	public void setUp() throws Exception {
+		super.setUp();
+		decodeQueue = new MockDispatchQueue(false);
+		callbackQueue = new MockDispatchQueue(false);
+		queue = new ImageDecodeQueue(decodeQueue, callbackQueue, new ImageDecodeQueue.Decoder() {
+			@Override
+			public Bitmap decode(String uri, String cachedFilePath, int width, int height) throws Exception {
+				addResult("decode: " + uri + " " + width + "x" + height);
+				if (uri.startsWith("corrupted")) {
+					throw new IOException("Corrupted image");
+				}
+				return null;
+			}
+		}, null);
+	}
+
+	@Test
+	public void testDeduplicateDecodes() {
+		queue.decode("image", null, 10, 10, new MockListener("1"));
+		queue.decode("image", null, 10, 10, new MockListener("2"));
+		queue.decode("image", null, 20, 20, new MockListener("3"));
+		assertEquals(2, queue.getPendingDecodeCount());
+
+		dispatchDecodes();
+		assertResult(
+			"decode: image 10x10",
+			"decode: image 20x20",
+			"notFound: 1",
+			"notFound: 2",
+			"notFound: 3"
+		);
+		assertEquals(0, queue.getPendingDecodeCount());
+
+		// finished decodes are not reused
+		queue.decode("image", null, 10, 10, new MockListener("4"));
+		dispatchDecodes();
+		assertResult("decode: image 10x10", "notFound: 4");
+	}
+
+	@Test
+	public void testCancelRequests() {
+		ImageDecodeQueue.Request request1 = queue.decode("image", null, 10, 10, new MockListener("1"));
+		queue.decode("image", null, 10, 10, new MockListener("2"));
+		ImageDecodeQueue.Request request3 = queue.decode("other", null, 10, 10, new MockListener("3"));
+
+		request1.cancel(); // the decode is still needed by the second request
+		request3.cancel(); // no more requests: the decode is cancelled
+		request3.cancel(); // no-op
+		assertEquals(1, queue.getPendingDecodeCount());
+
+		dispatchDecodes();
+		assertResult("decode: image 10x10", "notFound: 2");
+	}
+
+	@Test
+	public void testCancelWhileDecoding() {
+		ImageDecodeQueue.Request request = queue.decode("image", null, 10, 10, new MockListener("1"));
+		decodeQueue.dispatchTasks();
+		request.cancel();
+
+		// a new request for the same image should not join the cancelled decode
+		queue.decode("image", null, 10, 10, new MockListener("2"));
+		dispatchDecodes();
+		assertResult("decode: image 10x10", "decode: image 10x10", "notFound: 2");
+	}
+
+	@Test
+	public void testDecodeError() {
+		queue.decode("corrupted", null, 10, 10, new MockListener("1"));
+		queue.decode("corrupted", null, 10, 10, new MockListener("2"));
+		dispatchDecodes();
+		assertResult("decode: corrupted 10x10", "error: 1", "error: 2");
+	}
+
+	private void dispatchDecodes() {
+		decodeQueue.dispatchTasks();
+		callbackQueue.dispatchTasks();
+	}
+
+	private class MockListener implements ImageDecodeQueue.Listener {
+		private final String name;
+
+		MockListener(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public void notFound() {
+			addResult("notFound: " + name);
+		}
+
+		@Override
+		public void loadBitmap(Bitmap b) {
+			addResult("loaded: " + name);
+		}
+
+		@Override
+		public void onLoadError() {
+			addResult("error: " + name);
+		}
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.util.threading;
+
+import com.apptentive.android.sdk.TestCaseBase;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimerServiceTest extends TestCaseBase {
+
+	private TimerService service;
+	private MockDispatchQueue queue;
+
+	@Before
+	public void setUp() throws Exception {
+		super.setUp();
+		service = new TimerService("Test Timer");
+		queue = new MockDispatchQueue(true);
+	}
+
+	@Test
+	public void testFiringTimers() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(2);
+		service.schedule(queue, new CountDownTask(latch), 50, 100);
+		service.schedule(queue, new CountDownTask(latch), 60, 100);
+		assertEquals(2, service.getPendingTimerCount());
+
+		assertTrue(latch.await(1, TimeUnit.SECONDS));
+		assertEquals(0, service.getPendingTimerCount());
+		assertEquals(2, service.getFiredTimerCount());
+	}
+
+	@Test
+	public void testCancellingTimers() throws Exception {
+		final CountDownLatch cancelledLatch = new CountDownLatch(1);
+		TimerService.Timer timer = service.schedule(queue, new CountDownTask(cancelledLatch), 50, 0);
+		assertTrue(timer.cancel());
+		assertFalse(timer.cancel());
+
+		service.schedule(queue, new CountDownTask(cancelledLatch), 50, 0);
+		service.schedule(queue, new CountDownTask(cancelledLatch), 100, 0);
+		assertEquals(2, service.cancelTimers(queue));
+		assertEquals(0, service.getPendingTimerCount());
+
+		final CountDownLatch latch = new CountDownLatch(1);
+		service.schedule(queue, new CountDownTask(latch), 100, 0);
+		assertTrue(latch.await(1, TimeUnit.SECONDS));
+		assertEquals(1, cancelledLatch.getCount());
+	}
+
+	@Test
+	public void testRescheduleCancelledTask() throws Exception {
+		DispatchQueue timerQueue = new DispatchQueue("Timer Queue") {
+			@Override
+			protected void dispatch(DispatchTask task, long delayMillis) {
+				if (delayMillis > 0) {
+					service.schedule(this, task, delayMillis, 0);
+				} else {
+					assertFalse(Thread.holdsLock(service)); // tasks are dispatched outside of the lock
+					task.run();
+				}
+			}
+
+			@Override
+			public void stop() {
+			}
+
+			@Override
+			public boolean isCurrent() {
+				return false;
+			}
+		};
+
+		final CountDownLatch latch = new CountDownLatch(1);
+		DispatchTask task = new CountDownTask(latch);
+		assertTrue(timerQueue.dispatchAsyncOnce(task, 1000));
+		assertFalse(timerQueue.dispatchAsyncOnce(task, 1000));
+
+		// cancelled task is no longer scheduled
+		assertEquals(1, service.cancelTimers(timerQueue));
+		assertFalse(task.isScheduled());
+
+		// the task can be scheduled again
+		assertTrue(timerQueue.dispatchAsyncOnce(task, 1));
+		assertTrue(latch.await(1, TimeUnit.SECONDS));
+	}
+
+	private static class CountDownTask extends DispatchTask {
+		private final CountDownLatch latch;
+
+		CountDownTask(CountDownLatch latch) {
+			this.latch = latch;
+		}
+
+		@Override
+		protected void execute() {
+			latch.countDown();
+		}
+	}
+}
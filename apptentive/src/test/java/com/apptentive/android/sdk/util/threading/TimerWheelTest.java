@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.util.threading;
+
+import com.apptentive.android.sdk.TestCaseBase;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimerWheelTest extends TestCaseBase {
+
+	private TimerWheel wheel;
+
+	@Before
+	public void setUp() throws Exception {
+		super.setUp();
+		wheel = new TimerWheel(10, 8, 0); // 10 ms tick, 80 ms first level span
+	}
+
+	@Test
+	public void testExpiration() {
+		wheel.add(new NamedEntry("a", 20));
+		wheel.add(new NamedEntry("b", 50));
+		wheel.add(new NamedEntry("c", 50));
+
+		advance(10);
+		assertResult();
+
+		advance(20);
+		assertResult("a");
+
+		advance(49);
+		assertResult();
+
+		advance(55);
+		assertResult("b", "c");
+
+		assertEquals(-1, wheel.nextExpiration());
+	}
+
+	@Test
+	public void testOverflowLevels() {
+		wheel.add(new NamedEntry("a", 100));   // second level
+		wheel.add(new NamedEntry("b", 1000));  // third level
+		wheel.add(new NamedEntry("c", 70));    // first level
+
+		advance(70);
+		assertResult("c");
+
+		advance(90);
+		assertResult();
+
+		advance(100);
+		assertResult("a");
+
+		advance(990);
+		assertResult();
+
+		advance(1000);
+		assertResult("b");
+	}
+
+	@Test
+	public void testJumpingOverMultipleLevels() {
+		wheel.add(new NamedEntry("a", 30));
+		wheel.add(new NamedEntry("b", 300));
+		wheel.add(new NamedEntry("c", 3000));
+
+		advance(5000);
+		assertResult("a", "b", "c");
+	}
+
+	@Test
+	public void testAddingExpiredEntries() {
+		assertFalse(wheel.add(new NamedEntry("a", 0)));
+		assertFalse(wheel.add(new NamedEntry("a", 9)));
+		assertTrue(wheel.add(new NamedEntry("a", 10)));
+	}
+
+	@Test
+	public void testRemovingEntries() {
+		NamedEntry a = new NamedEntry("a", 20);
+		NamedEntry b = new NamedEntry("b", 200);
+		wheel.add(a);
+		wheel.add(b);
+		wheel.add(new NamedEntry("c", 20));
+
+		assertTrue(a.remove());
+		assertFalse(a.remove());
+		assertTrue(b.remove());
+
+		advance(1000);
+		assertResult("c");
+	}
+
+	@Test
+	public void testNextExpiration() {
+		wheel.add(new NamedEntry("a", 35));
+		assertEquals(30, wheel.nextExpiration()); // rounded down to the tick
+
+		wheel.add(new NamedEntry("b", 25));
+		assertEquals(20, wheel.nextExpiration());
+	}
+
+	@Test
+	public void testResolvingExpirationWithTolerance() {
+		// deadlines within the same tolerance window share the same expiration
+		long expiration = TimerService.resolveExpiration(1000, 0);
+		assertTrue(expiration >= 1000);
+
+		long first = TimerService.resolveExpiration(5001, 500);
+		long second = TimerService.resolveExpiration(5100, 500);
+		assertEquals(first, second);
+		assertTrue(first >= 5100);
+		assertTrue(first <= 5001 + 500);
+	}
+
+	//region Helpers
+
+	private void advance(long time) {
+		List<TimerWheel.Entry> expired = new ArrayList<>();
+		wheel.advance(time, expired);
+		for (TimerWheel.Entry entry : expired) {
+			addResult(((NamedEntry) entry).name);
+		}
+	}
+
+	private static class NamedEntry extends TimerWheel.Entry {
+		final String name;
+
+		NamedEntry(String name, long expirationMillis) {
+			super(expirationMillis);
+			this.name = name;
+		}
+	}
+
+	//endregion
+}
@@ -0,0 +1,471 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.network;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * In-process stand-in for the Apptentive API: plugged into a {@link HttpRequestManager} as a
+ * {@link HttpTransport} so the requests never leave the process. Emulates the conversation,
+ * interactions, messages and payload endpoints, records every request and supports latency and
+ * error injection for deterministic load tests.
+ */
+public class MockApptentiveServer implements HttpTransport {
+	public static final String SERVER_URL = "https://api.apptentive.mock";
+
+	public static final String PATH_CONVERSATION = "/conversation";
+	public static final String PATH_INTERACTIONS = "/conversations/[^/]+/interactions";
+	public static final String PATH_MESSAGES = "/conversations/[^/]+/messages";
+	public static final String PATH_CONFIGURATION = "/conversations/[^/]+/configuration";
+	public static final String PATH_PAYLOADS = "/conversations/[^/]+/(person|device|app_release|events|messages|surveys/[^/]+/responses|session)";
+
+	/**
+	 * Response code for the injected connection errors
+	 */
+	public static final int CONNECTION_ERROR = -1;
+
+	private final List<Route> routes = new ArrayList<>();
+	private final List<Fault> faults = new ArrayList<>();
+	private final List<RecordedRequest> requests = new ArrayList<>();
+	private final AtomicInteger nextId = new AtomicInteger(1);
+
+	private volatile long latencyMillis;
+	private volatile boolean networkConnectionPresent = true;
+
+	private Random failureRandom;
+	private double failureRate;
+	private int failureResponseCode;
+
+	private volatile String manifest = "{\"interactions\":[],\"targets\":{}}";
+	private volatile String messages = "{\"messages\":[],\"has_more\":false}";
+
+	public MockApptentiveServer() {
+		// payloads go first: more specific routes below take precedence
+		addRoute(null, PATH_PAYLOADS, new Handler() {
+			@Override
+			public Response handle(RecordedRequest request) {
+				return Response.json(201, "{\"id\":\"payload-" + nextId.getAndIncrement() + "\"}");
+			}
+		});
+		addRoute("POST", PATH_CONVERSATION, new Handler() {
+			@Override
+			public Response handle(RecordedRequest request) {
+				int id = nextId.getAndIncrement();
+				return Response.json(200, "{\"token\":\"token-" + id + "\",\"id\":\"conversation-" + id + "\",\"person_id\":\"person-" + id + "\",\"device_id\":\"device-" + id + "\"}");
+			}
+		});
+		addRoute("GET", PATH_INTERACTIONS, new Handler() {
+			@Override
+			public Response handle(RecordedRequest request) {
+				return Response.json(200, manifest);
+			}
+		});
+		addRoute("GET", PATH_CONFIGURATION, new Handler() {
+			@Override
+			public Response handle(RecordedRequest request) {
+				return Response.json(200, "{}");
+			}
+		});
+		addRoute("GET", PATH_MESSAGES, new Handler() {
+			@Override
+			public Response handle(RecordedRequest request) {
+				return Response.json(200, messages);
+			}
+		});
+	}
+
+	//region Configuration
+
+	/**
+	 * Adds a handler for the requests which path matches the pattern. Routes added later take
+	 * precedence over the earlier ones (including the default routes).
+	 *
+	 * @param method      - HTTP method or <code>null</code> for any method
+	 * @param pathPattern - regular expression for the URL path (without the query string)
+	 */
+	public synchronized void addRoute(String method, String pathPattern, Handler handler) {
+		if (pathPattern == null) {
+			throw new IllegalArgumentException("Path pattern is null");
+		}
+		if (handler == null) {
+			throw new IllegalArgumentException("Handler is null");
+		}
+		routes.add(0, new Route(method, Pattern.compile(pathPattern), handler));
+	}
+
+	public void setManifest(String manifest) {
+		this.manifest = manifest;
+	}
+
+	public void setMessages(String messages) {
+		this.messages = messages;
+	}
+
+	/**
+	 * Delays every response
+	 */
+	public void setLatency(long latencyMillis) {
+		this.latencyMillis = latencyMillis;
+	}
+
+	public void setNetworkConnectionPresent(boolean networkConnectionPresent) {
+		this.networkConnectionPresent = networkConnectionPresent;
+	}
+
+	/**
+	 * Fails the next <code>count</code> requests which path matches the pattern.
+	 *
+	 * @param responseCode - HTTP response code or {@link #CONNECTION_ERROR}
+	 */
+	public synchronized void failNextRequests(String pathPattern, int count, int responseCode) {
+		faults.add(new Fault(Pattern.compile(pathPattern), count, responseCode));
+	}
+
+	/**
+	 * Fails a random fraction of the requests. The random generator is seeded so the same sequence of
+	 * requests always fails the same way.
+	 */
+	public synchronized void setFailureRate(double failureRate, int responseCode, long seed) {
+		this.failureRate = failureRate;
+		this.failureResponseCode = responseCode;
+		this.failureRandom = new Random(seed);
+	}
+
+	//endregion
+
+	//region Recorded requests
+
+	public synchronized List<RecordedRequest> getRequests() {
+		return new ArrayList<>(requests);
+	}
+
+	/**
+	 * Returns the requests which path matches the pattern (in the order they were received)
+	 */
+	public synchronized List<RecordedRequest> getRequests(String pathPattern) {
+		Pattern pattern = Pattern.compile(pathPattern);
+		List<RecordedRequest> result = new ArrayList<>();
+		for (RecordedRequest request : requests) {
+			if (pattern.matcher(request.getPath()).matches()) {
+				result.add(request);
+			}
+		}
+		return result;
+	}
+
+	public int getRequestCount(String pathPattern) {
+		return getRequests(pathPattern).size();
+	}
+
+	//endregion
+
+	//region HttpTransport
+
+	@Override
+	public HttpURLConnection openConnection(URL url) throws IOException {
+		return new MockConnection(url);
+	}
+
+	@Override
+	public boolean isNetworkConnectionPresent() {
+		return networkConnectionPresent;
+	}
+
+	//endregion
+
+	//region Request handling
+
+	private Response handle(RecordedRequest request) throws IOException {
+		if (latencyMillis > 0) {
+			try {
+				Thread.sleep(latencyMillis);
+			} catch (InterruptedException e) {
+				throw new IOException("Interrupted");
+			}
+		}
+
+		Handler handler;
+		synchronized (this) {
+			requests.add(request);
+
+			int faultCode = nextFaultCode(request.getPath());
+			if (faultCode != 0) {
+				request.responseCode = faultCode;
+				if (faultCode == CONNECTION_ERROR) {
+					throw new ConnectException("Injected connection error");
+				}
+				return Response.json(faultCode, "{\"error\":\"Injected error\"}");
+			}
+
+			handler = findHandler(request.getMethod(), request.getPath());
+		}
+
+		Response response = handler != null ? handler.handle(request) : Response.json(404, "{\"error\":\"Not found\"}");
+		request.responseCode = response.code;
+		return response;
+	}
+
+	private int nextFaultCode(String path) {
+		for (Fault fault : faults) {
+			if (fault.remaining > 0 && fault.pattern.matcher(path).matches()) {
+				--fault.remaining;
+				return fault.responseCode;
+			}
+		}
+		if (failureRandom != null && failureRandom.nextDouble() < failureRate) {
+			return failureResponseCode;
+		}
+		return 0;
+	}
+
+	private Handler findHandler(String method, String path) {
+		for (Route route : routes) {
+			if ((route.method == null || route.method.equals(method)) && route.pattern.matcher(path).matches()) {
+				return route.handler;
+			}
+		}
+		return null;
+	}
+
+	//endregion
+
+	//region Connection
+
+	private class MockConnection extends HttpURLConnection {
+		private final ByteArrayOutputStream requestBody = new ByteArrayOutputStream();
+		private Response response;
+
+		MockConnection(URL url) {
+			super(url);
+		}
+
+		@Override
+		public void connect() throws IOException {
+			connected = true;
+		}
+
+		@Override
+		public void disconnect() {
+			connected = false;
+		}
+
+		@Override
+		public boolean usingProxy() {
+			return false;
+		}
+
+		@Override
+		public OutputStream getOutputStream() throws IOException {
+			return requestBody;
+		}
+
+		@Override
+		public int getResponseCode() throws IOException {
+			return getResponse().code;
+		}
+
+		@Override
+		public String getResponseMessage() throws IOException {
+			int code = getResponse().code;
+			return code < 300 ? "OK" : code < 500 ? "Client Error" : "Server Error";
+		}
+
+		@Override
+		public Map<String, List<String>> getHeaderFields() {
+			return Collections.singletonMap("Content-Type", Collections.singletonList("application/json"));
+		}
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			Response response = getResponse();
+			if (response.code >= HTTP_BAD_REQUEST) {
+				throw new IOException("Server returned HTTP response code: " + response.code);
+			}
+			return new ResponseStream(response.body);
+		}
+
+		@Override
+		public InputStream getErrorStream() {
+			return response != null && response.code >= HTTP_BAD_REQUEST ? new ByteArrayInputStream(response.body) : null;
+		}
+
+		private synchronized Response getResponse() throws IOException {
+			if (response == null) {
+				Map<String, String> headers = new HashMap<>();
+				for (Map.Entry<String, List<String>> e : getRequestProperties().entrySet()) {
+					if (e.getKey() != null && e.getValue() != null && e.getValue().size() > 0) {
+						headers.put(e.getKey(), e.getValue().get(0));
+					}
+				}
+				connect();
+				response = handle(new RecordedRequest(getRequestMethod(), url.getPath(), url.getQuery(), headers, requestBody.toByteArray()));
+			}
+			return response;
+		}
+	}
+
+	//endregion
+
+	//region Inner classes
+
+	public interface Handler {
+		Response handle(RecordedRequest request) throws IOException;
+	}
+
+	public static class Response {
+		private final int code;
+		private final byte[] body;
+
+		public Response(int code, byte[] body) {
+			this.code = code;
+			this.body = body;
+		}
+
+		public static Response json(int code, String body) {
+			try {
+				return new Response(code, body.getBytes("UTF-8"));
+			} catch (UnsupportedEncodingException e) {
+				throw new AssertionError(e);
+			}
+		}
+	}
+
+	public static class RecordedRequest {
+		private final String method;
+		private final String path;
+		private final String query;
+		private final Map<String, String> headers;
+		private final byte[] body;
+		private volatile int responseCode;
+
+		RecordedRequest(String method, String path, String query, Map<String, String> headers, byte[] body) {
+			this.method = method;
+			this.path = path;
+			this.query = query;
+			this.headers = headers;
+			this.body = body;
+		}
+
+		public String getMethod() {
+			return method;
+		}
+
+		public String getPath() {
+			return path;
+		}
+
+		public String getQuery() {
+			return query;
+		}
+
+		public String getHeader(String name) {
+			return headers.get(name);
+		}
+
+		public byte[] getBody() {
+			return body;
+		}
+
+		public String getBodyAsString() {
+			try {
+				return new String(body, "UTF-8");
+			} catch (UnsupportedEncodingException e) {
+				throw new AssertionError(e);
+			}
+		}
+
+		/**
+		 * Returns the response code sent back to the client (or {@link #CONNECTION_ERROR})
+		 */
+		public int getResponseCode() {
+			return responseCode;
+		}
+
+		@Override
+		public String toString() {
+			return method + " " + path + " " + responseCode;
+		}
+	}
+
+	/**
+	 * Response body stream which can't be read after being closed (like a connection stream)
+	 */
+	private static class ResponseStream extends FilterInputStream {
+		private volatile boolean closed;
+
+		ResponseStream(byte[] body) {
+			super(new ByteArrayInputStream(body));
+		}
+
+		@Override
+		public int read() throws IOException {
+			ensureOpen();
+			return super.read();
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			ensureOpen();
+			return super.read(b, off, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			closed = true;
+			super.close();
+		}
+
+		private void ensureOpen() throws IOException {
+			if (closed) {
+				throw new IOException("Response stream is closed");
+			}
+		}
+	}
+
+	private static class Route {
+		final String method;
+		final Pattern pattern;
+		final Handler handler;
+
+		Route(String method, Pattern pattern, Handler handler) {
+			this.method = method;
+			this.pattern = pattern;
+			this.handler = handler;
+		}
+	}
+
+	private static class Fault {
+		final Pattern pattern;
+		final int responseCode;
+		int remaining;
+
+		Fault(Pattern pattern, int remaining, int responseCode) {
+			this.pattern = pattern;
+			this.remaining = remaining;
+			this.responseCode = responseCode;
+		}
+	}
+
+	//endregion
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.network;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal in-process HTTP/1.1 server for testing real network connections: every request gets
+ * the same response and connections are kept alive unless the client asks to close them.
+ */
+public class MockHttpServer {
+	private final ServerSocket serverSocket;
+	private final List<Socket> sockets = new ArrayList<>();
+	private final AtomicInteger connectionCount = new AtomicInteger();
+	private final AtomicInteger requestCount = new AtomicInteger();
+
+	private volatile int responseCode = 200;
+	private volatile String responseBody = "{}";
+
+	public MockHttpServer() throws IOException {
+		serverSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				acceptConnections();
+			}
+		}, "Mock HTTP Server");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	public String getUrl(String path) {
+		return "http://127.0.0.1:" + serverSocket.getLocalPort() + path;
+	}
+
+	public void setResponse(int responseCode, String responseBody) {
+		this.responseCode = responseCode;
+		this.responseBody = responseBody;
+	}
+
+	/**
+	 * Returns the number of accepted TCP connections (handshakes)
+	 */
+	public int getConnectionCount() {
+		return connectionCount.get();
+	}
+
+	public int getRequestCount() {
+		return requestCount.get();
+	}
+
+	public void shutdown() {
+		try {
+			serverSocket.close();
+		} catch (IOException ignored) {
+		}
+		synchronized (sockets) {
+			for (Socket socket : sockets) {
+				try {
+					socket.close();
+				} catch (IOException ignored) {
+				}
+			}
+			sockets.clear();
+		}
+	}
+
+	//region Connections
+
+	private void acceptConnections() {
+		while (!serverSocket.isClosed()) {
+			try {
+				final Socket socket = serverSocket.accept();
+				connectionCount.incrementAndGet();
+				synchronized (sockets) {
+					sockets.add(socket);
+				}
+
+				Thread thread = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						serveConnection(socket);
+					}
+				}, "Mock HTTP Connection");
+				thread.setDaemon(true);
+				thread.start();
+			} catch (IOException e) {
+				return; // server socket was closed
+			}
+		}
+	}
+
+	private void serveConnection(Socket socket) {
+		try {
+			InputStream in = new BufferedInputStream(socket.getInputStream());
+			OutputStream out = socket.getOutputStream();
+			while (true) {
+				String requestLine = readLine(in);
+				if (requestLine == null || requestLine.isEmpty()) {
+					break; // connection closed by the client
+				}
+
+				int contentLength = 0;
+				boolean keepAlive = true;
+				String line;
+				while ((line = readLine(in)) != null && !line.isEmpty()) {
+					String header = line.toLowerCase(Locale.US);
+					if (header.startsWith("content-length:")) {
+						contentLength = Integer.parseInt(header.substring("content-length:".length()).trim());
+					} else if (header.startsWith("connection:") && header.contains("close")) {
+						keepAlive = false;
+					}
+				}
+				for (int i = 0; i < contentLength; ++i) {
+					if (in.read() == -1) {
+						return;
+					}
+				}
+				requestCount.incrementAndGet();
+
+				writeResponse(out, keepAlive);
+				if (!keepAlive) {
+					break;
+				}
+			}
+		} catch (IOException ignored) {
+		} finally {
+			try {
+				socket.close();
+			} catch (IOException ignored) {
+			}
+		}
+	}
+
+	private void writeResponse(OutputStream out, boolean keepAlive) throws IOException {
+		byte[] body = responseBody.getBytes("UTF-8");
+		String headers = "HTTP/1.1 " + responseCode + " " + (responseCode < 400 ? "OK" : "Error") + "\r\n" +
+			                 "Content-Type: application/json\r\n" +
+			                 "Content-Length: " + body.length + "\r\n" +
+			                 "Connection: " + (keepAlive ? "keep-alive" : "close") + "\r\n" +
+			                 "\r\n";
+		out.write(headers.getBytes("US-ASCII"));
+		out.write(body);
+		out.flush();
+	}
+
+	private static String readLine(InputStream in) throws IOException {
+		ByteArrayOutputStream line = new ByteArrayOutputStream();
+		int b;
+		while ((b = in.read()) != -1) {
+			if (b == '\n') {
+				break;
+			}
+			if (b != '\r') {
+				line.write(b);
+			}
+		}
+		if (b == -1 && line.size() == 0) {
+			return null;
+		}
+		return line.toString("US-ASCII");
+	}
+
+	//endregion
+}
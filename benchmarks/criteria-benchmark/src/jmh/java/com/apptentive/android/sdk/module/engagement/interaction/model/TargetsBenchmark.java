@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.module.engagement.interaction.model;
+
+import com.apptentive.android.sdk.module.engagement.logic.CriteriaState;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+
+/**
+ * Measures finding an applicable interaction for every targeted event label (what engaging each of
+ * the events would cost).
+ */
+public class TargetsBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class ParsedTargets {
+		Targets targets;
+
+		@Setup(Level.Trial)
+		public void setUp(CriteriaState state) throws Exception {
+			targets = new Targets(state.manifest.getTargets());
+		}
+	}
+
+	/**
+	 * Parses the targets JSON (done once per manifest revision)
+	 */
+	@Benchmark
+	public Targets parseTargets(CriteriaState state) throws Exception {
+		return new Targets(state.manifest.getTargets());
+	}
+
+	/**
+	 * Evaluates invocations for every event label using cached invocations
+	 */
+	@Benchmark
+	public void applicableInteractions(CriteriaState state, ParsedTargets parsed, Blackhole blackhole) {
+		for (String eventLabel : state.manifest.getEventLabels()) {
+			blackhole.consume(findApplicableInteraction(parsed.targets, eventLabel, state));
+		}
+	}
+
+	// mirrors Targets.getApplicableInteraction() without the active conversation lookup
+	private static String findApplicableInteraction(Targets targets, String eventLabel, CriteriaState state) {
+		List<Invocation> invocations = targets.getInvocations(eventLabel);
+		if (invocations != null) {
+			for (Invocation invocation : invocations) {
+				if (invocation.isCriteriaMet(state.fieldManager, false)) {
+					return invocation.getInteractionId();
+				}
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.module.engagement.logic;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures parsing criteria JSON into a clause tree.
+ */
+public class ClauseParserBenchmark {
+
+	/**
+	 * Parses criteria of every invocation in the manifest
+	 */
+	@Benchmark
+	public void parseManifestCriteria(CriteriaState state, Blackhole blackhole) throws Exception {
+		for (String criteria : state.manifest.getCriteria()) {
+			blackhole.consume(ClauseParser.parse(criteria));
+		}
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.module.engagement.logic;
+
+import com.apptentive.android.sdk.module.engagement.interaction.model.InteractionCriteria;
+import com.apptentive.android.sdk.util.IndentPrinter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures evaluating criteria of every invocation in the manifest against the conversation state.
+ */
+public class CriteriaEvaluationBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class ParsedCriteria {
+		Clause[] clauses;
+		InteractionCriteria[] criteria;
+
+		@Setup(Level.Trial)
+		public void setUp(CriteriaState state) throws Exception {
+			String[] criteriaJson = state.manifest.getCriteria();
+			clauses = new Clause[criteriaJson.length];
+			criteria = new InteractionCriteria[criteriaJson.length];
+			for (int i = 0; i < criteriaJson.length; ++i) {
+				clauses[i] = ClauseParser.parse(criteriaJson[i]);
+				criteria[i] = new InteractionCriteria(criteriaJson[i]);
+			}
+		}
+	}
+
+	/**
+	 * Evaluates pre-parsed clause trees (field lookups and operators only)
+	 */
+	@Benchmark
+	public int evaluateParsedClauses(CriteriaState state, ParsedCriteria parsed) {
+		int met = 0;
+		for (Clause clause : parsed.clauses) {
+			if (clause.evaluate(state.fieldManager, IndentPrinter.NULL)) {
+				++met;
+			}
+		}
+		return met;
+	}
+
+	/**
+	 * Parses and evaluates criteria the way an engaged event does
+	 */
+	@Benchmark
+	public int isMet(CriteriaState state, ParsedCriteria parsed) {
+		int met = 0;
+		for (InteractionCriteria criteria : parsed.criteria) {
+			if (criteria.isMet(state.fieldManager, false)) {
+				++met;
+			}
+		}
+		return met;
+	}
+
+	/**
+	 * Resolves field values used by the generated criteria
+	 */
+	@Benchmark
+	public void fieldLookup(CriteriaState state, Blackhole blackhole) {
+		FieldManager fieldManager = state.fieldManager;
+		for (String eventLabel : state.manifest.getEventLabels()) {
+			blackhole.consume(fieldManager.getValue("code_point/" + eventLabel + "/invokes/total"));
+			blackhole.consume(fieldManager.getValue("code_point/" + eventLabel + "/invokes/last_days/7"));
+		}
+		blackhole.consume(fieldManager.getValue("application/version_name"));
+		blackhole.consume(fieldManager.getValue("time_at_install/total"));
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.module.engagement.logic;
+
+import com.apptentive.android.sdk.ApptentiveLog;
+import com.apptentive.android.sdk.debug.Assert;
+import com.apptentive.android.sdk.storage.AppRelease;
+import com.apptentive.android.sdk.storage.CustomData;
+import com.apptentive.android.sdk.storage.Device;
+import com.apptentive.android.sdk.storage.EventData;
+import com.apptentive.android.sdk.storage.Person;
+import com.apptentive.android.sdk.storage.VersionHistory;
+import com.apptentive.android.sdk.util.Util;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Synthetic manifest together with a populated conversation state (event history, version history,
+ * person and device) the criteria are evaluated against.
+ */
+@State(Scope.Benchmark)
+public class CriteriaState {
+	private static final long SEED = 42;
+	private static final int VERSION_CODE = 10;
+	private static final String VERSION_NAME = "5.3.0";
+
+	@Param({"100", "500"})
+	public int eventCount;
+
+	@Param({"2", "5"})
+	public int criteriaDepth;
+
+	public SyntheticManifest manifest;
+	public FieldManager fieldManager;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		// Android logging and assertion reporting are not available on the desktop JVM
+		ApptentiveLog.overrideLogLevel(ApptentiveLog.Level.ASSERT);
+		Assert.setImp(null);
+
+		manifest = new SyntheticManifest(SEED, eventCount, criteriaDepth);
+		fieldManager = createFieldManager(manifest);
+	}
+
+	private static FieldManager createFieldManager(SyntheticManifest manifest) {
+		Random random = new Random(SEED);
+		double now = Util.currentTimeSeconds();
+
+		VersionHistory versionHistory = new VersionHistory();
+		versionHistory.updateVersionHistory(now - 60 * 86400, VERSION_CODE - 1, "5.2.0");
+		versionHistory.updateVersionHistory(now - 10 * 86400, VERSION_CODE, VERSION_NAME);
+
+		// about half of the events and interactions were recorded during the last 45 days
+		EventData eventData = new EventData();
+		for (String eventLabel : manifest.getEventLabels()) {
+			if (random.nextBoolean()) {
+				int count = 1 + random.nextInt(20);
+				for (int i = 0; i < count; ++i) {
+					eventData.storeEventForCurrentAppVersion(now - random.nextInt(45 * 86400), VERSION_CODE, VERSION_NAME, eventLabel);
+				}
+			}
+		}
+		for (String interactionId : manifest.getInteractionIds()) {
+			if (random.nextBoolean()) {
+				eventData.storeInteractionForCurrentAppVersion(now - random.nextInt(45 * 86400), VERSION_CODE, VERSION_NAME, interactionId);
+			}
+		}
+
+		Person person = new Person();
+		CustomData personData = new CustomData();
+		personData.put("plan", "premium");
+		person.setCustomData(personData);
+
+		Device device = new Device();
+		device.setOsVersion("9");
+		CustomData deviceData = new CustomData();
+		deviceData.put("build", "5.3.0-beta");
+		device.setCustomData(deviceData);
+
+		AppRelease appRelease = new AppRelease();
+		appRelease.setVersionCode(VERSION_CODE);
+		appRelease.setVersionName(VERSION_NAME);
+
+		// context is only used for app version code/name queries (not generated by the manifest)
+		return new FieldManager(null, versionHistory, eventData, person, device, appRelease);
+	}
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2020, Apptentive, Inc. All Rights Reserved.
+ * Please refer to the LICENSE file for the terms and conditions
+ * under which redistribution and use of this file is permitted.
+ */
+
+package com.apptentive.android.sdk.module.engagement.logic;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Random;
+
+/**
+ * Generates a deterministic interaction manifest which resembles production ones: many targeted
+ * event labels, several invocations per label and nested <code>$and/$or/$not</code> criteria
+ * mixing event counts, version and date-time comparisons and custom data lookups.
+ */
+public class SyntheticManifest {
+	private static final int INVOCATIONS_PER_EVENT = 2;
+
+	private final Random random;
+	private final String[] eventLabels;
+	private final String[] interactionIds;
+	private final String[] criteria;
+	private final String targets;
+
+	public SyntheticManifest(long seed, int eventCount, int criteriaDepth) throws JSONException {
+		random = new Random(seed);
+
+		eventLabels = new String[eventCount];
+		interactionIds = new String[eventCount];
+		for (int i = 0; i < eventCount; ++i) {
+			eventLabels[i] = "local#app#event_" + i;
+			interactionIds[i] = String.format("%024x", i);
+		}
+
+		criteria = new String[eventCount * INVOCATIONS_PER_EVENT];
+		JSONObject targetsJson = new JSONObject();
+		for (int i = 0; i < eventCount; ++i) {
+			JSONArray invocations = new JSONArray();
+			for (int j = 0; j < INVOCATIONS_PER_EVENT; ++j) {
+				JSONObject criteriaJson = createClause(criteriaDepth);
+				criteria[i * INVOCATIONS_PER_EVENT + j] = criteriaJson.toString();
+
+				JSONObject invocation = new JSONObject();
+				invocation.put("interaction_id", randomElement(interactionIds));
+				invocation.put("criteria", criteriaJson);
+				invocations.put(invocation);
+			}
+			targetsJson.put(eventLabels[i], invocations);
+		}
+		targets = targetsJson.toString();
+	}
+
+	//region Criteria
+
+	private JSONObject createClause(int depth) throws JSONException {
+		if (depth == 0) {
+			return createConditionalClause();
+		}
+
+		JSONObject clause = new JSONObject();
+		switch (random.nextInt(3)) {
+			case 0:
+				clause.put("$and", createChildClauses(depth - 1));
+				break;
+			case 1:
+				clause.put("$or", createChildClauses(depth - 1));
+				break;
+			default:
+				clause.put("$not", createClause(depth - 1));
+				break;
+		}
+		return clause;
+	}
+
+	private JSONArray createChildClauses(int depth) throws JSONException {
+		JSONArray children = new JSONArray();
+		int count = 2 + random.nextInt(2);
+		for (int i = 0; i < count; ++i) {
+			children.put(createClause(depth));
+		}
+		return children;
+	}
+
+	private JSONObject createConditionalClause() throws JSONException {
+		String eventLabel = randomElement(eventLabels);
+		String interactionId = randomElement(interactionIds);
+		switch (random.nextInt(9)) {
+			case 0:
+				return condition("code_point/" + eventLabel + "/invokes/total", "$gte", random.nextInt(10));
+			case 1:
+				return condition("code_point/" + eventLabel + "/invokes/last_days/" + (1 + random.nextInt(30)), "$gt", random.nextInt(5));
+			case 2:
+				return condition("interactions/" + interactionId + "/invokes/total", "$lt", 1 + random.nextInt(3));
+			case 3:
+				return condition("code_point/" + eventLabel + "/last_invoked_at/total", "$before", -86400 * (1 + random.nextInt(30)));
+			case 4:
+				return condition("time_at_install/total", "$before", -86400 * (1 + random.nextInt(30)));
+			case 5:
+				return condition("application/version_name", "$gte", version("5." + random.nextInt(6) + ".0"));
+			case 6:
+				return condition("device/os_version", "$gte", version(Integer.toString(5 + random.nextInt(6))));
+			case 7:
+				return condition("person/custom_data/plan", "$eq", random.nextBoolean() ? "premium" : "free");
+			default:
+				return condition("device/custom_data/build", "$contains", "beta");
+		}
+	}
+
+	private static JSONObject condition(String field, String operator, Object parameter) throws JSONException {
+		JSONObject test = new JSONObject();
+		test.put(operator, parameter);
+		JSONObject clause = new JSONObject();
+		clause.put(field, test);
+		return clause;
+	}
+
+	private static JSONObject version(String version) throws JSONException {
+		JSONObject json = new JSONObject();
+		json.put("_type", "version");
+		json.put("version", version);
+		return json;
+	}
+
+	//endregion
+
+	private String randomElement(String[] array) {
+		return array[random.nextInt(array.length)];
+	}
+
+	//region Getters
+
+	public String[] getEventLabels() {
+		return eventLabels;
+	}
+
+	public String[] getInteractionIds() {
+		return interactionIds;
+	}
+
+	/**
+	 * Criteria of all invocations in the manifest
+	 */
+	public String[] getCriteria() {
+		return criteria;
+	}
+
+	/**
+	 * Targets JSON (event label => invocations)
+	 */
+	public String getTargets() {
+		return targets;
+	}
+
+	//endregion
+}